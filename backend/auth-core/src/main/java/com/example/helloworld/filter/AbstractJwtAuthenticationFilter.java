@@ -3,6 +3,7 @@ package com.example.helloworld.filter;
 import com.example.helloworld.service.common.AbstractAuthGateway;
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +15,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
 
 public abstract class AbstractJwtAuthenticationFilter extends OncePerRequestFilter {
     private final AbstractAuthGateway authGateway;
@@ -47,52 +49,38 @@ public abstract class AbstractJwtAuthenticationFilter extends OncePerRequestFilt
         }
 
         String jwt = null;
-        String username = null;
-        String system = null;
+        VerifiedJwtClaims claims = null;
 
-        // 從 Authorization header 提取 Token
+        // 從 Authorization header 提取 Token，整個請求只解析、驗簽一次
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             jwt = authHeader.substring(7);
             try {
-                username = authGateway.extractUsername(domain, jwt);
-                system = authGateway.extractSystem(domain, jwt);
+                claims = authGateway.verifyToken(domain, jwt);
             } catch (Exception e) {
                 // Token 無效，繼續處理（讓後續的 Security Filter 處理）
             }
         }
 
         // 驗證 Token 和系統類型，並載入用戶權限
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String expectedSystem = domain.value();
-
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             // 檢查 Token 是否在黑名單中
             if (tokenBlacklistService.isBlacklisted(jwt)) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            if (system != null && system.equals(expectedSystem)) {
-                // 只接受 Access Token（不接受 Refresh Token）
-                String tokenType = authGateway.extractTokenType(domain, jwt);
-                if (!"access".equals(tokenType)) {
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                Boolean isValid = authGateway.validateAccessToken(domain, jwt, username);
-
-                if (isValid) {
-                    try {
-                        UserDetails userDetails = authGateway.loadUserDetails(domain, username);
-
-                        UsernamePasswordAuthenticationToken authToken =
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails, null, userDetails.getAuthorities());
-                        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    } catch (Exception e) {
-                        // 載入用戶失敗，繼續處理（讓後續的 Security Filter 處理）
-                    }
+            // 只接受本系統的 Access Token（不接受 Refresh Token）
+            if (claims.isAccessTokenFor(domain.value(), Instant.now())) {
+                try {
+                    UserDetails userDetails = authGateway.loadUserDetails(domain, claims.username());
+
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails, null, userDetails.getAuthorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                } catch (Exception e) {
+                    // 載入用戶失敗，繼續處理（讓後續的 Security Filter 處理）
                 }
             }
         }
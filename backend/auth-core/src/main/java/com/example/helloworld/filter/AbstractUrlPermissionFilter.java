@@ -3,6 +3,7 @@ package com.example.helloworld.filter;
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.CommonUrlPermission;
 import com.example.helloworld.service.common.UrlPermissionGateway;
+import com.example.helloworld.service.common.UrlPermissionMatcher;
 import com.example.helloworld.service.common.UrlPermissionPolicy;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -23,7 +24,6 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 public abstract class AbstractUrlPermissionFilter extends OncePerRequestFilter {
     private static final Log log = LogFactory.getLog(AbstractUrlPermissionFilter.class);
@@ -63,7 +63,7 @@ public abstract class AbstractUrlPermissionFilter extends OncePerRequestFilter {
         if (domain == AuthDomain.CHURCH) {
             try {
                 if (handlePermissions(
-                        getActivePermissions(domain),
+                        matcher(domain),
                         request,
                         response,
                         filterChain,
@@ -81,7 +81,7 @@ public abstract class AbstractUrlPermissionFilter extends OncePerRequestFilter {
         }
 
         if (handlePermissions(
-                getActivePermissions(domain),
+                matcher(domain),
                 request,
                 response,
                 filterChain,
@@ -94,89 +94,74 @@ public abstract class AbstractUrlPermissionFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private List<CommonUrlPermission> getActivePermissions(AuthDomain domain) {
+    private UrlPermissionMatcher matcher(AuthDomain domain) {
         UrlPermissionGateway gateway = urlPermissionGateways.get(domain);
         if (gateway == null) {
-            return List.of();
+            return UrlPermissionMatcher.empty();
         }
-        return gateway.getActivePermissions();
+        return gateway.matcher();
     }
 
     private boolean handlePermissions(
-            List<CommonUrlPermission> permissions,
+            UrlPermissionMatcher matcher,
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain,
             Authentication authentication,
             String httpMethod,
             boolean normalizePermissionCode) throws IOException, ServletException {
-        String requestPath = request.getRequestURI();
-        boolean foundUrlMatch = false;
-        boolean foundExactMatch = false;
-
-        for (CommonUrlPermission permission : permissions) {
-            if (!matchesUrlPattern(requestPath, permission.urlPattern())) {
-                continue;
-            }
-
-            foundUrlMatch = true;
-            if (permission.httpMethod() != null
-                    && !permission.httpMethod().isEmpty()
-                    && !permission.httpMethod().equalsIgnoreCase(httpMethod)) {
-                continue;
+        UrlPermissionMatcher.Match match = matcher.match(request.getRequestURI(), httpMethod);
+        CommonUrlPermission permission = match.permission();
+        if (permission == null) {
+            // URL 有符合的規則但 HTTP method 都不符合
+            if (match.urlMatched()) {
+                sendForbiddenResponse(request, response);
+                return true;
             }
+            return false;
+        }
 
-            foundExactMatch = true;
+        if (Boolean.TRUE.equals(permission.isPublic())) {
+            ensurePublicAuthentication(authentication);
+            filterChain.doFilter(request, response);
+            return true;
+        }
 
-            if (Boolean.TRUE.equals(permission.isPublic())) {
-                ensurePublicAuthentication(authentication);
-                filterChain.doFilter(request, response);
-                return true;
-            }
+        if (authentication == null
+                || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            sendUnauthorizedResponse(request, response);
+            return true;
+        }
 
-            if (authentication == null
-                    || authentication instanceof AnonymousAuthenticationToken
-                    || !authentication.isAuthenticated()) {
-                sendUnauthorizedResponse(request, response);
+        if (permission.requiredRole() != null && !permission.requiredRole().isEmpty()) {
+            boolean hasRole = authentication.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals(permission.requiredRole()));
+            if (!hasRole) {
+                sendForbiddenResponse(request, response);
                 return true;
             }
+        }
 
-            if (permission.requiredRole() != null && !permission.requiredRole().isEmpty()) {
-                boolean hasRole = authentication.getAuthorities().stream()
-                        .anyMatch(auth -> auth.getAuthority().equals(permission.requiredRole()));
-                if (!hasRole) {
-                    sendForbiddenResponse(request, response);
-                    return true;
-                }
+        if (permission.requiredPermission() != null && !permission.requiredPermission().isEmpty()) {
+            String permissionCode = permission.requiredPermission();
+            if (normalizePermissionCode && permissionCode.startsWith("PERM_")) {
+                permissionCode = permissionCode.substring(5);
             }
-
-            if (permission.requiredPermission() != null && !permission.requiredPermission().isEmpty()) {
-                String permissionCode = permission.requiredPermission();
-                if (normalizePermissionCode && permissionCode.startsWith("PERM_")) {
-                    permissionCode = permissionCode.substring(5);
-                }
-                final String normalizedCode = permissionCode.startsWith("PERM_")
-                        ? permissionCode.substring(5)
-                        : permissionCode;
-
-                boolean hasPermission = authentication.getAuthorities().stream()
-                        .anyMatch(auth -> auth.getAuthority().equals(normalizedCode));
-                if (!hasPermission) {
-                    sendForbiddenResponse(request, response);
-                    return true;
-                }
+            final String normalizedCode = permissionCode.startsWith("PERM_")
+                    ? permissionCode.substring(5)
+                    : permissionCode;
+
+            boolean hasPermission = authentication.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals(normalizedCode));
+            if (!hasPermission) {
+                sendForbiddenResponse(request, response);
+                return true;
             }
-
-            filterChain.doFilter(request, response);
-            return true;
-        }
-
-        if (foundUrlMatch && !foundExactMatch) {
-            sendForbiddenResponse(request, response);
-            return true;
         }
 
-        return false;
+        filterChain.doFilter(request, response);
+        return true;
     }
 
     private void ensurePublicAuthentication(Authentication authentication) {
@@ -192,19 +177,6 @@ public abstract class AbstractUrlPermissionFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(publicAuth);
     }
 
-    private boolean matchesUrlPattern(String url, String pattern) {
-        if (pattern == null || pattern.isEmpty()) {
-            return false;
-        }
-
-        String regex = pattern
-                .replace(".", "\\.")
-                .replace("**", ".*")
-                .replace("*", "[^/]*");
-
-        return Pattern.matches(regex, url);
-    }
-
     private void sendUnauthorizedResponse(HttpServletRequest request, HttpServletResponse response) throws IOException {
         if (request.getRequestURI().startsWith("/api/")) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -3,6 +3,8 @@ package com.example.helloworld.service.common;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -10,12 +12,20 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 public abstract class AbstractAuthGateway {
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 2048;
+    private static final Duration VERIFIED_TOKEN_CACHE_MAX_TTL = Duration.ofMinutes(5);
+
     private final Map<AuthDomain, JwtTokenGateway> jwtTokenGateways;
     private final List<AuthDomainPolicy> authDomainPolicies;
+    private final VerifiedJwtClaimsCache verifiedTokenCache =
+            new VerifiedJwtClaimsCache(VERIFIED_TOKEN_CACHE_SIZE, VERIFIED_TOKEN_CACHE_MAX_TTL);
+    private final AuthPrincipalCache principalCache;
 
     protected AbstractAuthGateway(
             List<JwtTokenGateway> jwtTokenGateways,
-            List<AuthDomainPolicy> authDomainPolicies) {
+            List<AuthDomainPolicy> authDomainPolicies,
+            AuthPrincipalCache principalCache) {
+        this.principalCache = principalCache;
         this.authDomainPolicies = authDomainPolicies.stream()
                 .sorted(Comparator.comparingInt(AuthDomainPolicy::order))
                 .toList();
@@ -45,24 +55,31 @@ public abstract class AbstractAuthGateway {
         return policy.requiresAuthentication(path);
     }
 
-    public String extractUsername(AuthDomain domain, String jwt) {
-        return jwtGateway(domain).extractUsername(jwt);
-    }
-
-    public String extractSystem(AuthDomain domain, String jwt) {
-        return jwtGateway(domain).extractSystem(jwt);
-    }
-
-    public String extractTokenType(AuthDomain domain, String jwt) {
-        return jwtGateway(domain).extractTokenType(jwt);
+    /**
+     * 取得已驗證的 claims；同一 Token 在快取有效期內不再重複解析與驗簽。
+     * Token 無效時拋出例外。
+     */
+    public VerifiedJwtClaims verifyToken(AuthDomain domain, String jwt) {
+        Instant now = Instant.now();
+        String cacheKey = VerifiedJwtClaimsCache.digest(domain, jwt);
+        VerifiedJwtClaims cached = verifiedTokenCache.get(cacheKey, now);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedJwtClaims claims = jwtGateway(domain).verify(jwt);
+        verifiedTokenCache.put(cacheKey, claims, now);
+        return claims;
     }
 
-    public boolean validateAccessToken(AuthDomain domain, String jwt, String username) {
-        return jwtGateway(domain).validateAccessToken(jwt, username);
+    /**
+     * 經由 {@link AuthPrincipalCache} 取得使用者；快取未命中才查詢 UserDetailsService。
+     */
+    public UserDetails loadUserDetails(AuthDomain domain, String username) {
+        return principalCache.get(domain, username, userDetailsService(domain)::loadUserByUsername);
     }
 
-    public UserDetails loadUserDetails(AuthDomain domain, String username) {
-        return userDetailsService(domain).loadUserByUsername(username);
+    public AuthPrincipalCache.Stats principalCacheStats() {
+        return principalCache.stats();
     }
 
     public abstract UserDetailsService userDetailsService(AuthDomain domain);
@@ -0,0 +1,141 @@
+package com.example.helloworld.service.common;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 已登入使用者的 UserDetails 快取（依 domain 分開，以 username 為 key）。
+ * JWT filter 每個請求都需要使用者的角色與權限，命中時不再查詢 user/role/permission。
+ * 使用者、角色、權限異動時由各系統的管理服務呼叫 invalidate*；TTL 作為兜底。
+ * 載入期間若發生 invalidate，該次結果不寫入快取，避免把舊資料放回去。
+ * 在交易中呼叫 invalidate* 時延後到提交後才生效：提交前清除的話，並行請求會重新載入尚未提交的舊資料並放回快取；
+ * 交易回滾則不清除。
+ */
+public class AuthPrincipalCache {
+
+    private final long ttlNanos;
+    private final int maxEntriesPerDomain;
+    private final Map<AuthDomain, DomainEntries> domains = new EnumMap<>(AuthDomain.class);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public AuthPrincipalCache(Duration ttl, int maxEntriesPerDomain) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntriesPerDomain = maxEntriesPerDomain;
+        for (AuthDomain domain : AuthDomain.values()) {
+            domains.put(domain, new DomainEntries());
+        }
+    }
+
+    public UserDetails get(AuthDomain domain, String username, Function<String, UserDetails> loader) {
+        if (ttlNanos <= 0 || maxEntriesPerDomain <= 0) {
+            missCount.incrementAndGet();
+            return loader.apply(username);
+        }
+
+        DomainEntries entries = domains.get(domain);
+        long now = System.nanoTime();
+        long generation;
+        synchronized (entries) {
+            Entry entry = entries.byUsername.get(username);
+            if (entry != null && now - entry.loadedAtNanos() < ttlNanos) {
+                hitCount.incrementAndGet();
+                return entry.userDetails();
+            }
+            generation = entries.generation;
+        }
+
+        missCount.incrementAndGet();
+        UserDetails userDetails = loader.apply(username);
+        synchronized (entries) {
+            if (entries.generation == generation) {
+                entries.byUsername.put(username, new Entry(userDetails, now));
+            }
+        }
+        return userDetails;
+    }
+
+    public void invalidate(AuthDomain domain, String username) {
+        if (username == null) {
+            return;
+        }
+        afterCommit(() -> evict(domain, username));
+    }
+
+    /**
+     * 角色或權限異動會影響多位使用者，直接清空該 domain。
+     */
+    public void invalidateDomain(AuthDomain domain) {
+        afterCommit(() -> evictDomain(domain));
+    }
+
+    private void evict(AuthDomain domain, String username) {
+        DomainEntries entries = domains.get(domain);
+        synchronized (entries) {
+            entries.generation += 1;
+            entries.byUsername.remove(username);
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    private void evictDomain(AuthDomain domain) {
+        DomainEntries entries = domains.get(domain);
+        synchronized (entries) {
+            entries.generation += 1;
+            entries.byUsername.clear();
+        }
+        invalidationCount.incrementAndGet();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (DomainEntries entries : domains.values()) {
+            synchronized (entries) {
+                size += entries.byUsername.size();
+            }
+        }
+        return new Stats(hitCount.get(), missCount.get(), invalidationCount.get(), size);
+    }
+
+    public record Stats(long hitCount, long missCount, long invalidationCount, int size) {
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+
+    private record Entry(UserDetails userDetails, long loadedAtNanos) {}
+
+    private final class DomainEntries {
+        private long generation;
+        private final Map<String, Entry> byUsername = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntriesPerDomain;
+            }
+        };
+    }
+}
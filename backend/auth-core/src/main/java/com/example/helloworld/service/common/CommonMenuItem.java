@@ -0,0 +1,16 @@
+package com.example.helloworld.service.common;
+
+public record CommonMenuItem(
+        Long id,
+        Long parentId,
+        String menuCode,
+        String menuName,
+        String icon,
+        String url,
+        Integer orderIndex,
+        String menuType,
+        String description,
+        Boolean showInDashboard,
+        String requiredPermission
+) {
+}
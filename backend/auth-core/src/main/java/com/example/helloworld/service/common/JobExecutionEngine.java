@@ -0,0 +1,285 @@
+package com.example.helloworld.service.common;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 排程任務（Job）的執行引擎，church 與 personal 共用。
+ * <ul>
+ *   <li>固定數量的 worker 執行緒，等待佇列有上限，滿了直接拒絕</li>
+ *   <li>同一個 Job 同時只允許一個排隊中或執行中的 Run（single-flight），重複觸發直接拒絕</li>
+ *   <li>執行逾時或被取消時中斷 worker 執行緒；Job 本身忽略中斷時仍佔用名額直到真正結束，避免重疊執行</li>
+ * </ul>
+ * 狀態與耗時由 {@link Listener} 回報，呼叫端據此寫入各自的執行記錄。
+ */
+public class JobExecutionEngine {
+
+    public enum State { QUEUED, RUNNING, FINISHED }
+
+    public enum Outcome { SUCCESS, FAILED, CANCELED, TIMEOUT }
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    public interface Listener {
+        /**
+         * 開始執行前於 worker 執行緒呼叫；在佇列中就被取消的 Run 不會呼叫
+         */
+        void onStart(Run run);
+
+        /**
+         * 結束後於 worker 執行緒呼叫；error 只在 FAILED 時有值
+         */
+        void onFinish(Run run, Outcome outcome, Throwable error);
+    }
+
+    private final String name;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService watchdog;
+    private final Duration defaultTimeout;
+    private final Map<Long, Run> active = new ConcurrentHashMap<>();
+
+    /**
+     * @param name           執行緒名稱前綴
+     * @param workerCount    同時執行的 Job 數
+     * @param queueCapacity  等待中的 Job 上限
+     * @param defaultTimeout 單次執行逾時；null 或 0 代表不限
+     */
+    public JobExecutionEngine(String name, int workerCount, int queueCapacity, Duration defaultTimeout) {
+        this.name = name;
+        int threads = Math.max(1, workerCount);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory(name + "-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(threadFactory(name + "-watchdog"));
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    /**
+     * 排入佇列。該 Job 已在排隊或執行中、或佇列已滿時丟出 {@link RejectedExecutionException}
+     */
+    public Run submit(Long jobId, Task task, Listener listener) {
+        Run run = new Run(jobId, listener);
+        Run existing = active.putIfAbsent(jobId, run);
+        if (existing != null) {
+            throw new RejectedExecutionException("Job 已在" + (existing.state == State.QUEUED ? "排隊" : "執行") + "中，請稍後再試");
+        }
+        run.queued = () -> execute(run, task);
+        try {
+            workers.execute(run.queued);
+        } catch (RejectedExecutionException e) {
+            active.remove(jobId, run);
+            throw new RejectedExecutionException("執行佇列已滿（" + workers.getQueue().size() + " 個等待中），請稍後再試", e);
+        }
+        return run;
+    }
+
+    /**
+     * 取消排隊中或執行中的 Run；執行中的 Run 以中斷通知，是否能立即停止取決於 Job 本身
+     */
+    public boolean cancel(Long jobId) {
+        Run run = active.get(jobId);
+        if (run == null) {
+            return false;
+        }
+        run.terminate(Outcome.CANCELED);
+        if (workers.remove(run.queued)) {
+            // 還沒輪到執行就從佇列移除，直接在這裡結束；否則由 worker 取出時處理
+            finishCanceledInQueue(run);
+        }
+        return true;
+    }
+
+    public Optional<Run> find(Long jobId) {
+        return Optional.ofNullable(active.get(jobId));
+    }
+
+    public Collection<Run> activeRuns() {
+        return List.copyOf(active.values());
+    }
+
+    public int queuedCount() {
+        return workers.getQueue().size();
+    }
+
+    public int runningCount() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * 停止接受新的 Run，等待執行中的 Run 結束
+     */
+    public void shutdown(Duration await) {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(await.toMillis(), TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            watchdog.shutdownNow();
+        }
+    }
+
+    private void execute(Run run, Task task) {
+        ScheduledFuture<?> timeout = null;
+        try {
+            synchronized (run) {
+                if (run.terminatedAs != null) {
+                    finishCanceledInQueue(run);
+                    return;
+                }
+                run.worker = Thread.currentThread();
+                run.startedAt = Instant.now();
+                run.state = State.RUNNING;
+            }
+            if (defaultTimeout != null && !defaultTimeout.isZero() && !defaultTimeout.isNegative()) {
+                timeout = watchdog.schedule(() -> run.terminate(Outcome.TIMEOUT),
+                        defaultTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            Outcome outcome = Outcome.SUCCESS;
+            Throwable error = null;
+            try {
+                run.listener.onStart(run);
+                task.run();
+            } catch (Throwable t) {
+                outcome = Outcome.FAILED;
+                error = t;
+            }
+
+            synchronized (run) {
+                run.worker = null;
+                run.finishedAt = Instant.now();
+                run.state = State.FINISHED;
+                if (run.terminatedAs != null) {
+                    outcome = run.terminatedAs;
+                    error = null;
+                }
+            }
+            // 清除逾時或取消留下的中斷旗標，避免影響 listener 與下一個 Run
+            Thread.interrupted();
+            run.listener.onFinish(run, outcome, error);
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            Thread.interrupted();
+            active.remove(run.jobId, run);
+        }
+    }
+
+    private void finishCanceledInQueue(Run run) {
+        try {
+            synchronized (run) {
+                run.finishedAt = Instant.now();
+                run.state = State.FINISHED;
+            }
+            run.listener.onFinish(run, Outcome.CANCELED, null);
+        } finally {
+            active.remove(run.jobId, run);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return name + "[running=" + runningCount() + ", queued=" + queuedCount() + "]";
+    }
+
+    /**
+     * 單次執行；時間欄位供呼叫端計算排隊與執行耗時
+     */
+    public static final class Run {
+        private final Long jobId;
+        private final Listener listener;
+        private final Instant queuedAt = Instant.now();
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile State state = State.QUEUED;
+        private Outcome terminatedAs;
+        private Thread worker;
+        private volatile Runnable queued;
+
+        private Run(Long jobId, Listener listener) {
+            this.jobId = jobId;
+            this.listener = listener;
+        }
+
+        private synchronized void terminate(Outcome reason) {
+            if (state == State.FINISHED || terminatedAs != null) {
+                return;
+            }
+            terminatedAs = reason;
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+
+        public Long getJobId() {
+            return jobId;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public Instant getQueuedAt() {
+            return queuedAt;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        /**
+         * 從排入佇列到開始執行的等待時間；尚未開始時算到現在
+         */
+        public Duration getQueueWait() {
+            Instant start = startedAt;
+            return Duration.between(queuedAt, start != null ? start : Instant.now());
+        }
+
+        /**
+         * 執行耗時；尚未結束時算到現在，尚未開始時為 0
+         */
+        public Duration getDuration() {
+            Instant start = startedAt;
+            if (start == null) {
+                return Duration.ZERO;
+            }
+            Instant end = finishedAt;
+            return Duration.between(start, end != null ? end : Instant.now());
+        }
+    }
+}
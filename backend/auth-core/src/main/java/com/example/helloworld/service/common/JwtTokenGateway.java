@@ -3,11 +3,9 @@ package com.example.helloworld.service.common;
 public interface JwtTokenGateway {
     AuthDomain domain();
 
-    String extractUsername(String jwt);
-
-    String extractSystem(String jwt);
-
-    String extractTokenType(String jwt);
-
-    boolean validateAccessToken(String jwt, String username);
+    /**
+     * 解析並驗證簽章（含過期檢查），一次取得所有需要的 claims。
+     * Token 無效時拋出例外。
+     */
+    VerifiedJwtClaims verify(String jwt);
 }
@@ -0,0 +1,147 @@
+package com.example.helloworld.service.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 啟用中選單的不可變兩層樹（根選單與其子選單）。
+ * 建樹後不再查詢資料庫，讀取時才依使用者權限過濾；
+ * 內容指紋由所有選單欄位計算，搭配過濾結果產生 ETag，內容與可見範圍不變時 ETag 也不變。
+ */
+public final class MenuTree {
+
+    private static final Comparator<CommonMenuItem> ORDER = Comparator
+            .comparing((CommonMenuItem item) -> item.orderIndex() == null ? 0 : item.orderIndex())
+            .thenComparing(CommonMenuItem::id, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final List<Node> roots;
+    private final String fingerprint;
+
+    private MenuTree(List<Node> roots, String fingerprint) {
+        this.roots = roots;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @param items 所有啟用中的選單；子選單不論類型都掛在其根選單下
+     */
+    public static MenuTree build(List<CommonMenuItem> items) {
+        List<CommonMenuItem> sorted = new ArrayList<>(items);
+        sorted.sort(ORDER);
+
+        Map<Long, List<Node>> childrenByParent = new HashMap<>();
+        for (CommonMenuItem item : sorted) {
+            if (item.parentId() != null) {
+                childrenByParent.computeIfAbsent(item.parentId(), key -> new ArrayList<>()).add(Node.of(item, List.of()));
+            }
+        }
+
+        List<Node> roots = new ArrayList<>();
+        MessageDigest digest = sha256();
+        for (CommonMenuItem item : sorted) {
+            digest.update(item.toString().getBytes(StandardCharsets.UTF_8));
+            if (item.parentId() == null) {
+                roots.add(Node.of(item, childrenByParent.getOrDefault(item.id(), List.of())));
+            }
+        }
+        return new MenuTree(List.copyOf(roots), HexFormat.of().formatHex(digest.digest(), 0, 8));
+    }
+
+    /**
+     * 指定類型且使用者有權限的根選單，子選單同樣依權限過濾；menuType 為 null 時不限類型
+     */
+    public List<Node> visibleRoots(String menuType, Set<String> userPermissions) {
+        List<Node> visible = new ArrayList<>();
+        for (Node root : roots) {
+            if (menuType != null && !menuType.equals(root.menuType())) {
+                continue;
+            }
+            if (!root.isVisibleTo(userPermissions)) {
+                continue;
+            }
+            List<Node> children = root.children().stream()
+                    .filter(child -> child.isVisibleTo(userPermissions))
+                    .toList();
+            visible.add(children.size() == root.children().size() ? root : root.withChildren(children));
+        }
+        return visible;
+    }
+
+    /**
+     * 選單內容指紋加上這次回傳的選單 ID 組成的強 ETag；view 區分同一棵樹的不同呈現
+     */
+    public String etag(String view, List<Node> nodes) {
+        CRC32 crc = new CRC32();
+        crc.update(view.getBytes(StandardCharsets.UTF_8));
+        appendIds(crc, nodes);
+        return "\"" + fingerprint + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    private static void appendIds(CRC32 crc, List<Node> nodes) {
+        crc.update('[');
+        for (Node node : nodes) {
+            crc.update(String.valueOf(node.id()).getBytes(StandardCharsets.US_ASCII));
+            crc.update(',');
+            appendIds(crc, node.children());
+        }
+        crc.update(']');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Node(
+            Long id,
+            String menuCode,
+            String menuName,
+            String icon,
+            String url,
+            Integer orderIndex,
+            String menuType,
+            String description,
+            Boolean showInDashboard,
+            String permissionCode,
+            List<Node> children
+    ) {
+        static Node of(CommonMenuItem item, List<Node> children) {
+            return new Node(item.id(), item.menuCode(), item.menuName(), item.icon(), item.url(),
+                    item.orderIndex(), item.menuType(), item.description(), item.showInDashboard(),
+                    normalizePermission(item.requiredPermission()), List.copyOf(children));
+        }
+
+        /**
+         * 未設定權限（或只有 PERM_ 前綴）的選單所有人可見
+         */
+        public boolean isVisibleTo(Set<String> userPermissions) {
+            return permissionCode == null || userPermissions.contains(permissionCode);
+        }
+
+        public Node withChildren(List<Node> children) {
+            return new Node(id, menuCode, menuName, icon, url, orderIndex, menuType, description,
+                    showInDashboard, permissionCode, List.copyOf(children));
+        }
+
+        private static String normalizePermission(String requiredPermission) {
+            if (requiredPermission == null) {
+                return null;
+            }
+            String rawCode = requiredPermission.trim();
+            String normalizedCode = rawCode.startsWith("PERM_") ? rawCode.substring(5) : rawCode;
+            return normalizedCode.isEmpty() ? null : normalizedCode;
+        }
+    }
+}
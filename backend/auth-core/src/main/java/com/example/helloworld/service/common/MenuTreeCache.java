@@ -0,0 +1,54 @@
+package com.example.helloworld.service.common;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 持有單一 domain 目前生效的 {@link MenuTree}。
+ * 第一次使用時以一次查詢載入所有啟用中的選單並建樹，之後每個請求直接讀取；
+ * 選單異動時呼叫 {@link #refresh()} 遞增版本並整棵替換。
+ * 若建樹期間又發生異動，該次結果只用於當下請求，不會覆蓋較新的版本。
+ */
+public class MenuTreeCache {
+
+    private final Supplier<List<CommonMenuItem>> loader;
+    private final AtomicLong version = new AtomicLong();
+    private volatile MenuTree current;
+
+    public MenuTreeCache(Supplier<List<CommonMenuItem>> loader) {
+        this.loader = loader;
+    }
+
+    public MenuTree get() {
+        MenuTree tree = current;
+        if (tree != null) {
+            return tree;
+        }
+        return rebuild();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * 遞增版本、清除目前的選單樹並立即重建。
+     */
+    public void refresh() {
+        version.incrementAndGet();
+        current = null;
+        rebuild();
+    }
+
+    private MenuTree rebuild() {
+        long expectedVersion = version.get();
+        MenuTree tree = MenuTree.build(loader.get());
+        synchronized (this) {
+            if (version.get() == expectedVersion) {
+                current = tree;
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.helloworld.service.common;
+
+/**
+ * 選單異動後發布；對應 domain 的選單服務於交易提交後重建 {@link MenuTreeCache}。
+ */
+public record MenusChangedEvent(AuthDomain domain) {
+}
@@ -1,41 +1,203 @@
 package com.example.helloworld.service.common;
 
-import org.springframework.stereotype.Service;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Token 黑名單服務
- * 供 personal/church 共用，用於管理已撤銷的 Token。
+ * 供 personal/church/invest 共用，用於管理已撤銷的 Token。
+ *
+ * 只保存 Token 的 SHA-256 摘要與 Token 自己的到期時間：
+ * 1) 以到期時間排序的佇列每分鐘精準移除已過期的項目（過期 Token 本來就會被拒絕）。
+ * 2) 筆數有硬上限，超過時優先淘汰最早到期的項目並記錄警告。
+ * 3) 可選的 {@link TokenBlacklistStore} 讓撤銷在重啟後仍有效，並定期同步其他實例的撤銷紀錄。
  */
 public class TokenBlacklistService {
+    private static final Log log = LogFactory.getLog(TokenBlacklistService.class);
 
-    private final Set<String> blacklist = ConcurrentHashMap.newKeySet();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+    // 同步時往前多取一段，容忍各實例時鐘與交易提交時間的落差
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(2);
+
+    private final int maxEntries;
+    private final TokenBlacklistStore store;
+    private final Map<String, Instant> expiryByDigest = new HashMap<>();
+    private final PriorityQueue<Entry> expiryQueue = new PriorityQueue<>(Comparator.comparing(Entry::expiresAt));
+    private final ScheduledExecutorService scheduler;
+
+    private Instant lastSyncedAt = Instant.EPOCH;
+    private long forcedEvictionCount;
 
     public TokenBlacklistService() {
-        scheduler.scheduleAtFixedRate(this::cleanupExpiredTokens, 1, 1, TimeUnit.HOURS);
+        this(DEFAULT_MAX_ENTRIES, null);
+    }
+
+    public TokenBlacklistService(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    public TokenBlacklistService(int maxEntries, TokenBlacklistStore store) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.store = store;
+        syncFromStore(Instant.now());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-blacklist-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
-    public void addToBlacklist(String token) {
-        blacklist.add(token);
+    /**
+     * @param expiresAt Token 本身的到期時間；到期後不需要再記錄
+     */
+    public void addToBlacklist(String token, Instant expiresAt) {
+        if (token == null || token.isEmpty()) {
+            return;
+        }
+        if (expiresAt == null) {
+            throw new IllegalArgumentException("Token 缺少到期時間，無法加入黑名單");
+        }
+        Instant now = Instant.now();
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+
+        String digest = digest(token);
+        put(digest, expiresAt, now);
+        if (store != null) {
+            try {
+                store.save(digest, expiresAt, now);
+            } catch (Exception e) {
+                log.warn("Token 黑名單寫入持久層失敗，僅保留於本機記憶體: " + e.getMessage());
+            }
+        }
     }
 
     public boolean isBlacklisted(String token) {
-        return blacklist.contains(token);
+        if (token == null || token.isEmpty()) {
+            return false;
+        }
+        String digest = digest(token);
+        Instant expiresAt;
+        synchronized (this) {
+            expiresAt = expiryByDigest.get(digest);
+        }
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    public synchronized int size() {
+        return expiryByDigest.size();
     }
 
-    private void cleanupExpiredTokens() {
-        if (blacklist.size() > 10000) {
-            blacklist.clear();
+    /**
+     * 因超過容量上限而提前移除（尚未到期）的筆數
+     */
+    public synchronized long forcedEvictionCount() {
+        return forcedEvictionCount;
+    }
+
+    public synchronized void clearBlacklist() {
+        expiryByDigest.clear();
+        expiryQueue.clear();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private synchronized void put(String digest, Instant expiresAt, Instant now) {
+        Instant existing = expiryByDigest.get(digest);
+        if (existing != null && !expiresAt.isAfter(existing)) {
+            return;
+        }
+        expiryByDigest.put(digest, expiresAt);
+        expiryQueue.add(new Entry(digest, expiresAt));
+
+        if (expiryByDigest.size() > maxEntries) {
+            removeExpired(now);
+        }
+        while (expiryByDigest.size() > maxEntries) {
+            Entry eldest = expiryQueue.poll();
+            if (eldest != null && removeIfCurrent(eldest)) {
+                forcedEvictionCount += 1;
+                log.warn("Token 黑名單已達上限 " + maxEntries + " 筆，提前移除最早到期的項目");
+            }
         }
     }
 
-    public void clearBlacklist() {
-        blacklist.clear();
+    private void sweep() {
+        Instant now = Instant.now();
+        try {
+            synchronized (this) {
+                removeExpired(now);
+            }
+            syncFromStore(now);
+            if (store != null) {
+                store.deleteExpired(now);
+            }
+        } catch (Exception e) {
+            log.warn("Token 黑名單清理失敗: " + e.getMessage());
+        }
     }
+
+    private void removeExpired(Instant now) {
+        while (!expiryQueue.isEmpty() && !expiryQueue.peek().expiresAt().isAfter(now)) {
+            removeIfCurrent(expiryQueue.poll());
+        }
+    }
+
+    /**
+     * 同一摘要重複加入時佇列會有舊項目，只有到期時間一致才代表是目前的紀錄。
+     */
+    private boolean removeIfCurrent(Entry entry) {
+        if (entry.expiresAt().equals(expiryByDigest.get(entry.digest()))) {
+            expiryByDigest.remove(entry.digest());
+            return true;
+        }
+        return false;
+    }
+
+    private void syncFromStore(Instant now) {
+        if (store == null) {
+            return;
+        }
+        Instant since = lastSyncedAt.equals(Instant.EPOCH) ? Instant.EPOCH : lastSyncedAt.minus(SYNC_OVERLAP);
+        try {
+            List<TokenBlacklistStore.RevokedToken> revoked = store.findRevokedSince(since, now);
+            for (TokenBlacklistStore.RevokedToken token : revoked) {
+                put(token.tokenDigest(), token.expiresAt(), now);
+            }
+            lastSyncedAt = now;
+        } catch (Exception e) {
+            log.warn("Token 黑名單自持久層同步失敗: " + e.getMessage());
+        }
+    }
+
+    private record Entry(String digest, Instant expiresAt) {}
 }
@@ -0,0 +1,26 @@
+package com.example.helloworld.service.common;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Token 黑名單的持久化後端（選用）。
+ * 只保存 token 的 SHA-256 摘要（64 字元 hex）與 token 本身的到期時間，不保存原始 JWT。
+ * 讓撤銷在重啟後仍有效，並可透過共用資料庫在多個實例之間同步。
+ */
+public interface TokenBlacklistStore {
+
+    void save(String tokenDigest, Instant expiresAt, Instant revokedAt);
+
+    /**
+     * 取得 revokedAt 晚於 since 且尚未到期的撤銷紀錄。
+     */
+    List<RevokedToken> findRevokedSince(Instant since, Instant now);
+
+    /**
+     * @return 刪除的筆數
+     */
+    int deleteExpired(Instant now);
+
+    record RevokedToken(String tokenDigest, Instant expiresAt, Instant revokedAt) {}
+}
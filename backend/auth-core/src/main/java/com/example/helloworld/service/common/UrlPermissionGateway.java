@@ -1,9 +1,10 @@
 package com.example.helloworld.service.common;
 
-import java.util.List;
-
 public interface UrlPermissionGateway {
     AuthDomain domain();
 
-    List<CommonUrlPermission> getActivePermissions();
+    /**
+     * 目前生效的 URL 權限比對索引；實作應快取，規則異動時才重建。
+     */
+    UrlPermissionMatcher matcher();
 }
@@ -0,0 +1,251 @@
+package com.example.helloworld.service.common;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 預先編譯的 URL 權限比對索引（不可變，整棵樹建好後才替換上線）。
+ *
+ * 規則依路徑片段建成 trie：
+ * 1) 純文字片段走 HashMap 子節點。
+ * 2) 只含單一 * 的片段是片段萬用節點（不跨 /），預先編譯成 Pattern。
+ * 3) 含 ** 或其他 regex 字元的片段起，剩餘路徑改用預先編譯的 tail regex 比對。
+ * 每個終點以 HTTP method 表記錄「最先出現」的規則，比對結果與逐條線性掃描相同：
+ * 取順序最前、URL 與 method 都符合的規則；只有 URL 符合時回傳 urlMatched。
+ * 萬用字元轉 regex 的方式與原本的線性比對完全一致。
+ */
+public final class UrlPermissionMatcher {
+    private static final Log log = LogFactory.getLog(UrlPermissionMatcher.class);
+
+    private static final String REGEX_META = "?+()[]{}|^$\\";
+    private static final UrlPermissionMatcher EMPTY = new UrlPermissionMatcher(new Node(), 0);
+
+    private final Node root;
+    private final int ruleCount;
+
+    private UrlPermissionMatcher(Node root, int ruleCount) {
+        this.root = root;
+        this.ruleCount = ruleCount;
+    }
+
+    public static UrlPermissionMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param permissions 已依優先順序排序的啟用規則
+     */
+    public static UrlPermissionMatcher compile(List<CommonUrlPermission> permissions) {
+        Node root = new Node();
+        int order = 0;
+        int ruleCount = 0;
+        for (CommonUrlPermission permission : permissions) {
+            int ruleOrder = order++;
+            String urlPattern = permission.urlPattern();
+            if (urlPattern == null || urlPattern.isEmpty()) {
+                continue;
+            }
+            try {
+                insert(root, urlPattern, new Rule(ruleOrder, permission));
+                ruleCount += 1;
+            } catch (PatternSyntaxException e) {
+                log.warn("略過無法編譯的 URL 權限規則: " + urlPattern + " (" + e.getDescription() + ")");
+            }
+        }
+        return new UrlPermissionMatcher(root, ruleCount);
+    }
+
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    public Match match(String path, String httpMethod) {
+        if (path == null) {
+            return Match.NONE;
+        }
+        String[] segments = path.split("/", -1);
+        int[] offsets = new int[segments.length];
+        int offset = 0;
+        for (int i = 0; i < segments.length; i++) {
+            offsets[i] = offset;
+            offset += segments[i].length() + 1;
+        }
+
+        Accumulator accumulator = new Accumulator(httpMethod == null ? "" : httpMethod.toUpperCase(Locale.ROOT));
+        walk(root, path, segments, offsets, 0, accumulator);
+        if (accumulator.best != null) {
+            return new Match(accumulator.best.permission(), true);
+        }
+        return accumulator.urlMatched ? Match.URL_ONLY : Match.NONE;
+    }
+
+    private static void walk(Node node, String path, String[] segments, int[] offsets, int index, Accumulator accumulator) {
+        if (index < segments.length) {
+            // tail regex 需要目前片段存在（原 regex 在前綴後一定接著 /）
+            if (!node.tails.isEmpty()) {
+                String remainder = path.substring(offsets[index]);
+                for (Tail tail : node.tails.values()) {
+                    if (tail.pattern.matcher(remainder).matches()) {
+                        accumulator.accept(tail.methods);
+                    }
+                }
+            }
+
+            String segment = segments[index];
+            Node literal = node.literalChildren.get(segment);
+            if (literal != null) {
+                walk(literal, path, segments, offsets, index + 1, accumulator);
+            }
+            for (WildcardChild child : node.wildcardChildren) {
+                if (child.pattern == null || child.pattern.matcher(segment).matches()) {
+                    walk(child.node, path, segments, offsets, index + 1, accumulator);
+                }
+            }
+        } else if (node.terminal != null) {
+            accumulator.accept(node.terminal);
+        }
+    }
+
+    private static void insert(Node root, String urlPattern, Rule rule) {
+        String[] segments = urlPattern.split("/", -1);
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.contains("**") || containsRegexMeta(segment)) {
+                String remainder = String.join("/", Arrays.copyOfRange(segments, i, segments.length));
+                node.tails.computeIfAbsent(remainder, key -> new Tail(Pattern.compile(toRegex(key))))
+                        .methods.add(rule);
+                return;
+            }
+            if (segment.contains("*")) {
+                node = node.wildcardChild(segment);
+            } else {
+                node = node.literalChildren.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        if (node.terminal == null) {
+            node.terminal = new MethodTable();
+        }
+        node.terminal.add(rule);
+    }
+
+    private static boolean containsRegexMeta(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_META.indexOf(segment.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 與原本線性比對相同的轉換規則（含替換順序），確保既有規則的比對結果不變。
+     */
+    private static String toRegex(String pattern) {
+        return pattern
+                .replace(".", "\\.")
+                .replace("**", ".*")
+                .replace("*", "[^/]*");
+    }
+
+    /**
+     * @param permission 命中的規則；null 代表沒有 URL 與 method 同時符合的規則
+     * @param urlMatched 是否有任何規則的 URL 符合（僅 method 不符時應回 403）
+     */
+    public record Match(CommonUrlPermission permission, boolean urlMatched) {
+        private static final Match NONE = new Match(null, false);
+        private static final Match URL_ONLY = new Match(null, true);
+    }
+
+    private record Rule(int order, CommonUrlPermission permission) {}
+
+    private static final class Node {
+        private final Map<String, Node> literalChildren = new HashMap<>();
+        private final List<WildcardChild> wildcardChildren = new ArrayList<>();
+        private final Map<String, Tail> tails = new LinkedHashMap<>();
+        private MethodTable terminal;
+
+        private Node wildcardChild(String segment) {
+            for (WildcardChild child : wildcardChildren) {
+                if (child.segment.equals(segment)) {
+                    return child.node;
+                }
+            }
+            // 單獨的 * 可比對任何片段，不需要 regex
+            Pattern pattern = "*".equals(segment) ? null : Pattern.compile(toRegex(segment));
+            WildcardChild child = new WildcardChild(segment, pattern, new Node());
+            wildcardChildren.add(child);
+            return child.node;
+        }
+    }
+
+    private record WildcardChild(String segment, Pattern pattern, Node node) {}
+
+    private static final class Tail {
+        private final Pattern pattern;
+        private final MethodTable methods = new MethodTable();
+
+        private Tail(Pattern pattern) {
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * 同一個 URL 終點上，每個 HTTP method 只需要保留順序最前的規則；
+     * 未指定 method 的規則另外保存，比對時兩者取順序較前者。
+     */
+    private static final class MethodTable {
+        private final Map<String, Rule> byMethod = new HashMap<>();
+        private Rule anyMethod;
+
+        private void add(Rule rule) {
+            String method = rule.permission().httpMethod();
+            if (method == null || method.isEmpty()) {
+                if (anyMethod == null) {
+                    anyMethod = rule;
+                }
+                return;
+            }
+            byMethod.putIfAbsent(method.toUpperCase(Locale.ROOT), rule);
+        }
+
+        private Rule resolve(String httpMethod) {
+            Rule specific = byMethod.get(httpMethod);
+            if (specific == null) {
+                return anyMethod;
+            }
+            if (anyMethod == null) {
+                return specific;
+            }
+            return specific.order() < anyMethod.order() ? specific : anyMethod;
+        }
+    }
+
+    private static final class Accumulator {
+        private final String httpMethod;
+        private Rule best;
+        private boolean urlMatched;
+
+        private Accumulator(String httpMethod) {
+            this.httpMethod = httpMethod;
+        }
+
+        private void accept(MethodTable table) {
+            urlMatched = true;
+            Rule candidate = table.resolve(httpMethod);
+            if (candidate != null && (best == null || candidate.order() < best.order())) {
+                best = candidate;
+            }
+        }
+    }
+}
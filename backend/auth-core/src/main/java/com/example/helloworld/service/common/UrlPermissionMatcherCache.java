@@ -0,0 +1,50 @@
+package com.example.helloworld.service.common;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 持有單一 domain 目前生效的 {@link UrlPermissionMatcher}。
+ * 第一次使用時載入規則並編譯，之後每個請求直接讀取；規則異動時呼叫 {@link #refresh()}
+ * 重新編譯後整棵替換，請求端不會看到建到一半的索引。
+ * 若編譯期間又發生異動，該次結果只用於當下請求，不會覆蓋較新的狀態。
+ */
+public class UrlPermissionMatcherCache {
+
+    private final Supplier<List<CommonUrlPermission>> loader;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile UrlPermissionMatcher current;
+
+    public UrlPermissionMatcherCache(Supplier<List<CommonUrlPermission>> loader) {
+        this.loader = loader;
+    }
+
+    public UrlPermissionMatcher get() {
+        UrlPermissionMatcher matcher = current;
+        if (matcher != null) {
+            return matcher;
+        }
+        return rebuild();
+    }
+
+    /**
+     * 清除目前的索引並立即重新編譯。
+     */
+    public void refresh() {
+        generation.incrementAndGet();
+        current = null;
+        rebuild();
+    }
+
+    private UrlPermissionMatcher rebuild() {
+        long expectedGeneration = generation.get();
+        UrlPermissionMatcher matcher = UrlPermissionMatcher.compile(loader.get());
+        synchronized (this) {
+            if (generation.get() == expectedGeneration) {
+                current = matcher;
+            }
+        }
+        return matcher;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.helloworld.service.common;
+
+/**
+ * URL 權限規則異動後發布；對應 domain 的 {@link UrlPermissionGateway} 於交易提交後重建比對索引。
+ */
+public record UrlPermissionsChangedEvent(AuthDomain domain) {
+}
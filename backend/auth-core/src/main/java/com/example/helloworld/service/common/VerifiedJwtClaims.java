@@ -0,0 +1,27 @@
+package com.example.helloworld.service.common;
+
+import java.time.Instant;
+
+/**
+ * 已完成簽章驗證的 JWT claims；每個請求只解析一次，後續判斷都讀這個物件。
+ */
+public record VerifiedJwtClaims(
+        String username,
+        String system,
+        String tokenType,
+        Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt == null || !expiresAt.isAfter(now);
+    }
+
+    /**
+     * 只接受指定系統、尚未過期的 Access Token（不接受 Refresh Token）。
+     */
+    public boolean isAccessTokenFor(String expectedSystem, Instant now) {
+        return username != null
+                && expectedSystem.equals(system)
+                && "access".equals(tokenType)
+                && !isExpired(now);
+    }
+}
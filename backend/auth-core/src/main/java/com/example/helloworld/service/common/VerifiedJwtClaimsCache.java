@@ -0,0 +1,71 @@
+package com.example.helloworld.service.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 最近驗證過的 Token 快取：以 domain + Token 的 SHA-256 摘要為 key，保存到 Token 過期為止，
+ * 另以 maxTtl 限制單筆最長存活時間，讓簽章金鑰輪替後舊 Token 最晚 maxTtl 內重新驗證。
+ * 容量固定，超過時淘汰最久未使用的項目。黑名單不在快取範圍內，仍由呼叫端每次檢查。
+ */
+final class VerifiedJwtClaimsCache {
+
+    private final int maxEntries;
+    private final Duration maxTtl;
+    private final Map<String, Entry> entries;
+
+    VerifiedJwtClaimsCache(int maxEntries, Duration maxTtl) {
+        this.maxEntries = maxEntries;
+        this.maxTtl = maxTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerifiedJwtClaimsCache.this.maxEntries;
+            }
+        };
+    }
+
+    static String digest(AuthDomain domain, String jwt) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(domain.value().getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) ':');
+            return HexFormat.of().formatHex(messageDigest.digest(jwt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    VerifiedJwtClaims get(String key, Instant now) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.validUntil().isAfter(now)) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.claims();
+        }
+    }
+
+    void put(String key, VerifiedJwtClaims claims, Instant now) {
+        if (maxEntries <= 0 || claims.isExpired(now)) {
+            return;
+        }
+        Instant ttlLimit = now.plus(maxTtl);
+        Instant validUntil = claims.expiresAt().isBefore(ttlLimit) ? claims.expiresAt() : ttlLimit;
+        synchronized (entries) {
+            entries.put(key, new Entry(claims, validUntil));
+        }
+    }
+
+    private record Entry(VerifiedJwtClaims claims, Instant validUntil) {}
+}
@@ -5,6 +5,8 @@ import com.example.helloworld.scheduler.church.ActivityExpirationScheduler;
 import com.example.helloworld.scheduler.church.SundayMessageExpirationScheduler;
 import com.example.helloworld.scheduler.church.ImageCleanupScheduler;
 import com.example.helloworld.scheduler.church.DatabaseBackupScheduler;
+import com.example.helloworld.scheduler.church.AttendanceRollupScheduler;
+import com.example.helloworld.service.church.AttendanceRollupService;
 import com.example.helloworld.service.church.ChurchScheduledJobService;
 import com.example.helloworld.service.church.ConfigurationRefreshService;
 import com.example.helloworld.service.church.seed.ChurchAuthorizationSeedRunner;
@@ -44,9 +46,15 @@ public class HelloWorldApplication implements CommandLineRunner {
     @Qualifier("churchDatabaseBackupScheduler")
     private DatabaseBackupScheduler databaseBackupScheduler;
 
+    @Autowired
+    private AttendanceRollupScheduler attendanceRollupScheduler;
+
     @Autowired
     private ConfigurationRefreshService configurationRefreshService;
 
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
     @Autowired
     private ChurchAuthorizationSeedRunner churchAuthorizationSeedRunner;
 
@@ -73,6 +81,13 @@ public class HelloWorldApplication implements CommandLineRunner {
             log.error("❌ 初始化 Church 權限/菜單資源失敗", e);
         }
 
+        // 出席率週彙總為空時回填（失敗時出席率改由原始簽到計算）
+        try {
+            attendanceRollupService.rebuildIfEmpty();
+        } catch (Exception e) {
+            log.error("❌ 出席率週彙總回填失敗", e);
+        }
+
         initializeChurchJobs();
     }
 
@@ -104,6 +119,11 @@ public class HelloWorldApplication implements CommandLineRunner {
             databaseBackupScheduler.getDatabaseBackupJob()
         );
 
+        churchScheduledJobService.registerJobExecutor(
+            "com.example.helloworld.scheduler.church.AttendanceRollupScheduler$AttendanceRollupJob",
+            attendanceRollupScheduler.getAttendanceRollupJob()
+        );
+
         churchScheduledJobService.initializeJobs();
         log.info("✅ Church 動態排程初始化完成");
     }
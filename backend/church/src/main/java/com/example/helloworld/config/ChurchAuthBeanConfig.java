@@ -1,16 +1,28 @@
 package com.example.helloworld.config;
 
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import com.example.helloworld.service.common.DomainAuthenticationManagerFactory;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class ChurchAuthBeanConfig {
 
     @Bean
-    public TokenBlacklistService tokenBlacklistService() {
-        return new TokenBlacklistService();
+    public TokenBlacklistService tokenBlacklistService(
+            @Value("${church.auth.token-blacklist.max-entries:100000}") int maxEntries) {
+        return new TokenBlacklistService(maxEntries);
+    }
+
+    @Bean
+    public AuthPrincipalCache authPrincipalCache(
+            @Value("${church.auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${church.auth.principal-cache.max-entries:1000}") int maxEntries) {
+        return new AuthPrincipalCache(Duration.ofSeconds(ttlSeconds), maxEntries);
     }
 
     @Bean
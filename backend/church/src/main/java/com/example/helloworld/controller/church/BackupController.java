@@ -1,17 +1,22 @@
 package com.example.helloworld.controller.church;
 
 import com.example.helloworld.dto.common.ApiResponse;
+import com.example.helloworld.service.church.ChurchBackupService;
 import com.example.helloworld.service.church.SystemSettingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.IOException;
@@ -33,6 +38,9 @@ public class BackupController {
     @Qualifier("churchSystemSettingService")
     private SystemSettingService systemSettingService;
 
+    @Autowired
+    private ChurchBackupService churchBackupService;
+
     @GetMapping
     public ResponseEntity<ApiResponse<Map<String, Object>>> getBackupList() {
         try {
@@ -269,8 +277,13 @@ public class BackupController {
         }
     }
 
+    /**
+     * 下載 church 備份。原檔交給 FileSystemResource，斷線後可帶 Range 標頭從中斷處續傳（206）；
+     * 加上 gzip=true 下載 .sql 時由 ChurchBackupService 即時壓縮成 .sql.gz，這種回應沒有固定長度，因此不接受 Range
+     */
     @GetMapping("/download")
-    public ResponseEntity<byte[]> downloadBackup(@RequestParam("path") String relativePath) {
+    public ResponseEntity<?> downloadBackup(@RequestParam("path") String relativePath,
+                                            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
         try {
             // 從環境變數讀取備份目錄（在 docker-compose.yml 中設定）
             String backupDir = System.getenv("BACKUP_DIR");
@@ -300,27 +313,39 @@ public class BackupController {
                 return ResponseEntity.badRequest().build();
             }
             
-            if (Files.exists(backupPath)) {
-                byte[] fileContent = Files.readAllBytes(backupPath);
-                
-                // 從路徑中提取檔案名稱
-                String filename = backupPath.getFileName().toString();
-                
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-                headers.setContentDispositionFormData("attachment", filename);
-                headers.setContentLength(fileContent.length);
-                
-                return new ResponseEntity<>(fileContent, headers, HttpStatus.OK);
-            } else {
+            if (!Files.isRegularFile(backupPath)) {
                 return ResponseEntity.notFound().build();
             }
+
+            // 從路徑中提取檔案名稱
+            String filename = backupPath.getFileName().toString();
+
+            if (gzip && churchBackupService.isCompressible(backupPath)) {
+                StreamingResponseBody body = out -> churchBackupService.writeGzipped(backupPath, out);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename + ".gz"))
+                        .header(HttpHeaders.ACCEPT_RANGES, "none")
+                        .body(body);
+            }
+
+            // Resource 由 Spring 分段串流輸出，帶 Range 標頭時回 206，不整檔載入記憶體
+            Resource resource = new FileSystemResource(backupPath);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename))
+                    .lastModified(resource.lastModified())
+                    .body(resource);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("❌ 下載備份失敗: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
     }
 
+    private String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
+
     private String formatFileSize(long bytes) {
         if (bytes < 1024) return bytes + " B";
         if (bytes < 1024 * 1024) return String.format("%.2f KB", bytes / 1024.0);
@@ -9,6 +9,7 @@ import com.example.helloworld.entity.church.ChurchUser;
 import com.example.helloworld.repository.church.ChurchUserRepository;
 import com.example.helloworld.service.church.ChurchAuthFacade;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import com.example.helloworld.util.ChurchJwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -165,7 +166,7 @@ public class ChurchAuthController {
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 String token = authHeader.substring(7);
                 // 將 Token 加入黑名單
-                tokenBlacklistService.addToBlacklist(token);
+                revokeToken(token);
             }
             
             SecurityContextHolder.clearContext();
@@ -177,4 +178,16 @@ public class ChurchAuthController {
         }
     }
 
+    /**
+     * 以 Token 自身的到期時間加入黑名單；已失效或無法解析的 Token 不需要撤銷
+     */
+    private void revokeToken(String token) {
+        VerifiedJwtClaims claims;
+        try {
+            claims = jwtUtil.parseVerifiedClaims(token);
+        } catch (Exception e) {
+            return;
+        }
+        tokenBlacklistService.addToBlacklist(token, claims.expiresAt());
+    }
 }
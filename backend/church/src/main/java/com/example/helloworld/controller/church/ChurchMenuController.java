@@ -6,8 +6,10 @@ import com.example.helloworld.entity.church.ChurchMenuItem;
 import com.example.helloworld.service.church.ChurchMenuService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,6 +21,9 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class ChurchMenuController {
 
+    // 選單依使用者權限不同，只允許瀏覽器快取，每次以 ETag 重新驗證
+    private static final CacheControl MENU_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private ChurchMenuService churchMenuService;
 
@@ -26,27 +31,36 @@ public class ChurchMenuController {
      * 獲取前台菜單（公開訪問）
      */
     @GetMapping("/frontend")
-    public ResponseEntity<List<ChurchMenuService.MenuItemDTO>> getFrontendMenus() {
+    public ResponseEntity<List<ChurchMenuService.MenuItemDTO>> getFrontendMenus(WebRequest request) {
+        if (request.checkNotModified(churchMenuService.getMenusEtag("frontend"))) {
+            return null;
+        }
         List<ChurchMenuService.MenuItemDTO> menus = churchMenuService.getFrontendMenus();
-        return ResponseEntity.ok(menus);
+        return ResponseEntity.ok().cacheControl(MENU_CACHE_CONTROL).body(menus);
     }
 
     /**
      * 獲取後台菜單（需要登入）
      */
     @GetMapping("/admin")
-    public ResponseEntity<List<ChurchMenuService.MenuItemDTO>> getAdminMenus() {
+    public ResponseEntity<List<ChurchMenuService.MenuItemDTO>> getAdminMenus(WebRequest request) {
+        if (request.checkNotModified(churchMenuService.getMenusEtag("admin"))) {
+            return null;
+        }
         List<ChurchMenuService.MenuItemDTO> menus = churchMenuService.getAdminMenus();
-        return ResponseEntity.ok(menus);
+        return ResponseEntity.ok().cacheControl(MENU_CACHE_CONTROL).body(menus);
     }
 
     /**
      * 獲取儀表板快速操作菜單（需要登入）
      */
     @GetMapping("/dashboard")
-    public ResponseEntity<List<ChurchMenuService.MenuItemDTO>> getDashboardQuickActions() {
+    public ResponseEntity<List<ChurchMenuService.MenuItemDTO>> getDashboardQuickActions(WebRequest request) {
+        if (request.checkNotModified(churchMenuService.getMenusEtag("dashboard"))) {
+            return null;
+        }
         List<ChurchMenuService.MenuItemDTO> menus = churchMenuService.getDashboardQuickActions();
-        return ResponseEntity.ok(menus);
+        return ResponseEntity.ok().cacheControl(MENU_CACHE_CONTROL).body(menus);
     }
 
     /**
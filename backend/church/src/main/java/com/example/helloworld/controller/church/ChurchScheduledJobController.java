@@ -76,6 +76,16 @@ public class ChurchScheduledJobController {
         }
     }
 
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> cancelExecution(@PathVariable Long id) {
+        if (!scheduledJobService.cancelExecution(id)) {
+            return ResponseEntity.badRequest().body(ApiResponse.fail("Job 目前沒有排隊或執行中的任務"));
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("message", "已要求取消 Job 執行");
+        return ResponseEntity.ok(ApiResponse.ok(result));
+    }
+
     @GetMapping("/{id}/executions")
     public ResponseEntity<ApiResponse<List<JobExecution>>> getJobExecutions(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.ok(scheduledJobService.getJobExecutions(id)));
@@ -8,8 +8,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -70,21 +70,20 @@ public class AdminManualController {
     }
 
     @GetMapping("/export.xlsx")
-    public ResponseEntity<byte[]> exportExcel(
+    public ResponseEntity<StreamingResponseBody> exportExcel(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String from,
             @RequestParam(required = false) String to,
             @RequestParam(defaultValue = "false") boolean includeCanceled
     ) {
-        try {
-            byte[] bytes = excelService.exportManualCheckins(q, parseStart(from), parseEnd(to), includeCanceled);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"manual-checkins.xlsx\"")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(bytes);
-        } catch (IOException e) {
-            throw new RuntimeException("匯出 Excel 失敗", e);
-        }
+        // 先解析參數，格式錯誤時在寫出檔案前就回應錯誤
+        LocalDateTime fromTs = parseStart(from);
+        LocalDateTime toTs = parseEnd(to);
+        StreamingResponseBody body = out -> excelService.writeManualCheckins(q, fromTs, toTs, includeCanceled, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"manual-checkins.xlsx\"")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
     }
 
     private LocalDateTime parseStart(String s) {
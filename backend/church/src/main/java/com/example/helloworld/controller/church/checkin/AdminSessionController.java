@@ -11,6 +11,8 @@ import com.example.helloworld.repository.church.checkin.SessionRepository;
 import com.example.helloworld.repository.church.checkin.SessionGroupRepository;
 import com.example.helloworld.service.church.checkin.CheckinService;
 import com.example.helloworld.service.church.checkin.ExcelService;
+import com.example.helloworld.service.church.checkin.SessionChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -19,8 +21,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -38,14 +40,16 @@ public class AdminSessionController {
     private final CheckinService checkinService;
     private final SessionGroupRepository sessionGroupRepository;
     private final GroupRepository groupRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AdminSessionController(SessionRepository sessionRepo, CheckinRepository checkinRepo, ExcelService excelService, CheckinService checkinService, SessionGroupRepository sessionGroupRepository, GroupRepository groupRepository) {
+    public AdminSessionController(SessionRepository sessionRepo, CheckinRepository checkinRepo, ExcelService excelService, CheckinService checkinService, SessionGroupRepository sessionGroupRepository, GroupRepository groupRepository, ApplicationEventPublisher eventPublisher) {
         this.sessionRepo = sessionRepo;
         this.checkinRepo = checkinRepo;
         this.excelService = excelService;
         this.checkinService = checkinService;
         this.sessionGroupRepository = sessionGroupRepository;
         this.groupRepository = groupRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // 獲取所有場次列表（支援篩選和分頁）
@@ -163,6 +167,7 @@ public class AdminSessionController {
     public ResponseEntity<ApiResponse<Session>> create(@RequestBody Session session) {
         try {
             Session created = sessionRepo.save(session);
+            publishSessionChanged(created.getSessionDate());
             return ResponseEntity.ok(ApiResponse.ok(created));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.fail("創建場次失敗: " + e.getMessage()));
@@ -175,6 +180,7 @@ public class AdminSessionController {
         try {
             Session existing = sessionRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Session not found: " + id));
+            LocalDate previousDate = existing.getSessionDate();
             existing.setSessionType(session.getSessionType());
             existing.setTitle(session.getTitle());
             existing.setSessionDate(session.getSessionDate());
@@ -183,6 +189,7 @@ public class AdminSessionController {
             existing.setStatus(session.getStatus());
             existing.setSessionCode(session.getSessionCode());
             Session updated = sessionRepo.save(existing);
+            publishSessionChanged(previousDate, updated.getSessionDate());
             return ResponseEntity.ok(ApiResponse.ok(updated));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.fail("更新場次失敗: " + e.getMessage()));
@@ -193,10 +200,12 @@ public class AdminSessionController {
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> delete(@PathVariable Long id) {
         try {
-            if (!sessionRepo.existsById(id)) {
+            Session existing = sessionRepo.findById(id).orElse(null);
+            if (existing == null) {
                 return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_FOUND).body(ApiResponse.fail("場次不存在"));
             }
             sessionRepo.deleteById(id);
+            publishSessionChanged(existing.getSessionDate());
             return ResponseEntity.ok(ApiResponse.ok(null));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.fail("刪除場次失敗: " + e.getMessage()));
@@ -235,16 +244,13 @@ public class AdminSessionController {
     }
 
     @GetMapping("/{id}/checkins/export.xlsx")
-    public ResponseEntity<byte[]> exportExcel(@PathVariable Long id) {
-        try {
-            byte[] bytes = excelService.exportSessionCheckins(id);
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"session-checkins-" + id + ".xlsx\"")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(bytes);
-        } catch (IOException e) {
-            throw new RuntimeException("匯出 Excel 失敗", e);
-        }
+    public ResponseEntity<StreamingResponseBody> exportExcel(@PathVariable Long id) {
+        // 直接寫入回應串流，不在記憶體中組出整個檔案
+        StreamingResponseBody body = out -> excelService.writeSessionCheckins(id, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"session-checkins-" + id + ".xlsx\"")
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
     }
 
     // 取消簽到記錄（軟取消，保留稽核）
@@ -388,10 +394,24 @@ public class AdminSessionController {
                 sessionGroup.setGroupId(groupId);
                 sessionGroupRepository.save(sessionGroup);
             }
+            publishSessionChanged(session.getSessionDate());
             
             return ResponseEntity.ok(ApiResponse.ok(null));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.fail("更新場次關聯的小組失敗：" + e.getMessage()));
         }
     }
+
+    // 場次異動後重算出席率彙總（日期為 null 的場次不列入出席率）
+    private void publishSessionChanged(LocalDate... sessionDates) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date : sessionDates) {
+            if (date != null && !dates.contains(date)) {
+                dates.add(date);
+            }
+        }
+        if (!dates.isEmpty()) {
+            eventPublisher.publishEvent(new SessionChangedEvent(dates));
+        }
+    }
 }
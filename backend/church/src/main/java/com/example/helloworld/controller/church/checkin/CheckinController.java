@@ -2,6 +2,7 @@ package com.example.helloworld.controller.church.checkin;
 
 import com.example.helloworld.dto.common.ApiResponse;
 import com.example.helloworld.repository.church.checkin.SessionRepository;
+import com.example.helloworld.service.church.checkin.CheckinBurstService;
 import com.example.helloworld.service.church.checkin.CheckinService;
 import com.example.helloworld.service.church.checkin.TokenService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,11 +16,13 @@ import java.util.Map;
 @RequestMapping("/api/church/checkin/public")
 public class CheckinController {
     private final CheckinService checkinService;
+    private final CheckinBurstService checkinBurstService;
     private final TokenService tokenService;
     private final SessionRepository sessionRepo;
 
-    public CheckinController(CheckinService checkinService, TokenService tokenService, SessionRepository sessionRepo) {
+    public CheckinController(CheckinService checkinService, CheckinBurstService checkinBurstService, TokenService tokenService, SessionRepository sessionRepo) {
         this.checkinService = checkinService;
+        this.checkinBurstService = checkinBurstService;
         this.tokenService = tokenService;
         this.sessionRepo = sessionRepo;
     }
@@ -42,11 +45,11 @@ public class CheckinController {
     @GetMapping("/sessions/{code}/token")
     public ResponseEntity<ApiResponse<Map<String, Object>>> token(@PathVariable String code) {
         try {
-            var s = sessionRepo.findBySessionCode(code).orElseThrow();
-            var t = tokenService.issue(s.getId());
+            Long sessionId = checkinBurstService.findSessionId(code).orElseThrow();
+            var t = tokenService.issue(sessionId);
             Map<String, Object> result = new HashMap<>();
-            result.put("token", t.getToken());
-            result.put("expiresAt", t.getExpiresAt().toString());
+            result.put("token", t.token());
+            result.put("expiresAt", t.expiresAt().toString());
             return ResponseEntity.ok(ApiResponse.ok(result));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.fail("獲取 token 失敗: " + e.getMessage()));
@@ -58,7 +61,10 @@ public class CheckinController {
         try {
             String memberNo = body.getOrDefault("memberNo", "").trim().toUpperCase();
             String token = body.getOrDefault("token", "").trim().toUpperCase();
-            String name = checkinService.publicCheckin(code, memberNo, token, req);
+            // 熱場次先走記憶體流程，無法處理時才查詢資料庫
+            String name = checkinBurstService
+                    .tryCheckin(code, memberNo, token, req.getRemoteAddr(), req.getHeader("User-Agent"))
+                    .orElseGet(() -> checkinService.publicCheckin(code, memberNo, token, req));
             Map<String, Object> result = new HashMap<>();
             result.put("status", "OK");
             result.put("name", name);
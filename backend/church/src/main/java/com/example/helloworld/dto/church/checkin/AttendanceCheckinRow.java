@@ -0,0 +1,10 @@
+package com.example.helloworld.dto.church.checkin;
+
+/**
+ * 出席率計算用的簽到投影（只取場次、人員與是否取消）
+ */
+public interface AttendanceCheckinRow {
+    Long getSessionId();
+    Long getMemberId();
+    Boolean getCanceled();
+}
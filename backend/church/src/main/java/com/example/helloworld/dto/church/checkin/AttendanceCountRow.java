@@ -0,0 +1,9 @@
+package com.example.helloworld.dto.church.checkin;
+
+/**
+ * 依人員彙總的簽到次數投影
+ */
+public interface AttendanceCountRow {
+    Long getMemberId();
+    Long getAttendedCount();
+}
@@ -0,0 +1,10 @@
+package com.example.helloworld.dto.church.checkin;
+
+/**
+ * 簽到尖峰模式用的簽到狀態投影（人員、是否補登、是否取消）
+ */
+public interface CheckinStateRow {
+    Long getMemberId();
+    Boolean getManual();
+    Boolean getCanceled();
+}
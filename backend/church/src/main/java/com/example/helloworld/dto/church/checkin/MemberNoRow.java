@@ -0,0 +1,11 @@
+package com.example.helloworld.dto.church.checkin;
+
+/**
+ * 會員編號對照投影（簽到尖峰模式預先載入）
+ */
+public interface MemberNoRow {
+    Long getId();
+    String getMemberNo();
+    String getPersonName();
+    String getDisplayName();
+}
@@ -14,7 +14,10 @@ public class JobExecution {
     private Long jobId;
 
     @Column(name = "status", nullable = false, length = 20)
-    private String status; // PENDING, RUNNING, SUCCESS, FAILED
+    private String status; // PENDING（排隊中）, RUNNING, SUCCESS, FAILED, CANCELED, TIMEOUT
+
+    @Column(name = "queued_at")
+    private LocalDateTime queuedAt;
 
     @Column(name = "started_at")
     private LocalDateTime startedAt;
@@ -22,6 +25,12 @@ public class JobExecution {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    @Column(name = "queue_wait_ms")
+    private Long queueWaitMs;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
     @Column(name = "result_message", columnDefinition = "TEXT")
     private String resultMessage;
 
@@ -46,12 +55,21 @@ public class JobExecution {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    public LocalDateTime getQueuedAt() { return queuedAt; }
+    public void setQueuedAt(LocalDateTime queuedAt) { this.queuedAt = queuedAt; }
+
     public LocalDateTime getStartedAt() { return startedAt; }
     public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
 
     public LocalDateTime getCompletedAt() { return completedAt; }
     public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
 
+    public Long getQueueWaitMs() { return queueWaitMs; }
+    public void setQueueWaitMs(Long queueWaitMs) { this.queueWaitMs = queueWaitMs; }
+
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
+
     public String getResultMessage() { return resultMessage; }
     public void setResultMessage(String resultMessage) { this.resultMessage = resultMessage; }
 
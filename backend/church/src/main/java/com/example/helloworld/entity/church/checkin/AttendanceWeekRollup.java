@@ -0,0 +1,47 @@
+package com.example.helloworld.entity.church.checkin;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 出席率彙總：某人員在某類別（小組）某自然週有簽到（未取消）的天
+ * 只有出席的週才有資料；應出席的週由 {@link AttendanceWeekSlot} 提供
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "attendance_week_rollups",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"person_id", "session_type", "group_id", "week_start"}),
+    indexes = @Index(name = "idx_attendance_week_rollups_week", columnList = "week_start")
+)
+public class AttendanceWeekRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "session_type", nullable = false, length = 20)
+    private String sessionType;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    // 週一為 bit 0 ... 週日為 bit 6
+    @Column(name = "attended_days", nullable = false)
+    private Integer attendedDays;
+
+    @Column(name = "attended_count", nullable = false)
+    private Integer attendedCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.example.helloworld.entity.church.checkin;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 出席率彙總：某類別（小組）在某自然週有哪些天有場次
+ * group_id = 0 代表未區分小組（主日）或未關聯任何小組的小組場次
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "attendance_week_slots",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"session_type", "group_id", "week_start"}),
+    indexes = @Index(name = "idx_attendance_week_slots_week", columnList = "week_start")
+)
+public class AttendanceWeekSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_type", nullable = false, length = 20)
+    private String sessionType;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "week_start", nullable = false)
+    private LocalDate weekStart;
+
+    // 週一為 bit 0 ... 週日為 bit 6
+    @Column(name = "session_days", nullable = false)
+    private Integer sessionDays;
+
+    @Column(name = "session_count", nullable = false)
+    private Integer sessionCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
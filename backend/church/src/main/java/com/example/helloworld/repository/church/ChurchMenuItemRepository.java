@@ -15,22 +15,12 @@ import java.util.Optional;
 public interface ChurchMenuItemRepository extends JpaRepository<ChurchMenuItem, Long> {
     Optional<ChurchMenuItem> findByMenuCode(String menuCode);
     
-    @Query("SELECT m FROM ChurchMenuItem m WHERE m.isActive = true AND m.parentId IS NULL AND m.menuType = :menuType ORDER BY m.orderIndex ASC")
-    List<ChurchMenuItem> findActiveRootMenusByType(@Param("menuType") String menuType);
-    
-    @Query("SELECT m FROM ChurchMenuItem m WHERE m.isActive = true AND m.parentId = :parentId ORDER BY m.orderIndex ASC")
-    List<ChurchMenuItem> findActiveChildMenus(@Param("parentId") Long parentId);
+    @Query("SELECT m FROM ChurchMenuItem m WHERE m.isActive = true ORDER BY m.orderIndex ASC, m.id ASC")
+    List<ChurchMenuItem> findAllActiveMenus();
     
     @Query("SELECT m FROM ChurchMenuItem m WHERE m.parentId = :parentId ORDER BY m.orderIndex ASC")
     List<ChurchMenuItem> findByParentIdOrderByOrderIndexAsc(@Param("parentId") Long parentId);
     
-    @Query("SELECT m FROM ChurchMenuItem m WHERE m.menuType = :menuType AND m.isActive = :isActive AND m.showInDashboard = :showInDashboard AND m.parentId IS NULL ORDER BY m.orderIndex ASC")
-    List<ChurchMenuItem> findByMenuTypeAndIsActiveAndShowInDashboardAndParentIdIsNullOrderByOrderIndexAsc(
-        @Param("menuType") String menuType,
-        @Param("isActive") Boolean isActive,
-        @Param("showInDashboard") Boolean showInDashboard
-    );
-    
     // 支持分頁和過濾的查詢
     @Query("SELECT m FROM ChurchMenuItem m WHERE " +
            "(:menuCode IS NULL OR :menuCode = '' OR LOWER(m.menuCode) LIKE LOWER(CONCAT('%', :menuCode, '%'))) AND " +
@@ -1,18 +1,26 @@
 package com.example.helloworld.repository.church;
 
+import com.example.helloworld.dto.church.checkin.MemberNoRow;
 import com.example.helloworld.entity.church.Person;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
     Optional<Person> findByPersonName(String personName);
+
+    List<Person> findByPersonNameInOrDisplayNameIn(Collection<String> personNames, Collection<String> displayNames);
     
     Optional<Person> findByMemberNo(String memberNo);
+
+    @Query("SELECT p.id AS id, p.memberNo AS memberNo, p.personName AS personName, p.displayName AS displayName " +
+           "FROM Person p WHERE p.memberNo IS NOT NULL")
+    List<MemberNoRow> findMemberNoRows();
     
     List<Person> findByIsActiveTrueOrderByPersonNameAsc();
     
@@ -8,12 +8,15 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PositionRepository extends JpaRepository<Position, Long> {
     Optional<Position> findByPositionCode(String positionCode);
+
+    List<Position> findByPositionCodeIn(Collection<String> positionCodes);
     
     Optional<Position> findByPositionName(String positionName);
     
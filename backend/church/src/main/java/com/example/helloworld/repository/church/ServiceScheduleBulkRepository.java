@@ -0,0 +1,53 @@
+package com.example.helloworld.repository.church;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 服事表明細（日期、崗位配置、人員分配）的批次讀寫（IDENTITY 主鍵無法由 Hibernate 批次 insert）。
+ * 讀取一律以年度為範圍，一次載入整年的資料供比對差異。
+ */
+public interface ServiceScheduleBulkRepository {
+
+    record DateRow(Long id, LocalDate date) {}
+
+    record ConfigRow(Long id, Long dateId, Long positionId, Integer personCount) {}
+
+    record AssignmentRow(Long id, Long configId, Long personId, Integer sortOrder) {}
+
+    List<DateRow> findDateRows(Integer year);
+
+    List<ConfigRow> findConfigRows(Integer year);
+
+    /**
+     * 依崗位配置、sort_order、id 排序
+     */
+    List<AssignmentRow> findAssignmentRows(Integer year);
+
+    void insertDates(Integer year, Collection<LocalDate> dates);
+
+    /**
+     * id 欄位不使用，寫入後需重新查詢取得主鍵
+     */
+    void insertConfigs(Collection<ConfigRow> configs);
+
+    void updateConfigPersonCounts(Collection<ConfigRow> configs);
+
+    void insertAssignments(Collection<AssignmentRow> assignments);
+
+    void updateAssignments(Collection<AssignmentRow> assignments);
+
+    void deleteAssignments(Collection<Long> assignmentIds);
+
+    void deleteConfigs(Collection<Long> configIds);
+
+    void deleteDates(Collection<Long> dateIds);
+
+    /**
+     * 將日期（連同配置與分配）改掛到另一個年度
+     */
+    int moveDates(Integer fromYear, Integer toYear);
+
+    void touchSchedule(Integer year);
+}
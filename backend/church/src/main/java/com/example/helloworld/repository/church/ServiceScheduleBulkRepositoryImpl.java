@@ -0,0 +1,199 @@
+package com.example.helloworld.repository.church;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ServiceScheduleBulkRepositoryImpl implements ServiceScheduleBulkRepository {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ServiceScheduleBulkRepositoryImpl(@Qualifier("churchDataSource") DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<DateRow> findDateRows(Integer year) {
+        return jdbcTemplate.query("""
+            SELECT id, date FROM service_schedule_dates
+            WHERE service_schedule_year = ?
+            ORDER BY date, id
+            """,
+            (rs, i) -> new DateRow(rs.getLong(1), rs.getDate(2).toLocalDate()),
+            year);
+    }
+
+    @Override
+    public List<ConfigRow> findConfigRows(Integer year) {
+        return jdbcTemplate.query("""
+            SELECT c.id, c.service_schedule_date_id, c.position_id, c.person_count
+            FROM service_schedule_position_config c
+            JOIN service_schedule_dates d ON d.id = c.service_schedule_date_id
+            WHERE d.service_schedule_year = ?
+            ORDER BY c.id
+            """,
+            (rs, i) -> new ConfigRow(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getObject(4, Integer.class)),
+            year);
+    }
+
+    @Override
+    public List<AssignmentRow> findAssignmentRows(Integer year) {
+        return jdbcTemplate.query("""
+            SELECT a.id, a.service_schedule_position_config_id, a.person_id, a.sort_order
+            FROM service_schedule_assignments a
+            JOIN service_schedule_position_config c ON c.id = a.service_schedule_position_config_id
+            JOIN service_schedule_dates d ON d.id = c.service_schedule_date_id
+            WHERE d.service_schedule_year = ?
+            ORDER BY a.service_schedule_position_config_id, a.sort_order, a.id
+            """,
+            (rs, i) -> new AssignmentRow(rs.getLong(1), rs.getLong(2),
+                rs.getObject(3, Long.class), rs.getObject(4, Integer.class)),
+            year);
+    }
+
+    @Override
+    public void insertDates(Integer year, Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO service_schedule_dates (service_schedule_year, date, created_at, updated_at)
+            VALUES (?, ?, ?, ?)
+            """, new ArrayList<>(dates), BATCH_SIZE, (ps, date) -> {
+            ps.setInt(1, year);
+            ps.setDate(2, Date.valueOf(date));
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    @Override
+    public void insertConfigs(Collection<ConfigRow> configs) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO service_schedule_position_config
+                (service_schedule_date_id, position_id, person_count, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            """, new ArrayList<>(configs), BATCH_SIZE, (ps, config) -> {
+            ps.setLong(1, config.dateId());
+            ps.setLong(2, config.positionId());
+            ps.setInt(3, config.personCount());
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    @Override
+    public void updateConfigPersonCounts(Collection<ConfigRow> configs) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate("""
+            UPDATE service_schedule_position_config SET person_count = ?, updated_at = ? WHERE id = ?
+            """, new ArrayList<>(configs), BATCH_SIZE, (ps, config) -> {
+            ps.setInt(1, config.personCount());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, config.id());
+        });
+    }
+
+    @Override
+    public void insertAssignments(Collection<AssignmentRow> assignments) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO service_schedule_assignments
+                (service_schedule_position_config_id, person_id, sort_order, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            """, new ArrayList<>(assignments), BATCH_SIZE, (ps, assignment) -> {
+            ps.setLong(1, assignment.configId());
+            setNullableLong(ps, 2, assignment.personId());
+            ps.setInt(3, assignment.sortOrder());
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    @Override
+    public void updateAssignments(Collection<AssignmentRow> assignments) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+        Timestamp now = now();
+        jdbcTemplate.batchUpdate("""
+            UPDATE service_schedule_assignments SET person_id = ?, sort_order = ?, updated_at = ? WHERE id = ?
+            """, new ArrayList<>(assignments), BATCH_SIZE, (ps, assignment) -> {
+            setNullableLong(ps, 1, assignment.personId());
+            ps.setInt(2, assignment.sortOrder());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, assignment.id());
+        });
+    }
+
+    @Override
+    public void deleteAssignments(Collection<Long> assignmentIds) {
+        deleteByIds("DELETE FROM service_schedule_assignments WHERE id = ?", assignmentIds);
+    }
+
+    @Override
+    public void deleteConfigs(Collection<Long> configIds) {
+        deleteByIds("DELETE FROM service_schedule_position_config WHERE id = ?", configIds);
+    }
+
+    @Override
+    public void deleteDates(Collection<Long> dateIds) {
+        deleteByIds("DELETE FROM service_schedule_dates WHERE id = ?", dateIds);
+    }
+
+    @Override
+    public int moveDates(Integer fromYear, Integer toYear) {
+        return jdbcTemplate.update(
+            "UPDATE service_schedule_dates SET service_schedule_year = ?, updated_at = ? WHERE service_schedule_year = ?",
+            toYear, now(), fromYear);
+    }
+
+    @Override
+    public void touchSchedule(Integer year) {
+        jdbcTemplate.update("UPDATE service_schedules SET updated_at = ? WHERE year = ?", now(), year);
+    }
+
+    // 與實體 @PrePersist/@PreUpdate 相同使用應用程式時間，不用資料庫 NOW()
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private void deleteByIds(String sql, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, new ArrayList<>(ids), BATCH_SIZE, (ps, id) -> ps.setLong(1, id));
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
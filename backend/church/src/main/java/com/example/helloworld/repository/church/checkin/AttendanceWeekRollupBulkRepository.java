@@ -0,0 +1,12 @@
+package com.example.helloworld.repository.church.checkin;
+
+import com.example.helloworld.entity.church.checkin.AttendanceWeekRollup;
+
+import java.util.List;
+
+/**
+ * 彙總重建時一次寫入大量資料（IDENTITY 主鍵無法由 Hibernate 批次 insert）
+ */
+public interface AttendanceWeekRollupBulkRepository {
+    int bulkInsert(List<AttendanceWeekRollup> rows);
+}
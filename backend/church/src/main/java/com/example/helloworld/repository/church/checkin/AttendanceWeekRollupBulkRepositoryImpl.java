@@ -0,0 +1,45 @@
+package com.example.helloworld.repository.church.checkin;
+
+import com.example.helloworld.entity.church.checkin.AttendanceWeekRollup;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class AttendanceWeekRollupBulkRepositoryImpl implements AttendanceWeekRollupBulkRepository {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_SQL = """
+        INSERT INTO attendance_week_rollups (
+            person_id, session_type, group_id, week_start, attended_days, attended_count, updated_at
+        ) VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttendanceWeekRollupBulkRepositoryImpl(@Qualifier("churchDataSource") DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public int bulkInsert(List<AttendanceWeekRollup> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.getPersonId());
+            ps.setString(2, row.getSessionType());
+            ps.setLong(3, row.getGroupId());
+            ps.setDate(4, Date.valueOf(row.getWeekStart()));
+            ps.setInt(5, row.getAttendedDays());
+            ps.setInt(6, row.getAttendedCount());
+            ps.setTimestamp(7, now);
+        });
+        return rows.size();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.helloworld.repository.church.checkin;
+
+import com.example.helloworld.entity.church.checkin.AttendanceWeekRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface AttendanceWeekRollupRepository
+        extends JpaRepository<AttendanceWeekRollup, Long>, AttendanceWeekRollupBulkRepository {
+
+    List<AttendanceWeekRollup> findByWeekStartBetween(LocalDate from, LocalDate to);
+
+    List<AttendanceWeekRollup> findByPersonIdInAndWeekStartBetween(Collection<Long> personIds, LocalDate from, LocalDate to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AttendanceWeekRollup r WHERE r.weekStart BETWEEN :fromWeek AND :toWeek")
+    int deleteByWeekStartBetween(@Param("fromWeek") LocalDate fromWeek, @Param("toWeek") LocalDate toWeek);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AttendanceWeekRollup r WHERE r.weekStart < :fromWeek OR r.weekStart > :toWeek")
+    int deleteByWeekStartNotBetween(@Param("fromWeek") LocalDate fromWeek, @Param("toWeek") LocalDate toWeek);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AttendanceWeekRollup r WHERE r.personId IN :personIds AND r.weekStart = :weekStart")
+    int deleteByPersonIdInAndWeekStart(@Param("personIds") Collection<Long> personIds, @Param("weekStart") LocalDate weekStart);
+}
@@ -0,0 +1,23 @@
+package com.example.helloworld.repository.church.checkin;
+
+import com.example.helloworld.entity.church.checkin.AttendanceWeekSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AttendanceWeekSlotRepository extends JpaRepository<AttendanceWeekSlot, Long> {
+
+    List<AttendanceWeekSlot> findByWeekStartBetween(LocalDate from, LocalDate to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AttendanceWeekSlot s WHERE s.weekStart BETWEEN :fromWeek AND :toWeek")
+    int deleteByWeekStartBetween(@Param("fromWeek") LocalDate fromWeek, @Param("toWeek") LocalDate toWeek);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AttendanceWeekSlot s WHERE s.weekStart < :fromWeek OR s.weekStart > :toWeek")
+    int deleteByWeekStartNotBetween(@Param("fromWeek") LocalDate fromWeek, @Param("toWeek") LocalDate toWeek);
+}
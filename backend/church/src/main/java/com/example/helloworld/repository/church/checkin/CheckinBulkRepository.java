@@ -0,0 +1,17 @@
+package com.example.helloworld.repository.church.checkin;
+
+import com.example.helloworld.entity.church.checkin.Checkin;
+
+import java.util.List;
+
+/**
+ * 簽到尖峰模式合併寫入（IDENTITY 主鍵無法由 Hibernate 批次 insert）
+ */
+public interface CheckinBulkRepository {
+    /**
+     * 已存在相同（場次, 人員）的簽到會被略過
+     *
+     * @return 實際寫入的筆數
+     */
+    int bulkInsertIgnoringDuplicates(List<Checkin> checkins);
+}
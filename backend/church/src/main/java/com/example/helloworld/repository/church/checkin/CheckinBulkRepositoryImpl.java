@@ -0,0 +1,50 @@
+package com.example.helloworld.repository.church.checkin;
+
+import com.example.helloworld.entity.church.checkin.Checkin;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class CheckinBulkRepositoryImpl implements CheckinBulkRepository {
+
+    private static final int BATCH_SIZE = 200;
+    private static final String INSERT_SQL = """
+        INSERT IGNORE INTO checkins (
+            session_id, member_id, checked_in_at, ip, user_agent, manual, canceled
+        ) VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CheckinBulkRepositoryImpl(@Qualifier("churchDataSource") DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public int bulkInsertIgnoringDuplicates(List<Checkin> checkins) {
+        if (checkins == null || checkins.isEmpty()) {
+            return 0;
+        }
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, checkins, BATCH_SIZE, (ps, checkin) -> {
+            ps.setLong(1, checkin.getSessionId());
+            ps.setLong(2, checkin.getMemberId());
+            ps.setTimestamp(3, Timestamp.valueOf(checkin.getCheckedInAt()));
+            ps.setString(4, checkin.getIp());
+            ps.setString(5, checkin.getUserAgent());
+            ps.setBoolean(6, Boolean.TRUE.equals(checkin.getManual()));
+            ps.setBoolean(7, Boolean.TRUE.equals(checkin.getCanceled()));
+        });
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // 驅動程式未回報筆數時（SUCCESS_NO_INFO = -2）視為已寫入
+                inserted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+            }
+        }
+        return inserted;
+    }
+}
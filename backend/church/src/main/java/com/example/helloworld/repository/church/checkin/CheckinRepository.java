@@ -1,24 +1,29 @@
 package com.example.helloworld.repository.church.checkin;
 
 import com.example.helloworld.entity.church.checkin.Checkin;
+import com.example.helloworld.dto.church.checkin.AttendanceCheckinRow;
+import com.example.helloworld.dto.church.checkin.AttendanceCountRow;
+import com.example.helloworld.dto.church.checkin.CheckinStateRow;
 import com.example.helloworld.dto.church.checkin.ManualCheckinRow;
 import com.example.helloworld.dto.church.checkin.SessionCheckinRow;
 import com.example.helloworld.dto.church.checkin.UncheckedPersonRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface CheckinRepository extends JpaRepository<Checkin, Long> {
+public interface CheckinRepository extends JpaRepository<Checkin, Long>, CheckinBulkRepository {
 
-    long countBySessionIdAndCanceledFalse(Long sessionId);
-
-    Optional<Checkin> findBySessionIdAndMemberId(Long sessionId, Long memberId);
-
-    @Query(value =
+    String SESSION_ROWS_SQL =
       "SELECT " +
       "  c.id as id, " +
       "  COALESCE(p.member_no, '') as memberNo, " +
@@ -33,11 +38,9 @@ public interface CheckinRepository extends JpaRepository<Checkin, Long> {
       "LEFT JOIN persons p ON p.id = c.member_id " +
       "WHERE c.session_id = :sessionId " +
       "  AND (:includeCanceled = true OR c.canceled IS NULL OR c.canceled = 0) " +
-      "ORDER BY c.checked_in_at DESC",
-      nativeQuery = true)
-    List<SessionCheckinRow> findSessionRows(@Param("sessionId") Long sessionId, @Param("includeCanceled") boolean includeCanceled);
+      "ORDER BY c.checked_in_at DESC";
 
-    @Query(value =
+    String MANUAL_ROWS_SQL =
       "SELECT " +
       "  c.id as id, " +
       "  c.session_id as sessionId, " +
@@ -62,8 +65,67 @@ public interface CheckinRepository extends JpaRepository<Checkin, Long> {
       "  AND (:q IS NULL OR :q = '' OR p.member_no LIKE CONCAT('%', :q, '%') OR p.person_name LIKE CONCAT('%', :q, '%') OR p.display_name LIKE CONCAT('%', :q, '%') OR s.title LIKE CONCAT('%', :q, '%')) " +
       "  AND (:fromTs IS NULL OR c.checked_in_at >= :fromTs) " +
       "  AND (:toTs IS NULL OR c.checked_in_at <= :toTs) " +
-      "ORDER BY c.checked_in_at DESC",
-      nativeQuery = true)
+      "ORDER BY c.checked_in_at DESC";
+
+    // MySQL Connector/J 以 Integer.MIN_VALUE 作為 fetch size 時逐列串流結果，不會一次載入整個結果集
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    long countBySessionIdAndCanceledFalse(Long sessionId);
+
+    Optional<Checkin> findBySessionIdAndMemberId(Long sessionId, Long memberId);
+
+    @Query("SELECT c.memberId AS memberId, c.manual AS manual, c.canceled AS canceled " +
+           "FROM Checkin c WHERE c.sessionId = :sessionId")
+    List<CheckinStateRow> findStateRows(@Param("sessionId") Long sessionId);
+
+    @Query("SELECT c.memberId AS memberId, c.manual AS manual, c.canceled AS canceled " +
+           "FROM Checkin c WHERE c.sessionId = :sessionId AND c.memberId IN :memberIds")
+    List<CheckinStateRow> findStateRowsByMemberIds(
+        @Param("sessionId") Long sessionId,
+        @Param("memberIds") Collection<Long> memberIds
+    );
+
+    @Query("SELECT c.sessionId AS sessionId, c.memberId AS memberId, c.canceled AS canceled " +
+           "FROM Checkin c, Session s " +
+           "WHERE s.id = c.sessionId AND s.sessionDate BETWEEN :fromDate AND :toDate")
+    List<AttendanceCheckinRow> findAttendanceRows(
+        @Param("fromDate") LocalDate fromDate,
+        @Param("toDate") LocalDate toDate
+    );
+
+    @Query("SELECT c.sessionId AS sessionId, c.memberId AS memberId, c.canceled AS canceled " +
+           "FROM Checkin c, Session s " +
+           "WHERE s.id = c.sessionId AND s.sessionDate BETWEEN :fromDate AND :toDate " +
+           "  AND c.memberId IN :memberIds")
+    List<AttendanceCheckinRow> findAttendanceRowsByMemberIds(
+        @Param("fromDate") LocalDate fromDate,
+        @Param("toDate") LocalDate toDate,
+        @Param("memberIds") Collection<Long> memberIds
+    );
+
+    @Query("SELECT c.memberId AS memberId, COUNT(c) AS attendedCount " +
+           "FROM Checkin c, Session s " +
+           "WHERE s.id = c.sessionId AND s.sessionType = :sessionType " +
+           "  AND s.sessionDate BETWEEN :fromDate AND :toDate " +
+           "  AND (c.canceled IS NULL OR c.canceled = false) " +
+           "GROUP BY c.memberId")
+    List<AttendanceCountRow> countAttendedBySessionType(
+        @Param("sessionType") String sessionType,
+        @Param("fromDate") LocalDate fromDate,
+        @Param("toDate") LocalDate toDate
+    );
+
+    @Query(value = SESSION_ROWS_SQL, nativeQuery = true)
+    List<SessionCheckinRow> findSessionRows(@Param("sessionId") Long sessionId, @Param("includeCanceled") boolean includeCanceled);
+
+    /**
+     * 串流讀取場次簽到（匯出用），需在交易內使用並關閉 Stream
+     */
+    @Query(value = SESSION_ROWS_SQL, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    Stream<SessionCheckinRow> streamSessionRows(@Param("sessionId") Long sessionId, @Param("includeCanceled") boolean includeCanceled);
+
+    @Query(value = MANUAL_ROWS_SQL, nativeQuery = true)
     List<ManualCheckinRow> findManualRows(
         @Param("q") String q,
         @Param("fromTs") LocalDateTime fromTs,
@@ -71,6 +133,18 @@ public interface CheckinRepository extends JpaRepository<Checkin, Long> {
         @Param("includeCanceled") boolean includeCanceled
     );
 
+    /**
+     * 串流讀取補登記錄（匯出用），需在交易內使用並關閉 Stream
+     */
+    @Query(value = MANUAL_ROWS_SQL, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    Stream<ManualCheckinRow> streamManualRows(
+        @Param("q") String q,
+        @Param("fromTs") LocalDateTime fromTs,
+        @Param("toTs") LocalDateTime toTs,
+        @Param("includeCanceled") boolean includeCanceled
+    );
+
     @Query(value =
       "SELECT " +
       "  p.id as id, " +
@@ -7,12 +7,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SessionGroupRepository extends JpaRepository<SessionGroup, Long> {
     List<SessionGroup> findBySessionId(Long sessionId);
     List<SessionGroup> findByGroupId(Long groupId);
+    List<SessionGroup> findBySessionIdIn(Collection<Long> sessionIds);
     
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("DELETE FROM SessionGroup sg WHERE sg.sessionId = :sessionId")
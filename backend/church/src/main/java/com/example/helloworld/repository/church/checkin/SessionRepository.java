@@ -10,5 +10,9 @@ import java.util.Optional;
 public interface SessionRepository extends JpaRepository<Session, Long> {
     Optional<Session> findBySessionCode(String code);
     List<Session> findBySessionDate(LocalDate date);
+    List<Session> findBySessionDateBetweenOrderBySessionDateAscIdAsc(LocalDate from, LocalDate to);
+    long countBySessionTypeAndSessionDateBetween(String sessionType, LocalDate from, LocalDate to);
+    Optional<Session> findFirstBySessionDateIsNotNullOrderBySessionDateAsc();
+    Optional<Session> findFirstBySessionDateIsNotNullOrderBySessionDateDesc();
 }
 
@@ -0,0 +1,59 @@
+package com.example.helloworld.scheduler.church;
+
+import com.example.helloworld.service.church.AttendanceRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 出席率週彙總重建排程器
+ * 每天凌晨 03:00 依簽到原始資料全量重建，修正增量更新失敗或直接修改資料庫造成的差異
+ */
+@Component
+public class AttendanceRollupScheduler {
+
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRollupScheduler.class);
+
+    /**
+     * 出席率彙總重建任務
+     */
+    public static class AttendanceRollupJob implements Runnable {
+        private final AttendanceRollupScheduler scheduler;
+
+        public AttendanceRollupJob(AttendanceRollupScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void run() {
+            scheduler.rebuildRollup();
+        }
+    }
+
+    /**
+     * 全量重建出席率週彙總
+     */
+    public void rebuildRollup() {
+        try {
+            log.info("📊 [出席率彙總] 開始全量重建...");
+            int written = attendanceRollupService.rebuildAll();
+            JobResultHolder.setResult("出席率週彙總重建完成，共 " + written + " 筆人員週彙總");
+        } catch (Exception e) {
+            log.error("❌ [出席率彙總] 重建失敗: {}", e.getMessage(), e);
+            JobResultHolder.clear();
+            // 重新拋出異常，確保 Job 狀態標記為 FAILED
+            throw new RuntimeException("出席率彙總重建失敗: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 獲取出席率彙總重建任務實例
+     */
+    public AttendanceRollupJob getAttendanceRollupJob() {
+        return new AttendanceRollupJob(this);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.helloworld.service.church;
+
+import com.example.helloworld.dto.church.checkin.AttendanceCheckinRow;
+import com.example.helloworld.entity.church.checkin.Session;
+import com.example.helloworld.entity.church.checkin.SessionGroup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一段期間內「人員 × 場次」的出席矩陣。
+ * 場次依日期排序後以索引表示，每位人員以 BitSet 記錄已簽到（未取消）與已取消的場次，
+ * 場次類別、小組關聯同樣是 BitSet，出席率只需位元運算，不再逐場次查詢簽到。
+ */
+final class AttendanceMatrix implements AttendanceSource {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final List<Session> sessions;
+    private final LocalDate[] dates;
+    // 場次所屬自然週（週一起算）的序號，場次已依日期排序，因此同週的場次索引連續
+    private final int[] weekOrdinals;
+    private final Map<String, BitSet> sessionsByType = new HashMap<>();
+    private final Map<Long, BitSet> sessionsByGroup = new HashMap<>();
+    private final BitSet ungroupedSessions = new BitSet();
+    private final Map<Long, BitSet> attendedByMember = new HashMap<>();
+    private final Map<Long, BitSet> canceledByMember = new HashMap<>();
+
+    /**
+     * @param sessions 依 sessionDate、id 排序且日期不為 null 的場次
+     */
+    AttendanceMatrix(List<Session> sessions, List<SessionGroup> sessionGroups, List<AttendanceCheckinRow> checkins) {
+        this.sessions = sessions;
+        this.dates = new LocalDate[sessions.size()];
+        this.weekOrdinals = new int[sessions.size()];
+
+        Map<Long, Integer> indexById = new HashMap<>();
+        LocalDate currentWeek = null;
+        int weekOrdinal = -1;
+        for (int i = 0; i < sessions.size(); i++) {
+            Session session = sessions.get(i);
+            indexById.put(session.getId(), i);
+            dates[i] = session.getSessionDate();
+            LocalDate week = dates[i].with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            if (!week.equals(currentWeek)) {
+                currentWeek = week;
+                weekOrdinal += 1;
+            }
+            weekOrdinals[i] = weekOrdinal;
+            if (session.getSessionType() != null) {
+                sessionsByType.computeIfAbsent(session.getSessionType(), key -> new BitSet()).set(i);
+            }
+        }
+
+        Set<Integer> grouped = new HashSet<>();
+        for (SessionGroup sessionGroup : sessionGroups) {
+            Integer index = indexById.get(sessionGroup.getSessionId());
+            if (index != null) {
+                sessionsByGroup.computeIfAbsent(sessionGroup.getGroupId(), key -> new BitSet()).set(index);
+                grouped.add(index);
+            }
+        }
+        ungroupedSessions.set(0, sessions.size());
+        for (Integer index : grouped) {
+            ungroupedSessions.clear(index);
+        }
+
+        for (AttendanceCheckinRow checkin : checkins) {
+            Integer index = indexById.get(checkin.getSessionId());
+            if (index == null) {
+                continue;
+            }
+            Map<Long, BitSet> target = Boolean.TRUE.equals(checkin.getCanceled()) ? canceledByMember : attendedByMember;
+            target.computeIfAbsent(checkin.getMemberId(), key -> new BitSet()).set(index);
+        }
+    }
+
+    @Override
+    public Counts weekly(String sessionType, Long personId) {
+        return countWeeks(typeSessions(sessionType), personId);
+    }
+
+    @Override
+    public Counts special(Long personId) {
+        return countSessions(typeSessions("SPECIAL"), personId);
+    }
+
+    @Override
+    public Counts groupWeekly(Long groupId, LocalDate from, LocalDate to, Long personId) {
+        return countWeeks(groupSessions(groupId, from, to), personId);
+    }
+
+    /**
+     * 指定類別的所有場次
+     */
+    BitSet typeSessions(String sessionType) {
+        return (BitSet) sessionsByType.getOrDefault(sessionType, EMPTY).clone();
+    }
+
+    /**
+     * 小組場次：日期範圍內的 WEEKDAY 場次，且已關聯該小組或未關聯任何小組（舊資料）
+     */
+    BitSet groupSessions(Long groupId, LocalDate from, LocalDate to) {
+        BitSet result = (BitSet) sessionsByGroup.getOrDefault(groupId, EMPTY).clone();
+        result.or(ungroupedSessions);
+        result.and(sessionsByType.getOrDefault("WEEKDAY", EMPTY));
+        result.and(dateRange(from, to));
+        return result;
+    }
+
+    private Counts countSessions(BitSet candidates, Long memberId) {
+        BitSet attended = (BitSet) candidates.clone();
+        attended.and(attendedByMember.getOrDefault(memberId, EMPTY));
+        return new Counts(candidates.cardinality(), attended.cardinality());
+    }
+
+    /**
+     * 以自然週計算：只計算有場次的週，週內任一場次有簽到即算出席
+     */
+    private Counts countWeeks(BitSet candidates, Long memberId) {
+        BitSet attended = attendedByMember.getOrDefault(memberId, EMPTY);
+        int totalWeeks = 0;
+        int attendedWeeks = 0;
+        int lastWeek = -1;
+        boolean lastWeekAttended = false;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (weekOrdinals[i] != lastWeek) {
+                lastWeek = weekOrdinals[i];
+                lastWeekAttended = false;
+                totalWeeks += 1;
+            }
+            if (!lastWeekAttended && attended.get(i)) {
+                lastWeekAttended = true;
+                attendedWeeks += 1;
+            }
+        }
+        return new Counts(totalWeeks, attendedWeeks);
+    }
+
+    Session session(int index) {
+        return sessions.get(index);
+    }
+
+    boolean isAttended(int index, Long memberId) {
+        return attendedByMember.getOrDefault(memberId, EMPTY).get(index);
+    }
+
+    boolean isCanceled(int index, Long memberId) {
+        return canceledByMember.getOrDefault(memberId, EMPTY).get(index);
+    }
+
+    private BitSet dateRange(LocalDate from, LocalDate to) {
+        BitSet range = new BitSet();
+        if (from == null || to == null || from.isAfter(to)) {
+            return range;
+        }
+        int start = lowerBound(from);
+        int end = lowerBound(to.plusDays(1));
+        if (start < end) {
+            range.set(start, end);
+        }
+        return range;
+    }
+
+    /**
+     * 第一個日期不早於 date 的場次索引
+     */
+    private int lowerBound(LocalDate date) {
+        int low = 0;
+        int high = dates.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid].isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.helloworld.service.church;
 
+import com.example.helloworld.dto.church.checkin.AttendanceCheckinRow;
 import com.example.helloworld.dto.church.checkin.AttendanceRateDto;
 import com.example.helloworld.dto.church.checkin.SessionDetailResult;
-import com.example.helloworld.entity.church.Group;
+import com.example.helloworld.entity.church.GroupPerson;
 import com.example.helloworld.entity.church.Person;
-import com.example.helloworld.entity.church.checkin.Checkin;
 import com.example.helloworld.entity.church.checkin.Session;
+import com.example.helloworld.entity.church.checkin.SessionGroup;
 import com.example.helloworld.repository.church.GroupPersonRepository;
 import com.example.helloworld.repository.church.PersonRepository;
 import com.example.helloworld.repository.church.checkin.CheckinRepository;
@@ -16,17 +17,21 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * 出席率計算。
+ * 週彙總已建立時讀取 {@link AttendanceRollupService} 維護的彙總（{@link AttendanceRollupSnapshot}）；
+ * 否則以少數查詢載入年度內的場次、場次小組關聯與簽到，建成 {@link AttendanceMatrix} 計算。
+ * 場次明細需要逐場次資料，一律使用矩陣。
+ */
 @Service
 public class AttendanceRateService {
     private final PersonRepository personRepository;
@@ -34,18 +39,21 @@ public class AttendanceRateService {
     private final CheckinRepository checkinRepository;
     private final GroupPersonRepository groupPersonRepository;
     private final SessionGroupRepository sessionGroupRepository;
+    private final AttendanceRollupService attendanceRollupService;
 
     public AttendanceRateService(
             PersonRepository personRepository,
             SessionRepository sessionRepository,
             CheckinRepository checkinRepository,
             GroupPersonRepository groupPersonRepository,
-            SessionGroupRepository sessionGroupRepository) {
+            SessionGroupRepository sessionGroupRepository,
+            AttendanceRollupService attendanceRollupService) {
         this.personRepository = personRepository;
         this.sessionRepository = sessionRepository;
         this.checkinRepository = checkinRepository;
         this.groupPersonRepository = groupPersonRepository;
         this.sessionGroupRepository = sessionGroupRepository;
+        this.attendanceRollupService = attendanceRollupService;
     }
 
     /**
@@ -53,109 +61,16 @@ public class AttendanceRateService {
      */
     @Transactional(transactionManager = "churchTransactionManager", readOnly = true)
     public List<AttendanceRateDto> calculateAttendanceByCategory(Long personId, Integer year, Boolean includeHistorical) {
-        if (includeHistorical == null) {
-            includeHistorical = false;
-        }
         Person person = personRepository.findById(personId)
                 .orElseThrow(() -> new RuntimeException("人員不存在：" + personId));
 
-        LocalDate yearStart = LocalDate.of(year, 1, 1);
-        LocalDate yearEnd = LocalDate.of(year, 12, 31);
-        LocalDate today = LocalDate.now();
-
-        // 只計算到今天的日期
-        LocalDate endDate = yearEnd.isAfter(today) ? today : yearEnd;
-
-        List<AttendanceRateDto> results = new ArrayList<>();
-
-        // 計算各類別的出席率（不包括 WEEKDAY，因為小組類別會細分到具體小組）
-        String[] categories = {"SATURDAY", "SUNDAY", "SPECIAL"};
-        String[] categoryNames = {"週六晚崇", "週日早崇", "活動"};
-
-        for (int i = 0; i < categories.length; i++) {
-            String category = categories[i];
-            String categoryName = categoryNames[i];
-
-            // 對於 SATURDAY 和 SUNDAY，使用週次計算
-            if ("SATURDAY".equals(category) || "SUNDAY".equals(category)) {
-                AttendanceRateDto dto = calculateWeeklyAttendanceByCategory(
-                        person, category, categoryName, yearStart, endDate, year);
-                if (dto != null) {
-                    results.add(dto);
-                }
-            } else {
-                // 對於 SPECIAL，使用原有的場次計算
-                List<Session> sessions = sessionRepository.findAll().stream()
-                        .filter(s -> category.equals(s.getSessionType()))
-                        .filter(s -> s.getSessionDate() != null)
-                        .filter(s -> !s.getSessionDate().isBefore(yearStart))
-                        .filter(s -> !s.getSessionDate().isAfter(endDate))
-                        .collect(Collectors.toList());
-
-                if (sessions.isEmpty()) {
-                    continue; // 如果沒有場次，跳過
-                }
-
-                // 計算已簽到場次數
-                long checkedInCount = sessions.stream()
-                        .mapToLong(s -> checkinRepository.findBySessionIdAndMemberId(s.getId(), personId)
-                                .map(c -> (c.getCanceled() == null || !c.getCanceled()) ? 1 : 0)
-                                .orElse(0))
-                        .sum();
-
-                int totalSessions = sessions.size();
-                BigDecimal attendanceRate = totalSessions > 0
-                        ? BigDecimal.valueOf(checkedInCount * 100.0 / totalSessions)
-                                .setScale(2, RoundingMode.HALF_UP)
-                        : BigDecimal.ZERO;
-
-                AttendanceRateDto dto = new AttendanceRateDto(
-                        person.getId(),
-                        person.getPersonName(),
-                        person.getDisplayName(),
-                        person.getMemberNo(),
-                        categoryName,
-                        totalSessions,
-                        (int) checkedInCount,
-                        attendanceRate,
-                        year
-                );
-                results.add(dto);
-            }
-        }
-
-        // 計算小組類別的細分（按具體小組）
-        List<com.example.helloworld.entity.church.GroupPerson> groupPersons;
-        if (includeHistorical) {
-            groupPersons = groupPersonRepository.findAllGroupsByPersonId(personId);
-        } else {
-            groupPersons = groupPersonRepository.findActiveGroupsByPersonId(personId);
-        }
-
-        for (com.example.helloworld.entity.church.GroupPerson gp : groupPersons) {
-            Long groupId = gp.getGroupId() != null ? gp.getGroupId() : gp.getGroup().getId();
-            LocalDate joinedAt = gp.getJoinedAt();
-            LocalDate leftAt = gp.getLeftAt();
-            String groupName = gp.getGroup() != null ? gp.getGroup().getGroupName() : "未知小組";
-            Boolean isActive = gp.getIsActive();
-
-            // 確定有效的日期範圍
-            LocalDate effectiveStart = joinedAt.isAfter(yearStart) ? joinedAt : yearStart;
-            LocalDate effectiveEnd = endDate;
-            if (leftAt != null && leftAt.isBefore(effectiveEnd)) {
-                effectiveEnd = leftAt;
-            }
-
-            // 使用週次計算方法
-            AttendanceRateDto dto = calculateGroupWeeklyAttendance(
-                    person, groupId, groupName, effectiveStart, effectiveEnd, year,
-                    isActive != null && isActive, joinedAt, leftAt);
-            if (dto != null) {
-                results.add(dto);
-            }
-        }
+        YearRange range = YearRange.of(year);
+        AttendanceSource source = loadSource(range, List.of(personId));
+        List<GroupPerson> groupPersons = Boolean.TRUE.equals(includeHistorical)
+                ? groupPersonRepository.findAllGroupsByPersonId(personId)
+                : groupPersonRepository.findActiveGroupsByPersonId(personId);
 
-        return results;
+        return calculatePersonRates(source, person, groupPersons, range, year);
     }
 
     /**
@@ -163,46 +78,29 @@ public class AttendanceRateService {
      */
     @Transactional(transactionManager = "churchTransactionManager", readOnly = true)
     public List<AttendanceRateDto> calculateGroupAttendance(Long groupId, Integer year, Boolean includeHistorical) {
-        if (includeHistorical == null) {
-            includeHistorical = false;
-        }
-        LocalDate yearStart = LocalDate.of(year, 1, 1);
-        LocalDate yearEnd = LocalDate.of(year, 12, 31);
-        LocalDate today = LocalDate.now();
-        LocalDate endDate = yearEnd.isAfter(today) ? today : yearEnd;
-
         // 獲取小組所有成員
-        List<com.example.helloworld.entity.church.GroupPerson> groupPersons;
-        if (includeHistorical) {
-            groupPersons = groupPersonRepository.findAllMembersByGroupId(groupId);
-        } else {
-            groupPersons = groupPersonRepository.findActiveMembersByGroupId(groupId);
+        List<GroupPerson> groupPersons = Boolean.TRUE.equals(includeHistorical)
+                ? groupPersonRepository.findAllMembersByGroupId(groupId)
+                : groupPersonRepository.findActiveMembersByGroupId(groupId);
+        if (groupPersons.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        List<AttendanceRateDto> results = new ArrayList<>();
-
-        for (com.example.helloworld.entity.church.GroupPerson gp : groupPersons) {
-            Person person = gp.getPerson();
-            LocalDate joinedAt = gp.getJoinedAt();
-            LocalDate leftAt = gp.getLeftAt();
-            Boolean isActive = gp.getIsActive();
-
-            // 確定有效的日期範圍
-            LocalDate effectiveStart = joinedAt.isAfter(yearStart) ? joinedAt : yearStart;
-            LocalDate effectiveEnd = endDate;
-            if (leftAt != null && leftAt.isBefore(effectiveEnd)) {
-                effectiveEnd = leftAt;
-            }
+        YearRange range = YearRange.of(year);
+        List<Long> memberIds = groupPersons.stream()
+                .map(gp -> gp.getPerson().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        AttendanceSource source = loadSource(range, memberIds);
 
-            // 使用週次計算方法
+        List<AttendanceRateDto> results = new ArrayList<>();
+        for (GroupPerson gp : groupPersons) {
             AttendanceRateDto dto = calculateGroupWeeklyAttendance(
-                    person, groupId, gp.getGroup().getGroupName(), effectiveStart, effectiveEnd, year,
-                    isActive != null && isActive, joinedAt, leftAt);
+                    source, gp.getPerson(), groupId, gp.getGroup().getGroupName(), gp, range, year);
             if (dto != null) {
                 results.add(dto);
             }
         }
-
         return results;
     }
 
@@ -211,15 +109,26 @@ public class AttendanceRateService {
      */
     @Transactional(transactionManager = "churchTransactionManager", readOnly = true)
     public List<AttendanceRateDto> calculateAllPersonsAttendance(Integer year, String category, Boolean includeHistorical) {
-        if (includeHistorical == null) {
-            includeHistorical = false;
-        }
         List<Person> persons = personRepository.findByIsActiveTrueOrderByPersonNameAsc();
-        List<AttendanceRateDto> results = new ArrayList<>();
+        if (persons.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        YearRange range = YearRange.of(year);
+        AttendanceSource source = loadSource(range, null);
 
+        // 一次載入所有人員的小組（含歷史），非歷史模式再過濾有效成員
+        List<Long> personIds = persons.stream().map(Person::getId).collect(Collectors.toList());
+        boolean historical = Boolean.TRUE.equals(includeHistorical);
+        Map<Long, List<GroupPerson>> groupsByPerson = groupPersonRepository.findAllGroupsByPersonIds(personIds).stream()
+                .filter(gp -> historical || Boolean.TRUE.equals(gp.getIsActive()))
+                .collect(Collectors.groupingBy(GroupPerson::getPersonId, LinkedHashMap::new, Collectors.toList()));
+
+        List<AttendanceRateDto> results = new ArrayList<>();
         for (Person person : persons) {
-            List<AttendanceRateDto> personRates = calculateAttendanceByCategory(person.getId(), year, includeHistorical);
-            
+            List<AttendanceRateDto> personRates = calculatePersonRates(
+                    source, person, groupsByPerson.getOrDefault(person.getId(), List.of()), range, year);
+
             if (category != null && !category.isEmpty()) {
                 // 過濾特定類別
                 personRates = personRates.stream()
@@ -227,8 +136,8 @@ public class AttendanceRateService {
                             if ("WEEKDAY".equals(category)) {
                                 // 如果是小組類別，返回所有小組的細分（排除其他類別）
                                 // 小組細分的 category 是具體的小組名稱，不是「小組」
-                                return !dto.getCategory().equals("週六晚崇") && 
-                                       !dto.getCategory().equals("週日早崇") && 
+                                return !dto.getCategory().equals("週六晚崇") &&
+                                       !dto.getCategory().equals("週日早崇") &&
                                        !dto.getCategory().equals("活動");
                             } else {
                                 return dto.getCategory().equals(getCategoryName(category));
@@ -236,7 +145,7 @@ public class AttendanceRateService {
                         })
                         .collect(Collectors.toList());
             }
-            
+
             results.addAll(personRates);
         }
 
@@ -254,148 +163,67 @@ public class AttendanceRateService {
     }
 
     /**
-     * 按自然週計算主日類型的出席率（只計算有場次的週數）
+     * 單一人員的各類別出席率：週六、週日按自然週，活動按場次，小組按所屬小組細分
      */
-    private AttendanceRateDto calculateWeeklyAttendanceByCategory(
-            Person person, String category, String categoryName,
-            LocalDate yearStart, LocalDate endDate, Integer year) {
-        
-        // 查詢該類別的所有場次（年度範圍內，不超過今天）
-        List<Session> sessions = sessionRepository.findAll().stream()
-                .filter(s -> category.equals(s.getSessionType()))
-                .filter(s -> s.getSessionDate() != null)
-                .filter(s -> !s.getSessionDate().isBefore(yearStart))
-                .filter(s -> !s.getSessionDate().isAfter(endDate))
-                .collect(Collectors.toList());
+    private List<AttendanceRateDto> calculatePersonRates(
+            AttendanceSource source, Person person, List<GroupPerson> groupPersons, YearRange range, Integer year) {
+        List<AttendanceRateDto> results = new ArrayList<>();
 
-        if (sessions.isEmpty()) {
-            return null; // 如果沒有場次，返回 null
-        }
+        // 計算各類別的出席率（不包括 WEEKDAY，因為小組類別會細分到具體小組）
+        String[] categories = {"SATURDAY", "SUNDAY", "SPECIAL"};
+        String[] categoryNames = {"週六晚崇", "週日早崇", "活動"};
 
-        // 按自然週分組（使用週一日期作為週標識）
-        Map<LocalDate, List<Session>> sessionsByWeek = sessions.stream()
-                .collect(Collectors.groupingBy(s -> {
-                    LocalDate sessionDate = s.getSessionDate();
-                    // 獲取該週的週一日期
-                    return sessionDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-                }));
-
-        // 只計算有場次的週數
-        int totalWeeks = sessionsByWeek.size();
-        if (totalWeeks == 0) {
-            return null;
-        }
+        for (int i = 0; i < categories.length; i++) {
+            String category = categories[i];
 
-        // 計算有參加的週數
-        int attendedWeeks = 0;
-        for (Map.Entry<LocalDate, List<Session>> entry : sessionsByWeek.entrySet()) {
-            List<Session> weekSessions = entry.getValue();
-            // 檢查該人員在該週內是否有參加過任何一次
-            boolean attended = weekSessions.stream()
-                    .anyMatch(s -> {
-                        Optional<Checkin> checkin = checkinRepository.findBySessionIdAndMemberId(
-                                s.getId(), person.getId());
-                        return checkin.isPresent() &&
-                               (checkin.get().getCanceled() == null || !checkin.get().getCanceled());
-                    });
-            if (attended) {
-                attendedWeeks++;
+            // 對於 SATURDAY 和 SUNDAY，使用週次計算；SPECIAL 使用場次計算
+            AttendanceSource.Counts counts = "SPECIAL".equals(category)
+                    ? source.special(person.getId())
+                    : source.weekly(category, person.getId());
+            if (counts.total() == 0) {
+                continue; // 如果沒有場次，跳過
             }
+
+            results.add(new AttendanceRateDto(
+                    person.getId(),
+                    person.getPersonName(),
+                    person.getDisplayName(),
+                    person.getMemberNo(),
+                    categoryNames[i],
+                    counts.total(),
+                    counts.attended(),
+                    toRate(counts),
+                    year
+            ));
         }
 
-        BigDecimal attendanceRate = BigDecimal.valueOf(attendedWeeks * 100.0 / totalWeeks)
-                .setScale(2, RoundingMode.HALF_UP);
+        // 計算小組類別的細分（按具體小組）
+        for (GroupPerson gp : groupPersons) {
+            Long groupId = gp.getGroupId() != null ? gp.getGroupId() : gp.getGroup().getId();
+            String groupName = gp.getGroup() != null ? gp.getGroup().getGroupName() : "未知小組";
+            AttendanceRateDto dto = calculateGroupWeeklyAttendance(source, person, groupId, groupName, gp, range, year);
+            if (dto != null) {
+                results.add(dto);
+            }
+        }
 
-        return new AttendanceRateDto(
-                person.getId(),
-                person.getPersonName(),
-                person.getDisplayName(),
-                person.getMemberNo(),
-                categoryName,
-                totalWeeks, // 總週數
-                attendedWeeks, // 有參加的週數
-                attendanceRate,
-                year
-        );
+        return results;
     }
 
     /**
      * 按自然週計算小組類型的出席率（只計算有該小組簽到表的週數）
      */
     private AttendanceRateDto calculateGroupWeeklyAttendance(
-            Person person, Long groupId, String groupName,
-            LocalDate effectiveStart, LocalDate effectiveEnd, Integer year,
-            boolean isActive, LocalDate joinedAt, LocalDate leftAt) {
-        
-        // 獲取所有與該小組關聯的場次ID（從 session_groups 表）
-        List<com.example.helloworld.entity.church.checkin.SessionGroup> sessionGroups = 
-                sessionGroupRepository.findByGroupId(groupId);
-        List<Long> associatedSessionIds = sessionGroups.stream()
-                .map(sg -> sg.getSessionId())
-                .collect(Collectors.toList());
-
-        // 查詢該小組的所有小組類型場次（在有效日期範圍內）
-        List<Session> groupSessions = sessionRepository.findAll().stream()
-                .filter(s -> "WEEKDAY".equals(s.getSessionType()))
-                .filter(s -> s.getSessionDate() != null)
-                .filter(s -> !s.getSessionDate().isBefore(effectiveStart))
-                .filter(s -> !s.getSessionDate().isAfter(effectiveEnd))
-                .filter(s -> {
-                    // 如果場次已關聯到該小組，則包含
-                    if (associatedSessionIds.contains(s.getId())) {
-                        return true;
-                    }
-                    // 如果場次沒有關聯到任何小組，則根據人員所屬的小組判斷（用於處理舊數據）
-                    List<com.example.helloworld.entity.church.checkin.SessionGroup> sessionGroupList = 
-                            sessionGroupRepository.findBySessionId(s.getId());
-                    if (sessionGroupList.isEmpty()) {
-                        // 場次沒有關聯到任何小組，如果人員屬於該小組，則包含
-                        return true;
-                    }
-                    return false;
-                })
-                .collect(Collectors.toList());
-
-        if (groupSessions.isEmpty()) {
+            AttendanceSource source, Person person, Long groupId, String groupName,
+            GroupPerson membership, YearRange range, Integer year) {
+        AttendanceSource.Counts counts = source.groupWeekly(
+                groupId, range.effectiveStart(membership), range.effectiveEnd(membership), person.getId());
+        if (counts.total() == 0) {
             return null; // 如果沒有場次，返回 null
         }
 
-        // 按自然週分組（使用週一日期作為週標識）
-        Map<LocalDate, List<Session>> sessionsByWeek = groupSessions.stream()
-                .collect(Collectors.groupingBy(s -> {
-                    LocalDate sessionDate = s.getSessionDate();
-                    // 獲取該週的週一日期
-                    return sessionDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-                }));
-
-        // 只計算有該小組簽到表的週數
-        int totalWeeks = sessionsByWeek.size();
-        if (totalWeeks == 0) {
-            return null;
-        }
-
-        // 計算有參加的週數
-        int attendedWeeks = 0;
-        for (Map.Entry<LocalDate, List<Session>> entry : sessionsByWeek.entrySet()) {
-            List<Session> weekSessions = entry.getValue();
-            // 檢查該人員在該週內是否有參加過該小組的任何一次場次
-            boolean attended = weekSessions.stream()
-                    .anyMatch(s -> {
-                        Optional<Checkin> checkin = checkinRepository.findBySessionIdAndMemberId(
-                                s.getId(), person.getId());
-                        return checkin.isPresent() &&
-                               (checkin.get().getCanceled() == null || !checkin.get().getCanceled());
-                    });
-            if (attended) {
-                attendedWeeks++;
-            }
-        }
-
-        BigDecimal attendanceRate = BigDecimal.valueOf(attendedWeeks * 100.0 / totalWeeks)
-                .setScale(2, RoundingMode.HALF_UP);
-
         // 設置小組狀態
-        String groupStatus = isActive ? "CURRENT" : "HISTORICAL";
+        String groupStatus = Boolean.TRUE.equals(membership.getIsActive()) ? "CURRENT" : "HISTORICAL";
 
         return new AttendanceRateDto(
                 person.getId(),
@@ -403,13 +231,13 @@ public class AttendanceRateService {
                 person.getDisplayName(),
                 person.getMemberNo(),
                 groupName,
-                totalWeeks, // 總週數
-                attendedWeeks, // 有參加的週數
-                attendanceRate,
+                counts.total(), // 總週數
+                counts.attended(), // 有參加的週數
+                toRate(counts),
                 year,
                 groupStatus,
-                joinedAt,
-                leftAt
+                membership.getJoinedAt(),
+                membership.getLeftAt()
         );
     }
 
@@ -423,124 +251,109 @@ public class AttendanceRateService {
      */
     @Transactional(transactionManager = "churchTransactionManager", readOnly = true)
     public List<SessionDetailResult> getSessionDetails(Long personId, String category, Integer year, Boolean includeHistorical) {
-        if (includeHistorical == null) {
-            includeHistorical = false;
-        }
-        Person person = personRepository.findById(personId)
+        personRepository.findById(personId)
                 .orElseThrow(() -> new RuntimeException("人員不存在：" + personId));
 
-        LocalDate yearStart = LocalDate.of(year, 1, 1);
-        LocalDate yearEnd = LocalDate.of(year, 12, 31);
-        LocalDate today = LocalDate.now();
-        LocalDate endDate = yearEnd.isAfter(today) ? today : yearEnd;
-
-        List<SessionDetailResult> results = new ArrayList<>();
+        YearRange range = YearRange.of(year);
+        AttendanceMatrix matrix = loadMatrix(range, List.of(personId));
 
         // 判斷 category 是主日類型、活動類型還是小組名稱
         if ("SATURDAY".equals(category) || "SUNDAY".equals(category) || "SPECIAL".equals(category)) {
-            // 主日類型或活動類型：查詢該類別的所有場次
-            List<Session> sessions = sessionRepository.findAll().stream()
-                    .filter(s -> category.equals(s.getSessionType()))
-                    .filter(s -> s.getSessionDate() != null)
-                    .filter(s -> !s.getSessionDate().isBefore(yearStart))
-                    .filter(s -> !s.getSessionDate().isAfter(endDate))
-                    .sorted((s1, s2) -> s1.getSessionDate().compareTo(s2.getSessionDate()))
-                    .collect(Collectors.toList());
-
-            for (Session session : sessions) {
-                Optional<Checkin> checkin = checkinRepository.findBySessionIdAndMemberId(session.getId(), personId);
-                Boolean checkedIn = checkin.isPresent();
-                Boolean canceled = checkin.map(c -> c.getCanceled() != null && c.getCanceled()).orElse(false);
-                
-                // 如果已取消，則視為未簽到
-                if (canceled) {
-                    checkedIn = false;
-                }
-
-                results.add(new SessionDetailResult(
-                        session.getId(),
-                        session.getSessionCode(),
-                        session.getTitle(),
-                        session.getSessionDate(),
-                        checkedIn,
-                        canceled
-                ));
-            }
-        } else {
-            // 小組類型：根據小組名稱查找對應的 groupId
-            com.example.helloworld.entity.church.Group group = null;
-            List<com.example.helloworld.entity.church.GroupPerson> groupPersons;
-            if (includeHistorical) {
-                groupPersons = groupPersonRepository.findAllGroupsByPersonId(personId);
-            } else {
-                groupPersons = groupPersonRepository.findActiveGroupsByPersonId(personId);
-            }
+            return toSessionDetails(matrix, matrix.typeSessions(category), personId);
+        }
 
-            for (com.example.helloworld.entity.church.GroupPerson gp : groupPersons) {
-                String groupName = gp.getGroup() != null ? gp.getGroup().getGroupName() : null;
-                if (category.equals(groupName)) {
-                    group = gp.getGroup();
-                    Long groupId = group.getId();
-                    LocalDate joinedAt = gp.getJoinedAt();
-                    LocalDate leftAt = gp.getLeftAt();
-
-                    // 確定有效的日期範圍
-                    final LocalDate effectiveStart = joinedAt.isAfter(yearStart) ? joinedAt : yearStart;
-                    final LocalDate effectiveEnd = (leftAt != null && leftAt.isBefore(endDate)) ? leftAt : endDate;
-
-                    // 獲取所有與該小組關聯的場次ID
-                    List<com.example.helloworld.entity.church.checkin.SessionGroup> sessionGroups = 
-                            sessionGroupRepository.findByGroupId(groupId);
-                    final List<Long> associatedSessionIds = sessionGroups.stream()
-                            .map(sg -> sg.getSessionId())
-                            .collect(Collectors.toList());
-
-                    // 查詢該小組的所有小組類型場次（在有效日期範圍內）
-                    List<Session> groupSessions = sessionRepository.findAll().stream()
-                            .filter(s -> "WEEKDAY".equals(s.getSessionType()))
-                            .filter(s -> s.getSessionDate() != null)
-                            .filter(s -> !s.getSessionDate().isBefore(effectiveStart))
-                            .filter(s -> !s.getSessionDate().isAfter(effectiveEnd))
-                            .filter(s -> {
-                                if (associatedSessionIds.contains(s.getId())) {
-                                    return true;
-                                }
-                                // 如果場次沒有關聯到任何小組，則根據人員所屬的小組判斷（用於處理舊數據）
-                                List<com.example.helloworld.entity.church.checkin.SessionGroup> sessionGroupList = 
-                                        sessionGroupRepository.findBySessionId(s.getId());
-                                if (sessionGroupList.isEmpty()) {
-                                    return true;
-                                }
-                                return false;
-                            })
-                            .sorted((s1, s2) -> s1.getSessionDate().compareTo(s2.getSessionDate()))
-                            .collect(Collectors.toList());
-
-                    for (Session session : groupSessions) {
-                        Optional<Checkin> checkin = checkinRepository.findBySessionIdAndMemberId(session.getId(), personId);
-                        Boolean checkedIn = checkin.isPresent();
-                        Boolean canceled = checkin.map(c -> c.getCanceled() != null && c.getCanceled()).orElse(false);
-                        
-                        // 如果已取消，則視為未簽到
-                        if (canceled) {
-                            checkedIn = false;
-                        }
-
-                        results.add(new SessionDetailResult(
-                                session.getId(),
-                                session.getSessionCode(),
-                                session.getTitle(),
-                                session.getSessionDate(),
-                                checkedIn,
-                                canceled
-                        ));
-                    }
-                    break; // 找到對應的小組後就退出
-                }
+        // 小組類型：根據小組名稱查找對應的小組
+        List<GroupPerson> groupPersons = Boolean.TRUE.equals(includeHistorical)
+                ? groupPersonRepository.findAllGroupsByPersonId(personId)
+                : groupPersonRepository.findActiveGroupsByPersonId(personId);
+        for (GroupPerson gp : groupPersons) {
+            String groupName = gp.getGroup() != null ? gp.getGroup().getGroupName() : null;
+            if (category.equals(groupName)) {
+                BitSet sessions = matrix.groupSessions(
+                        gp.getGroup().getId(), range.effectiveStart(gp), range.effectiveEnd(gp));
+                return toSessionDetails(matrix, sessions, personId);
             }
         }
+        return new ArrayList<>();
+    }
 
+    private List<SessionDetailResult> toSessionDetails(AttendanceMatrix matrix, BitSet sessions, Long personId) {
+        List<SessionDetailResult> results = new ArrayList<>();
+        for (int i = sessions.nextSetBit(0); i >= 0; i = sessions.nextSetBit(i + 1)) {
+            Session session = matrix.session(i);
+            // 已取消的簽到視為未簽到
+            results.add(new SessionDetailResult(
+                    session.getId(),
+                    session.getSessionCode(),
+                    session.getTitle(),
+                    session.getSessionDate(),
+                    matrix.isAttended(i, personId),
+                    matrix.isCanceled(i, personId)
+            ));
+        }
         return results;
     }
-}
 
+    /**
+     * 出席率計數來源：週彙總可用時讀彙總，否則即時建立矩陣（memberIds 為 null 時載入所有人員）
+     */
+    private AttendanceSource loadSource(YearRange range, Collection<Long> memberIds) {
+        if (attendanceRollupService.isReady()) {
+            return attendanceRollupService.loadSnapshot(range.start(), range.end(), memberIds);
+        }
+        return loadMatrix(range, memberIds);
+    }
+
+    /**
+     * 載入年度範圍內的場次、小組關聯與簽到（memberIds 為 null 時載入所有人員）
+     */
+    private AttendanceMatrix loadMatrix(YearRange range, Collection<Long> memberIds) {
+        if (range.start().isAfter(range.end())) {
+            return new AttendanceMatrix(List.of(), List.of(), List.of());
+        }
+        List<Session> sessions = sessionRepository.findBySessionDateBetweenOrderBySessionDateAscIdAsc(
+                range.start(), range.end());
+        if (sessions.isEmpty()) {
+            return new AttendanceMatrix(sessions, List.of(), List.of());
+        }
+
+        List<Long> sessionIds = sessions.stream().map(Session::getId).collect(Collectors.toList());
+        List<SessionGroup> sessionGroups = sessionGroupRepository.findBySessionIdIn(sessionIds);
+        List<AttendanceCheckinRow> checkins;
+        if (memberIds == null) {
+            checkins = checkinRepository.findAttendanceRows(range.start(), range.end());
+        } else if (memberIds.isEmpty()) {
+            checkins = List.of();
+        } else {
+            checkins = checkinRepository.findAttendanceRowsByMemberIds(range.start(), range.end(), memberIds);
+        }
+        return new AttendanceMatrix(sessions, sessionGroups, checkins);
+    }
+
+    private BigDecimal toRate(AttendanceSource.Counts counts) {
+        return counts.total() > 0
+                ? BigDecimal.valueOf(counts.attended() * 100.0 / counts.total()).setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    /**
+     * 年度計算範圍：年初到年底，但只計算到今天
+     */
+    private record YearRange(LocalDate start, LocalDate end) {
+        static YearRange of(Integer year) {
+            LocalDate yearEnd = LocalDate.of(year, 12, 31);
+            LocalDate today = LocalDate.now();
+            return new YearRange(LocalDate.of(year, 1, 1), yearEnd.isAfter(today) ? today : yearEnd);
+        }
+
+        LocalDate effectiveStart(GroupPerson membership) {
+            LocalDate joinedAt = membership.getJoinedAt();
+            return joinedAt != null && joinedAt.isAfter(start) ? joinedAt : start;
+        }
+
+        LocalDate effectiveEnd(GroupPerson membership) {
+            LocalDate leftAt = membership.getLeftAt();
+            return leftAt != null && leftAt.isBefore(end) ? leftAt : end;
+        }
+    }
+}
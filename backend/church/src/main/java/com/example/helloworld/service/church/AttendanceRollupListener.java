@@ -0,0 +1,43 @@
+package com.example.helloworld.service.church;
+
+import com.example.helloworld.service.church.checkin.CheckinChangedEvent;
+import com.example.helloworld.service.church.checkin.SessionChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 簽到與場次異動提交後增量更新出席率週彙總。
+ * 更新失敗只記錄警告，不影響簽到本身；每晚的全量重建會修正遺漏。
+ */
+@Component
+public class AttendanceRollupListener {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRollupListener.class);
+
+    private final AttendanceRollupService attendanceRollupService;
+
+    public AttendanceRollupListener(AttendanceRollupService attendanceRollupService) {
+        this.attendanceRollupService = attendanceRollupService;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCheckinChanged(CheckinChangedEvent event) {
+        try {
+            attendanceRollupService.refreshMembersWeek(event.sessionId(), event.memberIds());
+        } catch (Exception e) {
+            log.warn("⚠️ [出席率彙總] 更新簽到彙總失敗 (sessionId={}, memberIds={}): {}",
+                    event.sessionId(), event.memberIds(), e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        try {
+            attendanceRollupService.refreshWeeks(event.sessionDates());
+        } catch (Exception e) {
+            log.warn("⚠️ [出席率彙總] 更新場次彙總失敗 (dates={}): {}", event.sessionDates(), e.getMessage());
+        }
+    }
+}
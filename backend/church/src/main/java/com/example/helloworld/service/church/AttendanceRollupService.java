@@ -0,0 +1,331 @@
+package com.example.helloworld.service.church;
+
+import com.example.helloworld.dto.church.checkin.AttendanceCheckinRow;
+import com.example.helloworld.dto.church.checkin.AttendanceCountRow;
+import com.example.helloworld.entity.church.checkin.AttendanceWeekRollup;
+import com.example.helloworld.entity.church.checkin.AttendanceWeekSlot;
+import com.example.helloworld.entity.church.checkin.Session;
+import com.example.helloworld.entity.church.checkin.SessionGroup;
+import com.example.helloworld.repository.church.checkin.AttendanceWeekRollupRepository;
+import com.example.helloworld.repository.church.checkin.AttendanceWeekSlotRepository;
+import com.example.helloworld.repository.church.checkin.CheckinRepository;
+import com.example.helloworld.repository.church.checkin.SessionGroupRepository;
+import com.example.helloworld.repository.church.checkin.SessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 出席率週彙總的維護。
+ * 週六、週日、小組場次依（類別, 小組, 自然週）記錄有場次的星期幾，
+ * 人員依（人員, 類別, 小組, 自然週）記錄有簽到的星期幾；出席率只需讀取彙總再以位元運算計算。
+ * 活動（SPECIAL）按場次計算，直接以彙總查詢取得，不寫入彙總表。
+ *
+ * 簽到、場次異動於交易提交後增量更新受影響的週，排程每晚全量重建以修正任何遺漏。
+ * 全量重建每批週數各自一個交易（先刪後寫），不會長時間鎖住整張彙總表而卡住簽到的增量更新。
+ */
+@Service
+@Transactional(transactionManager = "churchTransactionManager")
+public class AttendanceRollupService {
+    private static final Logger log = LoggerFactory.getLogger(AttendanceRollupService.class);
+
+    // 未區分小組（主日）或未關聯任何小組的小組場次
+    static final long NO_GROUP = 0L;
+    static final Set<String> WEEKLY_TYPES = Set.of("SATURDAY", "SUNDAY", "WEEKDAY");
+    // 全量重建時每批（每個交易）處理的週數
+    private static final int REBUILD_CHUNK_WEEKS = 26;
+
+    private final SessionRepository sessionRepository;
+    private final SessionGroupRepository sessionGroupRepository;
+    private final CheckinRepository checkinRepository;
+    private final AttendanceWeekSlotRepository slotRepository;
+    private final AttendanceWeekRollupRepository rollupRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final boolean enabled;
+
+    // 彙總表已完整建立後才提供讀取，否則出席率改由原始簽到計算
+    private volatile boolean ready;
+
+    public AttendanceRollupService(
+            SessionRepository sessionRepository,
+            SessionGroupRepository sessionGroupRepository,
+            CheckinRepository checkinRepository,
+            AttendanceWeekSlotRepository slotRepository,
+            AttendanceWeekRollupRepository rollupRepository,
+            @Qualifier("churchTransactionManager") PlatformTransactionManager transactionManager,
+            @Value("${church.attendance.rollup.enabled:true}") boolean enabled) {
+        this.sessionRepository = sessionRepository;
+        this.sessionGroupRepository = sessionGroupRepository;
+        this.checkinRepository = checkinRepository;
+        this.slotRepository = slotRepository;
+        this.rollupRepository = rollupRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * 啟動時呼叫：彙總表為空但已有場次時回填全部資料
+     */
+    @Transactional(transactionManager = "churchTransactionManager", propagation = Propagation.NOT_SUPPORTED)
+    public void rebuildIfEmpty() {
+        if (!enabled) {
+            return;
+        }
+        if (slotRepository.count() > 0 || sessionRepository.count() == 0) {
+            ready = true;
+            return;
+        }
+        rebuildAll();
+    }
+
+    /**
+     * 依最早到最晚的場次日期，分批重建全部週彙總；每批在獨立交易內刪除並重寫該批的週，
+     * 讀取端在重建期間只會看到舊的或新的整週資料。
+     *
+     * @return 寫入的人員週彙總筆數
+     */
+    @Transactional(transactionManager = "churchTransactionManager", propagation = Propagation.NOT_SUPPORTED)
+    public int rebuildAll() {
+        if (!enabled) {
+            return 0;
+        }
+        Optional<Session> first = sessionRepository.findFirstBySessionDateIsNotNullOrderBySessionDateAsc();
+        Optional<Session> last = sessionRepository.findFirstBySessionDateIsNotNullOrderBySessionDateDesc();
+        int written = 0;
+        if (first.isEmpty() || last.isEmpty()) {
+            chunkTransaction.executeWithoutResult(status -> {
+                slotRepository.deleteAllInBatch();
+                rollupRepository.deleteAllInBatch();
+            });
+        } else {
+            LocalDate firstWeek = weekStart(first.get().getSessionDate());
+            LocalDate lastWeek = weekStart(last.get().getSessionDate());
+            // 場次範圍外的舊彙總（例如場次已刪除）不會被任何一批覆寫，先行清除
+            chunkTransaction.executeWithoutResult(status -> {
+                slotRepository.deleteByWeekStartNotBetween(firstWeek, lastWeek);
+                rollupRepository.deleteByWeekStartNotBetween(firstWeek, lastWeek);
+            });
+            for (LocalDate chunkStart = firstWeek;
+                 !chunkStart.isAfter(lastWeek);
+                 chunkStart = chunkStart.plusWeeks(REBUILD_CHUNK_WEEKS)) {
+                LocalDate fromWeek = chunkStart;
+                LocalDate chunkEnd = chunkStart.plusWeeks(REBUILD_CHUNK_WEEKS - 1);
+                LocalDate toWeek = chunkEnd.isAfter(lastWeek) ? lastWeek : chunkEnd;
+                Integer chunkWritten = chunkTransaction.execute(status -> {
+                    slotRepository.deleteByWeekStartBetween(fromWeek, toWeek);
+                    rollupRepository.deleteByWeekStartBetween(fromWeek, toWeek);
+                    return writeWeeks(fromWeek, toWeek);
+                });
+                written += chunkWritten == null ? 0 : chunkWritten;
+            }
+        }
+        // 每批皆已各自提交，此時才開放讀取彙總
+        ready = true;
+        log.info("📊 [出席率彙總] 全量重建完成，共 {} 筆人員週彙總", written);
+        return written;
+    }
+
+    /**
+     * 重算指定日期所在週的場次與所有人員彙總（場次異動後呼叫）
+     */
+    @Transactional(transactionManager = "churchTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    public void refreshWeeks(Collection<LocalDate> dates) {
+        if (!isReady()) {
+            return;
+        }
+        Set<LocalDate> weeks = dates.stream()
+                .filter(date -> date != null)
+                .map(AttendanceRollupService::weekStart)
+                .collect(Collectors.toCollection(TreeSet::new));
+        for (LocalDate week : weeks) {
+            slotRepository.deleteByWeekStartBetween(week, week);
+            rollupRepository.deleteByWeekStartBetween(week, week);
+            writeWeeks(week, week);
+        }
+    }
+
+    /**
+     * 重算人員在場次所在週的彙總（簽到異動後呼叫）
+     */
+    @Transactional(transactionManager = "churchTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    public void refreshMembersWeek(Long sessionId, Collection<Long> memberIds) {
+        if (!isReady() || sessionId == null || memberIds == null || memberIds.isEmpty()) {
+            return;
+        }
+        Session changed = sessionRepository.findById(sessionId).orElse(null);
+        if (changed == null || changed.getSessionDate() == null) {
+            return;
+        }
+        LocalDate week = weekStart(changed.getSessionDate());
+        LocalDate weekEnd = week.plusDays(6);
+
+        rollupRepository.deleteByPersonIdInAndWeekStart(memberIds, week);
+        List<Session> sessions = sessionRepository.findBySessionDateBetweenOrderBySessionDateAscIdAsc(week, weekEnd);
+        if (sessions.isEmpty()) {
+            return;
+        }
+        List<AttendanceCheckinRow> checkins =
+                checkinRepository.findAttendanceRowsByMemberIds(week, weekEnd, memberIds);
+        rollupRepository.bulkInsert(buildRollups(sessions, loadGroupsBySession(sessions), checkins));
+    }
+
+    /**
+     * 讀取 [start, end] 範圍的彙總（personIds 為 null 時載入所有人員），由呼叫端的交易提供連線
+     */
+    AttendanceRollupSnapshot loadSnapshot(LocalDate start, LocalDate end, Collection<Long> personIds) {
+        if (start.isAfter(end)) {
+            return new AttendanceRollupSnapshot(start, end, List.of(), List.of(), 0, List.of());
+        }
+        LocalDate fromWeek = weekStart(start);
+        LocalDate toWeek = weekStart(end);
+        List<AttendanceWeekSlot> slots = slotRepository.findByWeekStartBetween(fromWeek, toWeek);
+        List<AttendanceWeekRollup> rollups;
+        if (personIds == null) {
+            rollups = rollupRepository.findByWeekStartBetween(fromWeek, toWeek);
+        } else if (personIds.isEmpty()) {
+            rollups = List.of();
+        } else {
+            rollups = rollupRepository.findByPersonIdInAndWeekStartBetween(personIds, fromWeek, toWeek);
+        }
+
+        long specialTotal = sessionRepository.countBySessionTypeAndSessionDateBetween("SPECIAL", start, end);
+        List<AttendanceCountRow> specialAttended = specialTotal > 0
+                ? checkinRepository.countAttendedBySessionType("SPECIAL", start, end)
+                : List.of();
+        return new AttendanceRollupSnapshot(start, end, slots, rollups, (int) specialTotal, specialAttended);
+    }
+
+    static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    static int dayBit(LocalDate date) {
+        return 1 << (date.getDayOfWeek().getValue() - 1);
+    }
+
+    /**
+     * 寫入 [fromWeek, toWeek] 各週的彙總（呼叫前需已清除這些週的舊資料）
+     */
+    private int writeWeeks(LocalDate fromWeek, LocalDate toWeek) {
+        LocalDate to = toWeek.plusDays(6);
+        List<Session> sessions = sessionRepository.findBySessionDateBetweenOrderBySessionDateAscIdAsc(fromWeek, to);
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Long>> groupsBySession = loadGroupsBySession(sessions);
+        slotRepository.saveAll(buildSlots(sessions, groupsBySession));
+        List<AttendanceCheckinRow> checkins = checkinRepository.findAttendanceRows(fromWeek, to);
+        return rollupRepository.bulkInsert(buildRollups(sessions, groupsBySession, checkins));
+    }
+
+    private Map<Long, List<Long>> loadGroupsBySession(List<Session> sessions) {
+        List<Long> sessionIds = sessions.stream().map(Session::getId).collect(Collectors.toList());
+        return sessionGroupRepository.findBySessionIdIn(sessionIds).stream()
+                .collect(Collectors.groupingBy(SessionGroup::getSessionId,
+                        Collectors.mapping(SessionGroup::getGroupId, Collectors.toList())));
+    }
+
+    private List<AttendanceWeekSlot> buildSlots(List<Session> sessions, Map<Long, List<Long>> groupsBySession) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<BucketKey, AttendanceWeekSlot> slots = new LinkedHashMap<>();
+        for (Session session : sessions) {
+            LocalDate week = weekStart(session.getSessionDate());
+            for (Long groupId : buckets(session, groupsBySession)) {
+                AttendanceWeekSlot slot = slots.computeIfAbsent(
+                        new BucketKey(null, session.getSessionType(), groupId, week), key -> {
+                            AttendanceWeekSlot created = new AttendanceWeekSlot();
+                            created.setSessionType(key.sessionType());
+                            created.setGroupId(key.groupId());
+                            created.setWeekStart(key.weekStart());
+                            created.setSessionDays(0);
+                            created.setSessionCount(0);
+                            created.setUpdatedAt(now);
+                            return created;
+                        });
+                slot.setSessionDays(slot.getSessionDays() | dayBit(session.getSessionDate()));
+                slot.setSessionCount(slot.getSessionCount() + 1);
+            }
+        }
+        return new ArrayList<>(slots.values());
+    }
+
+    private List<AttendanceWeekRollup> buildRollups(
+            List<Session> sessions, Map<Long, List<Long>> groupsBySession, List<AttendanceCheckinRow> checkins) {
+        Map<Long, Session> sessionById = new HashMap<>();
+        for (Session session : sessions) {
+            sessionById.put(session.getId(), session);
+        }
+
+        Map<BucketKey, AttendanceWeekRollup> rollups = new LinkedHashMap<>();
+        for (AttendanceCheckinRow checkin : checkins) {
+            Session session = sessionById.get(checkin.getSessionId());
+            // 已取消的簽到視為未簽到
+            if (session == null || Boolean.TRUE.equals(checkin.getCanceled())) {
+                continue;
+            }
+            LocalDate week = weekStart(session.getSessionDate());
+            for (Long groupId : buckets(session, groupsBySession)) {
+                AttendanceWeekRollup rollup = rollups.computeIfAbsent(
+                        new BucketKey(checkin.getMemberId(), session.getSessionType(), groupId, week), key -> {
+                            AttendanceWeekRollup created = new AttendanceWeekRollup();
+                            created.setPersonId(key.personId());
+                            created.setSessionType(key.sessionType());
+                            created.setGroupId(key.groupId());
+                            created.setWeekStart(key.weekStart());
+                            created.setAttendedDays(0);
+                            created.setAttendedCount(0);
+                            return created;
+                        });
+                rollup.setAttendedDays(rollup.getAttendedDays() | dayBit(session.getSessionDate()));
+                rollup.setAttendedCount(rollup.getAttendedCount() + 1);
+            }
+        }
+        return new ArrayList<>(rollups.values());
+    }
+
+    /**
+     * 場次歸屬的彙總小組：小組場次依關聯的小組（未關聯則為 0），週六、週日固定為 0，其他類別不彙總
+     */
+    private List<Long> buckets(Session session, Map<Long, List<Long>> groupsBySession) {
+        String sessionType = session.getSessionType();
+        if (sessionType == null || !WEEKLY_TYPES.contains(sessionType)) {
+            return List.of();
+        }
+        if ("WEEKDAY".equals(sessionType)) {
+            List<Long> groupIds = groupsBySession.get(session.getId());
+            if (groupIds != null && !groupIds.isEmpty()) {
+                return groupIds;
+            }
+        }
+        return List.of(NO_GROUP);
+    }
+
+    private record BucketKey(Long personId, String sessionType, Long groupId, LocalDate weekStart) {}
+}
@@ -0,0 +1,128 @@
+package com.example.helloworld.service.church;
+
+import com.example.helloworld.dto.church.checkin.AttendanceCountRow;
+import com.example.helloworld.entity.church.checkin.AttendanceWeekRollup;
+import com.example.helloworld.entity.church.checkin.AttendanceWeekSlot;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 由週彙總讀出的出席資料。
+ * 每週以星期幾的位元遮罩表示，計算時再以日期範圍（年度、今天、加入與離開小組日期）裁切，
+ * 因此結果與逐場次計算（{@link AttendanceMatrix}）相同。
+ */
+final class AttendanceRollupSnapshot implements AttendanceSource {
+
+    private final LocalDate start;
+    private final LocalDate end;
+    // 類別 → 小組 → 週 → 有場次的星期幾
+    private final Map<String, Map<Long, NavigableMap<LocalDate, Integer>>> slotDays = new HashMap<>();
+    // 人員 → (類別, 小組, 週) → 有簽到的星期幾
+    private final Map<Long, Map<WeekKey, Integer>> attendedDays = new HashMap<>();
+    private final int specialTotal;
+    private final Map<Long, Integer> specialAttended = new HashMap<>();
+
+    AttendanceRollupSnapshot(LocalDate start, LocalDate end, List<AttendanceWeekSlot> slots,
+                             List<AttendanceWeekRollup> rollups, int specialTotal,
+                             List<AttendanceCountRow> specialAttended) {
+        this.start = start;
+        this.end = end;
+        this.specialTotal = specialTotal;
+        for (AttendanceWeekSlot slot : slots) {
+            slotDays.computeIfAbsent(slot.getSessionType(), key -> new HashMap<>())
+                    .computeIfAbsent(slot.getGroupId(), key -> new TreeMap<>())
+                    .put(slot.getWeekStart(), slot.getSessionDays());
+        }
+        for (AttendanceWeekRollup rollup : rollups) {
+            attendedDays.computeIfAbsent(rollup.getPersonId(), key -> new HashMap<>())
+                    .put(new WeekKey(rollup.getSessionType(), rollup.getGroupId(), rollup.getWeekStart()),
+                            rollup.getAttendedDays());
+        }
+        for (AttendanceCountRow row : specialAttended) {
+            this.specialAttended.put(row.getMemberId(), row.getAttendedCount().intValue());
+        }
+    }
+
+    @Override
+    public Counts weekly(String sessionType, Long personId) {
+        Map<WeekKey, Integer> attended = attendedDays.getOrDefault(personId, Map.of());
+        int totalWeeks = 0;
+        int attendedWeeks = 0;
+        for (Map.Entry<LocalDate, Integer> entry : weeks(sessionType, AttendanceRollupService.NO_GROUP, start, end).entrySet()) {
+            int mask = entry.getValue() & rangeMask(entry.getKey(), start, end);
+            if (mask == 0) {
+                continue;
+            }
+            totalWeeks += 1;
+            if ((attended.getOrDefault(new WeekKey(sessionType, AttendanceRollupService.NO_GROUP, entry.getKey()), 0) & mask) != 0) {
+                attendedWeeks += 1;
+            }
+        }
+        return new Counts(totalWeeks, attendedWeeks);
+    }
+
+    @Override
+    public Counts special(Long personId) {
+        return new Counts(specialTotal, specialAttended.getOrDefault(personId, 0));
+    }
+
+    /**
+     * 小組場次包含關聯該小組的場次與未關聯任何小組的場次，因此合併兩者的遮罩
+     */
+    @Override
+    public Counts groupWeekly(Long groupId, LocalDate from, LocalDate to, Long personId) {
+        if (from == null || to == null || from.isAfter(to)) {
+            return new Counts(0, 0);
+        }
+        NavigableMap<LocalDate, Integer> grouped = weeks("WEEKDAY", groupId, from, to);
+        NavigableMap<LocalDate, Integer> ungrouped = weeks("WEEKDAY", AttendanceRollupService.NO_GROUP, from, to);
+        TreeSet<LocalDate> candidateWeeks = new TreeSet<>(grouped.keySet());
+        candidateWeeks.addAll(ungrouped.keySet());
+
+        Map<WeekKey, Integer> attended = attendedDays.getOrDefault(personId, Map.of());
+        int totalWeeks = 0;
+        int attendedWeeks = 0;
+        for (LocalDate week : candidateWeeks) {
+            int mask = (grouped.getOrDefault(week, 0) | ungrouped.getOrDefault(week, 0)) & rangeMask(week, from, to);
+            if (mask == 0) {
+                continue;
+            }
+            totalWeeks += 1;
+            int days = attended.getOrDefault(new WeekKey("WEEKDAY", groupId, week), 0)
+                    | attended.getOrDefault(new WeekKey("WEEKDAY", AttendanceRollupService.NO_GROUP, week), 0);
+            if ((days & mask) != 0) {
+                attendedWeeks += 1;
+            }
+        }
+        return new Counts(totalWeeks, attendedWeeks);
+    }
+
+    private NavigableMap<LocalDate, Integer> weeks(String sessionType, Long groupId, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Integer> weeks = slotDays.getOrDefault(sessionType, Map.of()).get(groupId);
+        if (weeks == null) {
+            return new TreeMap<>();
+        }
+        return weeks.subMap(AttendanceRollupService.weekStart(from), true, AttendanceRollupService.weekStart(to), true);
+    }
+
+    /**
+     * week 這一週落在 [from, to] 內的星期幾
+     */
+    private static int rangeMask(LocalDate week, LocalDate from, LocalDate to) {
+        long first = Math.max(0, ChronoUnit.DAYS.between(week, from));
+        long last = Math.min(6, ChronoUnit.DAYS.between(week, to));
+        if (first > last) {
+            return 0;
+        }
+        return ((1 << (last + 1)) - 1) & ~((1 << first) - 1);
+    }
+
+    private record WeekKey(String sessionType, Long groupId, LocalDate weekStart) {}
+}
@@ -0,0 +1,27 @@
+package com.example.helloworld.service.church;
+
+import java.time.LocalDate;
+
+/**
+ * 出席率的計數來源：可由原始簽到即時計算（{@link AttendanceMatrix}），
+ * 或讀取預先彙總的週資料（{@link AttendanceRollupSnapshot}），兩者結果一致。
+ */
+interface AttendanceSource {
+
+    /**
+     * 主日類別（SATURDAY / SUNDAY）按自然週計算：有場次的週數、有出席的週數
+     */
+    Counts weekly(String sessionType, Long personId);
+
+    /**
+     * 活動（SPECIAL）按場次計算：場次數、已簽到場次數
+     */
+    Counts special(Long personId);
+
+    /**
+     * 小組按自然週計算，只計入 [from, to] 內的場次
+     */
+    Counts groupWeekly(Long groupId, LocalDate from, LocalDate to, Long personId);
+
+    record Counts(int total, int attended) {}
+}
@@ -0,0 +1,34 @@
+package com.example.helloworld.service.church;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Church 資料庫備份檔的輸出處理（路徑檢查由 BackupController 負責）
+ */
+@Service
+public class ChurchBackupService {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 只有 mysqldump 產生的原始 .sql 需要壓縮，.sql.gz 直接下載
+     */
+    public boolean isCompressible(Path backupFile) {
+        return backupFile.getFileName().toString().endsWith(".sql");
+    }
+
+    /**
+     * 以固定大小緩衝區讀檔並壓縮寫出，記憶體用量與備份大小無關；out 由呼叫端關閉
+     */
+    public void writeGzipped(Path backupFile, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        Files.copy(backupFile, gzip);
+        gzip.finish();
+    }
+}
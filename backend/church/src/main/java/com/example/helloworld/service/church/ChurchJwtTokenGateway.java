@@ -2,6 +2,7 @@ package com.example.helloworld.service.church;
 
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.JwtTokenGateway;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import com.example.helloworld.util.ChurchJwtUtil;
 import org.springframework.stereotype.Service;
 
@@ -19,22 +20,7 @@ public class ChurchJwtTokenGateway implements JwtTokenGateway {
     }
 
     @Override
-    public String extractUsername(String jwt) {
-        return churchJwtUtil.extractUsername(jwt);
-    }
-
-    @Override
-    public String extractSystem(String jwt) {
-        return churchJwtUtil.extractSystem(jwt);
-    }
-
-    @Override
-    public String extractTokenType(String jwt) {
-        return churchJwtUtil.extractTokenType(jwt);
-    }
-
-    @Override
-    public boolean validateAccessToken(String jwt, String username) {
-        return churchJwtUtil.validateChurchAccessToken(jwt, username);
+    public VerifiedJwtClaims verify(String jwt) {
+        return churchJwtUtil.parseVerifiedClaims(jwt);
     }
 }
@@ -202,7 +202,7 @@ public class ChurchLineMessageService {
 
             GoogleSyncResult googleSyncMsg;
             try {
-                googleSyncMsg = googleSheetsRosterService.syncWithRetry(date, positionName, showName);
+                googleSyncMsg = googleSheetsRosterService.sync(date, positionName, showName);
             } catch (Exception e) {
                 log.error("Google Sheet sync error", e);
                 googleSyncMsg = GoogleSyncResult.fail("⚠️ Google PLC 服事表 同步失敗：" + e.getMessage());
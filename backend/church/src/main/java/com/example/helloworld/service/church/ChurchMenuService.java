@@ -2,11 +2,19 @@ package com.example.helloworld.service.church;
 
 import com.example.helloworld.entity.church.ChurchMenuItem;
 import com.example.helloworld.repository.church.ChurchMenuItemRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.CommonMenuItem;
+import com.example.helloworld.service.common.MenuTree;
+import com.example.helloworld.service.common.MenuTreeCache;
+import com.example.helloworld.service.common.MenusChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,184 +32,123 @@ public class ChurchMenuService {
     @Autowired
     private ChurchMenuItemRepository churchMenuItemRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final MenuTreeCache menuTreeCache = new MenuTreeCache(this::loadActiveMenus);
+
     /**
      * 獲取前台菜單（根據權限過濾）
      */
-    @Transactional(readOnly = true, transactionManager = "churchTransactionManager")
     public List<MenuItemDTO> getFrontendMenus() {
-        return getMenusByType("frontend");
+        return toDTOs(visibleMenus("frontend"), true);
     }
 
     /**
      * 獲取後台菜單（根據權限過濾）
      */
-    @Transactional(readOnly = true, transactionManager = "churchTransactionManager")
     public List<MenuItemDTO> getAdminMenus() {
-        return getMenusByType("admin");
+        return toDTOs(visibleMenus("admin"), true);
     }
 
     /**
      * 獲取儀表板快速操作菜單（根據權限過濾，只返回 show_in_dashboard = true 的菜單）
      */
-    @Transactional(readOnly = true, transactionManager = "churchTransactionManager")
     public List<MenuItemDTO> getDashboardQuickActions() {
-        try {
-            // 獲取當前用戶的權限
-            Set<String> userPermissions = new java.util.HashSet<>();
-            
-            try {
-                org.springframework.security.core.Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                if (authentication != null && authentication.isAuthenticated() && 
-                    !authentication.getPrincipal().equals("anonymousUser")) {
-                    Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-                    if (authorities != null) {
-                        userPermissions = authorities.stream()
-                            .map(GrantedAuthority::getAuthority)
-                            .collect(Collectors.toSet());
-                    }
-                }
-            } catch (Exception e) {
-                log.error("❌ 獲取用戶權限失敗: {}", e.getMessage(), e);
-            }
+        return toDTOs(dashboardMenus(), false);
+    }
 
-            // 獲取所有啟用的、顯示在儀表板的、後台類型的根菜單（不包含子菜單）
-            List<ChurchMenuItem> dashboardMenus = churchMenuItemRepository
-                .findByMenuTypeAndIsActiveAndShowInDashboardAndParentIdIsNullOrderByOrderIndexAsc(
-                    "admin", true, true);
+    /**
+     * 目前使用者看到的選單對應的 ETag，view 為 frontend / admin / dashboard
+     */
+    public String getMenusEtag(String view) {
+        List<MenuTree.Node> nodes = "dashboard".equals(view) ? dashboardMenus() : visibleMenus(view);
+        return menuTreeCache.get().etag(view, nodes);
+    }
 
-            if (dashboardMenus == null) {
-                return new ArrayList<>();
-            }
-            
-            List<MenuItemDTO> visibleMenus = new ArrayList<>();
-            
-            for (ChurchMenuItem menu : dashboardMenus) {
-                try {
-                    if (hasPermission(menu, userPermissions)) {
-                        MenuItemDTO menuDTO = convertToDTO(menu);
-                        visibleMenus.add(menuDTO);
-                    }
-                } catch (Exception e) {
-                    log.error("❌ 處理儀表板菜單時發生錯誤: {}", e.getMessage(), e);
-                }
-            }
-            
-            return visibleMenus;
-        } catch (Exception e) {
-            log.error("❌ 獲取儀表板快速操作時發生錯誤", e);
-            return new ArrayList<>();
+    /**
+     * 選單異動提交後重建選單樹
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenusChanged(MenusChangedEvent event) {
+        if (event.domain() == AuthDomain.CHURCH) {
+            menuTreeCache.refresh();
         }
     }
 
+    private List<MenuTree.Node> visibleMenus(String menuType) {
+        return menuTreeCache.get().visibleRoots(menuType, currentUserPermissions());
+    }
+
     /**
-     * 根據菜單類型獲取菜單
+     * 後台根選單中顯示在儀表板的項目（不包含子菜單）
      */
-    private List<MenuItemDTO> getMenusByType(String menuType) {
-        try {
-            // 獲取當前用戶的權限
-            Set<String> userPermissions = new java.util.HashSet<>();
-            
-            try {
-                org.springframework.security.core.Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                if (authentication != null && authentication.isAuthenticated() && 
-                    !authentication.getPrincipal().equals("anonymousUser")) {
-                    Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-                    if (authorities != null) {
-                        userPermissions = authorities.stream()
-                            .map(GrantedAuthority::getAuthority)
-                            .collect(Collectors.toSet());
-                    }
-                }
-            } catch (Exception e) {
-                log.error("❌ 獲取用戶權限失敗: {}", e.getMessage(), e);
-            }
+    private List<MenuTree.Node> dashboardMenus() {
+        return visibleMenus("admin").stream()
+            .filter(menu -> Boolean.TRUE.equals(menu.showInDashboard()))
+            .map(menu -> menu.withChildren(List.of()))
+            .toList();
+    }
 
-            // 獲取所有啟用的根菜單
-            List<ChurchMenuItem> rootMenus = churchMenuItemRepository.findActiveRootMenusByType(menuType);
-            
-            if (rootMenus == null) {
-                return new ArrayList<>();
-            }
-            
-            List<MenuItemDTO> visibleMenus = new ArrayList<>();
-            
-            for (ChurchMenuItem rootMenu : rootMenus) {
-                try {
-                    if (hasPermission(rootMenu, userPermissions)) {
-                        MenuItemDTO menuDTO = convertToDTO(rootMenu);
-                        
-                        // 獲取子菜單
-                        List<ChurchMenuItem> childMenus = churchMenuItemRepository.findActiveChildMenus(rootMenu.getId());
-                        List<MenuItemDTO> visibleChildren = new ArrayList<>();
-                        
-                        if (childMenus != null) {
-                            for (ChurchMenuItem childMenu : childMenus) {
-                                try {
-                                    if (hasPermission(childMenu, userPermissions)) {
-                                        visibleChildren.add(convertToDTO(childMenu));
-                                    }
-                                } catch (Exception e) {
-                                    log.error("❌ 處理子菜單時發生錯誤: {}", e.getMessage(), e);
-                                }
-                            }
-                        }
-                        
-                        if (!visibleChildren.isEmpty()) {
-                            menuDTO.setChildren(visibleChildren);
-                        }
-                        
-                        visibleMenus.add(menuDTO);
-                    }
-                } catch (Exception e) {
-                    log.error("❌ 處理根菜單時發生錯誤: {}", e.getMessage(), e);
+    /**
+     * 獲取當前用戶的權限
+     */
+    private Set<String> currentUserPermissions() {
+        try {
+            org.springframework.security.core.Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated() && 
+                !authentication.getPrincipal().equals("anonymousUser")) {
+                Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+                if (authorities != null) {
+                    return authorities.stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toSet());
                 }
             }
-            
-            return visibleMenus;
         } catch (Exception e) {
-            log.error("❌ 獲取可見菜單時發生錯誤", e);
-            return new ArrayList<>();
+            log.error("❌ 獲取用戶權限失敗: {}", e.getMessage(), e);
         }
+        return Set.of();
     }
 
-    /**
-     * 檢查用戶是否有權限查看菜單
-     */
-    private boolean hasPermission(ChurchMenuItem menuItem, Set<String> userPermissions) {
-        // 如果菜單不需要權限，任何人都可以查看
-        if (menuItem.getRequiredPermission() == null || menuItem.getRequiredPermission().isEmpty()) {
-            return true;
-        }
-        
-        String rawCode = menuItem.getRequiredPermission().trim();
-        if (rawCode.isEmpty()) {
-            return true;
-        }
-
-        String normalizedCode = rawCode.startsWith("PERM_")
-                ? rawCode.substring(5)
-                : rawCode;
-        if (normalizedCode.isEmpty()) {
-            return true;
-        }
-
-        return userPermissions.contains(normalizedCode);
+    private List<CommonMenuItem> loadActiveMenus() {
+        return churchMenuItemRepository.findAllActiveMenus().stream()
+            .map(menu -> new CommonMenuItem(
+                menu.getId(),
+                menu.getParentId(),
+                menu.getMenuCode(),
+                menu.getMenuName(),
+                menu.getIcon(),
+                menu.getUrl(),
+                menu.getOrderIndex(),
+                menu.getMenuType(),
+                menu.getDescription(),
+                menu.getShowInDashboard(),
+                menu.getRequiredPermission()))
+            .toList();
     }
 
     /**
-     * 轉換 ChurchMenuItem 為 DTO
+     * 轉換選單樹節點為 DTO；沒有可見子菜單時 children 維持 null
      */
-    private MenuItemDTO convertToDTO(ChurchMenuItem menuItem) {
-        MenuItemDTO dto = new MenuItemDTO();
-        dto.setId(menuItem.getId());
-        dto.setMenuCode(menuItem.getMenuCode());
-        dto.setMenuName(menuItem.getMenuName());
-        dto.setIcon(menuItem.getIcon());
-        dto.setUrl(menuItem.getUrl());
-        dto.setOrderIndex(menuItem.getOrderIndex());
-        dto.setMenuType(menuItem.getMenuType());
-        dto.setDescription(menuItem.getDescription());
-        return dto;
+    private List<MenuItemDTO> toDTOs(List<MenuTree.Node> nodes, boolean includeChildren) {
+        List<MenuItemDTO> dtos = new ArrayList<>();
+        for (MenuTree.Node node : nodes) {
+            MenuItemDTO dto = new MenuItemDTO();
+            dto.setId(node.id());
+            dto.setMenuCode(node.menuCode());
+            dto.setMenuName(node.menuName());
+            dto.setIcon(node.icon());
+            dto.setUrl(node.url());
+            dto.setOrderIndex(node.orderIndex());
+            dto.setMenuType(node.menuType());
+            dto.setDescription(node.description());
+            if (includeChildren && !node.children().isEmpty()) {
+                dto.setChildren(toDTOs(node.children(), false));
+            }
+            dtos.add(dto);
+        }
+        return dtos;
     }
 
     /**
@@ -261,7 +208,9 @@ public class ChurchMenuService {
             menuItem.setMenuType("frontend");
         }
 
-        return churchMenuItemRepository.save(menuItem);
+        ChurchMenuItem saved = churchMenuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.CHURCH));
+        return saved;
     }
 
     /**
@@ -310,7 +259,9 @@ public class ChurchMenuService {
             existing.setShowInDashboard(menuItemUpdate.getShowInDashboard());
         }
 
-        return churchMenuItemRepository.save(existing);
+        ChurchMenuItem saved = churchMenuItemRepository.save(existing);
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.CHURCH));
+        return saved;
     }
 
     /**
@@ -323,6 +274,7 @@ public class ChurchMenuService {
             throw new RuntimeException("無法刪除，該菜單項下還有子菜單");
         }
         churchMenuItemRepository.deleteById(id);
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.CHURCH));
     }
 
     // DTO 類
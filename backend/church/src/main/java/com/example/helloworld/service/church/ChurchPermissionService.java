@@ -2,6 +2,8 @@ package com.example.helloworld.service.church;
 
 import com.example.helloworld.entity.church.ChurchPermission;
 import com.example.helloworld.repository.church.ChurchPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,6 +20,9 @@ public class ChurchPermissionService {
     @Autowired
     private ChurchPermissionRepository churchPermissionRepository;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
     /**
      * 獲取所有權限
      */
@@ -96,7 +101,9 @@ public class ChurchPermissionService {
             existing.setDescription(permissionUpdate.getDescription());
         }
 
-        return churchPermissionRepository.save(existing);
+        ChurchPermission saved = churchPermissionRepository.save(existing);
+        authPrincipalCache.invalidateDomain(AuthDomain.CHURCH);
+        return saved;
     }
 
     /**
@@ -105,5 +112,6 @@ public class ChurchPermissionService {
     @Transactional(transactionManager = "churchTransactionManager")
     public void deletePermission(Long id) {
         churchPermissionRepository.deleteById(id);
+        authPrincipalCache.invalidateDomain(AuthDomain.CHURCH);
     }
 }
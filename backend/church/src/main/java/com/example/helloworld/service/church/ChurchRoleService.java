@@ -4,6 +4,8 @@ import com.example.helloworld.entity.church.ChurchRole;
 import com.example.helloworld.entity.church.ChurchPermission;
 import com.example.helloworld.repository.church.ChurchRoleRepository;
 import com.example.helloworld.repository.church.ChurchPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +24,9 @@ public class ChurchRoleService {
     @Autowired
     private ChurchPermissionRepository churchPermissionRepository;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
     /**
      * 獲取所有角色
      */
@@ -111,6 +116,8 @@ public class ChurchRoleService {
         }
 
         ChurchRole saved = churchRoleRepository.save(existing);
+        // 角色異動影響所有綁定的用戶
+        authPrincipalCache.invalidateDomain(AuthDomain.CHURCH);
         
         // 確保在事務內初始化懶加載的權限集合
         if (saved.getPermissions() != null) {
@@ -126,6 +133,7 @@ public class ChurchRoleService {
     @Transactional(transactionManager = "churchTransactionManager")
     public void deleteRole(Long id) {
         churchRoleRepository.deleteById(id);
+        authPrincipalCache.invalidateDomain(AuthDomain.CHURCH);
     }
 
 }
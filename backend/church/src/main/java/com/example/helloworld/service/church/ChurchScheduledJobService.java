@@ -4,7 +4,11 @@ import com.example.helloworld.entity.church.JobExecution;
 import com.example.helloworld.entity.church.ScheduledJob;
 import com.example.helloworld.repository.church.JobExecutionRepository;
 import com.example.helloworld.repository.church.ScheduledJobRepository;
+import com.example.helloworld.service.common.JobExecutionEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
@@ -14,13 +18,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 
 @Service
 public class ChurchScheduledJobService {
+    private static final String TRIGGER_MANUAL = "[手動執行]";
+    private static final String TRIGGER_SCHEDULED = "[自動排程]";
+
     private static final Logger log = LoggerFactory.getLogger(ChurchScheduledJobService.class);
 
     @Autowired
@@ -34,14 +44,34 @@ public class ChurchScheduledJobService {
     @Autowired
     private TaskScheduler taskScheduler;
 
-    // 儲存正在執行的任務
-    private final Map<Long, ScheduledFuture<?>> scheduledTasks = new HashMap<>();
+    @Value("${church.jobs.executor.workers:2}")
+    private int executorWorkers;
+
+    @Value("${church.jobs.executor.queue-capacity:10}")
+    private int executorQueueCapacity;
+
+    @Value("${church.jobs.executor.timeout-minutes:30}")
+    private long executorTimeoutMinutes;
+
+    // 儲存已調度的任務
+    private final Map<Long, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
 
     // 儲存 Job 執行器映射
-    private final Map<String, Runnable> jobExecutors = new HashMap<>();
+    private final Map<String, Runnable> jobExecutors = new ConcurrentHashMap<>();
 
-    // 儲存正在執行的 JobExecution ID
-    private final Map<Long, Long> runningExecutions = new HashMap<>();
+    // 手動與排程觸發共用：限制同時執行數、佇列長度，同一個 Job 不會重疊執行
+    private JobExecutionEngine jobExecutionEngine;
+
+    @PostConstruct
+    public void initExecutionEngine() {
+        jobExecutionEngine = new JobExecutionEngine("church-job", executorWorkers, executorQueueCapacity,
+                Duration.ofMinutes(executorTimeoutMinutes));
+    }
+
+    @PreDestroy
+    public void shutdownExecutionEngine() {
+        jobExecutionEngine.shutdown(Duration.ofSeconds(30));
+    }
 
     /**
      * 註冊 Job 執行器
@@ -116,9 +146,8 @@ public class ChurchScheduledJobService {
     }
 
     /**
-     * 立即執行 Job
+     * 立即執行 Job：排入執行佇列，同一個 Job 已在排隊或執行中、或佇列已滿時拒絕
      */
-    @Transactional(transactionManager = "churchTransactionManager")
     public Long executeJob(Long id) {
         Optional<ScheduledJob> jobOpt = scheduledJobRepository.findById(id);
         if (jobOpt.isEmpty()) {
@@ -131,91 +160,47 @@ public class ChurchScheduledJobService {
             throw new RuntimeException("Job executor not found for class: " + job.getJobClass());
         }
 
-        // 創建執行記錄
+        try {
+            Long executionId = submitExecution(job, executor, TRIGGER_MANUAL);
+            log.info("🚀 [Church] 立即執行 Job 已排入佇列: {} (Execution ID: {})", job.getJobName(), executionId);
+            return executionId;
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 取消 Job 排隊中或執行中的那一次執行
+     */
+    public boolean cancelExecution(Long jobId) {
+        boolean canceled = jobExecutionEngine.cancel(jobId);
+        if (canceled) {
+            log.info("⏹️ [Church] 已要求取消 Job 執行: {}", jobId);
+        }
+        return canceled;
+    }
+
+    /**
+     * 建立 PENDING 執行記錄後排入執行引擎；被拒絕時刪除該記錄並丟出 RejectedExecutionException
+     */
+    private Long submitExecution(ScheduledJob job, Runnable executor, String trigger) {
+        if (jobExecutionEngine.find(job.getId()).isPresent()) {
+            throw new RejectedExecutionException("Job 已在排隊或執行中，請稍後再試");
+        }
+
         JobExecution execution = new JobExecution();
-        execution.setJobId(id);
+        execution.setJobId(job.getId());
         execution.setStatus("PENDING");
-        execution.setStartedAt(LocalDateTime.now());
+        execution.setQueuedAt(LocalDateTime.now());
         execution = jobExecutionRepository.save(execution);
-        final Long executionId = execution.getId();
-        final String jobName = job.getJobName();
-
-        // 在新線程中執行
-        new Thread(() -> {
-            try {
-                // 重新載入執行記錄以確保是最新的
-                // 添加重試邏輯，因為新線程可能需要等待事務提交
-                JobExecution currentExecution = loadExecutionWithRetry(executionId, 5);
-                
-                if (currentExecution == null) {
-                    // 如果仍然找不到，創建一個新的執行記錄作為 fallback
-                    log.warn("⚠️ [Church] 無法載入執行記錄 ID {}，創建新的執行記錄", executionId);
-                    currentExecution = new JobExecution();
-                    currentExecution.setId(executionId);
-                    currentExecution.setJobId(id);
-                    currentExecution.setStatus("RUNNING");
-                    currentExecution.setStartedAt(LocalDateTime.now());
-                    currentExecution = jobExecutionRepository.save(currentExecution);
-                } else {
-                    // 更新狀態為執行中
-                    currentExecution.setStatus("RUNNING");
-                    currentExecution.setStartedAt(LocalDateTime.now());
-                    currentExecution = jobExecutionRepository.save(currentExecution);
-                }
-                
-                runningExecutions.put(id, executionId);
-
-                log.info("🚀 [Church] 立即執行 Job: {} (Execution ID: {})", jobName, executionId);
-                
-                // 清除之前的結果
-                com.example.helloworld.scheduler.church.JobResultHolder.clear();
-                
-                executor.run();
-
-                // 重新載入執行記錄（添加重試邏輯）
-                currentExecution = loadExecutionWithRetry(executionId, 5);
-                
-                if (currentExecution != null) {
-                    // 更新狀態為成功
-                    currentExecution.setStatus("SUCCESS");
-                    currentExecution.setCompletedAt(LocalDateTime.now());
-                    
-                    // 從 ThreadLocal 獲取詳細結果
-                    String detailedResult = com.example.helloworld.scheduler.church.JobResultHolder.getResult();
-                    if (detailedResult != null && !detailedResult.isEmpty()) {
-                        currentExecution.setResultMessage("[手動執行] " + detailedResult);
-                    } else {
-                        currentExecution.setResultMessage("[手動執行] Job 執行成功");
-                    }
-                    
-                    // 清除 ThreadLocal
-                    com.example.helloworld.scheduler.church.JobResultHolder.clear();
-                    
-                    jobExecutionRepository.save(currentExecution);
-                    log.info("✅ [Church] Job 執行完成: {}", jobName);
-                } else {
-                    log.warn("⚠️ [Church] 無法更新執行記錄 ID {} 的狀態為成功", executionId);
-                }
-            } catch (Exception e) {
-                // 重新載入執行記錄（添加重試邏輯）
-                JobExecution currentExecution = loadExecutionWithRetry(executionId, 5);
-                
-                if (currentExecution != null) {
-                    // 更新狀態為失敗
-                    currentExecution.setStatus("FAILED");
-                    currentExecution.setCompletedAt(LocalDateTime.now());
-                    String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
-                    currentExecution.setErrorMessage("[手動執行] " + errorMsg);
-                    jobExecutionRepository.save(currentExecution);
-                } else {
-                    log.warn("⚠️ [Church] 無法更新執行記錄 ID {} 的狀態為失敗", executionId);
-                }
-                log.error("❌ [Church] Job 執行失敗: {} - {}", jobName, e.getMessage(), e);
-            } finally {
-                runningExecutions.remove(id);
-            }
-        }).start();
+        Long executionId = execution.getId();
 
+        try {
+            jobExecutionEngine.submit(job.getId(), executor::run, new ExecutionRecorder(executionId, job.getJobName(), trigger));
+        } catch (RejectedExecutionException e) {
+            jobExecutionRepository.deleteById(executionId);
+            throw e;
+        }
         return executionId;
     }
 
@@ -278,58 +263,13 @@ public class ChurchScheduledJobService {
             ZoneId taiwanZone = ZoneId.of("Asia/Taipei");
             CronTrigger trigger = new CronTrigger(job.getCronExpression(), taiwanZone);
             ScheduledFuture<?> future = taskScheduler.schedule(() -> {
-                // 創建執行記錄
-                JobExecution execution = new JobExecution();
-                execution.setJobId(job.getId());
-                execution.setStatus("RUNNING");
-                execution.setStartedAt(LocalDateTime.now());
-                execution = jobExecutionRepository.save(execution);
-                final Long executionId = execution.getId();
-                
                 try {
-                    log.info("🔄 [Church] 執行定時任務: {} (Execution ID: {})", job.getJobName(), executionId);
-                    
-                    // 清除之前的結果
-                    com.example.helloworld.scheduler.church.JobResultHolder.clear();
-                    
-                    executor.run();
-                    
-                    // 重新載入執行記錄
-                    JobExecution currentExecution = jobExecutionRepository.findById(executionId).orElse(null);
-                    if (currentExecution != null) {
-                        currentExecution.setStatus("SUCCESS");
-                        currentExecution.setCompletedAt(LocalDateTime.now());
-                        
-                        // 從 ThreadLocal 獲取詳細結果
-                        String detailedResult = com.example.helloworld.scheduler.church.JobResultHolder.getResult();
-                        if (detailedResult != null && !detailedResult.isEmpty()) {
-                            currentExecution.setResultMessage("[自動排程] " + detailedResult);
-                        } else {
-                            currentExecution.setResultMessage("[自動排程] 定時任務執行成功");
-                        }
-                        currentExecution.setErrorMessage(null);
-                        jobExecutionRepository.save(currentExecution);
-                        log.info("✅ [Church] 定時任務執行成功: {}", job.getJobName());
-                    }
-                    
-                    // 清除 ThreadLocal
-                    com.example.helloworld.scheduler.church.JobResultHolder.clear();
-                    
+                    Long executionId = submitExecution(job, executor, TRIGGER_SCHEDULED);
+                    log.info("🔄 [Church] 定時任務已排入佇列: {} (Execution ID: {})", job.getJobName(), executionId);
+                } catch (RejectedExecutionException e) {
+                    log.warn("⚠️ [Church] 略過本次定時任務: {} - {}", job.getJobName(), e.getMessage());
                 } catch (Exception e) {
-                    log.error("❌ [Church] 定時任務執行失敗: {} - {}", job.getJobName(), e.getMessage(), e);
-                    // 更新執行記錄為失敗狀態
-                    try {
-                        JobExecution failedExecution = jobExecutionRepository.findById(executionId).orElse(null);
-                        if (failedExecution != null) {
-                            failedExecution.setStatus("FAILED");
-                            failedExecution.setCompletedAt(LocalDateTime.now());
-                            String errorMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
-                            failedExecution.setErrorMessage("[自動排程] " + errorMsg);
-                            jobExecutionRepository.save(failedExecution);
-                        }
-                    } catch (Exception ex) {
-                        log.error("❌ [Church] 更新失敗狀態時發生錯誤: {}", ex.getMessage(), ex);
-                    }
+                    log.error("❌ [Church] 排入定時任務失敗: {} - {}", job.getJobName(), e.getMessage(), e);
                 }
             }, trigger);
 
@@ -363,36 +303,82 @@ public class ChurchScheduledJobService {
     }
 
     /**
-     * 重試載入執行記錄（解決新線程中事務未提交的問題）
+     * 依執行引擎回報的狀態更新執行記錄：排隊等待時間、執行耗時與結果
      */
-    private JobExecution loadExecutionWithRetry(Long executionId, int maxRetries) {
-        JobExecution execution = null;
-        int retryCount = 0;
-        while (execution == null && retryCount < maxRetries) {
+    private class ExecutionRecorder implements JobExecutionEngine.Listener {
+        private final Long executionId;
+        private final String jobName;
+        private final String trigger;
+
+        ExecutionRecorder(Long executionId, String jobName, String trigger) {
+            this.executionId = executionId;
+            this.jobName = jobName;
+            this.trigger = trigger;
+        }
+
+        @Override
+        public void onStart(JobExecutionEngine.Run run) {
+            // 清除之前的結果
+            com.example.helloworld.scheduler.church.JobResultHolder.clear();
+            JobExecution execution = jobExecutionRepository.findById(executionId)
+                .orElseThrow(() -> new RuntimeException("Execution not found: " + executionId));
+            execution.setStatus("RUNNING");
+            execution.setStartedAt(LocalDateTime.now());
+            execution.setQueueWaitMs(run.getQueueWait().toMillis());
+            jobExecutionRepository.save(execution);
+            log.info("🚀 [Church] 開始執行 Job: {} (Execution ID: {}，排隊 {} ms)", jobName, executionId, run.getQueueWait().toMillis());
+        }
+
+        @Override
+        public void onFinish(JobExecutionEngine.Run run, JobExecutionEngine.Outcome outcome, Throwable error) {
             try {
-                execution = jobExecutionRepository.findById(executionId).orElse(null);
+                JobExecution execution = jobExecutionRepository.findById(executionId).orElse(null);
                 if (execution == null) {
-                    retryCount++;
-                    if (retryCount < maxRetries) {
-                        Thread.sleep(100); // 等待 100ms 後重試
-                    }
+                    log.warn("⚠️ [Church] 無法更新執行記錄 ID {} 的狀態為 {}", executionId, outcome);
+                    return;
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                retryCount++;
-                if (retryCount < maxRetries) {
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        break;
+                execution.setCompletedAt(LocalDateTime.now());
+                execution.setDurationMs(run.getDuration().toMillis());
+                if (execution.getQueueWaitMs() == null) {
+                    execution.setQueueWaitMs(run.getQueueWait().toMillis());
+                }
+                switch (outcome) {
+                    case SUCCESS -> {
+                        execution.setStatus("SUCCESS");
+                        // 從 ThreadLocal 獲取詳細結果
+                        String detailedResult = com.example.helloworld.scheduler.church.JobResultHolder.getResult();
+                        if (detailedResult != null && !detailedResult.isEmpty()) {
+                            execution.setResultMessage(trigger + " " + detailedResult);
+                        } else {
+                            execution.setResultMessage(trigger + " Job 執行成功");
+                        }
+                        execution.setErrorMessage(null);
+                        log.info("✅ [Church] Job 執行完成: {} ({} ms)", jobName, execution.getDurationMs());
+                    }
+                    case FAILED -> {
+                        execution.setStatus("FAILED");
+                        String errorMsg = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+                        execution.setErrorMessage(trigger + " " + errorMsg);
+                        log.error("❌ [Church] Job 執行失敗: {} - {}", jobName, errorMsg, error);
+                    }
+                    case CANCELED -> {
+                        execution.setStatus("CANCELED");
+                        execution.setErrorMessage(trigger + " 已取消");
+                        log.warn("⏹️ [Church] Job 已取消: {}", jobName);
+                    }
+                    case TIMEOUT -> {
+                        execution.setStatus("TIMEOUT");
+                        execution.setErrorMessage(trigger + " 執行逾時（超過 " + executorTimeoutMinutes + " 分鐘）");
+                        log.error("❌ [Church] Job 執行逾時: {}", jobName);
                     }
                 }
+                jobExecutionRepository.save(execution);
+            } catch (Exception e) {
+                log.error("❌ [Church] 更新執行記錄 ID {} 時發生錯誤: {}", executionId, e.getMessage(), e);
+            } finally {
+                // 清除 ThreadLocal
+                com.example.helloworld.scheduler.church.JobResultHolder.clear();
             }
         }
-        return execution;
     }
 }
-
@@ -2,9 +2,12 @@ package com.example.helloworld.service.church;
 
 import com.example.helloworld.entity.church.ChurchUrlPermission;
 import com.example.helloworld.repository.church.ChurchUrlPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.UrlPermissionsChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +23,9 @@ public class ChurchUrlPermissionService {
     @Autowired
     private ChurchUrlPermissionRepository churchUrlPermissionRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 獲取所有啟用的 URL 權限配置（按順序排序）
      */
@@ -65,7 +71,9 @@ public class ChurchUrlPermissionService {
     @CacheEvict(value = "churchUrlPermissions", allEntries = true)
     @Transactional(transactionManager = "churchTransactionManager")
     public ChurchUrlPermission createPermission(ChurchUrlPermission permission) {
-        return churchUrlPermissionRepository.save(permission);
+        ChurchUrlPermission saved = churchUrlPermissionRepository.save(permission);
+        publishChanged();
+        return saved;
     }
 
     /**
@@ -86,7 +94,9 @@ public class ChurchUrlPermissionService {
         existing.setIsActive(permission.getIsActive());
         existing.setDescription(permission.getDescription());
         
-        return churchUrlPermissionRepository.save(existing);
+        ChurchUrlPermission saved = churchUrlPermissionRepository.save(existing);
+        publishChanged();
+        return saved;
     }
 
     /**
@@ -96,6 +106,7 @@ public class ChurchUrlPermissionService {
     @Transactional(transactionManager = "churchTransactionManager")
     public void deletePermission(Long id) {
         churchUrlPermissionRepository.deleteById(id);
+        publishChanged();
     }
 
     /**
@@ -105,5 +116,11 @@ public class ChurchUrlPermissionService {
     public Optional<ChurchUrlPermission> findByUrlPattern(String urlPattern) {
         return Optional.ofNullable(churchUrlPermissionRepository.findByUrlPattern(urlPattern));
     }
-}
 
+    /**
+     * 交易提交後由 URL 權限 gateway 重建比對索引
+     */
+    private void publishChanged() {
+        eventPublisher.publishEvent(new UrlPermissionsChangedEvent(AuthDomain.CHURCH));
+    }
+}
@@ -6,6 +6,8 @@ import com.example.helloworld.entity.church.ChurchPermission;
 import com.example.helloworld.repository.church.ChurchUserRepository;
 import com.example.helloworld.repository.church.ChurchRoleRepository;
 import com.example.helloworld.repository.church.ChurchPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +32,9 @@ public class ChurchUserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
     /**
      * 獲取所有用戶
      */
@@ -137,6 +142,8 @@ public class ChurchUserService {
     public ChurchUser updateUser(String uid, ChurchUser userUpdate) {
         ChurchUser existing = churchUserRepository.findByUid(uid)
             .orElseThrow(() -> new RuntimeException("用戶不存在: " + uid));
+        // 用戶名可能變更，先清除舊用戶名的快取
+        authPrincipalCache.invalidate(AuthDomain.CHURCH, existing.getUsername());
 
         // 更新基本信息
         if (userUpdate.getEmail() != null && !userUpdate.getEmail().equals(existing.getEmail())) {
@@ -184,6 +191,7 @@ public class ChurchUserService {
         }
 
         churchUserRepository.save(existing);
+        authPrincipalCache.invalidate(AuthDomain.CHURCH, existing.getUsername());
         return getUserWithAssociations(uid);
     }
 
@@ -193,6 +201,7 @@ public class ChurchUserService {
     @Transactional(transactionManager = "churchTransactionManager")
     public void deleteUser(String uid) {
         churchUserRepository.deleteById(uid);
+        authPrincipalCache.invalidateDomain(AuthDomain.CHURCH);
     }
 
     /**
@@ -212,6 +221,7 @@ public class ChurchUserService {
 
         user.setRoles(roles);
         churchUserRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.CHURCH, user.getUsername());
         return getUserWithAssociations(uid);
     }
 
@@ -232,6 +242,7 @@ public class ChurchUserService {
 
         user.setPermissions(permissions);
         churchUserRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.CHURCH, user.getUsername());
         return getUserWithAssociations(uid);
     }
 
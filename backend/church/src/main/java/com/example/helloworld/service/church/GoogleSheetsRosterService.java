@@ -2,24 +2,26 @@ package com.example.helloworld.service.church;
 
 import com.example.helloworld.dto.church.admin.GoogleSyncResult;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
 import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
 import com.google.api.services.sheets.v4.model.ValueRange;
 import com.google.auth.http.HttpCredentialsAdapter;
 import com.google.auth.oauth2.GoogleCredentials;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
@@ -28,7 +30,21 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 服事表同步到 Google Sheets（write-behind）。
+ * 每筆更新先放入該試算表的待寫入佇列，等待 flush-window-ms 收集同一時段的其他更新後，
+ * 以一次 batchGet（音控欄位原值）與一次 batchUpdate 寫入；同一格的多次更新只寫最後結果。
+ * 表頭位置與「日期 → 列」索引依工作表快取，寫入前在同一次 batchGet 讀回快取列的日期格確認未被移動，
+ * 不符時清除該工作表快取重新定位；寫入失敗重試前也會清除快取重新讀取。
+ * 單一工作表的錯誤只影響該工作表的更新：表頭缺漏等無法重試的錯誤直接回覆失敗，其餘工作表照常寫入。
+ */
 @Service
 public class GoogleSheetsRosterService {
     private static final Logger log = LoggerFactory.getLogger(GoogleSheetsRosterService.class);
@@ -40,6 +56,12 @@ public class GoogleSheetsRosterService {
     private static final String HDR_LIVE = "直播";
     private static final String HDR_CAMERA = "攝像";
 
+    // 音控欄位為「電腦/混音/燈光」合併字串，值為各崗位在字串中的位置
+    private static final Map<String, Integer> AUDIO_PARTS = Map.of("電腦", 0, "混音", 1, "燈光", 2);
+
+    // 與原 @Retryable 相同：最多 3 次，間隔 1 秒起每次加倍
+    private static final int MAX_ATTEMPTS = 3;
+
     // ===== DB keys =====
     private static final String KEY_SHEET_PROD = "google.sheets.church.service_schedules";
     private static final String KEY_SHEET_TEST = "google.sheets.church.service_schedules_test";
@@ -71,6 +93,33 @@ public class GoogleSheetsRosterService {
     @Qualifier("churchSystemSettingService")
     private SystemSettingService systemSettingService;
 
+    @Value("${church.google-sheets.roster.flush-window-ms:500}")
+    private long flushWindowMs;
+
+    @Value("${church.google-sheets.roster.await-ms:10000}")
+    private long awaitMs;
+
+    @Value("${church.google-sheets.roster.index-ttl-seconds:600}")
+    private long indexTtlSeconds;
+
+    // 留空使用 Google 正式端點；可指向本機假的 Sheets 服務測試
+    @Value("${church.google-sheets.root-url:}")
+    private String rootUrl;
+
+    private final Map<SheetKey, Cached<HeaderInfo>> headerCache = new ConcurrentHashMap<>();
+    private final Map<SheetKey, Cached<Map<String, List<Integer>>>> dateIndexCache = new ConcurrentHashMap<>();
+
+    // spreadsheetId → 等待寫入的更新；有內容時代表已排定一次 flush
+    private final Map<String, List<PendingUpdate>> pending = new HashMap<>();
+
+    private final RetryTemplate retryTemplate = RetryTemplate.builder()
+            .maxAttempts(MAX_ATTEMPTS)
+            .exponentialBackoff(1000, 2.0, 4000)
+            .retryOn(Exception.class)
+            .build();
+
+    private ScheduledExecutorService flusher;
+
 
     // ================== 初始化 ==================
     @PostConstruct
@@ -120,7 +169,17 @@ public class GoogleSheetsRosterService {
             request.setReadTimeout(this.readTimeoutMs);
         };
 
-        this.sheets = new Sheets.Builder(GoogleNetHttpTransport.newTrustedTransport(), GsonFactory.getDefaultInstance(), requestInitializer).setApplicationName("church-roster-sync").build();
+        Sheets.Builder builder = new Sheets.Builder(GoogleNetHttpTransport.newTrustedTransport(), GsonFactory.getDefaultInstance(), requestInitializer).setApplicationName("church-roster-sync");
+        if (rootUrl != null && !rootUrl.isBlank()) {
+            builder.setRootUrl(rootUrl.endsWith("/") ? rootUrl : rootUrl + "/");
+        }
+        this.sheets = builder.build();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "google-sheets-roster-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         log.info("GoogleSheetsRosterService initialized from DB. testMode={}, prodSheetId={}, testSheetId={}, connectTimeoutMs={}, readTimeoutMs={}, serviceAccountJson={}", this.testMode, maskSheetId(this.spreadsheetIdProd), maskSheetId(this.spreadsheetIdTest), this.connectTimeoutMs, this.readTimeoutMs, this.serviceAccountJson);
     }
@@ -141,99 +200,239 @@ public class GoogleSheetsRosterService {
         return id.substring(0, 3) + "..." + id.substring(id.length() - 3);
     }
 
-    // ================== 非同步入口 ==================
+    @PreDestroy
+    public void shutdown() {
+        // 已排定的 flush 仍會執行完畢
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ================== 同步入口 ==================
 
     public boolean isTestMode() {
         return testMode;
     }
 
-    @Async
-    public CompletableFuture<GoogleSyncResult> syncAsync(LocalDate date, String positionName, String personName) {
-        // 讓 async 也享受到 retry（syncWithRetry 裡會 throw 讓 Retryable 接手）
+    /**
+     * 排入待寫入佇列並等待該批次寫入結果；超過 await-ms 仍未完成時回覆已排入，實際寫入在背景繼續
+     */
+    public GoogleSyncResult sync(LocalDate date, String positionName, String personName) {
+        CompletableFuture<GoogleSyncResult> future = submit(date, positionName, personName);
         try {
-            GoogleSyncResult result = syncWithRetry(date, positionName, personName);
-            return CompletableFuture.completedFuture(result);
-        } catch (Exception e) {
-            // @Recover 應該會攔到，這裡只是保險（避免 CompletableFuture 直接丟例外）
-            log.error("syncAsync failed unexpectedly", e);
-            return CompletableFuture.completedFuture(GoogleSyncResult.fail("📄 Google PLC 服事表 同步失敗：" + e.getMessage()));
+            return future.get(awaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Google Sheet sync still pending after {}ms. date={}, position={}, person={}", awaitMs, date, positionName, personName);
+            return GoogleSyncResult.ok("📄 Google PLC 服事表 已排入同步，稍後寫入");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return GoogleSyncResult.fail("📄 Google PLC 服事表 同步被中斷");
+        } catch (ExecutionException e) {
+            return GoogleSyncResult.fail("📄 Google PLC 服事表 同步失敗：" + safeMsg(e.getCause()));
         }
     }
 
-    // ================== Retry 包裝 ==================
-    @Retryable(value = Exception.class, maxAttempts = 3, backoff = @Backoff(delay = 1000, multiplier = 2.0))
-    public GoogleSyncResult syncWithRetry(LocalDate date, String positionName, String personName) throws Exception {
-        return syncOneUpdate(date, positionName, personName);
-    }
-
-    // ================== Retry 最終失敗 ==================
-    @Recover
-    public GoogleSyncResult recover(Exception e, LocalDate date, String positionName, String personName) {
-        log.error("Google Sheet sync failed after retries. date={}, position={}, person={}", date, positionName, personName, e);
-        return GoogleSyncResult.fail("📄 Google PLC 服事表 同步失敗（已重試 3 次）：" + safeMsg(e));
-    }
-
-    // ================== 核心同步邏輯 ==================
-    public GoogleSyncResult syncOneUpdate(LocalDate date, String positionName, String personName) throws Exception {
-
+    /**
+     * 排入待寫入佇列，回傳該筆更新所屬批次寫入完成後的結果
+     */
+    public CompletableFuture<GoogleSyncResult> submit(LocalDate date, String positionName, String personName) {
+        String pos = normalizePosition(positionName);
+        if (!AUDIO_PARTS.containsKey(pos) && !pos.equals(HDR_LIVE) && !pos.equals(HDR_CAMERA)) {
+            return CompletableFuture.completedFuture(GoogleSyncResult.ok("📄 Google PLC 服事表 ：此崗位不需同步"));
+        }
 
         // 設定目前模式 要使用哪一個 excel
         this.testMode = systemSettingService.getSettingValueAsBoolean(KEY_TEST_MODE, Boolean.TRUE);
         String spreadsheetId = this.testMode ? spreadsheetIdTest : spreadsheetIdProd;
 
-        String sheetName = sheetNameByYear(date);
-        String targetDate = SHEET_DATE_FMT.format(date);
-
-        HeaderInfo header = findHeader(spreadsheetId, sheetName);
-
-        int dateCol0 = header.colIndex.get(HDR_DATE);
-        int audioCol0 = header.colIndex.get(HDR_AUDIO);
-        int liveCol0 = header.colIndex.get(HDR_LIVE);
-        int camCol0 = header.colIndex.get(HDR_CAMERA);
-
-        int row1 = findUniqueRowByDate(spreadsheetId, sheetName, header.headerRow1 + 1, dateCol0, targetDate);
+        PendingUpdate update = new PendingUpdate(date, pos, personName, new CompletableFuture<>());
+        synchronized (pending) {
+            List<PendingUpdate> updates = pending.get(spreadsheetId);
+            if (updates == null) {
+                updates = new ArrayList<>();
+                pending.put(spreadsheetId, updates);
+                flusher.schedule(() -> flush(spreadsheetId), flushWindowMs, TimeUnit.MILLISECONDS);
+            }
+            updates.add(update);
+        }
+        return update.result();
+    }
 
-        if (row1 == -1) {
-            // ✅ 規格：找不到 或 日期重複 -> 不處理 + log
-            log.warn("Google Sheet skip: date not found or duplicated. sheet={}, targetDate={}", sheetName, targetDate);
-            return GoogleSyncResult.fail("📄 Google PLC 服事表 ：找不到或日期重複，已略過");
+    // ================== 批次寫入 ==================
+    private void flush(String spreadsheetId) {
+        List<PendingUpdate> batch;
+        synchronized (pending) {
+            batch = pending.remove(spreadsheetId);
+        }
+        if (batch == null || batch.isEmpty()) {
+            return;
         }
 
-        String pos = normalizePosition(positionName);
+        // 每次嘗試只處理尚未完成的更新，已寫入或已略過的更新當下就回覆結果
+        List<PendingUpdate> remaining = new ArrayList<>(batch);
+        try {
+            retryTemplate.execute((RetryCallback<Void, Exception>) context -> {
+                if (context.getRetryCount() > 0) {
+                    // 表頭或列可能已被調整，重試前重新讀取
+                    invalidateIndexes(spreadsheetId);
+                }
+                FlushOutcome outcome;
+                try {
+                    outcome = writeBatch(spreadsheetId, remaining);
+                } catch (Exception e) {
+                    log.error("Google Sheet sync error (attempt {}/{}). updates={}", context.getRetryCount() + 1, MAX_ATTEMPTS, remaining.size(), e);
+                    throw e;
+                }
+                complete(spreadsheetId, outcome);
+                remaining.clear();
+                remaining.addAll(outcome.retryable().keySet());
+                if (!remaining.isEmpty()) {
+                    Exception cause = outcome.retryable().values().iterator().next();
+                    log.error("Google Sheet sync error (attempt {}/{}). failedUpdates={}", context.getRetryCount() + 1, MAX_ATTEMPTS, remaining.size(), cause);
+                    throw cause;
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Google Sheet sync failed after retries. updates={}", remaining.size(), e);
+            GoogleSyncResult failed = GoogleSyncResult.fail("📄 Google PLC 服事表 同步失敗（已重試 " + MAX_ATTEMPTS + " 次）：" + safeMsg(e));
+            for (PendingUpdate update : remaining) {
+                update.result().complete(failed);
+            }
+        }
+    }
 
-        List<ValueRange> updates = new ArrayList<>();
+    private void complete(String spreadsheetId, FlushOutcome outcome) {
+        String msg = "📄 Google PLC 服事表 同步成功";
+        if (spreadsheetId.equals(spreadsheetIdTest)) {
+            msg += "\n🧪 測試模式（未寫入正式服事表）";
+        }
+        for (PendingUpdate update : outcome.written()) {
+            update.result().complete(GoogleSyncResult.ok(msg));
+        }
+        for (PendingUpdate update : outcome.skipped()) {
+            update.result().complete(GoogleSyncResult.fail("📄 Google PLC 服事表 ：找不到或日期重複，已略過"));
+        }
+        outcome.rejected().forEach((update, e) -> {
+            // 無法重試的錯誤（例如工作表或表頭不存在）：記錄完整內容後丟棄，不影響同批其他更新
+            log.error("Google Sheet sync rejected. date={}, position={}, person={}, reason={}", update.date(), update.position(), update.personName(), safeMsg(e));
+            update.result().complete(GoogleSyncResult.fail("📄 Google PLC 服事表 同步失敗：" + safeMsg(e)));
+        });
+        log.info("📄 [Google Sheet] 批次寫入完成：{} 筆更新，{} 格，略過 {} 筆，失敗 {} 筆，待重試 {} 筆",
+                outcome.written().size(), outcome.cells(), outcome.skipped().size(), outcome.rejected().size(), outcome.retryable().size());
+    }
 
-        if (pos.equals("電腦") || pos.equals("混音") || pos.equals("燈光")) {
-            // 音控欄位本身是 電腦/混音/燈光 的合併字串
-            String oldAudio = readCell(spreadsheetId, sheetName + "!" + toA1Col(audioCol0) + row1);
+    /**
+     * 依序套用同一批更新：一般欄位後寫覆蓋先寫，音控欄位先合併各崗位再一次讀出原值組成字串。
+     * 由快取索引定位的列會在同一次 batchGet 讀回日期格確認；有工作表不符時清除其快取，整批重新定位一次。
+     */
+    private FlushOutcome writeBatch(String spreadsheetId, List<PendingUpdate> batch) throws Exception {
+        // 本次已由工作表重新讀取的日期索引，定位結果不需再確認
+        Set<SheetKey> reloaded = new HashSet<>();
+        while (true) {
+            Map<SheetKey, Exception> sheetErrors = new HashMap<>();
+            Map<String, String> cellValues = new LinkedHashMap<>();
+            Map<String, String[]> audioParts = new LinkedHashMap<>();
+            Map<String, DateCheck> dateChecks = new LinkedHashMap<>();
+            List<PendingUpdate> written = new ArrayList<>();
+            List<PendingUpdate> skipped = new ArrayList<>();
+            Map<PendingUpdate, Exception> rejected = new LinkedHashMap<>();
+            Map<PendingUpdate, Exception> retryable = new LinkedHashMap<>();
+
+            for (PendingUpdate update : batch) {
+                SheetKey key = new SheetKey(spreadsheetId, sheetNameByYear(update.date()));
+                String targetDate = SHEET_DATE_FMT.format(update.date());
+                HeaderInfo header;
+                int row1;
+                try {
+                    Exception sheetError = sheetErrors.get(key);
+                    if (sheetError != null) {
+                        throw sheetError;
+                    }
+                    header = header(key);
+                    row1 = findUniqueRowByDate(key, header, targetDate, reloaded);
+                } catch (Exception e) {
+                    sheetErrors.putIfAbsent(key, e);
+                    (isPermanent(e) ? rejected : retryable).put(update, e);
+                    continue;
+                }
+                if (row1 == -1) {
+                    // ✅ 規格：找不到 或 日期重複 -> 不處理 + log
+                    log.warn("Google Sheet skip: date not found or duplicated. sheet={}, targetDate={}", key.sheetName(), targetDate);
+                    skipped.add(update);
+                    continue;
+                }
+                if (!reloaded.contains(key)) {
+                    dateChecks.putIfAbsent(cellA1(key.sheetName(), row1, header.colIndex.get(HDR_DATE)), new DateCheck(key, targetDate));
+                }
 
-            String merged = mergeAudio(oldAudio, pos.equals("電腦") ? personName : null, pos.equals("混音") ? personName : null, pos.equals("燈光") ? personName : null);
+                Integer audioPart = AUDIO_PARTS.get(update.position());
+                if (audioPart != null) {
+                    String a1 = cellA1(key.sheetName(), row1, header.colIndex.get(HDR_AUDIO));
+                    audioParts.computeIfAbsent(a1, k -> new String[AUDIO_PARTS.size()])[audioPart] = update.personName();
+                } else {
+                    String a1 = cellA1(key.sheetName(), row1, header.colIndex.get(update.position()));
+                    cellValues.put(a1, update.personName());
+                }
+                written.add(update);
+            }
 
-            updates.add(cellUpdate(sheetName, row1, audioCol0, merged));
+            // 同一次 batchGet：音控欄位原值（保留其他崗位）與快取列的日期格
+            List<String> ranges = new ArrayList<>(audioParts.keySet());
+            ranges.addAll(dateChecks.keySet());
+            Map<String, String> current = new HashMap<>();
+            if (!ranges.isEmpty()) {
+                BatchGetValuesResponse response = sheets.spreadsheets().values().batchGet(spreadsheetId).setRanges(ranges).setValueRenderOption("FORMATTED_VALUE").execute();
+                List<ValueRange> values = response.getValueRanges() == null ? List.of() : response.getValueRanges();
+                for (int i = 0; i < ranges.size(); i++) {
+                    current.put(ranges.get(i), i < values.size() ? firstCell(values.get(i)) : "");
+                }
+            }
 
-        } else if (pos.equals("直播")) {
-            updates.add(cellUpdate(sheetName, row1, liveCol0, personName));
+            Set<SheetKey> moved = new HashSet<>();
+            dateChecks.forEach((a1, check) -> {
+                if (!check.date().equals(current.get(a1).trim())) {
+                    log.warn("📄 [Google Sheet] 快取列已移動，重新定位。cell={}, expected={}, actual={}", a1, check.date(), current.get(a1));
+                    moved.add(check.key());
+                }
+            });
+            if (!moved.isEmpty()) {
+                for (SheetKey key : moved) {
+                    headerCache.remove(key);
+                    dateIndexCache.remove(key);
+                }
+                continue;
+            }
 
-        } else if (pos.equals("攝像")) {
-            updates.add(cellUpdate(sheetName, row1, camCol0, personName));
+            audioParts.forEach((a1, parts) -> cellValues.put(a1, mergeAudio(current.get(a1), parts[0], parts[1], parts[2])));
 
-        } else {
-            return GoogleSyncResult.ok("📄 Google PLC 服事表 ：此崗位不需同步");
+            if (!cellValues.isEmpty()) {
+                List<ValueRange> updates = new ArrayList<>();
+                cellValues.forEach((a1, value) -> updates.add(cellUpdate(a1, value)));
+                BatchUpdateValuesRequest req = new BatchUpdateValuesRequest().setValueInputOption("USER_ENTERED").setData(updates);
+                sheets.spreadsheets().values().batchUpdate(spreadsheetId, req).execute();
+            }
+            return new FlushOutcome(written, skipped, rejected, retryable, cellValues.size());
         }
+    }
 
-        try {
-            BatchUpdateValuesRequest req = new BatchUpdateValuesRequest().setValueInputOption("USER_ENTERED").setData(updates);
-
-            sheets.spreadsheets().values().batchUpdate(spreadsheetId, req).execute();
-            String msg = "📄 Google PLC 服事表 同步成功";
-            if (this.testMode) {
-                msg += "\n🧪 測試模式（未寫入正式服事表）";
-            }
-            return GoogleSyncResult.ok(msg);
-        } catch (Exception e) {
-            log.error("Google Sheet sync error (will retry). date={}, position={}, person={}", date, positionName, personName, e);
-            throw e; // ✅ 交給 Spring Retry
+    /**
+     * 工作表或表頭不存在、範圍無效等錯誤重試也不會成功；逾時、限流與 5xx 則交給重試
+     */
+    private boolean isPermanent(Exception e) {
+        if (e instanceof IllegalStateException) {
+            return true;
+        }
+        if (e instanceof GoogleJsonResponseException g) {
+            int status = g.getStatusCode();
+            return status >= 400 && status < 500 && status != 408 && status != 429;
         }
+        return false;
     }
 
     // ================== 工具方法 ==================
@@ -241,6 +440,16 @@ public class GoogleSheetsRosterService {
         return date.getYear() + "年度服事表";
     }
 
+    private HeaderInfo header(SheetKey key) throws Exception {
+        Cached<HeaderInfo> cached = headerCache.get(key);
+        if (cached != null && cached.isFresh(indexTtlSeconds)) {
+            return cached.value();
+        }
+        HeaderInfo header = findHeader(key.spreadsheetId(), key.sheetName());
+        headerCache.put(key, new Cached<>(header, System.currentTimeMillis()));
+        return header;
+    }
+
     private HeaderInfo findHeader(String spreadsheetId, String sheetName) throws Exception {
         ValueRange vr = sheets.spreadsheets().values().get(spreadsheetId, sheetName + "!A1:AN30").setValueRenderOption("FORMATTED_VALUE").execute();
 
@@ -265,46 +474,69 @@ public class GoogleSheetsRosterService {
         throw new IllegalStateException("找不到表頭（日期 / 音控 / 直播 / 攝像），sheet=" + sheetName);
     }
 
-    private int findUniqueRowByDate(String spreadsheetId, String sheet, int startRow1, int col0, String target) throws Exception {
-        ValueRange vr = sheets.spreadsheets().values().get(spreadsheetId, sheet + "!" + toA1Col(col0) + startRow1 + ":" + toA1Col(col0)).setValueRenderOption("FORMATTED_VALUE").execute();
-        if (vr.getValues() == null) return -1;
-        log.info(" 傳入日期 : {}", target);
-        List<Integer> hits = new ArrayList<>();
-        int blankStreak = 0;
-        for (int i = 0; i < vr.getValues().size(); i++) {
-            List<Object> row = vr.getValues().get(i);
-            String value = "";
-            if (row != null && !row.isEmpty() && row.get(0) != null) {
-                value = String.valueOf(row.get(0)).trim();
-            }
+    /**
+     * 日期只出現一次時回傳該列（1-based），否則 -1。
+     * 快取中找不到日期時重新讀取一次日期欄，以涵蓋工作表新加的列；重新讀取過的工作表記錄到 reloaded
+     */
+    private int findUniqueRowByDate(SheetKey key, HeaderInfo header, String target, Set<SheetKey> reloaded) throws Exception {
+        Cached<Map<String, List<Integer>>> cached = dateIndexCache.get(key);
+        boolean fromCache = cached != null && cached.isFresh(indexTtlSeconds);
+        Map<String, List<Integer>> index = fromCache ? cached.value() : loadDateIndex(key, header, reloaded);
+        List<Integer> hits = index.get(target);
+        if (hits == null && fromCache) {
+            hits = loadDateIndex(key, header, reloaded).get(target);
+        }
+        return hits != null && hits.size() == 1 ? hits.get(0) : -1;
+    }
 
-            if (value.isEmpty()) {
-                blankStreak++;
-                log.info(" 第 {} 行，值 ：<空白>", i);
-                if (blankStreak >= 5) {
-                    log.info(" 連續空白 {} 行，停止往下掃描", blankStreak);
-                    break;
+    private Map<String, List<Integer>> loadDateIndex(SheetKey key, HeaderInfo header, Set<SheetKey> reloaded) throws Exception {
+        int startRow1 = header.headerRow1 + 1;
+        String col = toA1Col(header.colIndex.get(HDR_DATE));
+        ValueRange vr = sheets.spreadsheets().values().get(key.spreadsheetId(), key.sheetName() + "!" + col + startRow1 + ":" + col).setValueRenderOption("FORMATTED_VALUE").execute();
+
+        Map<String, List<Integer>> index = new HashMap<>();
+        if (vr.getValues() != null) {
+            int blankStreak = 0;
+            for (int i = 0; i < vr.getValues().size(); i++) {
+                List<Object> row = vr.getValues().get(i);
+                String value = "";
+                if (row != null && !row.isEmpty() && row.get(0) != null) {
+                    value = String.valueOf(row.get(0)).trim();
+                }
+
+                if (value.isEmpty()) {
+                    // 連續空白 5 行視為資料結束，停止往下掃描
+                    if (++blankStreak >= 5) {
+                        break;
+                    }
+                    continue;
                 }
-                continue;
-            }
 
-            blankStreak = 0;
-            log.info(" 第 {} 行，值 ：{}", i, value);
-            if (target.equals(value)) {
-                hits.add(startRow1 + i);
-                log.info("符合 -> 第 {} 行，值 ：{}", i, value);
+                blankStreak = 0;
+                index.computeIfAbsent(value, k -> new ArrayList<>()).add(startRow1 + i);
             }
         }
-        return hits.size() == 1 ? hits.get(0) : -1;
+        log.info("📄 [Google Sheet] 載入日期索引 sheet={}，共 {} 個日期", key.sheetName(), index.size());
+        dateIndexCache.put(key, new Cached<>(index, System.currentTimeMillis()));
+        reloaded.add(key);
+        return index;
     }
 
-    private String readCell(String spreadsheetId, String a1) throws Exception {
-        ValueRange vr = sheets.spreadsheets().values().get(spreadsheetId, a1).setValueRenderOption("FORMATTED_VALUE").execute();
+    private void invalidateIndexes(String spreadsheetId) {
+        headerCache.keySet().removeIf(key -> key.spreadsheetId().equals(spreadsheetId));
+        dateIndexCache.keySet().removeIf(key -> key.spreadsheetId().equals(spreadsheetId));
+    }
+
+    private String firstCell(ValueRange vr) {
         return (vr.getValues() == null || vr.getValues().isEmpty() || vr.getValues().get(0).isEmpty()) ? "" : String.valueOf(vr.getValues().get(0).get(0));
     }
 
-    private ValueRange cellUpdate(String sheet, int row1, int col0, String value) {
-        return new ValueRange().setRange(sheet + "!" + toA1Col(col0) + row1).setValues(List.of(List.of(value == null ? "" : value)));
+    private String cellA1(String sheet, int row1, int col0) {
+        return sheet + "!" + toA1Col(col0) + row1;
+    }
+
+    private ValueRange cellUpdate(String a1, String value) {
+        return new ValueRange().setRange(a1).setValues(List.of(List.of(value == null ? "" : value)));
     }
 
     /**
@@ -354,4 +586,22 @@ public class GoogleSheetsRosterService {
             this.colIndex = c;
         }
     }
+
+    private record SheetKey(String spreadsheetId, String sheetName) {}
+
+    private record Cached<T>(T value, long loadedAtMillis) {
+        boolean isFresh(long ttlSeconds) {
+            return System.currentTimeMillis() - loadedAtMillis < ttlSeconds * 1000;
+        }
+    }
+
+    private record PendingUpdate(LocalDate date, String position, String personName, CompletableFuture<GoogleSyncResult> result) {}
+
+    private record DateCheck(SheetKey key, String date) {}
+
+    private record FlushOutcome(List<PendingUpdate> written,
+                                List<PendingUpdate> skipped,
+                                Map<PendingUpdate, Exception> rejected,
+                                Map<PendingUpdate, Exception> retryable,
+                                int cells) {}
 }
@@ -9,6 +9,9 @@ import com.example.helloworld.entity.church.Person;
 import com.example.helloworld.repository.church.ServiceScheduleRepository;
 import com.example.helloworld.repository.church.PositionRepository;
 import com.example.helloworld.repository.church.PersonRepository;
+import com.example.helloworld.repository.church.ServiceScheduleBulkRepository.AssignmentRow;
+import com.example.helloworld.repository.church.ServiceScheduleBulkRepository.ConfigRow;
+import com.example.helloworld.repository.church.ServiceScheduleBulkRepository.DateRow;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.hibernate.Hibernate;
@@ -21,10 +24,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -44,7 +51,7 @@ public class ServiceScheduleService {
     private EntityManager entityManager;
 
     /**
-     * 保存服事安排表（優化版本：減少資料庫查詢，使用批量操作）
+     * 保存服事安排表：主表以 JPA 建立，明細以 JDBC 批次寫入
      */
     @Transactional(transactionManager = "churchTransactionManager")
     public ServiceSchedule saveSchedule(List<Map<String, Object>> scheduleData) {
@@ -60,172 +67,16 @@ public class ServiceScheduleService {
             throw new RuntimeException("該年度（" + year + "年）已存在服事表，每個年度只能有一個版本");
         }
         
-        // 1. 創建主表記錄
+        // 1. 創建主表記錄（明細以 JDBC 寫入，需先 flush 主表）
         ServiceSchedule schedule = new ServiceSchedule();
         schedule.setYear(year);
-        schedule = repository.save(schedule);
-
-        // 2. 如果有服事表數據，保存到關聯表
-        if (scheduleData != null && !scheduleData.isEmpty()) {
-            // 2.1 動態提取所有崗位代碼（從 scheduleData 中）
-            Set<String> positionCodeSet = new HashSet<>();
-            for (Map<String, Object> item : scheduleData) {
-                for (String key : item.keySet()) {
-                    if (key.endsWith("Id") && !key.equals("date")) {
-                        String positionCode = key.substring(0, key.length() - 2);
-                        positionCodeSet.add(positionCode);
-                    } else if (!key.equals("date") && !key.equals("formattedDate") && !key.equals("dayOfWeek")) {
-                        // 檢查是否為崗位名稱（不是以 Id 結尾，也不是日期相關欄位）
-                        // 如果該 key 對應的值是字符串（人員名稱），則可能是崗位代碼
-                        Object value = item.get(key);
-                        if (value instanceof String && !value.toString().trim().isEmpty()) {
-                            // 檢查是否有對應的 Id 欄位，如果沒有，則可能是崗位代碼
-                            if (!item.containsKey(key + "Id")) {
-                                positionCodeSet.add(key);
-                            }
-                        }
-                    }
-                }
-            }
-            
-            // 2.2 預先載入所有需要的 Position 和 Person（減少資料庫查詢）
-            Map<String, Position> positionMap = new HashMap<>();
-            for (String positionCode : positionCodeSet) {
-                positionRepository.findByPositionCode(positionCode)
-                    .ifPresent(position -> positionMap.put(positionCode, position));
-            }
-
-            // 預先載入所有 Person 到 Map（使用 ID 作為 key，同時保留名稱映射以向後兼容）
-            List<Person> allPersons = personRepository.findAll();
-            Map<Long, Person> personMapById = new HashMap<>();
-            Map<String, Person> personMapByName = new HashMap<>();
-            for (Person person : allPersons) {
-                personMapById.put(person.getId(), person);
-                // 使用 personName 作為 key（向後兼容）
-                personMapByName.put(person.getPersonName(), person);
-                // 如果有 displayName，也加入 Map
-                if (person.getDisplayName() != null && !person.getDisplayName().trim().isEmpty()) {
-                    personMapByName.put(person.getDisplayName(), person);
-                }
-            }
-
-            // 2.3 批量創建所有實體
-            List<ServiceScheduleDate> datesToSave = new ArrayList<>();
-            List<ServiceSchedulePositionConfig> configsToSave = new ArrayList<>();
-            List<ServiceScheduleAssignment> assignmentsToSave = new ArrayList<>();
-
-            for (Map<String, Object> item : scheduleData) {
-                String dateStr = (String) item.get("date");
-                if (dateStr != null && !dateStr.isEmpty()) {
-                    LocalDate date = LocalDate.parse(dateStr);
-                    ServiceScheduleDate scheduleDate = new ServiceScheduleDate();
-                    scheduleDate.setServiceSchedule(schedule);
-                    scheduleDate.setDate(date);
-                    datesToSave.add(scheduleDate);
-
-                    // 保存崗位配置和人員分配（支援多人）
-                    for (String positionCode : positionCodeSet) {
-                        Position position = positionMap.get(positionCode);
-                        if (position == null) {
-                            continue;
-                        }
-                        
-                        // 使用 IDs 陣列（多人）
-                        List<Long> personIds = new ArrayList<>();
-                        Object personIdsObj = item.get(positionCode + "Ids");
-                        if (personIdsObj instanceof List) {
-                            // 處理 ID 陣列
-                            @SuppressWarnings("unchecked")
-                            List<Object> idsList = (List<Object>) personIdsObj;
-                            for (Object idObj : idsList) {
-                                if (idObj instanceof Number) {
-                                    personIds.add(((Number) idObj).longValue());
-                                } else if (idObj instanceof String && !((String) idObj).trim().isEmpty()) {
-                                    try {
-                                        personIds.add(Long.parseLong((String) idObj));
-                                    } catch (NumberFormatException e) {
-                                        // 忽略
-                                    }
-                                }
-                            }
-                        }
-                        
-                        // 如果通過 ID 找不到，嘗試使用名稱（向後兼容）
-                        if (personIds.isEmpty()) {
-                            String personName = (String) item.get(positionCode);
-                            if (personName != null && !personName.trim().isEmpty()) {
-                                // 如果名稱包含 "/"，嘗試分割
-                                if (personName.contains("/")) {
-                                    String[] names = personName.split("/");
-                                    for (String name : names) {
-                                        Person person = personMapByName.get(name.trim());
-                                        if (person != null) {
-                                            personIds.add(person.getId());
-                                        }
-                                    }
-                                } else {
-                                    Person person = personMapByName.get(personName);
-                                    if (person != null) {
-                                        personIds.add(person.getId());
-                                    }
-                                }
-                            }
-                        }
-                        
-                        if (!personIds.isEmpty()) {
-                            // 創建崗位配置
-                            ServiceSchedulePositionConfig config = new ServiceSchedulePositionConfig();
-                            config.setServiceScheduleDate(scheduleDate);
-                            config.setPosition(position);
-                            config.setPersonCount(personIds.size());
-                            configsToSave.add(config);
-
-                            // 為每個人員創建分配記錄
-                            for (int i = 0; i < personIds.size(); i++) {
-                                Long personId = personIds.get(i);
-                                Person person = personMapById.get(personId);
-                                if (person != null) {
-                                    ServiceScheduleAssignment assignment = new ServiceScheduleAssignment();
-                                    assignment.setServiceSchedulePositionConfig(config);
-                                    assignment.setPerson(person);
-                                    assignment.setSortOrder(i); // 使用索引作為 sortOrder
-                                    assignmentsToSave.add(assignment);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
-            // 2.3 批量保存（減少 flush 次數）
-            int batchSize = 50;
-            for (int i = 0; i < datesToSave.size(); i++) {
-                entityManager.persist(datesToSave.get(i));
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.flush();
-                }
-            }
-
-            for (int i = 0; i < configsToSave.size(); i++) {
-                entityManager.persist(configsToSave.get(i));
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.flush();
-        }
-            }
-
-            for (int i = 0; i < assignmentsToSave.size(); i++) {
-                entityManager.persist(assignmentsToSave.get(i));
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.flush();
-                }
-            }
-        }
-
-        // 3. 最後一次 flush 確保所有數據都保存
+        repository.save(schedule);
         entityManager.flush();
-        entityManager.refresh(schedule);
 
-        return schedule;
+        // 2. 寫入日期、崗位配置和人員分配
+        applyScheduleData(year, scheduleData);
+
+        return reloadSchedule(year);
     }
 
     /**
@@ -531,7 +382,7 @@ public class ServiceScheduleService {
     }
 
     /**
-     * 更新安排表
+     * 更新安排表：與現有明細比對，只寫入有變更的日期、崗位配置與人員分配
      */
     @Transactional(transactionManager = "churchTransactionManager")
     public ServiceSchedule updateSchedule(Integer year, List<Map<String, Object>> scheduleData) {
@@ -553,200 +404,326 @@ public class ServiceScheduleService {
                 throw new RuntimeException("該年度（" + newYear + "年）已存在服事表，每個年度只能有一個版本");
             }
             
-            // 由於主鍵變更，需要先刪除舊記錄再創建新記錄
-            // 保存關聯資料的引用
-            List<ServiceScheduleDate> datesToMove = schedule.getDates();
-            
-            // 刪除舊記錄（會級聯刪除 dates）
-            repository.delete(schedule);
-            entityManager.flush();
-            
-            // 創建新記錄
+            // 由於主鍵變更，先建立新年度的主表，把既有明細改掛過去後再刪除舊主表
             ServiceSchedule newSchedule = new ServiceSchedule();
             newSchedule.setYear(newYear);
-            newSchedule = repository.save(newSchedule);
-            
-            // 重新關聯 dates（如果有的話，但通常會被級聯刪除，所以需要重新創建）
-            schedule = newSchedule;
+            repository.save(newSchedule);
+            entityManager.flush();
+            repository.moveDates(schedule.getYear(), newYear);
+
+            repository.delete(schedule);
+            entityManager.flush();
         }
 
-        // 3. 刪除現有的 dates（會級聯刪除 positionConfigs 和 assignments）
-        if (schedule.getDates() != null) {
-            schedule.getDates().clear();
+        // 3. 與現有明細比對後寫入差異
+        applyScheduleData(newYear, scheduleData);
+
+        return reloadSchedule(newYear);
+    }
+
+    /**
+     * 刪除安排表
+     */
+    @Transactional(transactionManager = "churchTransactionManager")
+    public void deleteSchedule(Integer year) {
+        repository.deleteById(year);
+    }
+
+    /**
+     * 將 scheduleData 與資料庫中該年度的明細比對，只寫入差異（JDBC 批次）：
+     * 新增/刪除的日期、新增/刪除/人數變更的崗位配置，以及逐一位置比對後有變更的人員分配。
+     * 只修改一週的內容時，只會寫入那一週的資料列。
+     */
+    private void applyScheduleData(Integer year, List<Map<String, Object>> scheduleData) {
+        Map<LocalDate, Map<Long, DesiredConfig>> desired = resolveScheduleData(scheduleData);
+
+        // 1. 載入現有明細（每種資料一次查詢）
+        Map<LocalDate, Long> dateIds = new HashMap<>();
+        Set<Long> dateIdsToDelete = new LinkedHashSet<>();
+        for (DateRow row : repository.findDateRows(year)) {
+            // 不再需要的日期，或重複的日期（保留第一筆）
+            if (!desired.containsKey(row.date()) || dateIds.containsKey(row.date())) {
+                dateIdsToDelete.add(row.id());
+            } else {
+                dateIds.put(row.date(), row.id());
+            }
         }
-        repository.save(schedule);
-        entityManager.flush();
 
-        // 4. 保存新的 dates 和人員分配（使用優化後的批量操作）
-        if (scheduleData != null && !scheduleData.isEmpty()) {
-            // 4.1 動態提取所有崗位代碼（從 scheduleData 中）
-            Set<String> positionCodeSet = new HashSet<>();
-            for (Map<String, Object> item : scheduleData) {
-                for (String key : item.keySet()) {
-                    if (key.endsWith("Id") && !key.equals("date")) {
-                        String positionCode = key.substring(0, key.length() - 2);
-                        positionCodeSet.add(positionCode);
-                    } else if (!key.equals("date") && !key.equals("formattedDate") && !key.equals("dayOfWeek")) {
-                        // 檢查是否為崗位名稱（不是以 Id 結尾，也不是日期相關欄位）
-                        // 如果該 key 對應的值是字符串（人員名稱），則可能是崗位代碼
-                        Object value = item.get(key);
-                        if (value instanceof String && !value.toString().trim().isEmpty()) {
-                            // 檢查是否有對應的 Id 欄位，如果沒有，則可能是崗位代碼
-                            if (!item.containsKey(key + "Id")) {
-                                positionCodeSet.add(key);
-                            }
+        Map<Long, List<AssignmentRow>> assignmentsByConfig = new HashMap<>();
+        for (AssignmentRow row : repository.findAssignmentRows(year)) {
+            assignmentsByConfig.computeIfAbsent(row.configId(), k -> new ArrayList<>()).add(row);
+        }
+
+        Map<ConfigKey, ConfigRow> existingConfigs = new HashMap<>();
+        List<Long> configIdsToDelete = new ArrayList<>();
+        for (ConfigRow row : repository.findConfigRows(year)) {
+            ConfigKey key = new ConfigKey(row.dateId(), row.positionId());
+            if (dateIdsToDelete.contains(row.dateId()) || existingConfigs.containsKey(key)) {
+                configIdsToDelete.add(row.id());
+            } else {
+                existingConfigs.put(key, row);
+            }
+        }
+
+        // 2. 新增的日期先寫入，再查回主鍵
+        List<LocalDate> newDates = desired.keySet().stream()
+            .filter(date -> !dateIds.containsKey(date))
+            .toList();
+        if (!newDates.isEmpty()) {
+            repository.insertDates(year, newDates);
+            for (DateRow row : repository.findDateRows(year)) {
+                dateIds.putIfAbsent(row.date(), row.id());
+            }
+        }
+
+        // 3. 逐一比對崗位配置與人員分配
+        List<ConfigRow> configsToInsert = new ArrayList<>();
+        List<ConfigRow> configCountsToUpdate = new ArrayList<>();
+        Map<ConfigKey, List<Slot>> assignmentsForNewConfigs = new HashMap<>();
+        List<AssignmentRow> assignmentsToInsert = new ArrayList<>();
+        List<AssignmentRow> assignmentsToUpdate = new ArrayList<>();
+        List<Long> assignmentIdsToDelete = new ArrayList<>();
+
+        for (Map.Entry<LocalDate, Map<Long, DesiredConfig>> dateEntry : desired.entrySet()) {
+            Long dateId = dateIds.get(dateEntry.getKey());
+            for (Map.Entry<Long, DesiredConfig> positionEntry : dateEntry.getValue().entrySet()) {
+                ConfigKey key = new ConfigKey(dateId, positionEntry.getKey());
+                int personCount = positionEntry.getValue().personCount();
+                List<Slot> wantedAssignments = positionEntry.getValue().assignments();
+
+                ConfigRow existing = existingConfigs.remove(key);
+                if (existing == null) {
+                    configsToInsert.add(new ConfigRow(null, dateId, positionEntry.getKey(), personCount));
+                    assignmentsForNewConfigs.put(key, wantedAssignments);
+                    continue;
+                }
+                if (!Integer.valueOf(personCount).equals(existing.personCount())) {
+                    configCountsToUpdate.add(new ConfigRow(existing.id(), dateId, positionEntry.getKey(), personCount));
+                }
+
+                List<AssignmentRow> current = assignmentsByConfig.getOrDefault(existing.id(), List.of());
+                int size = Math.max(current.size(), wantedAssignments.size());
+                for (int i = 0; i < size; i++) {
+                    if (i >= wantedAssignments.size()) {
+                        assignmentIdsToDelete.add(current.get(i).id());
+                    } else if (i >= current.size()) {
+                        Slot slot = wantedAssignments.get(i);
+                        assignmentsToInsert.add(new AssignmentRow(null, existing.id(), slot.personId(), slot.sortOrder()));
+                    } else {
+                        AssignmentRow row = current.get(i);
+                        Slot slot = wantedAssignments.get(i);
+                        if (!Objects.equals(row.personId(), slot.personId()) || !Objects.equals(row.sortOrder(), slot.sortOrder())) {
+                            assignmentsToUpdate.add(new AssignmentRow(row.id(), existing.id(), slot.personId(), slot.sortOrder()));
                         }
                     }
                 }
             }
-            
-            // 4.2 預先載入所有需要的 Position 和 Person（減少資料庫查詢）
-            Map<String, Position> positionMap = new HashMap<>();
-            for (String positionCode : positionCodeSet) {
-                positionRepository.findByPositionCode(positionCode)
-                    .ifPresent(position -> positionMap.put(positionCode, position));
+        }
+        // 傳入資料中已沒有人員的崗位配置
+        for (ConfigRow row : existingConfigs.values()) {
+            configIdsToDelete.add(row.id());
+        }
+        for (Long configId : configIdsToDelete) {
+            for (AssignmentRow row : assignmentsByConfig.getOrDefault(configId, List.of())) {
+                assignmentIdsToDelete.add(row.id());
             }
+        }
 
-            // 預先載入所有 Person 到 Map（使用 ID 作為 key，同時保留名稱映射以向後兼容）
-            List<Person> allPersons = personRepository.findAll();
-            Map<Long, Person> personMapById = new HashMap<>();
-            Map<String, Person> personMapByName = new HashMap<>();
-            for (Person person : allPersons) {
-                personMapById.put(person.getId(), person);
-                // 使用 personName 作為 key（向後兼容）
-                personMapByName.put(person.getPersonName(), person);
-                // 如果有 displayName，也加入 Map
-                if (person.getDisplayName() != null && !person.getDisplayName().trim().isEmpty()) {
-                    personMapByName.put(person.getDisplayName(), person);
+        // 4. 依外鍵順序寫入：先刪子表，再寫父表，新配置查回主鍵後寫入分配
+        repository.deleteAssignments(assignmentIdsToDelete);
+        repository.deleteConfigs(configIdsToDelete);
+        repository.deleteDates(dateIdsToDelete);
+        repository.updateConfigPersonCounts(configCountsToUpdate);
+        repository.updateAssignments(assignmentsToUpdate);
+
+        if (!configsToInsert.isEmpty()) {
+            repository.insertConfigs(configsToInsert);
+            for (ConfigRow row : repository.findConfigRows(year)) {
+                List<Slot> slots = assignmentsForNewConfigs.remove(new ConfigKey(row.dateId(), row.positionId()));
+                if (slots == null) {
+                    continue;
+                }
+                for (Slot slot : slots) {
+                    assignmentsToInsert.add(new AssignmentRow(null, row.id(), slot.personId(), slot.sortOrder()));
                 }
             }
+        }
+        repository.insertAssignments(assignmentsToInsert);
 
-            // 4.2 批量創建所有實體
-            List<ServiceScheduleDate> datesToSave = new ArrayList<>();
-            List<ServiceSchedulePositionConfig> configsToSave = new ArrayList<>();
-            List<ServiceScheduleAssignment> assignmentsToSave = new ArrayList<>();
+        boolean changed = !dateIdsToDelete.isEmpty() || !newDates.isEmpty() || !configIdsToDelete.isEmpty()
+            || !configsToInsert.isEmpty() || !configCountsToUpdate.isEmpty() || !assignmentsToInsert.isEmpty()
+            || !assignmentsToUpdate.isEmpty() || !assignmentIdsToDelete.isEmpty();
+        if (changed) {
+            repository.touchSchedule(year);
+        }
+    }
 
-            for (Map<String, Object> item : scheduleData) {
-                String dateStr = (String) item.get("date");
-                if (dateStr != null && !dateStr.isEmpty()) {
-                    LocalDate date = LocalDate.parse(dateStr);
-                    ServiceScheduleDate scheduleDate = new ServiceScheduleDate();
-                    scheduleDate.setServiceSchedule(schedule);
-                    scheduleDate.setDate(date);
-                    datesToSave.add(scheduleDate);
-
-                    // 保存崗位配置和人員分配（支援多人）
-                    for (String positionCode : positionCodeSet) {
-                        Position position = positionMap.get(positionCode);
-                        if (position == null) {
-                            continue;
-                        }
-                        
-                        // 使用 IDs 陣列（多人）
-                        List<Long> personIds = new ArrayList<>();
-                        Object personIdsObj = item.get(positionCode + "Ids");
-                        if (personIdsObj instanceof List) {
-                            // 處理 ID 陣列
-                            @SuppressWarnings("unchecked")
-                            List<Object> idsList = (List<Object>) personIdsObj;
-                            for (Object idObj : idsList) {
-                                if (idObj instanceof Number) {
-                                    personIds.add(((Number) idObj).longValue());
-                                } else if (idObj instanceof String && !((String) idObj).trim().isEmpty()) {
-                                    try {
-                                        personIds.add(Long.parseLong((String) idObj));
-                                    } catch (NumberFormatException e) {
-                                        // 忽略
-                                    }
-                                }
-                            }
+    /**
+     * 解析 scheduleData 為「日期 → 崗位 ID → 崗位配置」，崗位與人員各以一次查詢載入。
+     * 與原本的寫入方式一致：personCount 為傳入的人數，分配只包含存在的人員，sortOrder 為傳入順序。
+     */
+    private Map<LocalDate, Map<Long, DesiredConfig>> resolveScheduleData(List<Map<String, Object>> scheduleData) {
+        Map<LocalDate, Map<Long, DesiredConfig>> result = new LinkedHashMap<>();
+        if (scheduleData == null || scheduleData.isEmpty()) {
+            return result;
+        }
+
+        // 1. 動態提取所有崗位代碼（從 scheduleData 中）
+        Set<String> positionCodeSet = new HashSet<>();
+        for (Map<String, Object> item : scheduleData) {
+            for (String key : item.keySet()) {
+                if (key.endsWith("Id") && !key.equals("date")) {
+                    String positionCode = key.substring(0, key.length() - 2);
+                    positionCodeSet.add(positionCode);
+                } else if (!key.equals("date") && !key.equals("formattedDate") && !key.equals("dayOfWeek")) {
+                    // 檢查是否為崗位名稱（不是以 Id 結尾，也不是日期相關欄位）
+                    // 如果該 key 對應的值是字符串（人員名稱），則可能是崗位代碼
+                    Object value = item.get(key);
+                    if (value instanceof String && !value.toString().trim().isEmpty()) {
+                        // 檢查是否有對應的 Id 欄位，如果沒有，則可能是崗位代碼
+                        if (!item.containsKey(key + "Id")) {
+                            positionCodeSet.add(key);
                         }
-                        
-                        // 如果通過 ID 找不到，嘗試使用名稱（向後兼容）
-                        if (personIds.isEmpty()) {
-                            String personName = (String) item.get(positionCode);
-                            if (personName != null && !personName.trim().isEmpty()) {
-                                // 如果名稱包含 "/"，嘗試分割
-                                if (personName.contains("/")) {
-                                    String[] names = personName.split("/");
-                                    for (String name : names) {
-                                        Person person = personMapByName.get(name.trim());
-                                        if (person != null) {
-                                            personIds.add(person.getId());
-                                        }
-                                    }
-                                } else {
-                                    Person person = personMapByName.get(personName);
-                                    if (person != null) {
-                                        personIds.add(person.getId());
-                                    }
-                                }
+                    }
+                }
+            }
+        }
+        Map<String, Position> positionMap = new HashMap<>();
+        for (Position position : positionRepository.findByPositionCodeIn(positionCodeSet)) {
+            positionMap.put(position.getPositionCode(), position);
+        }
+
+        // 2. 先解析每一格的人員 ID 或名稱，再一次載入用到的人員
+        Map<LocalDate, Map<Long, List<Object>>> rawPersons = new LinkedHashMap<>();
+        Set<Long> referencedIds = new HashSet<>();
+        Set<String> referencedNames = new HashSet<>();
+        for (Map<String, Object> item : scheduleData) {
+            String dateStr = (String) item.get("date");
+            if (dateStr == null || dateStr.isEmpty()) {
+                continue;
+            }
+            LocalDate date = LocalDate.parse(dateStr);
+            // 同一日期重複出現時以最後一筆為準
+            Map<Long, List<Object>> positions = new LinkedHashMap<>();
+            rawPersons.put(date, positions);
+
+            for (String positionCode : positionCodeSet) {
+                Position position = positionMap.get(positionCode);
+                if (position == null) {
+                    continue;
+                }
+                List<Object> persons = new ArrayList<>();
+
+                // 使用 IDs 陣列（多人）
+                Object personIdsObj = item.get(positionCode + "Ids");
+                if (personIdsObj instanceof List) {
+                    @SuppressWarnings("unchecked")
+                    List<Object> idsList = (List<Object>) personIdsObj;
+                    for (Object idObj : idsList) {
+                        if (idObj instanceof Number) {
+                            persons.add(((Number) idObj).longValue());
+                        } else if (idObj instanceof String && !((String) idObj).trim().isEmpty()) {
+                            try {
+                                persons.add(Long.parseLong((String) idObj));
+                            } catch (NumberFormatException e) {
+                                // 忽略
                             }
                         }
-                        
-                        if (!personIds.isEmpty()) {
-                            // 創建崗位配置
-                            ServiceSchedulePositionConfig config = new ServiceSchedulePositionConfig();
-                            config.setServiceScheduleDate(scheduleDate);
-                            config.setPosition(position);
-                            config.setPersonCount(personIds.size());
-                            configsToSave.add(config);
-
-                            // 為每個人員創建分配記錄
-                            for (int i = 0; i < personIds.size(); i++) {
-                                Long personId = personIds.get(i);
-                                Person person = personMapById.get(personId);
-                                if (person != null) {
-                                    ServiceScheduleAssignment assignment = new ServiceScheduleAssignment();
-                                    assignment.setServiceSchedulePositionConfig(config);
-                                    assignment.setPerson(person);
-                                    assignment.setSortOrder(i); // 使用索引作為 sortOrder
-                                    assignmentsToSave.add(assignment);
-                                }
+                    }
+                }
+
+                // 如果通過 ID 找不到，嘗試使用名稱（向後兼容）
+                if (persons.isEmpty()) {
+                    String personName = (String) item.get(positionCode);
+                    if (personName != null && !personName.trim().isEmpty()) {
+                        // 如果名稱包含 "/"，嘗試分割
+                        if (personName.contains("/")) {
+                            for (String name : personName.split("/")) {
+                                persons.add(name.trim());
                             }
+                        } else {
+                            persons.add(personName);
                         }
                     }
                 }
-            }
 
-            // 4.3 批量保存（減少 flush 次數）
-            int batchSize = 50;
-            for (int i = 0; i < datesToSave.size(); i++) {
-                entityManager.persist(datesToSave.get(i));
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.flush();
+                for (Object person : persons) {
+                    if (person instanceof Long id) {
+                        referencedIds.add(id);
+                    } else {
+                        referencedNames.add((String) person);
+                    }
+                }
+                if (!persons.isEmpty()) {
+                    positions.put(position.getId(), persons);
                 }
             }
+        }
 
-            for (int i = 0; i < configsToSave.size(); i++) {
-                entityManager.persist(configsToSave.get(i));
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.flush();
+        Set<Long> existingPersonIds = new HashSet<>();
+        if (!referencedIds.isEmpty()) {
+            for (Person person : personRepository.findAllById(referencedIds)) {
+                existingPersonIds.add(person.getId());
+            }
         }
+        // 名稱對照：personName 與 displayName 都可對應，依 ID 順序後者覆蓋前者（與原本全表載入時相同）
+        Map<String, Long> personIdByName = new HashMap<>();
+        if (!referencedNames.isEmpty()) {
+            List<Person> persons = new ArrayList<>(personRepository.findByPersonNameInOrDisplayNameIn(referencedNames, referencedNames));
+            persons.sort(Comparator.comparing(Person::getId));
+            for (Person person : persons) {
+                existingPersonIds.add(person.getId());
+                personIdByName.put(person.getPersonName(), person.getId());
+                if (person.getDisplayName() != null && !person.getDisplayName().trim().isEmpty()) {
+                    personIdByName.put(person.getDisplayName(), person.getId());
+                }
             }
+        }
 
-            for (int i = 0; i < assignmentsToSave.size(); i++) {
-                entityManager.persist(assignmentsToSave.get(i));
-                if ((i + 1) % batchSize == 0) {
-                    entityManager.flush();
+        // 3. 名稱找不到的人員直接略過，ID 找不到的人員只計入人數
+        for (Map.Entry<LocalDate, Map<Long, List<Object>>> dateEntry : rawPersons.entrySet()) {
+            Map<Long, DesiredConfig> positions = new LinkedHashMap<>();
+            for (Map.Entry<Long, List<Object>> positionEntry : dateEntry.getValue().entrySet()) {
+                List<Long> personIds = new ArrayList<>();
+                for (Object person : positionEntry.getValue()) {
+                    if (person instanceof Long id) {
+                        personIds.add(id);
+                    } else {
+                        Long id = personIdByName.get((String) person);
+                        if (id != null) {
+                            personIds.add(id);
+                        }
+                    }
+                }
+                if (personIds.isEmpty()) {
+                    continue;
+                }
+                List<Slot> slots = new ArrayList<>();
+                for (int i = 0; i < personIds.size(); i++) {
+                    if (existingPersonIds.contains(personIds.get(i))) {
+                        slots.add(new Slot(personIds.get(i), i));
+                    }
                 }
+                positions.put(positionEntry.getKey(), new DesiredConfig(personIds.size(), slots));
             }
+            result.put(dateEntry.getKey(), positions);
         }
+        return result;
+    }
 
-        // 5. 最後一次 flush 確保所有數據都保存
+    private ServiceSchedule reloadSchedule(Integer year) {
+        // 明細以 JDBC 寫入，清掉持久化內容後重新載入主表
         entityManager.flush();
-        entityManager.refresh(schedule);
-
-        return schedule;
+        entityManager.clear();
+        return repository.findById(year)
+            .orElseThrow(() -> new RuntimeException("找不到指定年度（" + year + "年）的安排表"));
     }
 
-    /**
-     * 刪除安排表
-     */
-    @Transactional(transactionManager = "churchTransactionManager")
-    public void deleteSchedule(Integer year) {
-        repository.deleteById(year);
-    }
+    private record ConfigKey(Long dateId, Long positionId) {}
+
+    private record Slot(Long personId, Integer sortOrder) {}
+
+    private record DesiredConfig(int personCount, List<Slot> assignments) {}
 
     /**
      * 從 scheduleData 中計算年度
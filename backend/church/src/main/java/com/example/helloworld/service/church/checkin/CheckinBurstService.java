@@ -0,0 +1,476 @@
+package com.example.helloworld.service.church.checkin;
+
+import com.example.helloworld.dto.church.checkin.CheckinStateRow;
+import com.example.helloworld.dto.church.checkin.MemberNoRow;
+import com.example.helloworld.entity.church.checkin.Checkin;
+import com.example.helloworld.entity.church.checkin.Session;
+import com.example.helloworld.exception.church.checkin.BizException;
+import com.example.helloworld.repository.church.PersonRepository;
+import com.example.helloworld.repository.church.checkin.CheckinRepository;
+import com.example.helloworld.repository.church.checkin.SessionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 主日簽到尖峰模式。
+ * 當天或簽到時段內的場次視為熱場次：場次資料、會員編號對照與該場次「已簽到」狀態都保存在記憶體，
+ * 新簽到先回應再放入佇列，由背景執行緒定期合併寫入資料庫，尖峰期間的查詢與重複檢查不需存取 MySQL。
+ *
+ * 以下情況回傳 empty，由 {@link CheckinService#publicCheckin} 以資料庫流程處理：
+ * 非熱場次、會員編號不在對照表（例如剛新增的會員）、已取消的簽到需要恢復。
+ */
+@Service
+public class CheckinBurstService {
+    private static final Logger log = LoggerFactory.getLogger(CheckinBurstService.class);
+
+    // 每次合併寫入的最大筆數
+    private static final int MAX_FLUSH_SIZE = 500;
+    // 停機前寫入佇列的重試次數與間隔
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+    private static final long SHUTDOWN_RETRY_DELAY_MS = 1000;
+
+    private final SessionRepository sessionRepo;
+    private final PersonRepository personRepo;
+    private final CheckinRepository checkinRepo;
+    private final TokenService tokenService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final Duration preload;
+    private final Duration sessionTtl;
+    private final Duration memberTtl;
+
+    private final Map<String, HotSession> sessionsByCode = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<Checkin> pending = new LinkedBlockingQueue<>();
+    private final ScheduledExecutorService flusher;
+    private volatile MemberDirectory members;
+
+    public CheckinBurstService(
+            SessionRepository sessionRepo,
+            PersonRepository personRepo,
+            CheckinRepository checkinRepo,
+            TokenService tokenService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${church.checkin.burst.enabled:true}") boolean enabled,
+            @Value("${church.checkin.burst.flush-interval-ms:500}") long flushIntervalMs,
+            @Value("${church.checkin.burst.preload-minutes:30}") long preloadMinutes,
+            @Value("${church.checkin.burst.session-ttl-seconds:60}") long sessionTtlSeconds,
+            @Value("${church.checkin.burst.member-ttl-seconds:300}") long memberTtlSeconds) {
+        this.sessionRepo = sessionRepo;
+        this.personRepo = personRepo;
+        this.checkinRepo = checkinRepo;
+        this.tokenService = tokenService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.preload = Duration.ofMinutes(preloadMinutes);
+        this.sessionTtl = Duration.ofSeconds(sessionTtlSeconds);
+        this.memberTtl = Duration.ofSeconds(memberTtlSeconds);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkin-burst-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long interval = Math.max(50, flushIntervalMs);
+            flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 熱場次的自助簽到；驗證失敗時拋出與 {@link CheckinService#publicCheckin} 相同代碼的 BizException
+     *
+     * @return 簽到人員顯示名稱；empty 表示需改走資料庫流程
+     */
+    public Optional<String> tryCheckin(String sessionCode, String memberNo, String token, String ip, String userAgent) {
+        if (!enabled || sessionCode == null || memberNo == null) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        HotSession session = hotSession(sessionCode, now);
+        if (session == null) {
+            return Optional.empty();
+        }
+
+        if (session.openAt() != null && now.isBefore(session.openAt())) {
+            throw new BizException("TIME_WINDOW_CLOSED", "Check-in not open yet.");
+        }
+        if (session.closeAt() != null && now.isAfter(session.closeAt())) {
+            throw new BizException("TIME_WINDOW_CLOSED", "Check-in is closed.");
+        }
+        if (token == null || token.isBlank() || !tokenService.validate(session.id(), token)) {
+            throw new BizException("TOKEN_INVALID", "Token invalid or expired.");
+        }
+
+        MemberRef member = memberDirectory(now).find(memberNo);
+        if (member == null) {
+            return Optional.empty();
+        }
+
+        CheckinState previous = session.states().putIfAbsent(member.id(), CheckinState.SELF);
+        if (previous == null) {
+            Checkin c = new Checkin();
+            c.setSessionId(session.id());
+            c.setMemberId(member.id());
+            c.setCheckedInAt(now);
+            c.setIp(ip);
+            c.setUserAgent(userAgent);
+            c.setManual(false);
+            c.setCanceled(false);
+            pending.offer(c);
+            return Optional.of(member.name());
+        }
+        return switch (previous) {
+            case SELF -> throw new BizException("ALREADY_CHECKED_IN", "Member has already checked in.");
+            case MANUAL -> throw new BizException("ALREADY_CHECKED_IN_MANUAL", "已簽到(補登)");
+            // 已取消的簽到需要更新既有記錄，交由資料庫流程恢復
+            case CANCELED -> Optional.empty();
+        };
+    }
+
+    /**
+     * 其他流程（資料庫簽到、後台補登、取消、恢復、刪除）異動後，以資料庫狀態校正熱場次的記憶體狀態
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCheckinChanged(CheckinChangedEvent event) {
+        HotSession session = findLoaded(event.sessionId());
+        if (session == null) {
+            return;
+        }
+        try {
+            Map<Long, CheckinState> actual = new HashMap<>();
+            for (CheckinStateRow row : checkinRepo.findStateRowsByMemberIds(event.sessionId(), event.memberIds())) {
+                actual.put(row.getMemberId(), toState(row));
+            }
+            for (Long memberId : event.memberIds()) {
+                CheckinState state = actual.get(memberId);
+                if (state != null) {
+                    session.states().put(memberId, state);
+                } else if (!isPending(event.sessionId(), memberId)) {
+                    session.states().remove(memberId);
+                }
+            }
+        } catch (Exception e) {
+            // 無法校正時捨棄該場次快取，下次簽到重新載入
+            log.warn("⚠️ [簽到尖峰] 同步簽到狀態失敗，重新載入場次 {}: {}", event.sessionId(), e.getMessage());
+            sessionsByCode.values().removeIf(s -> s.id().equals(event.sessionId()));
+        }
+    }
+
+    /**
+     * 場次異動後捨棄場次快取（已簽到狀態會在下次載入時連同佇列中的簽到一併重建）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        sessionsByCode.clear();
+    }
+
+    /**
+     * 停機前寫入佇列中的簽到；資料庫失敗時有限次重試，仍寫不進去的簽到逐筆記錄在 error log 供人工補登，
+     * 不讓例外中斷其他 bean 的關閉流程
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int failures = 0;
+        while (!pending.isEmpty() && failures < SHUTDOWN_FLUSH_ATTEMPTS) {
+            try {
+                if (flush() == 0) {
+                    break;
+                }
+            } catch (Exception e) {
+                failures++;
+                log.error("❌ [簽到尖峰] 停機前合併寫入失敗（第 {}/{} 次）: {}",
+                        failures, SHUTDOWN_FLUSH_ATTEMPTS, e.getMessage(), e);
+                if (failures < SHUTDOWN_FLUSH_ATTEMPTS && !pauseBeforeRetry()) {
+                    break;
+                }
+            }
+        }
+
+        List<Checkin> unflushed = new ArrayList<>();
+        pending.drainTo(unflushed);
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        log.error("❌ [簽到尖峰] 停機時仍有 {} 筆簽到未寫入資料庫，請依下列記錄補登", unflushed.size());
+        for (Checkin c : unflushed) {
+            log.error("❌ [簽到尖峰] 未寫入簽到 sessionId={}, memberId={}, checkedInAt={}",
+                    c.getSessionId(), c.getMemberId(), c.getCheckedInAt());
+        }
+    }
+
+    /**
+     * @return false 表示等待被中斷，應停止重試
+     */
+    private boolean pauseBeforeRetry() {
+        try {
+            Thread.sleep(SHUTDOWN_RETRY_DELAY_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            evictIdleSessions(LocalDateTime.now());
+        } catch (Exception e) {
+            log.error("❌ [簽到尖峰] 合併寫入失敗，稍後重試: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return 本次處理的筆數
+     */
+    private int flush() {
+        List<Checkin> batch = new ArrayList<>();
+        pending.drainTo(batch, MAX_FLUSH_SIZE);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            int inserted = checkinRepo.bulkInsertIgnoringDuplicates(batch);
+            if (inserted < batch.size()) {
+                // 同一時間有其他流程寫入相同（場次, 人員），以資料庫既有記錄為準，並由下方事件校正記憶體狀態
+                log.warn("⚠️ [簽到尖峰] {} 筆簽到已存在，略過寫入", batch.size() - inserted);
+            }
+        } catch (RuntimeException e) {
+            // 放回佇列前端順序不重要：(場次, 人員) 在記憶體已去重
+            pending.addAll(batch);
+            throw e;
+        }
+
+        Map<Long, List<Long>> membersBySession = new LinkedHashMap<>();
+        for (Checkin c : batch) {
+            membersBySession.computeIfAbsent(c.getSessionId(), key -> new ArrayList<>()).add(c.getMemberId());
+        }
+        membersBySession.forEach((sessionId, memberIds) ->
+                eventPublisher.publishEvent(new CheckinChangedEvent(sessionId, memberIds)));
+        return batch.size();
+    }
+
+    /**
+     * 場次代碼對應的場次 ID；與熱場次共用快取（session-ttl-seconds，場次異動時清除），簽到頁輪詢 token 不必每次查詢資料庫
+     */
+    public Optional<Long> findSessionId(String sessionCode) {
+        if (sessionCode == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cachedSession(sessionCode, LocalDateTime.now())).map(HotSession::id);
+    }
+
+    private HotSession cachedSession(String sessionCode, LocalDateTime now) {
+        HotSession cached = sessionsByCode.get(sessionCode);
+        if (cached == null || cached.isExpired(now, sessionTtl)) {
+            cached = sessionsByCode.compute(sessionCode, (code, existing) ->
+                    existing != null && !existing.isExpired(now, sessionTtl) ? existing : loadSession(code, now));
+        }
+        return cached;
+    }
+
+    private HotSession hotSession(String sessionCode, LocalDateTime now) {
+        HotSession cached = cachedSession(sessionCode, now);
+        if (cached == null || !cached.isHot(now, preload)) {
+            return null;
+        }
+        cached.ensureStatesLoaded(this::loadStates);
+        return cached;
+    }
+
+    private HotSession loadSession(String sessionCode, LocalDateTime now) {
+        Session s = sessionRepo.findBySessionCode(sessionCode).orElse(null);
+        if (s == null) {
+            return null;
+        }
+        return new HotSession(s.getId(), s.getSessionDate(), s.getOpenAt(), s.getCloseAt(), now);
+    }
+
+    /**
+     * 從資料庫載入場次的簽到狀態，並補上佇列中尚未寫入的簽到
+     */
+    private Map<Long, CheckinState> loadStates(Long sessionId) {
+        Map<Long, CheckinState> states = new ConcurrentHashMap<>();
+        for (CheckinStateRow row : checkinRepo.findStateRows(sessionId)) {
+            states.put(row.getMemberId(), toState(row));
+        }
+        for (Checkin c : pending) {
+            if (c.getSessionId().equals(sessionId)) {
+                states.putIfAbsent(c.getMemberId(), CheckinState.SELF);
+            }
+        }
+        return states;
+    }
+
+    private MemberDirectory memberDirectory(LocalDateTime now) {
+        MemberDirectory directory = members;
+        if (directory == null || directory.isExpired(now, memberTtl)) {
+            synchronized (this) {
+                directory = members;
+                if (directory == null || directory.isExpired(now, memberTtl)) {
+                    directory = MemberDirectory.load(personRepo.findMemberNoRows(), now);
+                    members = directory;
+                }
+            }
+        }
+        return directory;
+    }
+
+    private HotSession findLoaded(Long sessionId) {
+        for (HotSession session : sessionsByCode.values()) {
+            if (session.id().equals(sessionId) && session.statesLoaded()) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private boolean isPending(Long sessionId, Long memberId) {
+        for (Checkin c : pending) {
+            if (c.getSessionId().equals(sessionId) && c.getMemberId().equals(memberId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictIdleSessions(LocalDateTime now) {
+        sessionsByCode.values().removeIf(s -> !s.isHot(now, preload) && s.isOlderThan(now, sessionTtl));
+    }
+
+    private static CheckinState toState(CheckinStateRow row) {
+        if (Boolean.TRUE.equals(row.getCanceled())) {
+            return CheckinState.CANCELED;
+        }
+        return Boolean.TRUE.equals(row.getManual()) ? CheckinState.MANUAL : CheckinState.SELF;
+    }
+
+    private enum CheckinState { SELF, MANUAL, CANCELED }
+
+    private record MemberRef(Long id, String name) {}
+
+    private record MemberDirectory(Map<String, MemberRef> byMemberNo, LocalDateTime loadedAt) {
+        static MemberDirectory load(List<MemberNoRow> rows, LocalDateTime now) {
+            Map<String, MemberRef> byMemberNo = new HashMap<>();
+            for (MemberNoRow row : rows) {
+                String name = row.getDisplayName() != null && !row.getDisplayName().isBlank()
+                        ? row.getDisplayName() : row.getPersonName();
+                byMemberNo.put(normalize(row.getMemberNo()), new MemberRef(row.getId(), name));
+            }
+            return new MemberDirectory(byMemberNo, now);
+        }
+
+        MemberRef find(String memberNo) {
+            return byMemberNo.get(normalize(memberNo));
+        }
+
+        boolean isExpired(LocalDateTime now, Duration ttl) {
+            return loadedAt.plus(ttl).isBefore(now);
+        }
+
+        private static String normalize(String memberNo) {
+            return memberNo.trim().toUpperCase();
+        }
+    }
+
+    /**
+     * 快取的場次；已簽到狀態只在場次成為熱場次後才載入
+     */
+    private static final class HotSession {
+        private final Long id;
+        private final LocalDate sessionDate;
+        private final LocalDateTime openAt;
+        private final LocalDateTime closeAt;
+        private final LocalDateTime loadedAt;
+        private volatile Map<Long, CheckinState> states;
+
+        HotSession(Long id, LocalDate sessionDate, LocalDateTime openAt, LocalDateTime closeAt, LocalDateTime loadedAt) {
+            this.id = id;
+            this.sessionDate = sessionDate;
+            this.openAt = openAt;
+            this.closeAt = closeAt;
+            this.loadedAt = loadedAt;
+        }
+
+        Long id() {
+            return id;
+        }
+
+        LocalDateTime openAt() {
+            return openAt;
+        }
+
+        LocalDateTime closeAt() {
+            return closeAt;
+        }
+
+        Map<Long, CheckinState> states() {
+            return states;
+        }
+
+        boolean statesLoaded() {
+            return states != null;
+        }
+
+        /**
+         * 當天的場次，或目前在簽到時段（含提前載入時間）內的場次
+         */
+        boolean isHot(LocalDateTime now, Duration preload) {
+            if (openAt != null || closeAt != null) {
+                boolean started = openAt == null || !now.isBefore(openAt.minus(preload));
+                boolean notClosed = closeAt == null || !now.isAfter(closeAt);
+                return started && notClosed;
+            }
+            return now.toLocalDate().equals(sessionDate);
+        }
+
+        /**
+         * 熱場次的已簽到狀態由事件維持一致，不因 TTL 失效
+         */
+        boolean isExpired(LocalDateTime now, Duration ttl) {
+            return !statesLoaded() && isOlderThan(now, ttl);
+        }
+
+        boolean isOlderThan(LocalDateTime now, Duration ttl) {
+            return loadedAt.plus(ttl).isBefore(now);
+        }
+
+        void ensureStatesLoaded(Function<Long, Map<Long, CheckinState>> loader) {
+            if (states == null) {
+                synchronized (this) {
+                    if (states == null) {
+                        states = loader.apply(id);
+                    }
+                }
+            }
+        }
+    }
+}
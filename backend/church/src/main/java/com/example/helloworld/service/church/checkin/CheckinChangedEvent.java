@@ -0,0 +1,14 @@
+package com.example.helloworld.service.church.checkin;
+
+import java.util.List;
+
+/**
+ * 簽到新增、取消、恢復或刪除後發布；交易提交後更新這些人員當週的出席率彙總。
+ * 簽到尖峰模式合併寫入時，同一場次的多位人員會在同一個事件中發布。
+ */
+public record CheckinChangedEvent(Long sessionId, List<Long> memberIds) {
+
+    public static CheckinChangedEvent of(Long sessionId, Long memberId) {
+        return new CheckinChangedEvent(sessionId, List.of(memberId));
+    }
+}
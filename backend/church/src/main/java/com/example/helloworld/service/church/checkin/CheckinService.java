@@ -9,6 +9,7 @@ import com.example.helloworld.repository.church.checkin.CheckinRepository;
 import com.example.helloworld.repository.church.checkin.SessionRepository;
 import com.example.helloworld.util.church.CurrentUser;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,12 +25,15 @@ public class CheckinService {
     private final SessionRepository sessionRepo;
     private final CheckinRepository checkinRepo;
     private final TokenService tokenService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CheckinService(PersonRepository personRepo, SessionRepository sessionRepo, CheckinRepository checkinRepo, TokenService tokenService) {
+    public CheckinService(PersonRepository personRepo, SessionRepository sessionRepo, CheckinRepository checkinRepo,
+                          TokenService tokenService, ApplicationEventPublisher eventPublisher) {
         this.personRepo = personRepo;
         this.sessionRepo = sessionRepo;
         this.checkinRepo = checkinRepo;
         this.tokenService = tokenService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -107,6 +111,7 @@ public class CheckinService {
         }
 
         checkinRepo.save(c);
+        publishChanged(c);
         return p.getDisplayName() != null && !p.getDisplayName().isBlank() ? p.getDisplayName() : p.getPersonName();
     }
 
@@ -144,6 +149,7 @@ public class CheckinService {
         }
 
         checkinRepo.save(c);
+        publishChanged(c);
     }
 
     @Transactional
@@ -165,6 +171,7 @@ public class CheckinService {
         c.setCanceledBy(operator);
         c.setCanceledNote(note);
         checkinRepo.save(c);
+        publishChanged(c);
     }
 
     @Transactional
@@ -183,6 +190,7 @@ public class CheckinService {
         c.setCanceledBy(operator);
         c.setCanceledNote(note);
         checkinRepo.save(c);
+        publishChanged(c);
     }
 
     @Transactional
@@ -199,6 +207,7 @@ public class CheckinService {
         c.setCanceledBy(null);
         c.setCanceledNote(null);
         checkinRepo.save(c);
+        publishChanged(c);
     }
 
     @Transactional
@@ -207,6 +216,7 @@ public class CheckinService {
                 .orElseThrow(() -> new BizException("CHECKIN_NOT_FOUND", "Check-in not found."));
         
         checkinRepo.delete(c);
+        publishChanged(c);
     }
 
     @Transactional
@@ -253,5 +263,8 @@ public class CheckinService {
             throw new BizException("BATCH_CHECKIN_PARTIAL_FAILURE", errorMessage);
         }
     }
-}
 
+    private void publishChanged(Checkin c) {
+        eventPublisher.publishEvent(CheckinChangedEvent.of(c.getSessionId(), c.getMemberId()));
+    }
+}
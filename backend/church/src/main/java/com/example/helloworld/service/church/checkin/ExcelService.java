@@ -4,142 +4,131 @@ import com.example.helloworld.dto.church.checkin.ManualCheckinRow;
 import com.example.helloworld.dto.church.checkin.SessionCheckinRow;
 import com.example.helloworld.repository.church.checkin.CheckinRepository;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
+/**
+ * 簽到 Excel 匯出。
+ * 以 SXSSF 串流寫出：資料列由資料庫逐列串流讀取，記憶體只保留最近 {@link #ROW_WINDOW} 列，
+ * 其餘寫入壓縮暫存檔；欄寬使用固定值，不需為計算寬度掃描所有資料列。
+ */
 @Service
 public class ExcelService {
 
+    private static final int ROW_WINDOW = 100;
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] SESSION_HEADERS = {"會員編號", "姓名", "簽到時間", "來源", "操作人", "裝置", "IP"};
+    // 欄寬（字元數）
+    private static final int[] SESSION_WIDTHS = {14, 18, 22, 10, 14, 20, 18};
+
+    private static final String[] MANUAL_HEADERS = {"ID", "場次標題", "場次日期", "會員編號", "姓名", "補登時間", "操作人", "備註", "裝置", "IP", "狀態", "取消時間", "取消人", "取消原因"};
+    private static final int[] MANUAL_WIDTHS = {10, 30, 14, 14, 18, 22, 14, 30, 20, 18, 10, 22, 14, 30};
+
     private final CheckinRepository checkinRepo;
 
     public ExcelService(CheckinRepository checkinRepo) {
         this.checkinRepo = checkinRepo;
     }
 
-    public byte[] exportSessionCheckins(Long sessionId) throws IOException {
-        List<SessionCheckinRow> rows = checkinRepo.findSessionRows(sessionId, false);
-        
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("簽到記錄");
-            
-            // 創建標題樣式
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setFontHeightInPoints((short) 12);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            
-            // 創建標題行
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"會員編號", "姓名", "簽到時間", "來源", "操作人", "裝置", "IP"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // 創建資料行
-            int rowNum = 1;
-            for (SessionCheckinRow r : rows) {
-                Row row = sheet.createRow(rowNum++);
+    @Transactional(transactionManager = "churchTransactionManager", readOnly = true)
+    public void writeSessionCheckins(Long sessionId, OutputStream out) throws IOException {
+        try (Stream<SessionCheckinRow> rows = checkinRepo.streamSessionRows(sessionId, false)) {
+            writeWorkbook("簽到記錄", SESSION_HEADERS, SESSION_WIDTHS, rows.iterator(), (row, r) -> {
                 row.createCell(0).setCellValue(r.getMemberNo() != null ? r.getMemberNo() : "");
                 row.createCell(1).setCellValue(r.getMemberName() != null ? r.getMemberName() : "");
-                row.createCell(2).setCellValue(r.getCheckedInAt() != null ? 
-                    r.getCheckedInAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : "");
+                row.createCell(2).setCellValue(formatDateTime(r.getCheckedInAt()));
                 row.createCell(3).setCellValue(r.isManual() ? "補登" : "自助");
                 row.createCell(4).setCellValue(r.getManualBy() != null ? r.getManualBy() : "");
                 row.createCell(5).setCellValue(getDeviceType(r.getUserAgent()));
                 row.createCell(6).setCellValue(r.getIp() != null ? r.getIp() : "");
-            }
-            
-            // 自動調整欄位寬度
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-                sheet.setColumnWidth(i, Math.min(sheet.getColumnWidth(i) + 1000, 15000));
-            }
-            
-            // 寫入到 ByteArrayOutputStream
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+            }, out);
         }
     }
 
-    public byte[] exportManualCheckins(String q, LocalDateTime fromTs, LocalDateTime toTs, boolean includeCanceled) throws IOException {
-        List<ManualCheckinRow> rows = checkinRepo.findManualRows(q, fromTs, toTs, includeCanceled);
-        
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("補登稽核");
-            
-            // 創建標題樣式
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setFontHeightInPoints((short) 12);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            
-            // 創建標題行
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "場次標題", "場次日期", "會員編號", "姓名", "補登時間", "操作人", "備註", "裝置", "IP", "狀態", "取消時間", "取消人", "取消原因"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // 創建資料行
-            int rowNum = 1;
-            for (ManualCheckinRow r : rows) {
-                Row row = sheet.createRow(rowNum++);
+    @Transactional(transactionManager = "churchTransactionManager", readOnly = true)
+    public void writeManualCheckins(String q, LocalDateTime fromTs, LocalDateTime toTs, boolean includeCanceled,
+                                    OutputStream out) throws IOException {
+        try (Stream<ManualCheckinRow> rows = checkinRepo.streamManualRows(q, fromTs, toTs, includeCanceled)) {
+            writeWorkbook("補登稽核", MANUAL_HEADERS, MANUAL_WIDTHS, rows.iterator(), (row, r) -> {
                 row.createCell(0).setCellValue(r.getId() != null ? r.getId() : 0);
                 row.createCell(1).setCellValue(r.getSessionTitle() != null ? r.getSessionTitle() : "");
                 row.createCell(2).setCellValue(r.getSessionDate() != null ? r.getSessionDate() : "");
                 row.createCell(3).setCellValue(r.getMemberNo() != null ? r.getMemberNo() : "");
                 row.createCell(4).setCellValue(r.getMemberName() != null ? r.getMemberName() : "");
-                row.createCell(5).setCellValue(r.getCheckedInAt() != null ? 
-                    r.getCheckedInAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : "");
+                row.createCell(5).setCellValue(formatDateTime(r.getCheckedInAt()));
                 row.createCell(6).setCellValue(r.getManualBy() != null ? r.getManualBy() : "");
                 row.createCell(7).setCellValue(r.getManualNote() != null ? r.getManualNote() : "");
                 row.createCell(8).setCellValue(getDeviceType(r.getUserAgent()));
                 row.createCell(9).setCellValue(r.getIp() != null ? r.getIp() : "");
                 row.createCell(10).setCellValue(r.isCanceled() ? "已取消" : "有效");
-                row.createCell(11).setCellValue(r.getCanceledAt() != null ? 
-                    r.getCanceledAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : "");
+                row.createCell(11).setCellValue(formatDateTime(r.getCanceledAt()));
                 row.createCell(12).setCellValue(r.getCanceledBy() != null ? r.getCanceledBy() : "");
                 row.createCell(13).setCellValue(r.getCanceledNote() != null ? r.getCanceledNote() : "");
+            }, out);
+        }
+    }
+
+    private <T> void writeWorkbook(String sheetName, String[] headers, int[] widths, Iterator<T> rows,
+                                   RowWriter<T> rowWriter, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(sheetName);
+            for (int i = 0; i < widths.length; i++) {
+                sheet.setColumnWidth(i, widths[i] * 256);
             }
-            
-            // 自動調整欄位寬度
+
+            // 創建標題行
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            Row headerRow = sheet.createRow(0);
             for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-                sheet.setColumnWidth(i, Math.min(sheet.getColumnWidth(i) + 1000, 15000));
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
             }
-            
-            // 寫入到 ByteArrayOutputStream
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+
+            // 創建資料行（超出視窗的列會自動寫入暫存檔）
+            int rowNum = 1;
+            while (rows.hasNext()) {
+                rowWriter.write(sheet.createRow(rowNum++), rows.next());
+            }
+
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
     }
 
+    private CellStyle createHeaderStyle(Workbook workbook) {
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerFont.setFontHeightInPoints((short) 12);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        headerStyle.setBorderBottom(BorderStyle.THIN);
+        headerStyle.setBorderTop(BorderStyle.THIN);
+        headerStyle.setBorderLeft(BorderStyle.THIN);
+        headerStyle.setBorderRight(BorderStyle.THIN);
+        return headerStyle;
+    }
+
+    private String formatDateTime(LocalDateTime value) {
+        return value != null ? value.format(DATE_TIME_FORMAT) : "";
+    }
+
     private String getDeviceType(String userAgent) {
         if (userAgent == null || userAgent.isBlank()) {
             return "-";
@@ -184,5 +173,9 @@ public class ExcelService {
         
         return "❓ 未知";
     }
-}
 
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(Row row, T data);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.helloworld.service.church.checkin;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 場次新增、修改、刪除或調整關聯小組後發布；交易提交後重算受影響日期所在週的出席率彙總。
+ * 修改日期時需同時帶入舊日期與新日期。
+ */
+public record SessionChangedEvent(List<LocalDate> sessionDates) {
+}
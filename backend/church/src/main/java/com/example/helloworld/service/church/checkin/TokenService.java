@@ -1,37 +1,109 @@
 package com.example.helloworld.service.church.checkin;
 
-import com.example.helloworld.entity.church.checkin.SessionToken;
-import com.example.helloworld.repository.church.checkin.SessionTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.HexFormat;
 
+/**
+ * 簽到短效 Token。
+ * 不寫入資料庫：以主金鑰對場次 ID 做 HMAC 得到場次金鑰，再以場次金鑰對時間窗序號做 HMAC 產生 Token。
+ * 驗證時重新計算目前時間窗與前 allowed-skew-windows 個時間窗的 Token 比對，完全在記憶體中完成。
+ * 只接受已經過去的時間窗（簽發與驗證使用同一時鐘），預設 30 秒 × 2 個時間窗，Token 最長有效 60 秒，與舊版相同。
+ */
 @Service
 public class TokenService {
-    private final SessionTokenRepository repo;
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
 
-    public TokenService(SessionTokenRepository repo) {
-        this.repo = repo;
-    }
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    // 與舊版 token 相同：6 碼大寫十六進位
+    private static final int TOKEN_BYTES = 3;
 
-    @Transactional(transactionManager = "churchTransactionManager")
-    public SessionToken issue(Long sessionId) {
-        repo.deleteExpired(sessionId, LocalDateTime.now());
+    private final byte[] masterKey;
+    private final long windowSeconds;
+    private final int allowedSkewWindows;
+    private final Clock clock;
 
-        SessionToken t = new SessionToken();
-        t.setSessionId(sessionId);
-        t.setToken(UUID.randomUUID().toString().replace("-", "").substring(0, 6).toUpperCase());
-        t.setExpiresAt(LocalDateTime.now().plusSeconds(60));
-        SessionToken saved = repo.save(t);
+    public TokenService(
+            @Value("${church.checkin.token.secret:}") String secret,
+            @Value("${church.checkin.token.window-seconds:30}") long windowSeconds,
+            @Value("${church.checkin.token.allowed-skew-windows:1}") int allowedSkewWindows,
+            Clock clock) {
+        if (secret == null || secret.isBlank()) {
+            // 未設定時使用隨機金鑰：重啟後舊 token 失效，多台實例也無法互相驗證
+            log.warn("⚠️ 未設定 church.checkin.token.secret，簽到 token 改用啟動時產生的隨機金鑰");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            this.masterKey = random;
+        } else {
+            this.masterKey = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.windowSeconds = Math.max(1, windowSeconds);
+        this.allowedSkewWindows = Math.max(0, allowedSkewWindows);
+        this.clock = clock;
+    }
 
-        repo.keepLatestN(sessionId, 5);
-        return saved;
+    /**
+     * 目前時間窗的 Token；expiresAt 為驗證仍會接受的最後時間
+     */
+    public IssuedToken issue(Long sessionId) {
+        Instant now = clock.instant();
+        long window = windowOf(now);
+        Instant expiresAt = Instant.ofEpochSecond((window + 1 + allowedSkewWindows) * windowSeconds);
+        return new IssuedToken(
+                tokenFor(sessionKey(sessionId), window),
+                LocalDateTime.ofInstant(expiresAt, clock.getZone()));
     }
 
     public boolean validate(Long sessionId, String token) {
-        return repo.findFirstBySessionIdAndTokenAndExpiresAtAfter(sessionId, token, LocalDateTime.now()).isPresent();
+        if (sessionId == null || token == null || token.isBlank()) {
+            return false;
+        }
+        byte[] expected = token.trim().toUpperCase().getBytes(StandardCharsets.US_ASCII);
+        byte[] sessionKey = sessionKey(sessionId);
+        long current = windowOf(clock.instant());
+        boolean matched = false;
+        for (long window = current - allowedSkewWindows; window <= current; window++) {
+            // 逐一比對所有時間窗，不提早結束
+            matched |= MessageDigest.isEqual(expected, tokenFor(sessionKey, window).getBytes(StandardCharsets.US_ASCII));
+        }
+        return matched;
+    }
+
+    private long windowOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), windowSeconds);
+    }
+
+    private byte[] sessionKey(Long sessionId) {
+        return hmac(masterKey, ("checkin-session:" + sessionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String tokenFor(byte[] sessionKey, long window) {
+        byte[] digest = hmac(sessionKey, ByteBuffer.allocate(Long.BYTES).putLong(window).array());
+        return HexFormat.of().withUpperCase().formatHex(digest, 0, TOKEN_BYTES);
     }
-}
 
+    private static byte[] hmac(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    public record IssuedToken(String token, LocalDateTime expiresAt) {}
+}
@@ -1,7 +1,11 @@
 package com.example.helloworld.service.church.seed;
 
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.MenusChangedEvent;
+import com.example.helloworld.service.common.UrlPermissionsChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,9 +16,12 @@ public class ChurchAuthorizationSeedRunner {
     private static final Logger log = LoggerFactory.getLogger(ChurchAuthorizationSeedRunner.class);
 
     private final List<ChurchAuthorizationSeedModule> modules;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ChurchAuthorizationSeedRunner(List<ChurchAuthorizationSeedModule> modules) {
+    public ChurchAuthorizationSeedRunner(List<ChurchAuthorizationSeedModule> modules,
+                                         ApplicationEventPublisher eventPublisher) {
         this.modules = modules;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(transactionManager = "churchTransactionManager")
@@ -23,5 +30,8 @@ public class ChurchAuthorizationSeedRunner {
             log.info("🔐 初始化 Church 權限模組: {}", module.moduleName());
             module.seed();
         }
+        // 種子資料可能新增或修改 URL 權限與選單，提交後重建比對索引與選單樹
+        eventPublisher.publishEvent(new UrlPermissionsChangedEvent(AuthDomain.CHURCH));
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.CHURCH));
     }
 }
@@ -12,8 +12,9 @@ public class AuthGateway extends AbstractAuthGateway {
     public AuthGateway(
             List<JwtTokenGateway> jwtTokenGateways,
             List<AuthDomainPolicy> authDomainPolicies,
+            AuthPrincipalCache principalCache,
             UserDetailsService churchUserDetailsService) {
-        super(jwtTokenGateways, authDomainPolicies);
+        super(jwtTokenGateways, authDomainPolicies, principalCache);
         this.churchUserDetailsService = churchUserDetailsService;
     }
 
@@ -1,16 +1,30 @@
 package com.example.helloworld.config;
 
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import com.example.helloworld.service.common.DomainAuthenticationManagerFactory;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import com.example.helloworld.service.invest.auth.InvestTokenBlacklistStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class InvestAuthBeanConfig {
 
     @Bean
-    public TokenBlacklistService tokenBlacklistService() {
-        return new TokenBlacklistService();
+    public TokenBlacklistService tokenBlacklistService(
+            InvestTokenBlacklistStore investTokenBlacklistStore,
+            @Value("${invest.auth.token-blacklist.max-entries:100000}") int maxEntries) {
+        return new TokenBlacklistService(maxEntries, investTokenBlacklistStore);
+    }
+
+    @Bean
+    public AuthPrincipalCache authPrincipalCache(
+            @Value("${invest.auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${invest.auth.principal-cache.max-entries:1000}") int maxEntries) {
+        return new AuthPrincipalCache(Duration.ofSeconds(ttlSeconds), maxEntries);
     }
 
     @Bean
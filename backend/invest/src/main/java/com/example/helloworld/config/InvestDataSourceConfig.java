@@ -43,6 +43,9 @@ public class InvestDataSourceConfig {
     @Value("${spring.jpa.show-sql:false}")
     private String hibernateShowSql;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private String hibernateJdbcBatchSize;
+
     @Bean(name = "investDataSource")
     public DataSource investDataSource() {
         return DataSourceBuilder.create()
@@ -66,6 +69,8 @@ public class InvestDataSourceConfig {
         properties.setProperty("hibernate.hbm2ddl.auto", hibernateDdlAuto);
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
         properties.setProperty("hibernate.show_sql", hibernateShowSql);
+        properties.setProperty("hibernate.jdbc.batch_size", hibernateJdbcBatchSize);
+        properties.setProperty("hibernate.order_updates", "true");
         em.setJpaProperties(properties);
 
         return em;
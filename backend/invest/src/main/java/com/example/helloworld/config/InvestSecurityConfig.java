@@ -5,6 +5,7 @@ import com.example.helloworld.filter.UrlPermissionFilter;
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.AuthGateway;
 import com.example.helloworld.service.common.DomainAuthenticationManagerFactory;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -60,6 +61,8 @@ public class InvestSecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // 串流下載完成後的 async dispatch：原始請求已通過驗證
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/error").permitAll()
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/api/invest/auth/**").permitAll()
@@ -3,6 +3,8 @@ package com.example.helloworld.controller.invest;
 import com.example.helloworld.dto.common.ApiResponse;
 import com.example.helloworld.dto.invest.SystemMaintenanceBackupFileDto;
 import com.example.helloworld.service.invest.system.InvestBackupService;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,7 +16,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,19 +65,36 @@ public class SystemMaintenanceBackupController {
         }
     }
 
+    /**
+     * 下載 invest 備份，路徑驗證、開檔與壓縮都交給 {@link InvestBackupService}。
+     * 未指定 gzip 時回傳 Resource（可用 Range 分段下載）；gzip=true 且為 .sql 時回傳 gzip 串流並標示 Accept-Ranges: none
+     */
     @GetMapping("/download")
-    public ResponseEntity<byte[]> downloadBackup(@RequestParam("path") String relativePath) {
+    public ResponseEntity<?> downloadBackup(@RequestParam("path") String relativePath,
+                                            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
         try {
-            byte[] content = investBackupService.readBackup(relativePath);
+            Resource resource = investBackupService.openBackup(relativePath);
             String filename = investBackupService.resolveDownloadFilename(relativePath);
+            if (gzip && investBackupService.isCompressible(relativePath)) {
+                StreamingResponseBody body = out -> investBackupService.writeGzipped(relativePath, out);
+                return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename + ".gz"))
+                    .header(HttpHeaders.ACCEPT_RANGES, "none")
+                    .body(body);
+            }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(content.length);
-            return new ResponseEntity<>(content, headers, HttpStatus.OK);
-        } catch (RuntimeException e) {
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename))
+                .lastModified(resource.lastModified())
+                .body(resource);
+        } catch (IOException | RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
+
+    private String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
 }
@@ -6,6 +6,7 @@ import com.example.helloworld.dto.invest.SystemSchedulerExecutionViewDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobLogPagedDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobUpsertRequestDto;
+import com.example.helloworld.dto.invest.SystemSchedulerLeaseOverviewDto;
 import com.example.helloworld.dto.invest.SystemSchedulerRunNowResponseDto;
 import com.example.helloworld.service.invest.systemscheduler.SystemSchedulerFacadeService;
 import org.springframework.data.domain.Page;
@@ -38,6 +39,15 @@ public class SystemSchedulerController {
         }
     }
 
+    @GetMapping("/leases")
+    public ResponseEntity<ApiResponse<SystemSchedulerLeaseOverviewDto>> getLeases() {
+        try {
+            return ResponseEntity.ok(ApiResponse.ok(systemSchedulerFacadeService.getLeaseOverview()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.fail("查詢排程租約失敗：" + e.getMessage()));
+        }
+    }
+
     @GetMapping("/jobs/{jobCode}")
     public ResponseEntity<ApiResponse<SystemSchedulerJobDto>> getJob(@PathVariable String jobCode) {
         try {
@@ -8,6 +8,7 @@ import com.example.helloworld.dto.common.auth.AuthRefreshResponse;
 import com.example.helloworld.entity.invest.auth.InvestUser;
 import com.example.helloworld.repository.invest.auth.InvestUserRepository;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import com.example.helloworld.service.invest.auth.InvestAuthFacade;
 import com.example.helloworld.util.InvestJwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -143,7 +144,7 @@ public class InvestAuthController {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            tokenBlacklistService.addToBlacklist(token);
+            revokeToken(token);
         }
 
         SecurityContextHolder.clearContext();
@@ -182,4 +183,17 @@ public class InvestAuthController {
             return ResponseEntity.badRequest().body(ApiResponse.fail("註冊失敗: " + e.getMessage()));
         }
     }
+
+    /**
+     * 以 Token 自身的到期時間加入黑名單；已失效或無法解析的 Token 不需要撤銷
+     */
+    private void revokeToken(String token) {
+        VerifiedJwtClaims claims;
+        try {
+            claims = investJwtUtil.parseVerifiedClaims(token);
+        } catch (Exception e) {
+            return;
+        }
+        tokenBlacklistService.addToBlacklist(token, claims.expiresAt());
+    }
 }
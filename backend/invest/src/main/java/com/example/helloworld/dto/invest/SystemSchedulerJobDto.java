@@ -17,6 +17,10 @@ public class SystemSchedulerJobDto {
     private LocalDateTime lastRunAt;
     private String lastRunStatus;
     private String lastRunMessage;
+    private String leaseOwnerId;
+    private LocalDateTime leaseExpiresAt;
+    private Boolean leaseActive;
+    private Boolean leaseHeldByCurrentNode;
 
     public Long getConfigId() {
         return configId;
@@ -129,4 +133,36 @@ public class SystemSchedulerJobDto {
     public void setLastRunMessage(String lastRunMessage) {
         this.lastRunMessage = lastRunMessage;
     }
+
+    public String getLeaseOwnerId() {
+        return leaseOwnerId;
+    }
+
+    public void setLeaseOwnerId(String leaseOwnerId) {
+        this.leaseOwnerId = leaseOwnerId;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public Boolean getLeaseActive() {
+        return leaseActive;
+    }
+
+    public void setLeaseActive(Boolean leaseActive) {
+        this.leaseActive = leaseActive;
+    }
+
+    public Boolean getLeaseHeldByCurrentNode() {
+        return leaseHeldByCurrentNode;
+    }
+
+    public void setLeaseHeldByCurrentNode(Boolean leaseHeldByCurrentNode) {
+        this.leaseHeldByCurrentNode = leaseHeldByCurrentNode;
+    }
 }
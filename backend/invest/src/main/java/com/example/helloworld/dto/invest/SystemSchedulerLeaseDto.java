@@ -0,0 +1,69 @@
+package com.example.helloworld.dto.invest;
+
+import java.time.LocalDateTime;
+
+public class SystemSchedulerLeaseDto {
+    private String jobCode;
+    private String ownerId;
+    private LocalDateTime acquiredAt;
+    private LocalDateTime heartbeatAt;
+    private LocalDateTime expiresAt;
+    private Boolean active;
+    private Boolean heldByCurrentNode;
+
+    public String getJobCode() {
+        return jobCode;
+    }
+
+    public void setJobCode(String jobCode) {
+        this.jobCode = jobCode;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+
+    public void setAcquiredAt(LocalDateTime acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Boolean getHeldByCurrentNode() {
+        return heldByCurrentNode;
+    }
+
+    public void setHeldByCurrentNode(Boolean heldByCurrentNode) {
+        this.heldByCurrentNode = heldByCurrentNode;
+    }
+}
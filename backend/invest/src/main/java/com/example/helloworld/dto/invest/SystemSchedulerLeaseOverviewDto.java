@@ -0,0 +1,42 @@
+package com.example.helloworld.dto.invest;
+
+import java.util.List;
+
+public class SystemSchedulerLeaseOverviewDto {
+    private String nodeId;
+    private Boolean leaseEnabled;
+    private Long ttlSeconds;
+    private List<SystemSchedulerLeaseDto> leases;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public Boolean getLeaseEnabled() {
+        return leaseEnabled;
+    }
+
+    public void setLeaseEnabled(Boolean leaseEnabled) {
+        this.leaseEnabled = leaseEnabled;
+    }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public List<SystemSchedulerLeaseDto> getLeases() {
+        return leases;
+    }
+
+    public void setLeases(List<SystemSchedulerLeaseDto> leases) {
+        this.leases = leases;
+    }
+}
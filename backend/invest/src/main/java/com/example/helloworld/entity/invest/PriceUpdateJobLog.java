@@ -2,6 +2,7 @@ package com.example.helloworld.entity.invest;
 
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -38,6 +39,12 @@ public class PriceUpdateJobLog {
     @Column(name = "fail_count", nullable = false)
     private Integer failCount = 0;
 
+    @Column(name = "upserted_row_count")
+    private Integer upsertedRowCount;
+
+    @Column(name = "upsert_rows_per_sec", precision = 12, scale = 2)
+    private BigDecimal upsertRowsPerSec;
+
     @Column(name = "started_at", nullable = false)
     private LocalDateTime startedAt;
 
@@ -127,6 +134,22 @@ public class PriceUpdateJobLog {
         this.failCount = failCount;
     }
 
+    public Integer getUpsertedRowCount() {
+        return upsertedRowCount;
+    }
+
+    public void setUpsertedRowCount(Integer upsertedRowCount) {
+        this.upsertedRowCount = upsertedRowCount;
+    }
+
+    public BigDecimal getUpsertRowsPerSec() {
+        return upsertRowsPerSec;
+    }
+
+    public void setUpsertRowsPerSec(BigDecimal upsertRowsPerSec) {
+        this.upsertRowsPerSec = upsertRowsPerSec;
+    }
+
     public LocalDateTime getStartedAt() {
         return startedAt;
     }
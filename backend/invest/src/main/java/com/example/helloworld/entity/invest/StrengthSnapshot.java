@@ -61,6 +61,9 @@ public class StrengthSnapshot {
     @Column(name = "strategy_version", nullable = false)
     private Integer strategyVersion = 1;
 
+    @Column(name = "input_fingerprint", length = 64, columnDefinition = "CHAR(64)")
+    private String inputFingerprint;
+
     @Column(name = "computed_at", nullable = false)
     private LocalDateTime computedAt;
 
@@ -192,6 +195,14 @@ public class StrengthSnapshot {
         this.strategyVersion = strategyVersion;
     }
 
+    public String getInputFingerprint() {
+        return inputFingerprint;
+    }
+
+    public void setInputFingerprint(String inputFingerprint) {
+        this.inputFingerprint = inputFingerprint;
+    }
+
     public LocalDateTime getComputedAt() {
         return computedAt;
     }
@@ -0,0 +1,48 @@
+package com.example.helloworld.entity.invest.auth;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 已撤銷（登出）的 Token；只保存 SHA-256 摘要，時間欄位皆為 UTC。
+ */
+@Entity
+@Table(name = "revoked_token")
+public class InvestRevokedToken {
+    @Id
+    @Column(name = "token_digest", nullable = false, length = 64, columnDefinition = "CHAR(64)")
+    private String tokenDigest;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    public String getTokenDigest() {
+        return tokenDigest;
+    }
+
+    public void setTokenDigest(String tokenDigest) {
+        this.tokenDigest = tokenDigest;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
@@ -2,8 +2,12 @@ package com.example.helloworld.repository.invest;
 
 import com.example.helloworld.entity.invest.OpportunitySignalReason;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +16,11 @@ public interface OpportunitySignalReasonRepository extends JpaRepository<Opportu
     List<OpportunitySignalReason> findBySignalIdOrderByScoreImpactDescSortOrderAsc(Long signalId);
 
     void deleteBySignalId(Long signalId);
+
+    @Query("SELECT r FROM OpportunitySignalReason r WHERE r.signal.id IN :signalIds ORDER BY r.signal.id ASC, r.sortOrder ASC")
+    List<OpportunitySignalReason> findBySignalIdIn(@Param("signalIds") Collection<Long> signalIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OpportunitySignalReason r WHERE r.signal.id IN :signalIds")
+    int deleteBySignalIdIn(@Param("signalIds") Collection<Long> signalIds);
 }
@@ -7,11 +7,14 @@ import com.example.helloworld.entity.invest.StrengthRecommendationCode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +58,18 @@ public interface OpportunitySignalRepository extends JpaRepository<OpportunitySi
 
     List<OpportunitySignal> findByUserIdAndStatus(String userId, OpportunitySignalStatusCode status);
 
+    List<OpportunitySignal> findByUserId(String userId);
+
+    long countByUserIdAndStatus(String userId, OpportunitySignalStatusCode status);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OpportunitySignal o SET o.status = :status, o.updatedAt = :updatedAt WHERE o.id IN :ids")
+    int updateStatusByIdIn(
+        @Param("ids") Collection<Long> ids,
+        @Param("status") OpportunitySignalStatusCode status,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+
     @Query("SELECT o FROM OpportunitySignal o " +
         "JOIN FETCH o.stock st " +
         "WHERE o.userId = :userId AND st.id = :stockId " +
@@ -71,4 +71,19 @@ public interface PortfolioAlertEventRepository extends JpaRepository<PortfolioAl
 
     @Query("SELECT MAX(e.triggeredAt) FROM PortfolioAlertEvent e JOIN e.portfolio p WHERE p.userId = :userId")
     LocalDateTime findLatestTriggeredAtByUserId(@Param("userId") String userId);
+
+    @Query("SELECT e.portfolio.id AS portfolioId, e.triggerType AS triggerType, MAX(e.triggeredAt) AS triggeredAt " +
+        "FROM PortfolioAlertEvent e " +
+        "WHERE e.triggeredAt >= :startAt AND e.triggeredAt < :endAt " +
+        "GROUP BY e.portfolio.id, e.triggerType")
+    List<TriggeredAlertView> findTriggeredBetween(
+        @Param("startAt") LocalDateTime startAt,
+        @Param("endAt") LocalDateTime endAt
+    );
+
+    interface TriggeredAlertView {
+        Long getPortfolioId();
+        AlertTriggerTypeCode getTriggerType();
+        LocalDateTime getTriggeredAt();
+    }
 }
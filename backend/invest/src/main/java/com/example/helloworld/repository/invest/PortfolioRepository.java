@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +40,11 @@ public interface PortfolioRepository extends JpaRepository<Portfolio, Long> {
 
     List<Portfolio> findByUserIdAndIsActiveTrue(String userId);
 
+    @Query("SELECT p FROM Portfolio p JOIN FETCH p.stock s " +
+        "WHERE p.isActive = true AND p.userId IN :userIds " +
+        "ORDER BY p.userId ASC, p.id ASC")
+    List<Portfolio> findActiveWithStockByUserIdIn(@Param("userIds") Collection<String> userIds);
+
     Optional<Portfolio> findByIdAndUserId(Long id, String userId);
 
     @Query("SELECT DISTINCT p.userId FROM Portfolio p " +
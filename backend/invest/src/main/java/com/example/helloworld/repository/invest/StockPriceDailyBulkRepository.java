@@ -0,0 +1,18 @@
+package com.example.helloworld.repository.invest;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+
+import java.util.List;
+
+/**
+ * stock_price_daily 批次寫入：以 (stock_id, trade_date) 唯一鍵做 INSERT ... ON DUPLICATE KEY UPDATE，
+ * 一次送出整個區間的行情，避免逐筆 find + save 與逐筆 flush。
+ */
+public interface StockPriceDailyBulkRepository {
+
+    /**
+     * @param rows 尚未持久化的行情資料，stock 需帶 id
+     * @return 送出的資料筆數
+     */
+    int bulkUpsert(List<StockPriceDaily> rows);
+}
@@ -0,0 +1,76 @@
+package com.example.helloworld.repository.invest;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class StockPriceDailyBulkRepositoryImpl implements StockPriceDailyBulkRepository {
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO stock_price_daily (
+            stock_id, trade_date, open_price, high_price, low_price, close_price, volume,
+            change_amount, change_percent, data_source, fetched_at, latency_type,
+            update_batch_id, data_quality, created_at
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            open_price = VALUES(open_price),
+            high_price = VALUES(high_price),
+            low_price = VALUES(low_price),
+            close_price = VALUES(close_price),
+            volume = VALUES(volume),
+            change_amount = VALUES(change_amount),
+            change_percent = VALUES(change_percent),
+            data_source = VALUES(data_source),
+            fetched_at = VALUES(fetched_at),
+            latency_type = VALUES(latency_type),
+            update_batch_id = VALUES(update_batch_id),
+            data_quality = VALUES(data_quality)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public StockPriceDailyBulkRepositoryImpl(@Qualifier("investDataSource") DataSource dataSource,
+                                             @Value("${invest.price-update.bulk-upsert.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public int bulkUpsert(List<StockPriceDaily> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, row.getStock().getId());
+            ps.setDate(2, Date.valueOf(row.getTradeDate()));
+            ps.setBigDecimal(3, row.getOpenPrice());
+            ps.setBigDecimal(4, row.getHighPrice());
+            ps.setBigDecimal(5, row.getLowPrice());
+            ps.setBigDecimal(6, row.getClosePrice());
+            ps.setLong(7, row.getVolume() == null ? 0L : row.getVolume());
+            ps.setBigDecimal(8, row.getChangeAmount());
+            ps.setBigDecimal(9, row.getChangePercent());
+            ps.setString(10, row.getDataSource());
+            if (row.getFetchedAt() == null) {
+                ps.setNull(11, Types.TIMESTAMP);
+            } else {
+                ps.setTimestamp(11, Timestamp.valueOf(row.getFetchedAt()));
+            }
+            ps.setString(12, row.getLatencyType());
+            ps.setString(13, row.getUpdateBatchId());
+            ps.setString(14, row.getDataQuality());
+            ps.setTimestamp(15, now);
+        });
+        return rows.size();
+    }
+}
@@ -9,11 +9,12 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StockPriceDailyRepository extends JpaRepository<StockPriceDaily, Long> {
+public interface StockPriceDailyRepository extends JpaRepository<StockPriceDaily, Long>, StockPriceDailyBulkRepository {
 
     @Query("SELECT d FROM StockPriceDaily d JOIN d.stock s WHERE " +
         "(:stockId IS NULL OR s.id = :stockId) AND " +
@@ -85,6 +86,45 @@ public interface StockPriceDailyRepository extends JpaRepository<StockPriceDaily
         @Param("tradeDateTo") LocalDate tradeDateTo
     );
 
+    /**
+     * 一次取回多檔股票各自最近 windowSize 筆日行情（可限定 tradeDate 上限），依 stock_id、交易日新到舊排序。
+     */
+    @Query(value = """
+        SELECT ranked.id,
+               ranked.stock_id,
+               ranked.trade_date,
+               ranked.open_price,
+               ranked.high_price,
+               ranked.low_price,
+               ranked.close_price,
+               ranked.volume,
+               ranked.change_amount,
+               ranked.change_percent,
+               ranked.data_source,
+               ranked.fetched_at,
+               ranked.latency_type,
+               ranked.update_batch_id,
+               ranked.data_quality,
+               ranked.created_at
+          FROM (
+                SELECT d.*,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY d.stock_id
+                           ORDER BY d.trade_date DESC, d.id DESC
+                       ) AS rn
+                  FROM stock_price_daily d
+                 WHERE d.stock_id IN (:stockIds)
+                   AND (:tradeDateTo IS NULL OR d.trade_date <= :tradeDateTo)
+               ) ranked
+         WHERE ranked.rn <= :windowSize
+         ORDER BY ranked.stock_id ASC, ranked.trade_date DESC, ranked.id DESC
+        """, nativeQuery = true)
+    List<StockPriceDaily> findRecentWindowByStockIds(
+        @Param("stockIds") Collection<Long> stockIds,
+        @Param("tradeDateTo") LocalDate tradeDateTo,
+        @Param("windowSize") int windowSize
+    );
+
     Optional<StockPriceDaily> findByStockIdAndTradeDate(Long stockId, LocalDate tradeDate);
 
     Optional<StockPriceDaily> findTopByStockIdOrderByTradeDateDesc(Long stockId);
@@ -0,0 +1,71 @@
+package com.example.helloworld.repository.invest;
+
+import com.example.helloworld.entity.invest.SystemSchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 租約寫入一律使用獨立交易並立即提交，不受呼叫端（例如 readOnly 交易）影響
+ */
+@Repository
+public interface SystemSchedulerLeaseRepository extends JpaRepository<SystemSchedulerLease, String> {
+
+    List<SystemSchedulerLease> findAllByOrderByJobCodeAsc();
+
+    @Query(value = "SELECT job_code FROM system_scheduler_lease "
+        + "WHERE owner_id IS NOT NULL AND expires_at >= NOW(3)", nativeQuery = true)
+    List<String> findActiveJobCodes();
+
+    /**
+     * 建立尚無人持有的租約列；已存在時不動作
+     */
+    @Modifying
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT IGNORE INTO system_scheduler_lease (job_code, owner_id, fencing_token, expires_at) "
+        + "VALUES (:jobCode, NULL, 0, NOW(3))", nativeQuery = true)
+    int insertIfAbsent(@Param("jobCode") String jobCode);
+
+    /**
+     * 租約無人持有、已過期或本來就是自己持有時，取得（或續約）並延長到期時間；回傳 1 代表持有。
+     * MySQL 依序套用 SET，fencing_token 與 acquired_at 必須在 owner_id 之前計算。
+     */
+    @Modifying
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE system_scheduler_lease SET "
+        + "fencing_token = CASE WHEN owner_id <=> :ownerId THEN fencing_token ELSE fencing_token + 1 END, "
+        + "acquired_at = CASE WHEN owner_id <=> :ownerId THEN acquired_at ELSE NOW(3) END, "
+        + "owner_id = :ownerId, "
+        + "heartbeat_at = NOW(3), "
+        + "expires_at = DATE_ADD(NOW(3), INTERVAL :ttlSeconds SECOND) "
+        + "WHERE job_code = :jobCode AND (owner_id IS NULL OR owner_id = :ownerId OR expires_at < NOW(3))",
+        nativeQuery = true)
+    int acquireOrRenew(@Param("jobCode") String jobCode,
+                       @Param("ownerId") String ownerId,
+                       @Param("ttlSeconds") long ttlSeconds);
+
+    /**
+     * 只續約 owner_id 仍是自己的租約（尚未被其他節點接手）
+     */
+    @Modifying
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE system_scheduler_lease SET heartbeat_at = NOW(3), "
+        + "expires_at = DATE_ADD(NOW(3), INTERVAL :ttlSeconds SECOND) "
+        + "WHERE job_code = :jobCode AND owner_id = :ownerId",
+        nativeQuery = true)
+    int renew(@Param("jobCode") String jobCode,
+              @Param("ownerId") String ownerId,
+              @Param("ttlSeconds") long ttlSeconds);
+
+    @Modifying
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE system_scheduler_lease SET owner_id = NULL, expires_at = NOW(3) "
+        + "WHERE job_code = :jobCode AND owner_id = :ownerId", nativeQuery = true)
+    int release(@Param("jobCode") String jobCode, @Param("ownerId") String ownerId);
+}
@@ -15,11 +15,8 @@ public interface InvestMenuItemRepository extends JpaRepository<InvestMenuItem,
 
     boolean existsByMenuCodeIgnoreCase(String menuCode);
 
-    @Query("SELECT m FROM InvestMenuItem m WHERE m.isActive = true AND m.parentId IS NULL ORDER BY m.orderIndex ASC")
-    List<InvestMenuItem> findActiveRootMenus();
-
-    @Query("SELECT m FROM InvestMenuItem m WHERE m.isActive = true AND m.parentId = :parentId ORDER BY m.orderIndex ASC")
-    List<InvestMenuItem> findActiveChildMenus(@Param("parentId") Long parentId);
+    @Query("SELECT m FROM InvestMenuItem m WHERE m.isActive = true ORDER BY m.orderIndex ASC, m.id ASC")
+    List<InvestMenuItem> findAllActiveMenus();
 
     @Query("SELECT m FROM InvestMenuItem m ORDER BY COALESCE(m.parentId, 0), m.orderIndex, m.id")
     List<InvestMenuItem> findAllForSystemTree();
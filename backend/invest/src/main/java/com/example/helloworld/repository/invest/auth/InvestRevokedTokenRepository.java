@@ -0,0 +1,25 @@
+package com.example.helloworld.repository.invest.auth;
+
+import com.example.helloworld.entity.invest.auth.InvestRevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InvestRevokedTokenRepository extends JpaRepository<InvestRevokedToken, String> {
+
+    @Query("SELECT r FROM InvestRevokedToken r WHERE r.revokedAt >= :since AND r.expiresAt > :now")
+    List<InvestRevokedToken> findActiveRevokedSince(
+        @Param("since") LocalDateTime since,
+        @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query("DELETE FROM InvestRevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -32,6 +32,10 @@ public class InvestAlertPollingScheduler {
             log.info("略過 Invest 警示輪詢排程：任務已停用");
             return;
         }
+        if (!schedulerRuntimeGateService.tryAcquireLease(SystemJobCode.PORTFOLIO_ALERT_POLLING)) {
+            log.info("略過 Invest 警示輪詢排程：租約由其他節點持有");
+            return;
+        }
         log.info("開始執行 Invest 警示輪詢排程");
         portfolioAlertPollingService.runForAllActiveUsers();
         log.info("完成執行 Invest 警示輪詢排程");
@@ -35,6 +35,10 @@ public class InvestDailyBatchScheduler {
             log.info("略過 Invest 每日報告排程：任務已停用");
             return;
         }
+        if (!schedulerRuntimeGateService.tryAcquireLease(SystemJobCode.DAILY_PORTFOLIO_RISK_REPORT)) {
+            log.info("略過 Invest 每日報告排程：租約由其他節點持有");
+            return;
+        }
         LocalDate reportDate = LocalDate.now(ZoneId.of("Asia/Taipei"));
         log.info("開始執行 Invest 每日報告排程，reportDate={}", reportDate);
         dailyReportBatchService.runForAllActiveUsers(reportDate);
@@ -38,6 +38,10 @@ public class InvestDatabaseBackupScheduler {
             log.info("略過 Invest 資料庫備份排程：任務已停用");
             return;
         }
+        if (!schedulerRuntimeGateService.tryAcquireLease(SystemJobCode.DATABASE_BACKUP)) {
+            log.info("略過 Invest 資料庫備份排程：租約由其他節點持有");
+            return;
+        }
 
         log.info("開始執行 Invest 資料庫備份排程");
         DatabaseBackupExecutionService.ExecutionResult result =
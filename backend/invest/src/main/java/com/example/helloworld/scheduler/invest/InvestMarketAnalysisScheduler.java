@@ -0,0 +1,58 @@
+package com.example.helloworld.scheduler.invest;
+
+import com.example.helloworld.service.invest.MarketAnalysisBatchRunner;
+import com.example.helloworld.service.invest.systemscheduler.SystemJobCode;
+import com.example.helloworld.service.invest.systemscheduler.SystemSchedulerRuntimeGateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "invest.scheduler.market-analysis", name = "enabled", havingValue = "true")
+public class InvestMarketAnalysisScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(InvestMarketAnalysisScheduler.class);
+    private final MarketAnalysisBatchRunner marketAnalysisBatchRunner;
+    private final SystemSchedulerRuntimeGateService schedulerRuntimeGateService;
+
+    @Value("${invest.scheduler.market-analysis.scope:HOLDINGS_AND_WATCHLIST}")
+    private String scope;
+
+    public InvestMarketAnalysisScheduler(MarketAnalysisBatchRunner marketAnalysisBatchRunner,
+                                         SystemSchedulerRuntimeGateService schedulerRuntimeGateService) {
+        this.marketAnalysisBatchRunner = marketAnalysisBatchRunner;
+        this.schedulerRuntimeGateService = schedulerRuntimeGateService;
+    }
+
+    @Scheduled(
+        cron = "${invest.scheduler.market-analysis.cron:0 0 19 * * MON-FRI}",
+        zone = "${invest.scheduler.market-analysis.zone:Asia/Taipei}"
+    )
+    public void runMarketAnalysis() {
+        if (!schedulerRuntimeGateService.isEnabled(SystemJobCode.MARKET_ANALYSIS)) {
+            log.info("略過 Invest 市場分析排程：任務已停用");
+            return;
+        }
+        if (!schedulerRuntimeGateService.tryAcquireLease(SystemJobCode.MARKET_ANALYSIS)) {
+            log.info("略過 Invest 市場分析排程：租約由其他節點持有");
+            return;
+        }
+        log.info("開始執行 Invest 市場分析排程，scope={}", scope);
+        MarketAnalysisBatchRunner.BatchExecutionResult result = marketAnalysisBatchRunner.runForAllActiveUsers(
+            scope,
+            "排程觸發（全部啟用持股使用者）"
+        );
+        log.info(
+            "完成執行 Invest 市場分析排程，status={}, users={}/{}, failedUsers={}, analyzed={}, failed={}",
+            result.status(),
+            result.processedUserCount(),
+            result.userTotal(),
+            result.failedUserCount(),
+            result.analyzedCount(),
+            result.failCount()
+        );
+    }
+}
@@ -36,6 +36,10 @@ public class InvestPriceUpdateScheduler {
             log.info("略過 Invest 行情排程（TW）：任務已停用");
             return;
         }
+        if (!schedulerRuntimeGateService.tryAcquireLease(SystemJobCode.PRICE_UPDATE_HOLDINGS)) {
+            log.info("略過 Invest 行情排程（TW）：租約由其他節點持有");
+            return;
+        }
         log.info("開始執行 Invest 行情排程（TW）");
         PriceUpdateService.SchedulerExecutionResult result = priceUpdateService.runForAllActiveUsers(
             Set.of("TW"),
@@ -43,9 +47,10 @@ public class InvestPriceUpdateScheduler {
             "排程觸發（TW）"
         );
         log.info(
-            "完成 Invest 行情排程（TW），users={}, jobs={}, total={}, success={}, fail={}",
+            "完成 Invest 行情排程（TW），users={}, jobs={}, stocks={}, total={}, success={}, fail={}",
             result.processedUserCount(),
             result.jobCount(),
+            result.distinctStockCount(),
             result.totalCount(),
             result.successCount(),
             result.failCount()
@@ -61,6 +66,10 @@ public class InvestPriceUpdateScheduler {
             log.info("略過 Invest 行情排程（US）：任務已停用");
             return;
         }
+        if (!schedulerRuntimeGateService.tryAcquireLease(SystemJobCode.PRICE_UPDATE_HOLDINGS)) {
+            log.info("略過 Invest 行情排程（US）：租約由其他節點持有");
+            return;
+        }
         log.info("開始執行 Invest 行情排程（US）");
         PriceUpdateService.SchedulerExecutionResult result = priceUpdateService.runForAllActiveUsers(
             Set.of("US"),
@@ -68,9 +77,10 @@ public class InvestPriceUpdateScheduler {
             "排程觸發（US）"
         );
         log.info(
-            "完成 Invest 行情排程（US），users={}, jobs={}, total={}, success={}, fail={}",
+            "完成 Invest 行情排程（US），users={}, jobs={}, stocks={}, total={}, success={}, fail={}",
             result.processedUserCount(),
             result.jobCount(),
+            result.distinctStockCount(),
             result.totalCount(),
             result.successCount(),
             result.failCount()
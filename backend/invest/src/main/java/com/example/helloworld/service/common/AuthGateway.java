@@ -13,8 +13,9 @@ public class AuthGateway extends AbstractAuthGateway {
     public AuthGateway(
             List<JwtTokenGateway> jwtTokenGateways,
             List<AuthDomainPolicy> authDomainPolicies,
+            AuthPrincipalCache principalCache,
             UserDetailsService investUserDetailsService) {
-        super(jwtTokenGateways, authDomainPolicies);
+        super(jwtTokenGateways, authDomainPolicies, principalCache);
         this.investUserDetailsService = investUserDetailsService;
     }
 
@@ -11,6 +11,7 @@ import com.example.helloworld.repository.invest.PortfolioRepository;
 import com.example.helloworld.repository.invest.SchedulerJobLogRepository;
 import com.example.helloworld.repository.invest.StockPriceDailyRepository;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
+import com.example.helloworld.service.invest.price.PriceHistoryCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
@@ -155,9 +156,11 @@ public class DailyReportBatchService {
         Map<String, Long> recommendationCount = initRecommendationCount();
         List<DailyReportTopRiskHoldingDto> topRiskHoldings = new ArrayList<>();
 
+        PriceHistoryCache historyCache = new PriceHistoryCache(stockPriceDailyRepository);
+        historyCache.preload(portfolios.stream().map(portfolio -> portfolio.getStock().getId()).toList());
+
         for (Portfolio portfolio : portfolios) {
-            StockPriceDaily latestPrice = stockPriceDailyRepository.findTopByStockIdOrderByTradeDateDesc(portfolio.getStock().getId())
-                .orElse(null);
+            StockPriceDaily latestPrice = historyCache.latest(portfolio.getStock().getId()).orElse(null);
             if (latestPrice == null) {
                 continue;
             }
@@ -192,7 +195,7 @@ public class DailyReportBatchService {
             portfolioDailySnapshotRepository.save(snapshot);
             snapshotCount += 1;
 
-            PortfolioRiskResultDetailDto riskResult = portfolioRiskResultService.recalculateForBatch(portfolio.getId(), tradeDate);
+            PortfolioRiskResultDetailDto riskResult = portfolioRiskResultService.recalculateForBatch(portfolio.getId(), tradeDate, historyCache);
             riskResultCount += 1;
 
             String riskLevel = normalizeCode(riskResult.getRiskLevel());
@@ -0,0 +1,204 @@
+package com.example.helloworld.service.invest;
+
+import com.example.helloworld.dto.invest.RunMarketAnalysisResponseDto;
+import com.example.helloworld.entity.invest.SchedulerJobLog;
+import com.example.helloworld.entity.invest.SchedulerJobStatusCode;
+import com.example.helloworld.repository.invest.PortfolioRepository;
+import com.example.helloworld.repository.invest.SchedulerJobLogRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 全體使用者的市場分析批次：每位使用者交給有界 worker pool，各自呼叫
+ * {@link MarketAnalysisService#runForUser}（每位使用者一個獨立交易），單一使用者失敗不影響其他人。
+ * 本類別刻意不加 @Transactional，job log 的進度更新由呼叫端執行緒逐筆寫入。
+ */
+@Service
+public class MarketAnalysisBatchRunner {
+
+    private static final ZoneId TAIPEI_ZONE = ZoneId.of("Asia/Taipei");
+
+    private final MarketAnalysisService marketAnalysisService;
+    private final PortfolioRepository portfolioRepository;
+    private final SchedulerJobLogRepository schedulerJobLogRepository;
+    private final ExecutorService workerPool;
+
+    @Value("${invest.market-analysis.batch.progress-every-users:10}")
+    private int progressEveryUsers;
+
+    public MarketAnalysisBatchRunner(MarketAnalysisService marketAnalysisService,
+                                     PortfolioRepository portfolioRepository,
+                                     SchedulerJobLogRepository schedulerJobLogRepository,
+                                     @Value("${invest.market-analysis.batch.worker-threads:4}") int workerThreads) {
+        this.marketAnalysisService = marketAnalysisService;
+        this.portfolioRepository = portfolioRepository;
+        this.schedulerJobLogRepository = schedulerJobLogRepository;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "invest-market-analysis-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BatchExecutionResult runForAllActiveUsers(String scope, String triggerDescription) {
+        List<String> userIds = portfolioRepository.findDistinctActiveUserIds();
+
+        SchedulerJobLog jobLog = new SchedulerJobLog();
+        jobLog.setJobName(MarketAnalysisExecutionService.JOB_NAME_MARKET_ANALYSIS);
+        jobLog.setRunDate(LocalDate.now(TAIPEI_ZONE));
+        jobLog.setStatus(SchedulerJobStatusCode.RUNNING);
+        jobLog.setStartedAt(LocalDateTime.now(TAIPEI_ZONE));
+        jobLog.setMessage("市場分析批次執行中（" + triggerDescription + "）：使用者 0/" + userIds.size());
+        jobLog = schedulerJobLogRepository.save(jobLog);
+
+        ExecutorCompletionService<UserOutcome> completionService = new ExecutorCompletionService<>(workerPool);
+        List<Future<UserOutcome>> futures = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            futures.add(completionService.submit(() -> analyzeUser(userId, scope)));
+        }
+
+        BatchCounters counters = new BatchCounters();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                counters.add(completionService.take().get());
+                if (shouldReportProgress(counters.userCount, userIds.size())) {
+                    jobLog.setMessage(String.format(
+                        "市場分析批次執行中（%s）：使用者 %d/%d，失敗使用者 %d，已分析標的 %d。",
+                        triggerDescription, counters.userCount, userIds.size(), counters.failedUsers.size(), counters.analyzedCount
+                    ));
+                    jobLog = schedulerJobLogRepository.save(jobLog);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            return finish(jobLog, triggerDescription, userIds.size(), counters, "批次被中斷");
+        } catch (ExecutionException e) {
+            // analyzeUser 已自行攔截例外，這裡只處理非預期錯誤
+            futures.forEach(future -> future.cancel(true));
+            return finish(jobLog, triggerDescription, userIds.size(), counters, safeMessage(e.getCause().getMessage()));
+        }
+
+        return finish(jobLog, triggerDescription, userIds.size(), counters, null);
+    }
+
+    private UserOutcome analyzeUser(String userId, String scope) {
+        try {
+            RunMarketAnalysisResponseDto result = marketAnalysisService.runForUser(userId, scope);
+            return new UserOutcome(userId, result, null);
+        } catch (Exception e) {
+            return new UserOutcome(userId, null, safeMessage(e.getMessage()));
+        }
+    }
+
+    private boolean shouldReportProgress(int processed, int total) {
+        return processed < total && processed % Math.max(1, progressEveryUsers) == 0;
+    }
+
+    private BatchExecutionResult finish(SchedulerJobLog jobLog,
+                                        String triggerDescription,
+                                        int userTotal,
+                                        BatchCounters counters,
+                                        String abortMessage) {
+        boolean success = abortMessage == null && counters.failedUsers.isEmpty();
+        StringBuilder message = new StringBuilder(String.format(
+            "市場分析批次完成（%s）。使用者 %d/%d，失敗使用者 %d，目標 %d，完成 %d，失敗 %d。",
+            triggerDescription, counters.userCount, userTotal, counters.failedUsers.size(),
+            counters.targetCount, counters.analyzedCount, counters.failCount
+        ));
+        if (abortMessage != null) {
+            message.append("批次中止：").append(abortMessage).append("。");
+        }
+        if (!counters.failedUsers.isEmpty()) {
+            message.append("失敗使用者：").append(String.join("；", counters.failedUsers));
+        }
+
+        jobLog.setStatus(success ? SchedulerJobStatusCode.SUCCESS : SchedulerJobStatusCode.FAILED);
+        jobLog.setFinishedAt(LocalDateTime.now(TAIPEI_ZONE));
+        jobLog.setMessage(truncate(message.toString(), 1000));
+        SchedulerJobLog saved = schedulerJobLogRepository.save(jobLog);
+
+        return new BatchExecutionResult(
+            saved.getId(),
+            saved.getStatus().name(),
+            userTotal,
+            counters.userCount,
+            counters.failedUsers.size(),
+            counters.targetCount,
+            counters.analyzedCount,
+            counters.failCount,
+            saved.getMessage()
+        );
+    }
+
+    private String safeMessage(String message) {
+        if (message == null || message.isBlank()) {
+            return "未知錯誤";
+        }
+        return truncate(message, 180);
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    private record UserOutcome(String userId, RunMarketAnalysisResponseDto result, String errorMessage) {}
+
+    private static final class BatchCounters {
+        private int userCount;
+        private int targetCount;
+        private int analyzedCount;
+        private int failCount;
+        private final List<String> failedUsers = new ArrayList<>();
+
+        private void add(UserOutcome outcome) {
+            userCount += 1;
+            if (outcome.result() == null) {
+                failedUsers.add(outcome.userId() + ": " + outcome.errorMessage());
+                return;
+            }
+            RunMarketAnalysisResponseDto result = outcome.result();
+            targetCount += nvlInt(result.getTargetCount());
+            analyzedCount += nvlInt(result.getAnalyzedCount());
+            failCount += nvlInt(result.getFailCount());
+            if (nvlInt(result.getFailCount()) > 0) {
+                failedUsers.add(outcome.userId() + ": " + result.getMessage());
+            }
+        }
+
+        private static int nvlInt(Integer value) {
+            return value == null ? 0 : value;
+        }
+    }
+
+    public record BatchExecutionResult(
+        Long jobLogId,
+        String status,
+        int userTotal,
+        int processedUserCount,
+        int failedUserCount,
+        int targetCount,
+        int analyzedCount,
+        int failCount,
+        String message
+    ) {}
+}
@@ -5,12 +5,18 @@ import com.example.helloworld.dto.invest.RunMarketAnalysisResponseDto;
 import com.example.helloworld.entity.invest.*;
 import com.example.helloworld.repository.invest.*;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
+import com.example.helloworld.service.invest.price.PriceHistoryCache;
+import com.example.helloworld.service.invest.price.PriceIndicators;
+import com.example.helloworld.service.invest.price.PriceSeries;
 import com.example.helloworld.service.invest.system.InvestStrategySettingService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -65,7 +71,13 @@ public class MarketAnalysisService {
     }
 
     public RunMarketAnalysisResponseDto runForCurrentUser(String scopeValue) {
-        String userUid = investCurrentUserService.resolveCurrentUserUid();
+        return runForUser(investCurrentUserService.resolveCurrentUserUid(), scopeValue);
+    }
+
+    /**
+     * 分析指定使用者的持股 / 觀察清單；批次 runner 由 worker thread 呼叫，每位使用者各自一個交易。
+     */
+    public RunMarketAnalysisResponseDto runForUser(String userUid, String scopeValue) {
         MarketAnalysisScopeCode scope = MarketAnalysisScopeCode.fromNullable(scopeValue);
 
         LocalDateTime startedAt = LocalDateTime.now(TAIPEI_ZONE);
@@ -77,9 +89,12 @@ public class MarketAnalysisService {
         List<StrengthSnapshot> snapshots = new ArrayList<>();
         int analyzedCount = 0;
 
+        PriceHistoryCache historyCache = new PriceHistoryCache(stockPriceDailyRepository);
+        historyCache.preload(targets.stream().map(target -> target.stock().getId()).toList());
+
         for (AnalysisTarget target : targets) {
             try {
-                StrengthSnapshot snapshot = analyzeAndUpsertSnapshot(userUid, target, strategyVersion, thresholds);
+                StrengthSnapshot snapshot = analyzeAndUpsertSnapshot(userUid, target, strategyVersion, thresholds, historyCache);
                 snapshots.add(snapshot);
                 analyzedCount += 1;
             } catch (Exception e) {
@@ -147,14 +162,30 @@ public class MarketAnalysisService {
     private StrengthSnapshot analyzeAndUpsertSnapshot(String userUid,
                                                       AnalysisTarget target,
                                                       int strategyVersion,
-                                                      InvestStrategySettingService.ResolvedThresholds thresholds) {
-        StockPriceDaily latest = stockPriceDailyRepository.findTopByStockIdOrderByTradeDateDesc(target.stock().getId())
+                                                      InvestStrategySettingService.ResolvedThresholds thresholds,
+                                                      PriceHistoryCache historyCache) {
+        StockPriceDaily latest = historyCache.latest(target.stock().getId())
             .orElseThrow(() -> new RuntimeException("缺少 stock_price_daily，無法分析"));
 
-        List<StockPriceDaily> history = stockPriceDailyRepository
-            .findTop30ByStockIdAndTradeDateLessThanEqualOrderByTradeDateDesc(target.stock().getId(), latest.getTradeDate());
+        List<StockPriceDaily> history = historyCache.history(target.stock().getId());
 
         String dataQuality = resolveDataQuality(latest, history, thresholds);
+        String inputFingerprint = buildInputFingerprint(target, history, dataQuality, strategyVersion);
+
+        StrengthSnapshot snapshot = strengthSnapshotRepository
+            .findByUserIdAndStockIdAndTradeDateAndUniverseTypeAndWatchScopeId(
+                userUid,
+                target.stock().getId(),
+                latest.getTradeDate(),
+                target.universeType(),
+                target.watchScopeId()
+            )
+            .orElseGet(StrengthSnapshot::new);
+        // 輸入（行情視窗、資料品質、策略版本）與上次相同時，分數與因子必然相同，直接沿用既有 snapshot
+        if (snapshot.getId() != null && inputFingerprint.equals(snapshot.getInputFingerprint())) {
+            return snapshot;
+        }
+
         List<FactorResult> factors = buildFactors(history, dataQuality, thresholds);
 
         Integer totalScore = null;
@@ -172,16 +203,6 @@ public class MarketAnalysisService {
 
         String summary = buildStrengthSummary(target, totalScore, level, dataQuality, factors, thresholds);
 
-        StrengthSnapshot snapshot = strengthSnapshotRepository
-            .findByUserIdAndStockIdAndTradeDateAndUniverseTypeAndWatchScopeId(
-                userUid,
-                target.stock().getId(),
-                latest.getTradeDate(),
-                target.universeType(),
-                target.watchScopeId()
-            )
-            .orElseGet(StrengthSnapshot::new);
-
         snapshot.setUserId(userUid);
         snapshot.setStock(target.stock());
         snapshot.setTradeDate(latest.getTradeDate());
@@ -196,6 +217,7 @@ public class MarketAnalysisService {
         snapshot.setSummaryText(summary);
         snapshot.setDataQuality(dataQuality);
         snapshot.setStrategyVersion(strategyVersion);
+        snapshot.setInputFingerprint(inputFingerprint);
         snapshot.setComputedAt(LocalDateTime.now(TAIPEI_ZONE));
 
         enforceWatchScopeRule(snapshot);
@@ -210,6 +232,39 @@ public class MarketAnalysisService {
         return savedSnapshot;
     }
 
+    /**
+     * 分析輸入的 SHA-256 指紋：標的名稱、整段行情視窗、資料品質與策略版本。
+     */
+    private String buildInputFingerprint(AnalysisTarget target,
+                                         List<StockPriceDaily> historyDesc,
+                                         String dataQuality,
+                                         int strategyVersion) {
+        StringBuilder input = new StringBuilder(historyDesc.size() * 64)
+            .append(target.stock().getTicker()).append('|')
+            .append(target.stock().getName()).append('|')
+            .append(dataQuality).append('|')
+            .append(strategyVersion);
+        for (StockPriceDaily row : historyDesc) {
+            input.append('\n')
+                .append(row.getTradeDate()).append(',')
+                .append(plain(row.getClosePrice())).append(',')
+                .append(plain(row.getHighPrice())).append(',')
+                .append(plain(row.getLowPrice())).append(',')
+                .append(row.getVolume()).append(',')
+                .append(plain(row.getChangePercent()));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("無法建立分析輸入指紋", e);
+        }
+    }
+
+    private String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+
     private List<FactorResult> buildFactors(List<StockPriceDaily> historyDesc,
                                             String dataQuality,
                                             InvestStrategySettingService.ResolvedThresholds thresholds) {
@@ -225,20 +280,14 @@ public class MarketAnalysisService {
             ));
         }
 
-        BigDecimal latestClose = nvl(historyDesc.get(0).getClosePrice());
-        BigDecimal ma20 = avgClose(historyDesc, 20);
-        BigDecimal ret5 = pctReturn(historyDesc, 0, 4);
-        BigDecimal ret20 = pctReturn(historyDesc, 0, 19);
-        BigDecimal volRatio = volumeRatio20(historyDesc);
-        BigDecimal volatility10 = volatility10(historyDesc);
-        BigDecimal drawdown20 = drawdownFromHigh20(historyDesc);
+        PriceIndicators indicators = PriceIndicators.compute(PriceSeries.fromHistoryDesc(historyDesc));
 
         List<FactorResult> factors = new ArrayList<>();
-        factors.add(scoreTrendMa20(latestClose, ma20));
-        factors.add(scoreMomentum(ret5, ret20));
-        factors.add(scoreVolume(volRatio, ret5));
-        factors.add(scoreVolatility(volatility10));
-        factors.add(scoreDrawdown(drawdown20));
+        factors.add(scoreTrendMa20(indicators.closeToMa20Percent()));
+        factors.add(scoreMomentum(indicators.return5(), indicators.return20()));
+        factors.add(scoreVolume(indicators.volumeRatio20(), indicators.return5()));
+        factors.add(scoreVolatility(indicators.volatility10()));
+        factors.add(scoreDrawdown(indicators.drawdown20()));
         factors = withSortOrder(factors);
 
         if (QUALITY_PARTIAL.equals(dataQuality) || QUALITY_STALE.equals(dataQuality)) {
@@ -253,15 +302,13 @@ public class MarketAnalysisService {
         return factors;
     }
 
-    private FactorResult scoreTrendMa20(BigDecimal close, BigDecimal ma20) {
-        BigDecimal ratioPercent = close.divide(ma20, 6, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100));
+    private FactorResult scoreTrendMa20(double ratioPercent) {
         int score;
-        if (ratioPercent.compareTo(BigDecimal.valueOf(103)) >= 0) {
+        if (ratioPercent >= 103) {
             score = 25;
-        } else if (ratioPercent.compareTo(BigDecimal.valueOf(100)) >= 0) {
+        } else if (ratioPercent >= 100) {
             score = 20;
-        } else if (ratioPercent.compareTo(BigDecimal.valueOf(97)) >= 0) {
+        } else if (ratioPercent >= 97) {
             score = 12;
         } else {
             score = 5;
@@ -277,15 +324,15 @@ public class MarketAnalysisService {
         );
     }
 
-    private FactorResult scoreMomentum(BigDecimal ret5, BigDecimal ret20) {
+    private FactorResult scoreMomentum(double ret5, double ret20) {
         int score;
-        if (ret5.compareTo(BigDecimal.valueOf(3)) >= 0 && ret20.compareTo(BigDecimal.valueOf(8)) >= 0) {
+        if (ret5 >= 3 && ret20 >= 8) {
             score = 25;
-        } else if (ret5.compareTo(BigDecimal.ZERO) >= 0 && ret20.compareTo(BigDecimal.valueOf(3)) >= 0) {
+        } else if (ret5 >= 0 && ret20 >= 3) {
             score = 18;
-        } else if (ret20.compareTo(BigDecimal.ZERO) >= 0) {
+        } else if (ret20 >= 0) {
             score = 12;
-        } else if (ret5.compareTo(BigDecimal.valueOf(-3)) <= 0 && ret20.compareTo(BigDecimal.valueOf(-8)) <= 0) {
+        } else if (ret5 <= -3 && ret20 <= -8) {
             score = 4;
         } else {
             score = 8;
@@ -302,15 +349,15 @@ public class MarketAnalysisService {
         );
     }
 
-    private FactorResult scoreVolume(BigDecimal volRatio, BigDecimal ret5) {
+    private FactorResult scoreVolume(double volRatio, double ret5) {
         int score;
-        if (volRatio.compareTo(BigDecimal.valueOf(1.5)) >= 0 && ret5.compareTo(BigDecimal.ZERO) >= 0) {
+        if (volRatio >= 1.5 && ret5 >= 0) {
             score = 20;
-        } else if (volRatio.compareTo(BigDecimal.ONE) >= 0 && ret5.compareTo(BigDecimal.ZERO) >= 0) {
+        } else if (volRatio >= 1 && ret5 >= 0) {
             score = 15;
-        } else if (volRatio.compareTo(BigDecimal.valueOf(0.7)) >= 0) {
+        } else if (volRatio >= 0.7) {
             score = 10;
-        } else if (volRatio.compareTo(BigDecimal.valueOf(1.5)) >= 0 && ret5.compareTo(BigDecimal.ZERO) < 0) {
+        } else if (volRatio >= 1.5 && ret5 < 0) {
             score = 6;
         } else {
             score = 8;
@@ -327,15 +374,15 @@ public class MarketAnalysisService {
         );
     }
 
-    private FactorResult scoreVolatility(BigDecimal volatility10) {
+    private FactorResult scoreVolatility(double volatility10) {
         int score;
-        if (volatility10.compareTo(BigDecimal.valueOf(1.5)) <= 0) {
+        if (volatility10 <= 1.5) {
             score = 15;
-        } else if (volatility10.compareTo(BigDecimal.valueOf(2.5)) <= 0) {
+        } else if (volatility10 <= 2.5) {
             score = 12;
-        } else if (volatility10.compareTo(BigDecimal.valueOf(4)) <= 0) {
+        } else if (volatility10 <= 4) {
             score = 8;
-        } else if (volatility10.compareTo(BigDecimal.valueOf(6)) <= 0) {
+        } else if (volatility10 <= 6) {
             score = 5;
         } else {
             score = 2;
@@ -352,16 +399,16 @@ public class MarketAnalysisService {
         );
     }
 
-    private FactorResult scoreDrawdown(BigDecimal drawdown20) {
-        BigDecimal drawdownAbs = drawdown20.abs();
+    private FactorResult scoreDrawdown(double drawdown20) {
+        double drawdownAbs = Math.abs(drawdown20);
         int score;
-        if (drawdownAbs.compareTo(BigDecimal.valueOf(3)) <= 0) {
+        if (drawdownAbs <= 3) {
             score = 15;
-        } else if (drawdownAbs.compareTo(BigDecimal.valueOf(8)) <= 0) {
+        } else if (drawdownAbs <= 8) {
             score = 12;
-        } else if (drawdownAbs.compareTo(BigDecimal.valueOf(15)) <= 0) {
+        } else if (drawdownAbs <= 15) {
             score = 8;
-        } else if (drawdownAbs.compareTo(BigDecimal.valueOf(25)) <= 0) {
+        } else if (drawdownAbs <= 25) {
             score = 4;
         } else {
             score = 1;
@@ -378,20 +425,69 @@ public class MarketAnalysisService {
         );
     }
 
+    /**
+     * 以差異比對同步機會訊號：一次載入使用者既有訊號與理由，在記憶體算出新增 / 更新 / 過期集合，
+     * 內容完全相同的訊號與理由直接略過，其餘以批次語句寫回。
+     */
     private int syncOpportunitySignals(String userUid,
                                        List<StrengthSnapshot> snapshots,
                                        int strategyVersion,
                                        InvestStrategySettingService.ResolvedThresholds thresholds) {
         Map<Long, StrengthSnapshot> bestByStock = pickBestSnapshotPerStock(snapshots);
 
-        Set<Long> analyzedStockIds = new HashSet<>(bestByStock.keySet());
+        Map<String, OpportunitySignal> existingByKey = new HashMap<>();
+        for (OpportunitySignal signal : opportunitySignalRepository.findByUserId(userUid)) {
+            if (signal.getStock() != null) {
+                existingByKey.put(signalMapKey(signal.getStock().getId(), signal.getSignalKey()), signal);
+            }
+        }
+        Map<Long, List<OpportunitySignalReason>> existingReasons = existingByKey.isEmpty()
+            ? Map.of()
+            : opportunitySignalReasonRepository.findBySignalIdIn(
+                    existingByKey.values().stream().map(OpportunitySignal::getId).toList()
+                ).stream()
+                .collect(Collectors.groupingBy(reason -> reason.getSignal().getId()));
+
+        Set<String> desiredKeys = new HashSet<>();
+        List<OpportunitySignal> changedSignals = new ArrayList<>();
+        Map<OpportunitySignal, List<OpportunitySignalReasonDto>> changedReasons = new LinkedHashMap<>();
         for (StrengthSnapshot snapshot : bestByStock.values()) {
             SignalDecision decision = decideSignal(snapshot, thresholds);
-            upsertSignal(userUid, snapshot, decision, strategyVersion);
+            String mapKey = signalMapKey(snapshot.getStock().getId(), decision.signalType().name());
+            desiredKeys.add(mapKey);
+
+            OpportunitySignal existing = existingByKey.get(mapKey);
+            List<OpportunitySignalReasonDto> reasons = decision.reasons().stream().limit(3).toList();
+            if (existing != null
+                && isSignalUnchanged(existing, snapshot, decision, strategyVersion)
+                && isReasonsUnchanged(existingReasons.getOrDefault(existing.getId(), List.of()), reasons)) {
+                continue;
+            }
+
+            OpportunitySignal signal = existing == null ? new OpportunitySignal() : existing;
+            applySignal(signal, userUid, snapshot, decision, strategyVersion);
+            changedSignals.add(signal);
+            changedReasons.put(signal, reasons);
+        }
+
+        // 同股票改換訊號類型、或本次未分析到的股票，其 ACTIVE 訊號一律過期
+        List<Long> expiredIds = existingByKey.entrySet().stream()
+            .filter(entry -> entry.getValue().getStatus() == OpportunitySignalStatusCode.ACTIVE)
+            .filter(entry -> !desiredKeys.contains(entry.getKey()))
+            .map(entry -> entry.getValue().getId())
+            .toList();
+
+        List<OpportunitySignal> savedSignals = opportunitySignalRepository.saveAll(changedSignals);
+        replaceSignalReasons(savedSignals, changedReasons);
+        if (!expiredIds.isEmpty()) {
+            opportunitySignalRepository.updateStatusByIdIn(
+                expiredIds,
+                OpportunitySignalStatusCode.EXPIRED,
+                LocalDateTime.now()
+            );
         }
 
-        expireSignalsNotInCurrentRun(userUid, analyzedStockIds);
-        return (int) opportunitySignalRepository.findByUserIdAndStatus(userUid, OpportunitySignalStatusCode.ACTIVE).size();
+        return (int) opportunitySignalRepository.countByUserIdAndStatus(userUid, OpportunitySignalStatusCode.ACTIVE);
     }
 
     private Map<Long, StrengthSnapshot> pickBestSnapshotPerStock(List<StrengthSnapshot> snapshots) {
@@ -502,17 +598,15 @@ public class MarketAnalysisService {
         );
     }
 
-    private void upsertSignal(String userUid, StrengthSnapshot snapshot, SignalDecision decision, int strategyVersion) {
-        Long stockId = snapshot.getStock().getId();
-        String signalKey = decision.signalType().name();
-
-        OpportunitySignal signal = opportunitySignalRepository.findByUserIdAndStockIdAndSignalKey(userUid, stockId, signalKey)
-            .orElseGet(OpportunitySignal::new);
-
+    private void applySignal(OpportunitySignal signal,
+                             String userUid,
+                             StrengthSnapshot snapshot,
+                             SignalDecision decision,
+                             int strategyVersion) {
         signal.setUserId(userUid);
         signal.setStock(snapshot.getStock());
         signal.setTradeDate(snapshot.getTradeDate());
-        signal.setSignalKey(signalKey);
+        signal.setSignalKey(decision.signalType().name());
         signal.setSignalType(decision.signalType());
         signal.setSignalScore(clampScore(decision.signalScore()));
         signal.setRecommendationCode(decision.recommendationCode());
@@ -522,53 +616,67 @@ public class MarketAnalysisService {
         signal.setStatus(OpportunitySignalStatusCode.ACTIVE);
         signal.setStrategyVersion(strategyVersion);
         signal.setSourceSnapshot(snapshot);
+    }
 
-        OpportunitySignal savedSignal = opportunitySignalRepository.save(signal);
+    private boolean isSignalUnchanged(OpportunitySignal signal,
+                                      StrengthSnapshot snapshot,
+                                      SignalDecision decision,
+                                      int strategyVersion) {
+        Long sourceSnapshotId = signal.getSourceSnapshot() == null ? null : signal.getSourceSnapshot().getId();
+        return signal.getStatus() == OpportunitySignalStatusCode.ACTIVE
+            && Objects.equals(signal.getTradeDate(), snapshot.getTradeDate())
+            && Objects.equals(sourceSnapshotId, snapshot.getId())
+            && signal.getSignalType() == decision.signalType()
+            && Objects.equals(signal.getSignalScore(), clampScore(decision.signalScore()))
+            && signal.getRecommendationCode() == decision.recommendationCode()
+            && Objects.equals(signal.getConditionText(), decision.conditionText())
+            && Objects.equals(signal.getSummaryText(), decision.summaryText())
+            && Objects.equals(signal.getDisclaimerText(), DISCLAIMER + " " + decision.disclaimerText())
+            && Objects.equals(signal.getStrategyVersion(), strategyVersion);
+    }
+
+    private boolean isReasonsUnchanged(List<OpportunitySignalReason> current, List<OpportunitySignalReasonDto> desired) {
+        if (current.size() != desired.size()) {
+            return false;
+        }
+        for (int i = 0; i < desired.size(); i++) {
+            OpportunitySignalReason entity = current.get(i);
+            OpportunitySignalReasonDto dto = desired.get(i);
+            if (!Objects.equals(entity.getSortOrder(), i + 1)
+                || !Objects.equals(entity.getReasonTitle(), dto.getReasonTitle())
+                || !Objects.equals(entity.getReasonDetail(), dto.getReasonDetail())
+                || !Objects.equals(entity.getScoreImpact(), dto.getScoreImpact())) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        opportunitySignalReasonRepository.deleteBySignalId(savedSignal.getId());
-        List<OpportunitySignalReason> reasons = decision.reasons().stream()
-            .limit(3)
-            .map(reason -> {
-                OpportunitySignalReason entity = new OpportunitySignalReason();
-                entity.setSignal(savedSignal);
-                entity.setReasonTitle(reason.getReasonTitle());
-                entity.setReasonDetail(reason.getReasonDetail());
-                entity.setScoreImpact(reason.getScoreImpact());
-                return entity;
-            })
-            .toList();
-        for (int i = 0; i < reasons.size(); i++) {
-            reasons.get(i).setSortOrder(i + 1);
+    private void replaceSignalReasons(List<OpportunitySignal> savedSignals,
+                                      Map<OpportunitySignal, List<OpportunitySignalReasonDto>> reasonsBySignal) {
+        if (savedSignals.isEmpty()) {
+            return;
         }
-        opportunitySignalReasonRepository.saveAll(reasons);
+        opportunitySignalReasonRepository.deleteBySignalIdIn(savedSignals.stream().map(OpportunitySignal::getId).toList());
 
-        List<OpportunitySignal> activeSignals = opportunitySignalRepository.findByUserAndStockAndStatus(
-            userUid,
-            stockId,
-            OpportunitySignalStatusCode.ACTIVE
-        );
-        for (OpportunitySignal active : activeSignals) {
-            if (active.getId().equals(savedSignal.getId())) {
-                continue;
+        List<OpportunitySignalReason> reasons = new ArrayList<>();
+        for (OpportunitySignal signal : savedSignals) {
+            List<OpportunitySignalReasonDto> dtos = reasonsBySignal.getOrDefault(signal, List.of());
+            for (int i = 0; i < dtos.size(); i++) {
+                OpportunitySignalReason entity = new OpportunitySignalReason();
+                entity.setSignal(signal);
+                entity.setReasonTitle(dtos.get(i).getReasonTitle());
+                entity.setReasonDetail(dtos.get(i).getReasonDetail());
+                entity.setScoreImpact(dtos.get(i).getScoreImpact());
+                entity.setSortOrder(i + 1);
+                reasons.add(entity);
             }
-            active.setStatus(OpportunitySignalStatusCode.EXPIRED);
-            opportunitySignalRepository.save(active);
         }
+        opportunitySignalReasonRepository.saveAll(reasons);
     }
 
-    private void expireSignalsNotInCurrentRun(String userUid, Set<Long> analyzedStockIds) {
-        List<OpportunitySignal> activeSignals = opportunitySignalRepository.findByUserIdAndStatus(
-            userUid,
-            OpportunitySignalStatusCode.ACTIVE
-        );
-        for (OpportunitySignal signal : activeSignals) {
-            Long stockId = signal.getStock() == null ? null : signal.getStock().getId();
-            if (stockId == null || analyzedStockIds.contains(stockId)) {
-                continue;
-            }
-            signal.setStatus(OpportunitySignalStatusCode.EXPIRED);
-            opportunitySignalRepository.save(signal);
-        }
+    private String signalMapKey(Long stockId, String signalKey) {
+        return stockId + "|" + signalKey;
     }
 
     private void enforceWatchScopeRule(AnalysisTarget target) {
@@ -733,79 +841,6 @@ public class MarketAnalysisService {
         return Math.min(score, SCORE_CAP);
     }
 
-    private BigDecimal avgClose(List<StockPriceDaily> historyDesc, int count) {
-        return historyDesc.stream().limit(count)
-            .map(StockPriceDaily::getClosePrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(count), 6, RoundingMode.HALF_UP);
-    }
-
-    private BigDecimal pctReturn(List<StockPriceDaily> historyDesc, int startIndex, int compareIndex) {
-        BigDecimal latest = nvl(historyDesc.get(startIndex).getClosePrice());
-        BigDecimal previous = nvl(historyDesc.get(compareIndex).getClosePrice());
-        if (previous.compareTo(BigDecimal.ZERO) <= 0) {
-            return BigDecimal.ZERO;
-        }
-        return latest.subtract(previous)
-            .divide(previous, 6, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal volumeRatio20(List<StockPriceDaily> historyDesc) {
-        long latestVolume = nvlLong(historyDesc.get(0).getVolume());
-        BigDecimal avg = historyDesc.stream().limit(20)
-            .map(StockPriceDaily::getVolume)
-            .map(this::nvlLong)
-            .map(BigDecimal::valueOf)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(20), 6, RoundingMode.HALF_UP);
-        if (avg.compareTo(BigDecimal.ZERO) <= 0) {
-            return BigDecimal.ONE;
-        }
-        return BigDecimal.valueOf(latestVolume).divide(avg, 6, RoundingMode.HALF_UP);
-    }
-
-    private BigDecimal volatility10(List<StockPriceDaily> historyDesc) {
-        List<BigDecimal> closes = historyDesc.stream().limit(10)
-            .map(StockPriceDaily::getClosePrice)
-            .map(this::nvl)
-            .toList();
-        List<Double> returns = new ArrayList<>();
-        for (int i = 0; i < closes.size() - 1; i++) {
-            double cur = closes.get(i).doubleValue();
-            double prev = closes.get(i + 1).doubleValue();
-            if (prev == 0) {
-                continue;
-            }
-            returns.add(((cur - prev) / prev) * 100.0);
-        }
-        if (returns.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        double mean = returns.stream().mapToDouble(Double::doubleValue).average().orElse(0D);
-        double variance = returns.stream()
-            .mapToDouble(value -> Math.pow(value - mean, 2))
-            .average()
-            .orElse(0D);
-        double std = Math.sqrt(variance);
-        return BigDecimal.valueOf(std).setScale(4, RoundingMode.HALF_UP);
-    }
-
-    private BigDecimal drawdownFromHigh20(List<StockPriceDaily> historyDesc) {
-        BigDecimal latest = nvl(historyDesc.get(0).getClosePrice());
-        BigDecimal high20 = historyDesc.stream().limit(20)
-            .map(StockPriceDaily::getClosePrice)
-            .map(this::nvl)
-            .max(BigDecimal::compareTo)
-            .orElse(BigDecimal.ZERO);
-        if (high20.compareTo(BigDecimal.ZERO) <= 0) {
-            return BigDecimal.ZERO;
-        }
-        return latest.subtract(high20)
-            .divide(high20, 6, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100));
-    }
-
     private int qualityRank(String quality) {
         if (QUALITY_GOOD.equals(quality)) {
             return 0;
@@ -827,14 +862,17 @@ public class MarketAnalysisService {
         return value == null ? BigDecimal.ZERO : value;
     }
 
-    private Long nvlLong(Long value) {
-        return value == null ? 0L : value;
-    }
-
     private String fmt(BigDecimal value, int scale) {
         return nvl(value).setScale(scale, RoundingMode.HALF_UP).toPlainString();
     }
 
+    private String fmt(double value, int scale) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return fmt(BigDecimal.ZERO, scale);
+        }
+        return fmt(BigDecimal.valueOf(value), scale);
+    }
+
     private String safeMessage(String message) {
         if (message == null || message.isBlank()) {
             return "未知錯誤";
@@ -0,0 +1,354 @@
+package com.example.helloworld.service.invest;
+
+import com.example.helloworld.entity.invest.AlertTriggerTypeCode;
+import com.example.helloworld.entity.invest.PortfolioAlertEvent;
+import com.example.helloworld.entity.invest.PortfolioAlertSetting;
+import com.example.helloworld.repository.invest.PortfolioAlertEventRepository;
+import com.example.helloworld.repository.invest.PortfolioAlertSettingRepository;
+import com.example.helloworld.repository.invest.PortfolioRepository;
+import com.example.helloworld.service.invest.price.StockPriceChangedEvent.PriceChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 持股警示引擎：以 stockId 索引已啟用的警示設定，只評估「行情有變動」的股票。
+ * 記憶體狀態：
+ * 1) 設定索引：設定或持股異動的交易提交後 invalidate，另有 TTL 兜底。
+ * 2) 每日去重：STOP_LOSS / DROP_PERCENT 當日已觸發的持股，換日時由資料庫重新載入一次。
+ * 3) ABNORMAL_DROP 基準價：沿用輪詢版本的做法，服務重啟後重置、多實例下不保證一致。
+ * evaluate 一律在新交易中執行，行情事件監聽（AFTER_COMMIT）與輪詢都能獨立提交或回滾警示事件；
+ * 記憶體狀態皆為並行安全的結構，評估不互斥，交易未提交時由 afterCompletion 重置去重狀態。
+ */
+@Service
+@Transactional(transactionManager = "investTransactionManager")
+public class PortfolioAlertEngine {
+
+    private static final int PRICE_SCALE = 4;
+    private static final int PERCENT_SCALE = 2;
+
+    private final PortfolioAlertSettingRepository portfolioAlertSettingRepository;
+    private final PortfolioAlertEventRepository portfolioAlertEventRepository;
+    private final PortfolioRepository portfolioRepository;
+
+    @Value("${invest.alert.abnormal-drop.threshold-percent:2.0}")
+    private BigDecimal abnormalDropThresholdPercent;
+
+    @Value("${invest.alert.abnormal-drop.window-minutes:10}")
+    private int abnormalDropWindowMinutes;
+
+    @Value("${invest.alert.abnormal-drop.cooldown-minutes:10}")
+    private int abnormalDropCooldownMinutes;
+
+    @Value("${invest.alert.engine.setting-index-ttl-ms:300000}")
+    private long settingIndexTtlMs;
+
+    private volatile SettingIndex settingIndex;
+    private final Map<Long, PriceChange> lastEvaluatedByStock = new ConcurrentHashMap<>();
+    private final Map<Long, PriceSample> abnormalDropSamples = new ConcurrentHashMap<>();
+    private final Object dedupeLock = new Object();
+    private volatile Map<Long, Set<AlertTriggerTypeCode>> triggeredToday = new ConcurrentHashMap<>();
+    private volatile LocalDate dedupeDate;
+
+    public PortfolioAlertEngine(PortfolioAlertSettingRepository portfolioAlertSettingRepository,
+                                PortfolioAlertEventRepository portfolioAlertEventRepository,
+                                PortfolioRepository portfolioRepository) {
+        this.portfolioAlertSettingRepository = portfolioAlertSettingRepository;
+        this.portfolioAlertEventRepository = portfolioAlertEventRepository;
+        this.portfolioRepository = portfolioRepository;
+    }
+
+    /**
+     * 警示設定或持股狀態異動後呼叫；下一次評估時重建索引。
+     */
+    public void invalidateSettings() {
+        settingIndex = null;
+    }
+
+    /**
+     * 交易提交後才清除索引；提交前清除的話，並行的評估可能以舊資料重建索引並沿用到 TTL 到期。
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.NOT_SUPPORTED)
+    public void onSettingsChanged(PortfolioAlertSettingsChangedEvent event) {
+        invalidateSettings();
+    }
+
+    @Transactional(transactionManager = "investTransactionManager", readOnly = true)
+    public Set<Long> indexedStockIds(Set<String> userIds) {
+        Set<Long> stockIds = new LinkedHashSet<>();
+        currentIndex().byStockId().forEach((stockId, targets) -> {
+            if (targets.stream().anyMatch(target -> matchesUser(target, userIds))) {
+                stockIds.add(stockId);
+            }
+        });
+        return stockIds;
+    }
+
+    /**
+     * 評估行情變動。
+     *
+     * @param userIds 只評估這些使用者的持股；null 代表全部
+     * @param force   true 時即使行情與上次相同也重新評估（手動觸發）；去重規則仍然生效
+     */
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.REQUIRES_NEW)
+    public EvaluationResult evaluate(Collection<PriceChange> changes,
+                                     Set<String> userIds,
+                                     boolean force,
+                                     LocalDateTime now) {
+        rollDedupeDay(now.toLocalDate());
+        resetDedupeOnRollback();
+        SettingIndex index = currentIndex();
+        // 只評估部分使用者時不更新「已評估」狀態，避免其他使用者的同股票持股被略過
+        boolean trackEvaluated = userIds == null;
+
+        Set<String> evaluatedUsers = new HashSet<>();
+        int evaluatedStockCount = 0;
+        int evaluatedPortfolioCount = 0;
+        List<PortfolioAlertEvent> events = new ArrayList<>();
+
+        for (PriceChange change : changes) {
+            if (change == null || change.stockId() == null || change.closePrice() == null || change.tradeDate() == null) {
+                continue;
+            }
+            List<AlertTarget> targets = index.byStockId().getOrDefault(change.stockId(), List.of());
+            if (targets.isEmpty()) {
+                continue;
+            }
+            if (!force && change.sameQuoteAs(lastEvaluatedByStock.get(change.stockId()))) {
+                // 行情未變動也代表此刻的價格仍在原位，刷新基準時間，平盤一段時間後的急跌才不會因基準過舊而被略過
+                refreshAbnormalDropSamples(targets, change, now);
+                continue;
+            }
+            if (trackEvaluated) {
+                lastEvaluatedByStock.put(change.stockId(), change);
+            }
+
+            evaluatedStockCount += 1;
+            for (AlertTarget target : targets) {
+                if (!matchesUser(target, userIds)) {
+                    continue;
+                }
+                evaluatedUsers.add(target.userId());
+                evaluatedPortfolioCount += 1;
+                evaluateTarget(target, change, now, events);
+            }
+        }
+
+        portfolioAlertEventRepository.saveAll(events);
+        return new EvaluationResult(evaluatedUsers.size(), evaluatedStockCount, evaluatedPortfolioCount, events.size());
+    }
+
+    private void evaluateTarget(AlertTarget target, PriceChange change, LocalDateTime now, List<PortfolioAlertEvent> events) {
+        BigDecimal currentPrice = change.closePrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+
+        // 空值規則：stopLossPrice = null 不檢查 STOP_LOSS
+        if (target.stopLossPrice() != null
+            && currentPrice.compareTo(target.stopLossPrice()) <= 0
+            && markTriggeredToday(target.portfolioId(), AlertTriggerTypeCode.STOP_LOSS)) {
+            String message = String.format(
+                "觸發停損警示：目前價格 %.4f 已低於或等於停損價 %.4f。",
+                currentPrice, target.stopLossPrice()
+            );
+            events.add(buildEvent(target, AlertTriggerTypeCode.STOP_LOSS, currentPrice, message, now));
+        }
+
+        // 空值規則：alertDropPercent = null 不檢查 DROP_PERCENT
+        if (target.alertDropPercent() != null
+            && change.changePercent() != null
+            && change.changePercent().compareTo(target.alertDropPercent().negate()) <= 0
+            && markTriggeredToday(target.portfolioId(), AlertTriggerTypeCode.DROP_PERCENT)) {
+            BigDecimal dropPercent = change.changePercent().abs().setScale(PERCENT_SCALE, RoundingMode.HALF_UP);
+            String message = String.format(
+                "觸發跌幅警示：當日跌幅 %.2f%% 已達設定門檻 %.2f%%。",
+                dropPercent, target.alertDropPercent()
+            );
+            events.add(buildEvent(target, AlertTriggerTypeCode.DROP_PERCENT, dropPercent, message, now));
+        }
+
+        // enabled = true 時，ABNORMAL_DROP 獨立生效（不依賴 stopLossPrice / alertDropPercent）
+        evaluateAbnormalDrop(target, change, currentPrice, now, events);
+    }
+
+    private void evaluateAbnormalDrop(AlertTarget target,
+                                      PriceChange change,
+                                      BigDecimal currentPrice,
+                                      LocalDateTime now,
+                                      List<PortfolioAlertEvent> events) {
+        Long portfolioId = target.portfolioId();
+        PriceSample previous = abnormalDropSamples.put(portfolioId, new PriceSample(currentPrice, now, change.tradeDate()));
+
+        if (previous == null
+            || !change.tradeDate().equals(previous.tradeDate())
+            || previous.price().compareTo(BigDecimal.ZERO) <= 0) {
+            return;
+        }
+
+        long minutes = Duration.between(previous.sampledAt(), now).toMinutes();
+        if (minutes <= 0 || minutes > abnormalDropWindowMinutes) {
+            return;
+        }
+
+        BigDecimal dropPercent = previous.price()
+            .subtract(currentPrice)
+            .divide(previous.price(), 6, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100))
+            .setScale(PERCENT_SCALE, RoundingMode.HALF_UP);
+        if (dropPercent.compareTo(abnormalDropThresholdPercent) < 0) {
+            return;
+        }
+
+        // 門檻很少被觸及，冷卻判斷保留以資料庫最新事件為準
+        LocalDateTime cooldownCutoff = now.minusMinutes(abnormalDropCooldownMinutes);
+        PortfolioAlertEvent latestAbnormal = portfolioAlertEventRepository
+            .findTopByPortfolioIdAndTriggerTypeOrderByTriggeredAtDesc(portfolioId, AlertTriggerTypeCode.ABNORMAL_DROP)
+            .orElse(null);
+        if (latestAbnormal != null && latestAbnormal.getTriggeredAt() != null
+            && !latestAbnormal.getTriggeredAt().isBefore(cooldownCutoff)) {
+            return;
+        }
+
+        String message = String.format(
+            "觸發短時異常下跌警示：最近 %d 分鐘下跌 %.2f%%，超過門檻 %.2f%%。",
+            abnormalDropWindowMinutes,
+            dropPercent,
+            abnormalDropThresholdPercent
+        );
+        events.add(buildEvent(target, AlertTriggerTypeCode.ABNORMAL_DROP, dropPercent, message, now));
+    }
+
+    private void refreshAbnormalDropSamples(List<AlertTarget> targets, PriceChange change, LocalDateTime now) {
+        BigDecimal currentPrice = change.closePrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+        for (AlertTarget target : targets) {
+            abnormalDropSamples.computeIfPresent(target.portfolioId(), (portfolioId, sample) ->
+                sample.tradeDate().equals(change.tradeDate()) && sample.price().compareTo(currentPrice) == 0
+                    ? new PriceSample(sample.price(), now, sample.tradeDate())
+                    : sample
+            );
+        }
+    }
+
+    /**
+     * 警示事件寫入失敗或交易提交失敗時，記憶體去重狀態已不可信，下次評估重新由資料庫載入。
+     */
+    private void resetDedupeOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    dedupeDate = null;
+                    lastEvaluatedByStock.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return true 代表當日尚未觸發過，並已標記為已觸發
+     */
+    private boolean markTriggeredToday(Long portfolioId, AlertTriggerTypeCode triggerType) {
+        return markTriggered(triggeredToday, portfolioId, triggerType);
+    }
+
+    private static boolean markTriggered(Map<Long, Set<AlertTriggerTypeCode>> triggered,
+                                         Long portfolioId,
+                                         AlertTriggerTypeCode triggerType) {
+        return triggered.computeIfAbsent(portfolioId, key -> ConcurrentHashMap.newKeySet()).add(triggerType);
+    }
+
+    private void rollDedupeDay(LocalDate today) {
+        if (today.equals(dedupeDate)) {
+            return;
+        }
+        synchronized (dedupeLock) {
+            if (today.equals(dedupeDate)) {
+                return;
+            }
+            Map<Long, Set<AlertTriggerTypeCode>> reloaded = new ConcurrentHashMap<>();
+            LocalDateTime dayStart = today.atStartOfDay();
+            for (PortfolioAlertEventRepository.TriggeredAlertView view
+                : portfolioAlertEventRepository.findTriggeredBetween(dayStart, dayStart.plusDays(1))) {
+                markTriggered(reloaded, view.getPortfolioId(), view.getTriggerType());
+            }
+            triggeredToday = reloaded;
+            dedupeDate = today;
+        }
+    }
+
+    private SettingIndex currentIndex() {
+        SettingIndex index = settingIndex;
+        if (index != null && System.currentTimeMillis() - index.loadedAtMillis() < settingIndexTtlMs) {
+            return index;
+        }
+
+        Map<Long, List<AlertTarget>> byStockId = new HashMap<>();
+        for (PortfolioAlertSetting setting : portfolioAlertSettingRepository.findAllEnabledForPolling()) {
+            AlertTarget target = new AlertTarget(
+                setting.getPortfolio().getId(),
+                setting.getPortfolio().getUserId(),
+                setting.getPortfolio().getStock().getId(),
+                setting.getStopLossPrice(),
+                setting.getAlertDropPercent()
+            );
+            byStockId.computeIfAbsent(target.stockId(), key -> new ArrayList<>()).add(target);
+        }
+        // 索引重建後新加入的設定需要至少評估一次，因此清掉「已評估」狀態
+        lastEvaluatedByStock.clear();
+        index = new SettingIndex(byStockId, System.currentTimeMillis());
+        settingIndex = index;
+        return index;
+    }
+
+    private boolean matchesUser(AlertTarget target, Set<String> userIds) {
+        return userIds == null || userIds.contains(target.userId());
+    }
+
+    private PortfolioAlertEvent buildEvent(AlertTarget target,
+                                           AlertTriggerTypeCode triggerType,
+                                           BigDecimal triggerValue,
+                                           String message,
+                                           LocalDateTime triggeredAt) {
+        PortfolioAlertEvent event = new PortfolioAlertEvent();
+        event.setPortfolio(portfolioRepository.getReferenceById(target.portfolioId()));
+        event.setTriggerType(triggerType);
+        event.setTriggerValue(triggerValue);
+        event.setMessage(message);
+        event.setTriggeredAt(triggeredAt);
+        return event;
+    }
+
+    public record EvaluationResult(
+        int userCount,
+        int stockCount,
+        int portfolioCount,
+        int eventCount
+    ) {}
+
+    private record AlertTarget(
+        Long portfolioId,
+        String userId,
+        Long stockId,
+        BigDecimal stopLossPrice,
+        BigDecimal alertDropPercent
+    ) {}
+
+    private record SettingIndex(Map<Long, List<AlertTarget>> byStockId, long loadedAtMillis) {}
+
+    private record PriceSample(BigDecimal price, LocalDateTime sampledAt, LocalDate tradeDate) {}
+}
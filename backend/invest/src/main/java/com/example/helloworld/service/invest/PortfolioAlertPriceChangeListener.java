@@ -0,0 +1,58 @@
+package com.example.helloworld.service.invest;
+
+import com.example.helloworld.service.invest.price.StockPriceChangedEvent;
+import com.example.helloworld.service.invest.systemscheduler.SystemJobCode;
+import com.example.helloworld.service.invest.systemscheduler.SystemSchedulerRuntimeGateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 行情寫入提交後立即評估受影響持股的警示；排程輪詢保留作為對帳。
+ * 評估在引擎自己的新交易中執行，失敗只記錄 log，不影響已提交的行情更新。
+ */
+@Component
+public class PortfolioAlertPriceChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioAlertPriceChangeListener.class);
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Asia/Taipei");
+
+    private final PortfolioAlertEngine portfolioAlertEngine;
+    private final SystemSchedulerRuntimeGateService schedulerRuntimeGateService;
+
+    @Value("${invest.alert.event-driven.enabled:true}")
+    private boolean eventDrivenEnabled;
+
+    public PortfolioAlertPriceChangeListener(PortfolioAlertEngine portfolioAlertEngine,
+                                             SystemSchedulerRuntimeGateService schedulerRuntimeGateService) {
+        this.portfolioAlertEngine = portfolioAlertEngine;
+        this.schedulerRuntimeGateService = schedulerRuntimeGateService;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockPriceChanged(StockPriceChangedEvent event) {
+        if (!eventDrivenEnabled || event.changes().isEmpty()) {
+            return;
+        }
+        if (!schedulerRuntimeGateService.isEnabled(SystemJobCode.PORTFOLIO_ALERT_POLLING)) {
+            return;
+        }
+        try {
+            PortfolioAlertEngine.EvaluationResult result = portfolioAlertEngine.evaluate(
+                event.changes(), null, false, LocalDateTime.now(DEFAULT_ZONE)
+            );
+            if (result.eventCount() > 0) {
+                log.info("行情更新觸發警示評估：股票 {} 檔，持股 {} 檔，新增事件 {} 筆",
+                    result.stockCount(), result.portfolioCount(), result.eventCount());
+            }
+        } catch (Exception e) {
+            log.warn("行情更新後警示評估失敗，留待排程輪詢補評估：{}", e.getMessage());
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.example.helloworld.entity.invest.PortfolioAlertSetting;
 import com.example.helloworld.repository.invest.PortfolioAlertSettingRepository;
 import com.example.helloworld.repository.invest.PortfolioRepository;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,13 +24,16 @@ public class PortfolioAlertSettingService {
     private final PortfolioAlertSettingRepository portfolioAlertSettingRepository;
     private final PortfolioRepository portfolioRepository;
     private final InvestCurrentUserService investCurrentUserService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PortfolioAlertSettingService(PortfolioAlertSettingRepository portfolioAlertSettingRepository,
                                         PortfolioRepository portfolioRepository,
-                                        InvestCurrentUserService investCurrentUserService) {
+                                        InvestCurrentUserService investCurrentUserService,
+                                        ApplicationEventPublisher eventPublisher) {
         this.portfolioAlertSettingRepository = portfolioAlertSettingRepository;
         this.portfolioRepository = portfolioRepository;
         this.investCurrentUserService = investCurrentUserService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -60,7 +64,9 @@ public class PortfolioAlertSettingService {
         setting.setAlertDropPercent(scalePercent(request.getAlertDropPercent()));
         setting.setEnabled(Boolean.TRUE.equals(request.getEnabled()));
 
-        return toDto(portfolioAlertSettingRepository.save(setting));
+        PortfolioAlertSettingDto saved = toDto(portfolioAlertSettingRepository.save(setting));
+        eventPublisher.publishEvent(new PortfolioAlertSettingsChangedEvent());
+        return saved;
     }
 
     private Portfolio getOwnedPortfolio(Long portfolioId) {
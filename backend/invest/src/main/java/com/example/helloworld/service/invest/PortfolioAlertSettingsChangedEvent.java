@@ -0,0 +1,7 @@
+package com.example.helloworld.service.invest;
+
+/**
+ * 警示設定或持股狀態異動後發布；{@link PortfolioAlertEngine} 於交易提交後重建設定索引。
+ */
+public record PortfolioAlertSettingsChangedEvent() {
+}
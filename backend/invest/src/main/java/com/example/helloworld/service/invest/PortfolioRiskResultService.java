@@ -6,6 +6,9 @@ import com.example.helloworld.dto.invest.PortfolioRiskResultPagedDto;
 import com.example.helloworld.entity.invest.*;
 import com.example.helloworld.repository.invest.*;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
+import com.example.helloworld.service.invest.price.PriceHistoryCache;
+import com.example.helloworld.service.invest.price.PriceIndicators;
+import com.example.helloworld.service.invest.price.PriceSeries;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -126,26 +129,45 @@ public class PortfolioRiskResultService {
     }
 
     public PortfolioRiskResultDetailDto recalculateForBatch(Long portfolioId, LocalDate tradeDate) {
+        return recalculateForBatch(portfolioId, tradeDate, null);
+    }
+
+    /**
+     * 批次用：historyCache 內已預載該持股最新行情時，直接取用快取，不再逐筆查詢。
+     */
+    public PortfolioRiskResultDetailDto recalculateForBatch(Long portfolioId, LocalDate tradeDate, PriceHistoryCache historyCache) {
         Portfolio portfolio = portfolioRepository.findById(portfolioId)
             .orElseThrow(() -> new RuntimeException("找不到持股資料，id=" + portfolioId));
-        return recalculateForPortfolio(portfolio, tradeDate);
+        return recalculateForPortfolio(portfolio, tradeDate, historyCache);
     }
 
     private PortfolioRiskResultDetailDto recalculateForPortfolio(Portfolio portfolio, LocalDate tradeDate) {
+        return recalculateForPortfolio(portfolio, tradeDate, null);
+    }
+
+    private PortfolioRiskResultDetailDto recalculateForPortfolio(Portfolio portfolio,
+                                                                 LocalDate tradeDate,
+                                                                 PriceHistoryCache historyCache) {
         if (tradeDate == null) {
             throw new RuntimeException("tradeDate 不可為空");
         }
 
         Long stockId = portfolio.getStock().getId();
-        StockPriceDaily latest = stockPriceDailyRepository.findByStockIdAndTradeDate(stockId, tradeDate)
-            .orElseThrow(() -> new RuntimeException("找不到指定交易日行情資料，stockId=" + stockId + ", tradeDate=" + tradeDate));
+        List<StockPriceDaily> history = loadHistory(stockId, tradeDate, historyCache);
+        StockPriceDaily latest;
+        if (!history.isEmpty() && tradeDate.equals(history.get(0).getTradeDate())) {
+            latest = history.get(0);
+        } else {
+            latest = stockPriceDailyRepository.findByStockIdAndTradeDate(stockId, tradeDate)
+                .orElseThrow(() -> new RuntimeException("找不到指定交易日行情資料，stockId=" + stockId + ", tradeDate=" + tradeDate));
+        }
 
-        List<StockPriceDaily> history = stockPriceDailyRepository
-            .findTop30ByStockIdAndTradeDateLessThanEqualOrderByTradeDateDesc(stockId, tradeDate);
         if (history.isEmpty()) {
             throw new RuntimeException("該持股尚無每日行情資料，無法進行風險分析");
         }
 
+        PriceIndicators indicators = PriceIndicators.compute(PriceSeries.fromHistoryDesc(history));
+
         Map<String, RiskRule> ruleConfigMap = riskRuleRepository.findAllByOrderByIdAsc().stream()
             .collect(Collectors.toMap(RiskRule::getRuleCode, r -> r, (a, b) -> a, LinkedHashMap::new));
 
@@ -156,7 +178,7 @@ public class PortfolioRiskResultService {
                 continue;
             }
 
-            RuleEvaluation evaluation = evaluateRule(ruleCode, portfolio, latest, history);
+            RuleEvaluation evaluation = evaluateRule(ruleCode, portfolio, latest, indicators);
             if (evaluation == null || evaluation.baseImpact() <= 0) {
                 continue;
             }
@@ -205,16 +227,29 @@ public class PortfolioRiskResultService {
         return toDetailDto(savedResult, savedReasons);
     }
 
+    /**
+     * 快取的最新一筆即為 tradeDate 時可直接使用（視窗內皆 <= tradeDate），否則回到逐筆查詢。
+     */
+    private List<StockPriceDaily> loadHistory(Long stockId, LocalDate tradeDate, PriceHistoryCache historyCache) {
+        if (historyCache != null) {
+            List<StockPriceDaily> cached = historyCache.history(stockId);
+            if (!cached.isEmpty() && tradeDate.equals(cached.get(0).getTradeDate())) {
+                return cached;
+            }
+        }
+        return stockPriceDailyRepository.findTop30ByStockIdAndTradeDateLessThanEqualOrderByTradeDateDesc(stockId, tradeDate);
+    }
+
     private RuleEvaluation evaluateRule(String ruleCode,
                                         Portfolio portfolio,
                                         StockPriceDaily latest,
-                                        List<StockPriceDaily> historyDesc) {
+                                        PriceIndicators indicators) {
         return switch (ruleCode) {
             case RULE_BREAK_COST -> evaluateBreakCost(portfolio, latest);
-            case RULE_CONSECUTIVE_DOWN -> evaluateConsecutiveDown(historyDesc);
-            case RULE_BELOW_MA5 -> evaluateBelowMa5(historyDesc);
-            case RULE_HIGH_VOLUME_DROP -> evaluateHighVolumeDrop(historyDesc);
-            case RULE_LARGE_INTRADAY_SWING -> evaluateLargeIntradaySwing(latest);
+            case RULE_CONSECUTIVE_DOWN -> evaluateConsecutiveDown(indicators);
+            case RULE_BELOW_MA5 -> evaluateBelowMa5(latest, indicators);
+            case RULE_HIGH_VOLUME_DROP -> evaluateHighVolumeDrop(latest, indicators);
+            case RULE_LARGE_INTRADAY_SWING -> evaluateLargeIntradaySwing(indicators);
             default -> null;
         };
     }
@@ -242,21 +277,15 @@ public class PortfolioRiskResultService {
         return new RuleEvaluation("跌破持股成本", detail, baseScore);
     }
 
-    private RuleEvaluation evaluateConsecutiveDown(List<StockPriceDaily> historyDesc) {
-        if (historyDesc.size() < 3) {
-            return null;
-        }
-
-        boolean down3 = isStrictlyLower(historyDesc.get(0).getClosePrice(), historyDesc.get(1).getClosePrice())
-            && isStrictlyLower(historyDesc.get(1).getClosePrice(), historyDesc.get(2).getClosePrice());
-        if (!down3) {
+    private RuleEvaluation evaluateConsecutiveDown(PriceIndicators indicators) {
+        int downDays = indicators.consecutiveDownDays();
+        if (downDays < 2) {
             return null;
         }
 
         int baseScore = 15;
         String dayText = "最近 3 個交易日收盤連續走低";
-        if (historyDesc.size() >= 4
-            && isStrictlyLower(historyDesc.get(2).getClosePrice(), historyDesc.get(3).getClosePrice())) {
+        if (downDays >= 3) {
             baseScore = 20;
             dayText = "最近 4 個交易日收盤連續走低";
         }
@@ -265,17 +294,14 @@ public class PortfolioRiskResultService {
         return new RuleEvaluation("短期連續下跌", detail, baseScore);
     }
 
-    private RuleEvaluation evaluateBelowMa5(List<StockPriceDaily> historyDesc) {
-        if (historyDesc.size() < 5) {
+    private RuleEvaluation evaluateBelowMa5(StockPriceDaily latest, PriceIndicators indicators) {
+        if (latest.getClosePrice() == null || Double.isNaN(indicators.ma5()) || indicators.ma5() <= 0) {
             return null;
         }
 
-        BigDecimal latestClose = historyDesc.get(0).getClosePrice();
-        BigDecimal ma5 = historyDesc.subList(0, 5).stream()
-            .map(StockPriceDaily::getClosePrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(5), 6, RoundingMode.HALF_UP);
-
+        // ma5 已是 6 位小數，可精確還原；偏離比例先取 6 位再取 2 位，與原規則一致
+        BigDecimal latestClose = latest.getClosePrice();
+        BigDecimal ma5 = BigDecimal.valueOf(indicators.ma5());
         if (latestClose.compareTo(ma5) >= 0) {
             return null;
         }
@@ -284,7 +310,6 @@ public class PortfolioRiskResultService {
             .divide(ma5, 6, RoundingMode.HALF_UP)
             .multiply(BigDecimal.valueOf(100))
             .setScale(2, RoundingMode.HALF_UP);
-
         if (deviationPercent.compareTo(BigDecimal.valueOf(2)) < 0) {
             return null;
         }
@@ -297,52 +322,40 @@ public class PortfolioRiskResultService {
         return new RuleEvaluation("跌破短期均線", detail, baseScore);
     }
 
-    private RuleEvaluation evaluateHighVolumeDrop(List<StockPriceDaily> historyDesc) {
-        if (historyDesc.size() < 6) {
-            return null;
-        }
-
-        StockPriceDaily latest = historyDesc.get(0);
-        BigDecimal dropPercent = resolveLatestDropPercent(historyDesc);
-        if (dropPercent == null || dropPercent.compareTo(BigDecimal.valueOf(-3)) > 0) {
+    private RuleEvaluation evaluateHighVolumeDrop(StockPriceDaily latest, PriceIndicators indicators) {
+        double avgPrev5Volume = indicators.avgPrev5Volume();
+        if (Double.isNaN(avgPrev5Volume) || Double.isNaN(indicators.latestChangePercent())) {
             return null;
         }
 
-        BigDecimal avgPrev5Volume = historyDesc.subList(1, 6).stream()
-            .map(StockPriceDaily::getVolume)
-            .map(BigDecimal::valueOf)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(5), 6, RoundingMode.HALF_UP);
-
-        if (avgPrev5Volume.compareTo(BigDecimal.ZERO) <= 0) {
+        // 與原規則相同：以未四捨五入的漲跌幅比較門檻，只在顯示時取 2 位
+        double changePercent = indicators.latestChangePercent();
+        if (changePercent > -3 || avgPrev5Volume <= 0) {
             return null;
         }
 
-        BigDecimal volumeRatio = BigDecimal.valueOf(latest.getVolume())
-            .divide(avgPrev5Volume, 4, RoundingMode.HALF_UP);
-
+        // 與原規則相同：前 5 日均量取 6 位、量比取 4 位後比較門檻
+        long latestVolume = latest.getVolume() == null ? 0L : latest.getVolume();
+        BigDecimal volumeRatio = BigDecimal.valueOf(latestVolume)
+            .divide(BigDecimal.valueOf(avgPrev5Volume), 4, RoundingMode.HALF_UP);
         if (volumeRatio.compareTo(BigDecimal.valueOf(1.8)) < 0) {
             return null;
         }
 
         String detail = String.format(
             "當日跌幅 %s%%，成交量為近 5 日均量的 %s 倍。白話：放量下跌通常代表短線風險升高。新手提醒：避免追價或急著攤平。",
-            dropPercent.setScale(2, RoundingMode.HALF_UP),
+            round2(changePercent),
             volumeRatio.setScale(2, RoundingMode.HALF_UP)
         );
         return new RuleEvaluation("爆量下跌", detail, 25);
     }
 
-    private RuleEvaluation evaluateLargeIntradaySwing(StockPriceDaily latest) {
-        if (latest.getClosePrice() == null || latest.getClosePrice().compareTo(BigDecimal.ZERO) <= 0) {
+    private RuleEvaluation evaluateLargeIntradaySwing(PriceIndicators indicators) {
+        if (Double.isNaN(indicators.intradaySwingPercent())) {
             return null;
         }
 
-        BigDecimal swingPercent = latest.getHighPrice().subtract(latest.getLowPrice())
-            .divide(latest.getClosePrice(), 6, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100))
-            .setScale(2, RoundingMode.HALF_UP);
-
+        BigDecimal swingPercent = round2(indicators.intradaySwingPercent());
         if (swingPercent.compareTo(BigDecimal.valueOf(7)) < 0) {
             return null;
         }
@@ -513,29 +526,11 @@ public class PortfolioRiskResultService {
         }
     }
 
-    private BigDecimal resolveLatestDropPercent(List<StockPriceDaily> historyDesc) {
-        StockPriceDaily latest = historyDesc.get(0);
-        if (latest.getChangePercent() != null) {
-            return latest.getChangePercent();
-        }
-
-        if (historyDesc.size() < 2) {
-            return null;
-        }
-
-        BigDecimal prevClose = historyDesc.get(1).getClosePrice();
-        if (prevClose == null || prevClose.compareTo(BigDecimal.ZERO) <= 0) {
-            return null;
-        }
-
-        return latest.getClosePrice().subtract(prevClose)
-            .divide(prevClose, 6, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100))
-            .setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private boolean isStrictlyLower(BigDecimal left, BigDecimal right) {
-        return left != null && right != null && left.compareTo(right) < 0;
+    /**
+     * 取到小數 2 位；振幅（指標已先取 6 位比值）的原規則即是再取 2 位後比較門檻，漲跌幅只用於顯示。
+     */
+    private BigDecimal round2(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
     }
 
     private String normalize(String value) {
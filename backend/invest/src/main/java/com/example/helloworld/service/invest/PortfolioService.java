@@ -15,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,6 +40,7 @@ public class PortfolioService {
     private final PortfolioRiskResultRepository portfolioRiskResultRepository;
     private final InvestCurrentUserService investCurrentUserService;
     private final InvestFxConversionService investFxConversionService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PortfolioService(PortfolioRepository portfolioRepository,
                             StockRepository stockRepository,
@@ -46,7 +48,8 @@ public class PortfolioService {
                             StockPriceDailyService stockPriceDailyService,
                             PortfolioRiskResultRepository portfolioRiskResultRepository,
                             InvestCurrentUserService investCurrentUserService,
-                            InvestFxConversionService investFxConversionService) {
+                            InvestFxConversionService investFxConversionService,
+                            ApplicationEventPublisher eventPublisher) {
         this.portfolioRepository = portfolioRepository;
         this.stockRepository = stockRepository;
         this.stockPriceDailyRepository = stockPriceDailyRepository;
@@ -54,6 +57,7 @@ public class PortfolioService {
         this.portfolioRiskResultRepository = portfolioRiskResultRepository;
         this.investCurrentUserService = investCurrentUserService;
         this.investFxConversionService = investFxConversionService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -133,7 +137,10 @@ public class PortfolioService {
             entity.setIsActive(request.getIsActive());
         }
 
-        return toResponse(portfolioRepository.save(entity), new HashMap<>(), Map.of(), false);
+        Portfolio saved = portfolioRepository.save(entity);
+        // 股票或啟用狀態可能變動，警示索引需重建
+        eventPublisher.publishEvent(new PortfolioAlertSettingsChangedEvent());
+        return toResponse(saved, new HashMap<>(), Map.of(), false);
     }
 
     public void delete(Long id) {
@@ -142,6 +149,7 @@ public class PortfolioService {
             .orElseThrow(() -> new RuntimeException("找不到持股資料或無權限，id=" + id));
         entity.setIsActive(false);
         portfolioRepository.save(entity);
+        eventPublisher.publishEvent(new PortfolioAlertSettingsChangedEvent());
     }
 
     private void validateRequest(PortfolioUpsertRequestDto request) {
@@ -4,7 +4,7 @@ import com.example.helloworld.dto.invest.RunPriceBackfillResponseDto;
 import com.example.helloworld.entity.invest.*;
 import com.example.helloworld.repository.invest.*;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
-import com.example.helloworld.service.invest.price.MarketPriceProvider;
+import com.example.helloworld.service.invest.price.PriceFetchPipeline;
 import com.example.helloworld.service.invest.price.PriceQuoteSnapshot;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,7 +34,7 @@ public class PriceBackfillService {
     private final PriceUpdateJobLogRepository priceUpdateJobLogRepository;
     private final PriceUpdateJobDetailRepository priceUpdateJobDetailRepository;
     private final InvestCurrentUserService investCurrentUserService;
-    private final List<MarketPriceProvider> marketPriceProviders;
+    private final PriceFetchPipeline priceFetchPipeline;
 
     public PriceBackfillService(PortfolioRepository portfolioRepository,
                                 WatchlistService watchlistService,
@@ -43,7 +43,7 @@ public class PriceBackfillService {
                                 PriceUpdateJobLogRepository priceUpdateJobLogRepository,
                                 PriceUpdateJobDetailRepository priceUpdateJobDetailRepository,
                                 InvestCurrentUserService investCurrentUserService,
-                                List<MarketPriceProvider> marketPriceProviders) {
+                                PriceFetchPipeline priceFetchPipeline) {
         this.portfolioRepository = portfolioRepository;
         this.watchlistService = watchlistService;
         this.watchlistItemRepository = watchlistItemRepository;
@@ -51,7 +51,7 @@ public class PriceBackfillService {
         this.priceUpdateJobLogRepository = priceUpdateJobLogRepository;
         this.priceUpdateJobDetailRepository = priceUpdateJobDetailRepository;
         this.investCurrentUserService = investCurrentUserService;
-        this.marketPriceProviders = marketPriceProviders;
+        this.priceFetchPipeline = priceFetchPipeline;
     }
 
     public RunPriceBackfillResponseDto runForCurrentUser(Integer days, String scopeValue) {
@@ -75,9 +75,7 @@ public class PriceBackfillService {
         jobLog.setMessage("歷史行情回補執行中");
         jobLog = priceUpdateJobLogRepository.save(jobLog);
 
-        int successCount = 0;
-        int failCount = 0;
-        int upsertedRowCount = 0;
+        BackfillCounters counters = new BackfillCounters();
 
         try {
             Map<Long, Stock> targetStocks = resolveTargetStocks(userUid, scope);
@@ -88,66 +86,75 @@ public class PriceBackfillService {
                 jobLog.setMessage("目前沒有可回補的股票");
                 jobLog.setFinishedAt(LocalDateTime.now(TAIPEI_ZONE));
                 jobLog = priceUpdateJobLogRepository.save(jobLog);
-                return toResponse(jobLog, scope, safeDays, upsertedRowCount);
+                return toResponse(jobLog, scope, safeDays, counters.upsertedRowCount);
             }
 
-            for (Stock stock : targetStocks.values()) {
-                PriceUpdateJobDetail detail = new PriceUpdateJobDetail();
-                detail.setJobLog(jobLog);
-                detail.setStock(stock);
-                detail.setTicker(stock.getTicker());
-
-                try {
-                    Optional<MarketPriceProvider> provider = resolveProvider(stock.getMarket());
-                    if (provider.isEmpty()) {
-                        throw new RuntimeException("不支援的 market: " + stock.getMarket());
-                    }
-
-                    List<PriceQuoteSnapshot> historyRows = deduplicateAndLimit(
-                        provider.get().fetchHistoricalQuotes(stock, safeDays),
-                        safeDays
-                    );
-                    if (historyRows.isEmpty()) {
-                        throw new RuntimeException("查無歷史行情資料");
-                    }
-
-                    int affectedRows = upsertHistoryRows(stock, historyRows, batchId);
-                    upsertedRowCount += affectedRows;
-
-                    detail.setStatus(PriceUpdateDetailStatusCode.SUCCESS);
-                    detail.setTradeDate(historyRows.get(0).getTradeDate());
-                    detail.setFetchedAt(LocalDateTime.now(TAIPEI_ZONE));
-                    detail.setReason(buildSuccessReason(historyRows, affectedRows));
-                    successCount += 1;
-                } catch (Exception ex) {
-                    detail.setStatus(PriceUpdateDetailStatusCode.FAILED);
-                    detail.setTradeDate(null);
-                    detail.setFetchedAt(LocalDateTime.now(TAIPEI_ZONE));
-                    detail.setReason("回補失敗：" + truncate(ex.getMessage(), 420));
-                    failCount += 1;
-                }
-
-                priceUpdateJobDetailRepository.save(detail);
-            }
-
-            jobLog.setSuccessCount(successCount);
-            jobLog.setFailCount(failCount);
-            jobLog.setStatus(resolveFinalStatus(successCount, failCount));
-            jobLog.setMessage(buildFinalMessage(scope, safeDays, targetStocks.size(), successCount, failCount, upsertedRowCount));
+            PriceUpdateJobLog runningJobLog = jobLog;
+            // 抓取階段並行（限流 + 重試），寫入階段在目前執行緒依完成順序逐檔 upsert。
+            priceFetchPipeline.fetchAll(
+                new ArrayList<>(targetStocks.values()),
+                (provider, stock) -> {
+                    List<PriceQuoteSnapshot> rows = deduplicateAndLimit(provider.fetchHistoricalQuotes(stock, safeDays), safeDays);
+                    return rows.isEmpty() ? Optional.empty() : Optional.of(rows);
+                },
+                "查無歷史行情資料",
+                outcome -> writeBackfillOutcome(runningJobLog, outcome, batchId, counters)
+            );
+            recordUpsertThroughput(jobLog, counters);
+            jobLog.setSuccessCount(counters.successCount);
+            jobLog.setFailCount(counters.failCount);
+            jobLog.setStatus(resolveFinalStatus(counters.successCount, counters.failCount));
+            jobLog.setMessage(buildFinalMessage(scope, safeDays, targetStocks.size(), counters.successCount, counters.failCount, counters.upsertedRowCount));
             jobLog.setFinishedAt(LocalDateTime.now(TAIPEI_ZONE));
             jobLog = priceUpdateJobLogRepository.save(jobLog);
-            return toResponse(jobLog, scope, safeDays, upsertedRowCount);
+            return toResponse(jobLog, scope, safeDays, counters.upsertedRowCount);
         } catch (Exception e) {
-            jobLog.setSuccessCount(successCount);
-            jobLog.setFailCount(failCount);
+            jobLog.setSuccessCount(counters.successCount);
+            jobLog.setFailCount(counters.failCount);
             jobLog.setStatus(PriceUpdateJobStatusCode.FAILED);
             jobLog.setMessage("執行失敗：" + truncate(e.getMessage(), 900));
             jobLog.setFinishedAt(LocalDateTime.now(TAIPEI_ZONE));
             jobLog = priceUpdateJobLogRepository.save(jobLog);
-            return toResponse(jobLog, scope, safeDays, upsertedRowCount);
+            return toResponse(jobLog, scope, safeDays, counters.upsertedRowCount);
         }
     }
 
+    private void writeBackfillOutcome(PriceUpdateJobLog jobLog,
+                                      PriceFetchPipeline.FetchOutcome<List<PriceQuoteSnapshot>> outcome,
+                                      String batchId,
+                                      BackfillCounters counters) {
+        Stock stock = outcome.stock();
+        PriceUpdateJobDetail detail = new PriceUpdateJobDetail();
+        detail.setJobLog(jobLog);
+        detail.setStock(stock);
+        detail.setTicker(stock.getTicker());
+
+        try {
+            if (!outcome.success()) {
+                throw new RuntimeException(String.join("；", outcome.errors()));
+            }
+            List<PriceQuoteSnapshot> historyRows = outcome.value();
+            long upsertStartedAt = System.nanoTime();
+            int affectedRows = upsertHistoryRows(stock, historyRows, batchId);
+            counters.upsertElapsedNanos += System.nanoTime() - upsertStartedAt;
+            counters.upsertedRowCount += affectedRows;
+
+            detail.setStatus(PriceUpdateDetailStatusCode.SUCCESS);
+            detail.setTradeDate(historyRows.get(0).getTradeDate());
+            detail.setFetchedAt(LocalDateTime.now(TAIPEI_ZONE));
+            detail.setReason(buildSuccessReason(historyRows, affectedRows));
+            counters.successCount += 1;
+        } catch (Exception ex) {
+            detail.setStatus(PriceUpdateDetailStatusCode.FAILED);
+            detail.setTradeDate(null);
+            detail.setFetchedAt(LocalDateTime.now(TAIPEI_ZONE));
+            detail.setReason("回補失敗：" + truncate(ex.getMessage(), 420));
+            counters.failCount += 1;
+        }
+
+        priceUpdateJobDetailRepository.save(detail);
+    }
+
     private Map<Long, Stock> resolveTargetStocks(String userUid, MarketAnalysisScopeCode scope) {
         Map<Long, Stock> targetStocks = new LinkedHashMap<>();
         List<Portfolio> portfolios = portfolioRepository.findByUserIdAndIsActiveTrue(userUid);
@@ -175,15 +182,6 @@ public class PriceBackfillService {
         map.putIfAbsent(stock.getId(), stock);
     }
 
-    private Optional<MarketPriceProvider> resolveProvider(String market) {
-        if (market == null) {
-            return Optional.empty();
-        }
-        return marketPriceProviders.stream()
-            .filter(provider -> provider.supportsMarket(market))
-            .findFirst();
-    }
-
     private List<PriceQuoteSnapshot> deduplicateAndLimit(List<PriceQuoteSnapshot> rows, int days) {
         if (rows == null || rows.isEmpty()) {
             return List.of();
@@ -203,14 +201,13 @@ public class PriceBackfillService {
     }
 
     private int upsertHistoryRows(Stock stock, List<PriceQuoteSnapshot> rows, String batchId) {
-        int affectedRows = 0;
+        List<StockPriceDaily> pendingRows = new ArrayList<>(rows.size());
         for (PriceQuoteSnapshot quote : rows) {
             if (quote.getTradeDate() == null || quote.getClosePrice() == null) {
                 continue;
             }
 
-            StockPriceDaily entity = stockPriceDailyRepository.findByStockIdAndTradeDate(stock.getId(), quote.getTradeDate())
-                .orElseGet(StockPriceDaily::new);
+            StockPriceDaily entity = new StockPriceDaily();
 
             BigDecimal closePrice = scalePrice(quote.getClosePrice());
             BigDecimal openPrice = scalePrice(orDefault(quote.getOpenPrice(), closePrice));
@@ -232,10 +229,19 @@ public class PriceBackfillService {
             entity.setUpdateBatchId(batchId);
             entity.setDataQuality(resolveHistoryDataQuality(quote));
 
-            stockPriceDailyRepository.save(entity);
-            affectedRows += 1;
+            pendingRows.add(entity);
         }
-        return affectedRows;
+        return stockPriceDailyRepository.bulkUpsert(pendingRows);
+    }
+
+    private void recordUpsertThroughput(PriceUpdateJobLog jobLog, BackfillCounters counters) {
+        jobLog.setUpsertedRowCount(counters.upsertedRowCount);
+        if (counters.upsertedRowCount <= 0 || counters.upsertElapsedNanos <= 0) {
+            jobLog.setUpsertRowsPerSec(null);
+            return;
+        }
+        jobLog.setUpsertRowsPerSec(BigDecimal.valueOf(counters.upsertedRowCount * 1_000_000_000d / counters.upsertElapsedNanos)
+            .setScale(2, RoundingMode.HALF_UP));
     }
 
     private int normalizeDays(Integer days) {
@@ -342,4 +348,11 @@ public class PriceBackfillService {
         }
         return value.substring(0, Math.max(0, maxLength - 3)) + "...";
     }
+
+    private static final class BackfillCounters {
+        private int successCount;
+        private int failCount;
+        private int upsertedRowCount;
+        private long upsertElapsedNanos;
+    }
 }
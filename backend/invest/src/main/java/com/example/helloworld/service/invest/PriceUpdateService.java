@@ -8,8 +8,11 @@ import com.example.helloworld.repository.invest.PriceUpdateJobLogRepository;
 import com.example.helloworld.repository.invest.StockPriceDailyRepository;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
 import com.example.helloworld.service.invest.price.MarketPriceProvider;
+import com.example.helloworld.service.invest.price.PriceFetchPipeline;
 import com.example.helloworld.service.invest.price.PriceQuoteSnapshot;
+import com.example.helloworld.service.invest.price.StockPriceChangedEvent;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,13 +40,8 @@ public class PriceUpdateService {
     private final PriceUpdateJobLogRepository priceUpdateJobLogRepository;
     private final PriceUpdateJobDetailRepository priceUpdateJobDetailRepository;
     private final InvestCurrentUserService investCurrentUserService;
-    private final List<MarketPriceProvider> marketPriceProviders;
-
-    @Value("${invest.price-update.retry.max-attempts:2}")
-    private int maxRetryAttempts;
-
-    @Value("${invest.price-update.retry.delay-ms:300}")
-    private long retryDelayMs;
+    private final PriceFetchPipeline priceFetchPipeline;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${invest.price-update.data-quality.stale-calendar-days:3}")
     private long staleCalendarDays;
@@ -53,13 +51,15 @@ public class PriceUpdateService {
                               PriceUpdateJobLogRepository priceUpdateJobLogRepository,
                               PriceUpdateJobDetailRepository priceUpdateJobDetailRepository,
                               InvestCurrentUserService investCurrentUserService,
-                              List<MarketPriceProvider> marketPriceProviders) {
+                              PriceFetchPipeline priceFetchPipeline,
+                              ApplicationEventPublisher eventPublisher) {
         this.portfolioRepository = portfolioRepository;
         this.stockPriceDailyRepository = stockPriceDailyRepository;
         this.priceUpdateJobLogRepository = priceUpdateJobLogRepository;
         this.priceUpdateJobDetailRepository = priceUpdateJobDetailRepository;
         this.investCurrentUserService = investCurrentUserService;
-        this.marketPriceProviders = marketPriceProviders;
+        this.priceFetchPipeline = priceFetchPipeline;
+        this.eventPublisher = eventPublisher;
     }
 
     public RunPriceUpdateResponseDto runForCurrentUser() {
@@ -73,19 +73,47 @@ public class PriceUpdateService {
         return toResponse(jobLog);
     }
 
+    /**
+     * 排程模式：先以單一查詢取得所有使用者的啟用持股，跨使用者去重後每檔股票只抓取 / 寫入一次，
+     * 再把結果分送到各使用者的 job log / detail，成本與不重複股票數成正比。
+     */
     public SchedulerExecutionResult runForAllActiveUsers(Set<String> markets,
                                                          PriceUpdateRunModeCode runMode,
                                                          String triggerDescription) {
         Set<String> normalizedMarkets = normalizeMarkets(markets);
         List<String> userIds = portfolioRepository.findDistinctActiveUserIds();
+        Map<String, List<Portfolio>> portfoliosByUser = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            portfoliosByUser.put(userId, new ArrayList<>());
+        }
+        if (!userIds.isEmpty()) {
+            for (Portfolio portfolio : portfolioRepository.findActiveWithStockByUserIdIn(userIds)) {
+                portfoliosByUser.computeIfAbsent(portfolio.getUserId(), key -> new ArrayList<>()).add(portfolio);
+            }
+        }
+
+        // 先對全體使用者的不重複股票並行抓取一次，之後各使用者批次只負責寫入與明細。
+        RunContext context = new RunContext();
+        Map<Long, Stock> distinctStocks = new LinkedHashMap<>();
+        for (List<Portfolio> portfolios : portfoliosByUser.values()) {
+            distinctStocks.putAll(collectUniqueStocks(portfolios, normalizedMarkets));
+        }
+        prefetch(distinctStocks.values(), context);
 
         int jobCount = 0;
         int totalCount = 0;
         int successCount = 0;
         int failCount = 0;
 
-        for (String userId : userIds) {
-            PriceUpdateJobLog jobLog = executeForUser(userId, normalizedMarkets, runMode, triggerDescription);
+        for (Map.Entry<String, List<Portfolio>> entry : portfoliosByUser.entrySet()) {
+            PriceUpdateJobLog jobLog = executeForUser(
+                entry.getKey(),
+                entry.getValue(),
+                normalizedMarkets,
+                runMode,
+                triggerDescription,
+                context
+            );
             jobCount += 1;
             totalCount += safe(jobLog.getTotalCount());
             successCount += safe(jobLog.getSuccessCount());
@@ -95,6 +123,7 @@ public class PriceUpdateService {
         return new SchedulerExecutionResult(
             userIds.size(),
             jobCount,
+            context.outcomes().size(),
             totalCount,
             successCount,
             failCount
@@ -105,6 +134,19 @@ public class PriceUpdateService {
                                              Set<String> normalizedMarkets,
                                              PriceUpdateRunModeCode runMode,
                                              String triggerDescription) {
+        return executeForUser(userUid, null, normalizedMarkets, runMode, triggerDescription, new RunContext());
+    }
+
+    /**
+     * @param preloadedPortfolios 已預先載入的啟用持股；null 時由此方法查詢
+     * @param context             同一次執行內共用的抓取結果與已寫入股票，已存在者不再重抓 / 重寫
+     */
+    private PriceUpdateJobLog executeForUser(String userUid,
+                                             List<Portfolio> preloadedPortfolios,
+                                             Set<String> normalizedMarkets,
+                                             PriceUpdateRunModeCode runMode,
+                                             String triggerDescription,
+                                             RunContext context) {
         LocalDateTime startedAt = LocalDateTime.now(TAIPEI_ZONE);
         String batchId = "BATCH-" + UUID.randomUUID().toString().replace("-", "");
 
@@ -128,7 +170,9 @@ public class PriceUpdateService {
         int retryFailedCount = 0;
 
         try {
-            List<Portfolio> activePortfolios = portfolioRepository.findByUserIdAndIsActiveTrue(userUid);
+            List<Portfolio> activePortfolios = preloadedPortfolios != null
+                ? preloadedPortfolios
+                : portfolioRepository.findByUserIdAndIsActiveTrue(userUid);
             Map<Long, Stock> uniqueStocks = collectUniqueStocks(activePortfolios, normalizedMarkets);
             int totalCount = uniqueStocks.size();
             jobLog.setTotalCount(totalCount);
@@ -140,19 +184,28 @@ public class PriceUpdateService {
                 return priceUpdateJobLogRepository.save(jobLog);
             }
 
+            prefetch(uniqueStocks.values(), context);
+            List<StockPriceDaily> pendingRows = new ArrayList<>();
+            // 寫入成功後才併入 context，失敗時後續使用者仍會重新寫入這些股票
+            List<Long> pendingStockIds = new ArrayList<>();
+
             for (Stock stock : uniqueStocks.values()) {
                 PriceUpdateJobDetail detail = new PriceUpdateJobDetail();
                 detail.setJobLog(jobLog);
                 detail.setStock(stock);
                 detail.setTicker(stock.getTicker());
 
-                StockUpdateAttemptResult attemptResult = fetchWithRetry(stock);
+                StockUpdateAttemptResult attemptResult = context.outcomes().get(stock.getId());
+                if (attemptResult.success() && !context.persistedStockIds().contains(stock.getId())) {
+                    // 跨使用者去重：由第一個持有該股票的批次寫入，updateBatchId 對應該批次 job log。
+                    pendingRows.add(buildStockPriceDaily(stock, attemptResult.quote(), batchId));
+                    pendingStockIds.add(stock.getId());
+                }
                 if (attemptResult.attemptCount() > 1) {
                     retriedStockCount += 1;
                 }
 
                 if (attemptResult.success()) {
-                    upsertStockPriceDaily(stock, attemptResult.quote(), batchId);
                     detail.setStatus(PriceUpdateDetailStatusCode.SUCCESS);
                     detail.setTradeDate(attemptResult.quote().getTradeDate());
                     detail.setFetchedAt(attemptResult.quote().getFetchedAt());
@@ -175,6 +228,15 @@ public class PriceUpdateService {
                 priceUpdateJobDetailRepository.save(detail);
             }
 
+            long upsertStartedAt = System.nanoTime();
+            int upsertedRowCount = stockPriceDailyRepository.bulkUpsert(pendingRows);
+            context.persistedStockIds().addAll(pendingStockIds);
+            recordUpsertThroughput(jobLog, upsertedRowCount, System.nanoTime() - upsertStartedAt);
+            if (!pendingRows.isEmpty()) {
+                // 監聽端在交易提交後才評估警示，回滾時不會觸發
+                eventPublisher.publishEvent(StockPriceChangedEvent.fromRows(pendingRows));
+            }
+
             jobLog.setSuccessCount(successCount);
             jobLog.setFailCount(failCount);
             jobLog.setStatus(resolveFinalStatus(successCount, failCount));
@@ -213,50 +275,36 @@ public class PriceUpdateService {
         return uniqueStocks;
     }
 
-    private StockUpdateAttemptResult fetchWithRetry(Stock stock) {
-        int attempts = Math.max(1, maxRetryAttempts);
-        List<String> errors = new ArrayList<>();
-
-        for (int attempt = 1; attempt <= attempts; attempt++) {
-            try {
-                Optional<MarketPriceProvider> providerOptional = resolveProvider(stock.getMarket());
-                if (providerOptional.isEmpty()) {
-                    throw new RuntimeException("不支援的 market: " + stock.getMarket());
-                }
-
-                Optional<PriceQuoteSnapshot> quoteOptional = providerOptional.get().fetchLatestQuote(stock);
-                if (quoteOptional.isEmpty()) {
-                    throw new RuntimeException("查無可用行情");
-                }
-
-                String reason = buildRetrySuccessReason(errors, attempt);
-                return StockUpdateAttemptResult.success(quoteOptional.get(), attempt, reason);
-            } catch (Exception ex) {
-                errors.add("第" + attempt + "次失敗：" + truncate(ex.getMessage(), 140));
-                if (attempt < attempts && retryDelayMs > 0) {
-                    sleepQuietly(retryDelayMs);
-                }
-            }
-        }
-
-        return StockUpdateAttemptResult.failed(
-            attempts,
-            "重試 " + attempts + " 次仍失敗：" + String.join("；", errors)
+    /**
+     * 抓取階段：尚未有結果的股票交給 {@link PriceFetchPipeline} 並行抓取（含限流與重試），
+     * 結果在呼叫端執行緒寫回 context，DB 寫入仍由後續明細迴圈單一執行緒處理。
+     */
+    private void prefetch(Collection<Stock> stocks, RunContext context) {
+        List<Stock> pending = stocks.stream()
+            .filter(stock -> !context.outcomes().containsKey(stock.getId()))
+            .toList();
+        priceFetchPipeline.fetchAll(
+            pending,
+            (provider, stock) -> provider.fetchLatestQuote(stock),
+            MarketPriceProvider::isLatestQuoteCached,
+            "查無可用行情",
+            outcome -> context.outcomes().put(outcome.stock().getId(), toAttemptResult(outcome))
         );
     }
 
-    private Optional<MarketPriceProvider> resolveProvider(String market) {
-        if (market == null) {
-            return Optional.empty();
+    private StockUpdateAttemptResult toAttemptResult(PriceFetchPipeline.FetchOutcome<PriceQuoteSnapshot> outcome) {
+        if (outcome.success()) {
+            String reason = buildRetrySuccessReason(outcome.errors(), outcome.attemptCount());
+            return StockUpdateAttemptResult.success(outcome.value(), outcome.attemptCount(), reason);
         }
-        return marketPriceProviders.stream()
-            .filter(provider -> provider.supportsMarket(market))
-            .findFirst();
+        return StockUpdateAttemptResult.failed(
+            outcome.attemptCount(),
+            "重試 " + outcome.attemptCount() + " 次仍失敗：" + String.join("；", outcome.errors())
+        );
     }
 
-    private void upsertStockPriceDaily(Stock stock, PriceQuoteSnapshot quote, String batchId) {
-        StockPriceDaily entity = stockPriceDailyRepository.findByStockIdAndTradeDate(stock.getId(), quote.getTradeDate())
-            .orElseGet(StockPriceDaily::new);
+    private StockPriceDaily buildStockPriceDaily(Stock stock, PriceQuoteSnapshot quote, String batchId) {
+        StockPriceDaily entity = new StockPriceDaily();
 
         BigDecimal closePrice = scalePrice(quote.getClosePrice());
         BigDecimal openPrice = scalePrice(orDefault(quote.getOpenPrice(), closePrice));
@@ -279,8 +327,17 @@ public class PriceUpdateService {
         // updateBatchId 與 price_update_job_log.batch_id 必須同批次一致。
         entity.setUpdateBatchId(batchId);
         entity.setDataQuality(resolveDataQuality(stock, quote));
+        return entity;
+    }
 
-        stockPriceDailyRepository.save(entity);
+    private void recordUpsertThroughput(PriceUpdateJobLog jobLog, int rowCount, long elapsedNanos) {
+        jobLog.setUpsertedRowCount(rowCount);
+        if (rowCount <= 0 || elapsedNanos <= 0) {
+            jobLog.setUpsertRowsPerSec(null);
+            return;
+        }
+        jobLog.setUpsertRowsPerSec(BigDecimal.valueOf(rowCount * 1_000_000_000d / elapsedNanos)
+            .setScale(2, RoundingMode.HALF_UP));
     }
 
     private String resolveDataQuality(Stock stock, PriceQuoteSnapshot quote) {
@@ -404,14 +461,6 @@ public class PriceUpdateService {
         return value.setScale(PERCENT_SCALE, RoundingMode.HALF_UP);
     }
 
-    private void sleepQuietly(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
     private String truncate(String value, int maxLength) {
         if (value == null) {
             return null;
@@ -425,11 +474,21 @@ public class PriceUpdateService {
     public record SchedulerExecutionResult(
         int processedUserCount,
         int jobCount,
+        int distinctStockCount,
         int totalCount,
         int successCount,
         int failCount
     ) {}
 
+    private record RunContext(
+        Map<Long, StockUpdateAttemptResult> outcomes,
+        Set<Long> persistedStockIds
+    ) {
+        private RunContext() {
+            this(new HashMap<>(), new HashSet<>());
+        }
+    }
+
     private record StockUpdateAttemptResult(
         boolean success,
         PriceQuoteSnapshot quote,
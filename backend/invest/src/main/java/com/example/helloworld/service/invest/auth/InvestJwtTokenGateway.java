@@ -2,6 +2,7 @@ package com.example.helloworld.service.invest.auth;
 
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.JwtTokenGateway;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import com.example.helloworld.util.InvestJwtUtil;
 import org.springframework.stereotype.Service;
 
@@ -20,22 +21,7 @@ public class InvestJwtTokenGateway implements JwtTokenGateway {
     }
 
     @Override
-    public String extractUsername(String jwt) {
-        return investJwtUtil.extractUsername(jwt);
-    }
-
-    @Override
-    public String extractSystem(String jwt) {
-        return investJwtUtil.extractSystem(jwt);
-    }
-
-    @Override
-    public String extractTokenType(String jwt) {
-        return investJwtUtil.extractTokenType(jwt);
-    }
-
-    @Override
-    public boolean validateAccessToken(String jwt, String username) {
-        return investJwtUtil.validateInvestAccessToken(jwt, username);
+    public VerifiedJwtClaims verify(String jwt) {
+        return investJwtUtil.parseVerifiedClaims(jwt);
     }
 }
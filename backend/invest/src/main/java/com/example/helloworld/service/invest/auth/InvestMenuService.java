@@ -1,11 +1,16 @@
 package com.example.helloworld.service.invest.auth;
 
-import com.example.helloworld.entity.invest.auth.InvestMenuItem;
 import com.example.helloworld.repository.invest.auth.InvestMenuItemRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.CommonMenuItem;
+import com.example.helloworld.service.common.MenuTree;
+import com.example.helloworld.service.common.MenuTreeCache;
+import com.example.helloworld.service.common.MenusChangedEvent;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,12 +23,13 @@ import java.util.stream.Collectors;
 public class InvestMenuService {
 
     private final InvestMenuItemRepository investMenuItemRepository;
+    private final MenuTreeCache menuTreeCache;
 
     public InvestMenuService(InvestMenuItemRepository investMenuItemRepository) {
         this.investMenuItemRepository = investMenuItemRepository;
+        this.menuTreeCache = new MenuTreeCache(this::loadActiveMenus);
     }
 
-    @Transactional(transactionManager = "investTransactionManager", readOnly = true)
     public List<MenuItemDto> getVisibleMenus() {
         Set<String> userPermissions = new HashSet<>();
         org.springframework.security.core.Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -34,45 +40,52 @@ public class InvestMenuService {
             }
         }
 
-        List<InvestMenuItem> rootMenus = investMenuItemRepository.findActiveRootMenus();
         List<MenuItemDto> visibleMenus = new ArrayList<>();
-        for (InvestMenuItem rootMenu : rootMenus) {
-            if (!hasPermission(rootMenu, userPermissions)) {
-                continue;
-            }
-
-            MenuItemDto rootDto = toDto(rootMenu);
-            List<InvestMenuItem> children = investMenuItemRepository.findActiveChildMenus(rootMenu.getId());
-            List<MenuItemDto> visibleChildren = children.stream()
-                .filter(child -> hasPermission(child, userPermissions))
-                .map(this::toDto)
-                .toList();
-            rootDto.setChildren(visibleChildren);
+        for (MenuTree.Node root : menuTreeCache.get().visibleRoots(null, userPermissions)) {
+            MenuItemDto rootDto = toDto(root);
+            rootDto.setChildren(root.children().stream().map(this::toDto).toList());
             visibleMenus.add(rootDto);
         }
-
         return visibleMenus;
     }
 
-    private boolean hasPermission(InvestMenuItem menuItem, Set<String> userPermissions) {
-        if (menuItem.getRequiredPermission() == null || menuItem.getRequiredPermission().isBlank()) {
-            return true;
+    /**
+     * 選單異動提交後重建選單樹
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenusChanged(MenusChangedEvent event) {
+        if (event.domain() == AuthDomain.INVEST) {
+            menuTreeCache.refresh();
         }
+    }
 
-        String rawCode = menuItem.getRequiredPermission().trim();
-        String normalizedCode = rawCode.startsWith("PERM_") ? rawCode.substring(5) : rawCode;
-        return normalizedCode.isEmpty() || userPermissions.contains(normalizedCode);
+    private List<CommonMenuItem> loadActiveMenus() {
+        return investMenuItemRepository.findAllActiveMenus().stream()
+            .map(menu -> new CommonMenuItem(
+                menu.getId(),
+                menu.getParentId(),
+                menu.getMenuCode(),
+                menu.getMenuName(),
+                menu.getIcon(),
+                menu.getUrl(),
+                menu.getOrderIndex(),
+                null,
+                menu.getDescription(),
+                menu.getShowInDashboard(),
+                menu.getRequiredPermission()
+            ))
+            .toList();
     }
 
-    private MenuItemDto toDto(InvestMenuItem menuItem) {
+    private MenuItemDto toDto(MenuTree.Node menuItem) {
         MenuItemDto dto = new MenuItemDto();
-        dto.setId(menuItem.getId());
-        dto.setMenuCode(menuItem.getMenuCode());
-        dto.setMenuName(menuItem.getMenuName());
-        dto.setIcon(menuItem.getIcon());
-        dto.setUrl(menuItem.getUrl());
-        dto.setOrderIndex(menuItem.getOrderIndex());
-        dto.setShowInDashboard(menuItem.getShowInDashboard());
+        dto.setId(menuItem.id());
+        dto.setMenuCode(menuItem.menuCode());
+        dto.setMenuName(menuItem.menuName());
+        dto.setIcon(menuItem.icon());
+        dto.setUrl(menuItem.url());
+        dto.setOrderIndex(menuItem.orderIndex());
+        dto.setShowInDashboard(menuItem.showInDashboard());
         dto.setChildren(List.of());
         return dto;
     }
@@ -0,0 +1,56 @@
+package com.example.helloworld.service.invest.auth;
+
+import com.example.helloworld.entity.invest.auth.InvestRevokedToken;
+import com.example.helloworld.repository.invest.auth.InvestRevokedTokenRepository;
+import com.example.helloworld.service.common.TokenBlacklistStore;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * 以 invest 資料庫的 revoked_token 表保存 Token 黑名單（時間一律以 UTC 存放）。
+ */
+@Component
+@Transactional(transactionManager = "investTransactionManager")
+public class InvestTokenBlacklistStore implements TokenBlacklistStore {
+
+    private final InvestRevokedTokenRepository investRevokedTokenRepository;
+
+    public InvestTokenBlacklistStore(InvestRevokedTokenRepository investRevokedTokenRepository) {
+        this.investRevokedTokenRepository = investRevokedTokenRepository;
+    }
+
+    @Override
+    public void save(String tokenDigest, Instant expiresAt, Instant revokedAt) {
+        InvestRevokedToken row = new InvestRevokedToken();
+        row.setTokenDigest(tokenDigest);
+        row.setExpiresAt(toUtc(expiresAt));
+        row.setRevokedAt(toUtc(revokedAt));
+        investRevokedTokenRepository.save(row);
+    }
+
+    @Override
+    @Transactional(transactionManager = "investTransactionManager", readOnly = true)
+    public List<RevokedToken> findRevokedSince(Instant since, Instant now) {
+        return investRevokedTokenRepository.findActiveRevokedSince(toUtc(since), toUtc(now)).stream()
+            .map(row -> new RevokedToken(
+                row.getTokenDigest(),
+                row.getExpiresAt().toInstant(ZoneOffset.UTC),
+                row.getRevokedAt().toInstant(ZoneOffset.UTC)
+            ))
+            .toList();
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        return investRevokedTokenRepository.deleteExpired(toUtc(now));
+    }
+
+    private LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
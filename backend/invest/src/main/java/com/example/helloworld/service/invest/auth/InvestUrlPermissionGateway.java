@@ -4,7 +4,12 @@ import com.example.helloworld.entity.invest.auth.InvestUrlPermission;
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.CommonUrlPermission;
 import com.example.helloworld.service.common.UrlPermissionGateway;
+import com.example.helloworld.service.common.UrlPermissionMatcher;
+import com.example.helloworld.service.common.UrlPermissionMatcherCache;
+import com.example.helloworld.service.common.UrlPermissionsChangedEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 
@@ -12,9 +17,11 @@ import java.util.List;
 public class InvestUrlPermissionGateway implements UrlPermissionGateway {
 
     private final InvestUrlPermissionService investUrlPermissionService;
+    private final UrlPermissionMatcherCache matcherCache;
 
     public InvestUrlPermissionGateway(InvestUrlPermissionService investUrlPermissionService) {
         this.investUrlPermissionService = investUrlPermissionService;
+        this.matcherCache = new UrlPermissionMatcherCache(this::loadActivePermissions);
     }
 
     @Override
@@ -23,7 +30,21 @@ public class InvestUrlPermissionGateway implements UrlPermissionGateway {
     }
 
     @Override
-    public List<CommonUrlPermission> getActivePermissions() {
+    public UrlPermissionMatcher matcher() {
+        return matcherCache.get();
+    }
+
+    /**
+     * URL 權限異動提交後重建比對索引。
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUrlPermissionsChanged(UrlPermissionsChangedEvent event) {
+        if (event.domain() == domain()) {
+            matcherCache.refresh();
+        }
+    }
+
+    private List<CommonUrlPermission> loadActivePermissions() {
         return investUrlPermissionService.getAllActivePermissions().stream()
             .map(this::toCommonPermission)
             .toList();
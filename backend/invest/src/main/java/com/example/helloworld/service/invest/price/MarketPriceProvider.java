@@ -10,6 +10,13 @@ public interface MarketPriceProvider {
 
     Optional<PriceQuoteSnapshot> fetchLatestQuote(Stock stock);
 
+    /**
+     * true 代表目前呼叫 {@link #fetchLatestQuote(Stock)} 可直接由本地快取回應、不會呼叫上游 API
+     */
+    default boolean isLatestQuoteCached(Stock stock) {
+        return false;
+    }
+
     default List<PriceQuoteSnapshot> fetchHistoricalQuotes(Stock stock, int days) {
         return List.of();
     }
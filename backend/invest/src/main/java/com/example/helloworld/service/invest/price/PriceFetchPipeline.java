@@ -0,0 +1,267 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.Stock;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * 行情抓取管線：抓取階段在有界 worker pool 並行執行，依 market 限制同時連線數與請求間隔，
+ * 並套用指數退避重試；寫入階段（consumer）固定在呼叫端執行緒依完成順序執行，
+ * 讓 DB 寫入維持在呼叫端的交易內、且只有單一 writer。
+ */
+@Service
+public class PriceFetchPipeline {
+
+    private final List<MarketPriceProvider> marketPriceProviders;
+    private final ExecutorService workerPool;
+    private final Map<String, MarketLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Value("${invest.price-fetch.tw.max-concurrency:3}")
+    private int twMaxConcurrency;
+
+    @Value("${invest.price-fetch.tw.min-interval-ms:300}")
+    private long twMinIntervalMs;
+
+    @Value("${invest.price-fetch.us.max-concurrency:6}")
+    private int usMaxConcurrency;
+
+    @Value("${invest.price-fetch.us.min-interval-ms:100}")
+    private long usMinIntervalMs;
+
+    @Value("${invest.price-update.retry.max-attempts:2}")
+    private int maxAttempts;
+
+    @Value("${invest.price-update.retry.delay-ms:300}")
+    private long retryBaseDelayMs;
+
+    @Value("${invest.price-fetch.retry.max-delay-ms:5000}")
+    private long retryMaxDelayMs;
+
+    public PriceFetchPipeline(List<MarketPriceProvider> marketPriceProviders,
+                              @Value("${invest.price-fetch.worker-threads:8}") int workerThreads) {
+        this.marketPriceProviders = marketPriceProviders;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "invest-price-fetch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 並行抓取每檔股票，並在呼叫端執行緒依完成順序交給 writer；每次抓取都視為上游呼叫並套用限流。
+     */
+    public <T> void fetchAll(List<Stock> stocks,
+                             BiFunction<MarketPriceProvider, Stock, Optional<T>> fetcher,
+                             String emptyMessage,
+                             Consumer<FetchOutcome<T>> writer) {
+        fetchAll(stocks, fetcher, (provider, stock) -> false, emptyMessage, writer);
+    }
+
+    /**
+     * 並行抓取每檔股票，並在呼叫端執行緒依完成順序交給 writer。
+     *
+     * @param fetcher      實際抓取邏輯；回傳 empty 視為「查無資料」並進入重試
+     * @param cached       true 代表這次抓取由 provider 的快取回應，不佔用 market 的連線數與請求間隔
+     * @param emptyMessage fetcher 回傳 empty 時記錄的失敗原因
+     * @param writer       寫入階段，只會在呼叫端執行緒被呼叫
+     */
+    public <T> void fetchAll(List<Stock> stocks,
+                             BiFunction<MarketPriceProvider, Stock, Optional<T>> fetcher,
+                             BiPredicate<MarketPriceProvider, Stock> cached,
+                             String emptyMessage,
+                             Consumer<FetchOutcome<T>> writer) {
+        if (stocks == null || stocks.isEmpty()) {
+            return;
+        }
+
+        ExecutorCompletionService<FetchOutcome<T>> completionService = new ExecutorCompletionService<>(workerPool);
+        List<Future<FetchOutcome<T>>> futures = new ArrayList<>(stocks.size());
+        for (Stock stock : stocks) {
+            futures.add(completionService.submit(() -> fetchWithRetry(stock, fetcher, cached, emptyMessage)));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                writer.accept(completionService.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("行情抓取被中斷", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("行情抓取失敗：" + e.getCause().getMessage(), e.getCause());
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private <T> FetchOutcome<T> fetchWithRetry(Stock stock,
+                                               BiFunction<MarketPriceProvider, Stock, Optional<T>> fetcher,
+                                               BiPredicate<MarketPriceProvider, Stock> cached,
+                                               String emptyMessage) {
+        Optional<MarketPriceProvider> provider = resolveProvider(stock.getMarket());
+        if (provider.isEmpty()) {
+            return FetchOutcome.failed(stock, 1, List.of("不支援的 market: " + stock.getMarket()));
+        }
+
+        MarketLimiter limiter = limiters.computeIfAbsent(normalizeMarket(stock.getMarket()), this::createLimiter);
+        int attempts = Math.max(1, maxAttempts);
+        List<String> errors = new ArrayList<>();
+
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            try {
+                // 快取命中時不經過限流，只有真的要呼叫上游 API 時才等待連線數與請求間隔
+                Optional<T> value = cached.test(provider.get(), stock)
+                    ? fetcher.apply(provider.get(), stock)
+                    : limiter.call(() -> fetcher.apply(provider.get(), stock));
+                if (value.isPresent()) {
+                    return FetchOutcome.success(stock, value.get(), attempt, errors);
+                }
+                errors.add("第" + attempt + "次失敗：" + emptyMessage);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.add("第" + attempt + "次失敗：抓取被中斷");
+                return FetchOutcome.failed(stock, attempt, errors);
+            } catch (Exception ex) {
+                errors.add("第" + attempt + "次失敗：" + truncate(ex.getMessage(), 140));
+            }
+
+            if (attempt < attempts && !sleepBackoff(attempt)) {
+                return FetchOutcome.failed(stock, attempt, errors);
+            }
+        }
+        return FetchOutcome.failed(stock, attempts, errors);
+    }
+
+    private boolean sleepBackoff(int attempt) {
+        if (retryBaseDelayMs <= 0) {
+            return true;
+        }
+        long delay = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 10));
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Optional<MarketPriceProvider> resolveProvider(String market) {
+        if (market == null) {
+            return Optional.empty();
+        }
+        return marketPriceProviders.stream()
+            .filter(provider -> provider.supportsMarket(market))
+            .findFirst();
+    }
+
+    private MarketLimiter createLimiter(String market) {
+        if ("US".equals(market)) {
+            return new MarketLimiter(usMaxConcurrency, usMinIntervalMs);
+        }
+        return new MarketLimiter(twMaxConcurrency, twMinIntervalMs);
+    }
+
+    private String normalizeMarket(String market) {
+        return market == null ? "" : market.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private String truncate(String value, int maxLength) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    /**
+     * 單一 market 的流量控制：Semaphore 限制同時請求數，nextSlotAt 確保相鄰請求至少間隔 minIntervalMs。
+     */
+    private static final class MarketLimiter {
+        private final Semaphore permits;
+        private final long minIntervalMs;
+        private final AtomicLong nextSlotAt = new AtomicLong();
+
+        private MarketLimiter(int maxConcurrency, long minIntervalMs) {
+            this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+            this.minIntervalMs = Math.max(0, minIntervalMs);
+        }
+
+        private <T> T call(Callable<T> task) throws Exception {
+            permits.acquire();
+            try {
+                awaitSlot();
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        }
+
+        private void awaitSlot() throws InterruptedException {
+            if (minIntervalMs == 0) {
+                return;
+            }
+            while (true) {
+                long now = System.currentTimeMillis();
+                long reserved = nextSlotAt.get();
+                long slot = Math.max(now, reserved);
+                if (nextSlotAt.compareAndSet(reserved, slot + minIntervalMs)) {
+                    if (slot > now) {
+                        Thread.sleep(slot - now);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    public record FetchOutcome<T>(
+        Stock stock,
+        T value,
+        int attemptCount,
+        List<String> errors
+    ) {
+        private static <T> FetchOutcome<T> success(Stock stock, T value, int attemptCount, List<String> errors) {
+            return new FetchOutcome<>(stock, value, attemptCount, List.copyOf(errors));
+        }
+
+        private static <T> FetchOutcome<T> failed(Stock stock, int attemptCount, List<String> errors) {
+            return new FetchOutcome<>(stock, null, attemptCount, List.copyOf(errors));
+        }
+
+        public boolean success() {
+            return value != null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+import com.example.helloworld.repository.invest.StockPriceDailyRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 單次批次執行用的日行情快取：先以 window query 一次載入多檔股票最近 N 筆行情，
+ * 之後每檔標的直接從記憶體取用；未預載的股票會在第一次取用時補查並快取。
+ * 不跨執行共用，也不是 thread-safe，生命週期應限制在單一方法呼叫內。
+ */
+public class PriceHistoryCache {
+
+    public static final int DEFAULT_WINDOW_SIZE = 30;
+
+    private static final int STOCK_ID_CHUNK_SIZE = 200;
+
+    private final StockPriceDailyRepository stockPriceDailyRepository;
+    private final int windowSize;
+    private final Map<Long, List<StockPriceDaily>> historyByStockId = new HashMap<>();
+
+    public PriceHistoryCache(StockPriceDailyRepository stockPriceDailyRepository) {
+        this(stockPriceDailyRepository, DEFAULT_WINDOW_SIZE);
+    }
+
+    public PriceHistoryCache(StockPriceDailyRepository stockPriceDailyRepository, int windowSize) {
+        this.stockPriceDailyRepository = stockPriceDailyRepository;
+        this.windowSize = Math.max(1, windowSize);
+    }
+
+    /**
+     * 預載尚未快取的股票；stockIds 依 chunk 分批查詢，避免 IN 清單過長。
+     */
+    public void preload(Collection<Long> stockIds) {
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long stockId : stockIds) {
+            if (stockId != null && !historyByStockId.containsKey(stockId)) {
+                missing.add(stockId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(missing);
+        for (int from = 0; from < ids.size(); from += STOCK_ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + STOCK_ID_CHUNK_SIZE, ids.size()));
+            for (StockPriceDaily row : stockPriceDailyRepository.findRecentWindowByStockIds(chunk, null, windowSize)) {
+                historyByStockId.computeIfAbsent(row.getStock().getId(), key -> new ArrayList<>()).add(row);
+            }
+        }
+        // 查無行情的股票也記錄為空清單，避免之後重複查詢
+        for (Long stockId : missing) {
+            historyByStockId.putIfAbsent(stockId, List.of());
+        }
+    }
+
+    /**
+     * @return 依交易日新到舊排序的最近 N 筆行情，查無資料時為空清單
+     */
+    public List<StockPriceDaily> history(Long stockId) {
+        if (stockId == null) {
+            return List.of();
+        }
+        if (!historyByStockId.containsKey(stockId)) {
+            preload(List.of(stockId));
+        }
+        return historyByStockId.get(stockId);
+    }
+
+    public Optional<StockPriceDaily> latest(Long stockId) {
+        List<StockPriceDaily> history = history(stockId);
+        return history.isEmpty() ? Optional.empty() : Optional.of(history.get(0));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.helloworld.service.invest.price;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 由 {@link PriceSeries} 單次走訪算出的滾動指標（市場分析與持股風險共用）。
+ * 百分比欄位單位皆為 %；無法計算者為 NaN。
+ * <p>
+ * 走訪與累加用 primitive；最後的除法沿用原 BigDecimal 規則取位（均價、比值 6 位 HALF_UP 後再換算百分比，
+ * 波動度 4 位），門檻比較結果與改寫前一致。
+ *
+ * @param latestClose          最新收盤（缺值視為 0）
+ * @param ma5                  近 5 日均價（6 位），不足 5 筆為 NaN
+ * @param ma20                 近 20 日收盤合計 / 20（6 位；沿用既有定義，不足 20 筆仍除以 20）
+ * @param closeToMa20Percent   最新收盤 / MA20（比值 6 位），MA20 非正數時為 0
+ * @param return5              最新收盤相對第 5 筆的報酬；資料不足時以最舊一筆比較
+ * @param return20             最新收盤相對第 20 筆的報酬；資料不足時以最舊一筆比較
+ * @param volumeRatio20        最新量 / 近 20 日均量（6 位），均量為 0 時為 1
+ * @param volatility10         近 10 日日報酬的母體標準差（4 位）
+ * @param drawdown20           最新收盤距近 20 日最高收盤的回撤（<= 0）
+ * @param consecutiveDownDays  自最新一日起連續收盤走低的天數（最多看 3 次比較）
+ * @param avgPrev5Volume       前 5 日（不含最新）均量（6 位），不足 6 筆為 NaN
+ * @param latestChangePercent  最新漲跌幅；來源缺值時以前一日收盤推算並取 2 位
+ * @param intradaySwingPercent 最新一日振幅（高低差 / 收盤）
+ */
+public record PriceIndicators(
+    double latestClose,
+    double ma5,
+    double ma20,
+    double closeToMa20Percent,
+    double return5,
+    double return20,
+    double volumeRatio20,
+    double volatility10,
+    double drawdown20,
+    int consecutiveDownDays,
+    double avgPrev5Volume,
+    double latestChangePercent,
+    double intradaySwingPercent
+) {
+
+    private static final int LONG_WINDOW = 20;
+    private static final int SHORT_WINDOW = 5;
+    private static final int VOLATILITY_WINDOW = 10;
+    private static final int MAX_DOWN_STREAK = 3;
+    /** stock_price_daily 價格欄位的小數位數，用來消除 double 累加誤差。 */
+    private static final int PRICE_SCALE = 4;
+    private static final int RATIO_SCALE = 6;
+    private static final int VOLATILITY_SCALE = 4;
+    private static final int CHANGE_PERCENT_SCALE = 2;
+
+    public static PriceIndicators compute(PriceSeries series) {
+        int size = series.size();
+        if (size == 0) {
+            return new PriceIndicators(0, Double.NaN, 0, 0, 0, 0, 1, 0, 0, 0, Double.NaN, Double.NaN, Double.NaN);
+        }
+
+        double latestClose = nvl(series.close(0));
+        double closeSum20 = 0;
+        double closeSum5 = 0;
+        double maxClose20 = Double.NEGATIVE_INFINITY;
+        long volumeSum20 = 0;
+        long volumeSumPrev5 = 0;
+        int downStreak = 0;
+        boolean streakOpen = true;
+
+        // Welford：線上計算日報酬平均與變異數，避免第二次走訪
+        int returnCount = 0;
+        double returnMean = 0;
+        double returnM2 = 0;
+
+        int window = Math.min(size, LONG_WINDOW);
+        for (int i = 0; i < window; i++) {
+            double close = nvl(series.close(i));
+            closeSum20 += close;
+            if (i < SHORT_WINDOW) {
+                closeSum5 += close;
+            }
+            maxClose20 = Math.max(maxClose20, close);
+
+            long volume = series.volume(i);
+            volumeSum20 += volume;
+            if (i >= 1 && i <= SHORT_WINDOW) {
+                volumeSumPrev5 += volume;
+            }
+
+            if (i + 1 < size) {
+                double previous = nvl(series.close(i + 1));
+                if (i + 1 < VOLATILITY_WINDOW && previous != 0) {
+                    double dailyReturn = (close - previous) / previous * 100.0;
+                    returnCount += 1;
+                    double delta = dailyReturn - returnMean;
+                    returnMean += delta / returnCount;
+                    returnM2 += delta * (dailyReturn - returnMean);
+                }
+                if (streakOpen && i < MAX_DOWN_STREAK) {
+                    // 缺值時比較結果為 false，連跌中斷（NaN 比較恆為 false）
+                    if (series.close(i) < series.close(i + 1)) {
+                        downStreak += 1;
+                    } else {
+                        streakOpen = false;
+                    }
+                }
+            }
+        }
+
+        double volumeRatio20 = volumeRatio(series.volume(0), volumeSum20);
+        double ma20 = average(closeSum20, LONG_WINDOW);
+        double drawdown20 = maxClose20 <= 0 ? 0 : percentChange(latestClose, maxClose20);
+        double volatility10 = returnCount == 0 ? 0 : round(Math.sqrt(returnM2 / returnCount), VOLATILITY_SCALE);
+
+        return new PriceIndicators(
+            latestClose,
+            size >= SHORT_WINDOW ? average(closeSum5, SHORT_WINDOW) : Double.NaN,
+            ma20,
+            ma20 <= 0 ? 0 : ratioPercent(latestClose, ma20),
+            pctReturn(series, SHORT_WINDOW - 1),
+            pctReturn(series, LONG_WINDOW - 1),
+            volumeRatio20,
+            volatility10,
+            drawdown20,
+            downStreak,
+            size > SHORT_WINDOW ? averageVolume(volumeSumPrev5, SHORT_WINDOW).doubleValue() : Double.NaN,
+            resolveLatestChangePercent(series),
+            resolveIntradaySwing(series)
+        );
+    }
+
+    private static double pctReturn(PriceSeries series, int compareIndex) {
+        double latest = nvl(series.close(0));
+        double previous = nvl(series.close(Math.min(compareIndex, series.size() - 1)));
+        if (previous <= 0) {
+            return 0;
+        }
+        return percentChange(latest, previous);
+    }
+
+    private static double resolveLatestChangePercent(PriceSeries series) {
+        if (!Double.isNaN(series.changePercent(0))) {
+            return series.changePercent(0);
+        }
+        if (series.size() < 2) {
+            return Double.NaN;
+        }
+        double previous = series.close(1);
+        if (Double.isNaN(previous) || previous <= 0 || Double.isNaN(series.close(0))) {
+            return Double.NaN;
+        }
+        return round(percentChange(series.close(0), previous), CHANGE_PERCENT_SCALE);
+    }
+
+    private static double resolveIntradaySwing(PriceSeries series) {
+        double close = series.close(0);
+        if (Double.isNaN(close) || close <= 0) {
+            return Double.NaN;
+        }
+        return price(series.high(0)).subtract(price(series.low(0)))
+            .divide(price(close), RATIO_SCALE, RoundingMode.HALF_UP)
+            .movePointRight(2)
+            .doubleValue();
+    }
+
+    private static double average(double sum, int count) {
+        return price(sum).divide(BigDecimal.valueOf(count), RATIO_SCALE, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static BigDecimal averageVolume(long volumeSum, int count) {
+        return BigDecimal.valueOf(volumeSum).divide(BigDecimal.valueOf(count), RATIO_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static double volumeRatio(long latestVolume, long volumeSum20) {
+        BigDecimal average = averageVolume(volumeSum20, LONG_WINDOW);
+        if (average.signum() <= 0) {
+            return 1;
+        }
+        return BigDecimal.valueOf(latestVolume).divide(average, RATIO_SCALE, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * (latest - base) / base 取 6 位後換算 %。
+     */
+    private static double percentChange(double latest, double base) {
+        BigDecimal baseValue = decimal(base);
+        return decimal(latest).subtract(baseValue)
+            .divide(baseValue, RATIO_SCALE, RoundingMode.HALF_UP)
+            .movePointRight(2)
+            .doubleValue();
+    }
+
+    /**
+     * value / base 取 6 位後換算 %。
+     */
+    private static double ratioPercent(double value, double base) {
+        return decimal(value).divide(decimal(base), RATIO_SCALE, RoundingMode.HALF_UP)
+            .movePointRight(2)
+            .doubleValue();
+    }
+
+    private static double round(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * 還原 DB 的 4 位價格（含累加後的合計），去掉 double 的尾數誤差。
+     */
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(value).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 價格或已取位的均價；兩者都能由 double 精確還原成原本的十進位值。
+     */
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value);
+    }
+
+    private static double nvl(double value) {
+        return Double.isNaN(value) ? 0 : value;
+    }
+}
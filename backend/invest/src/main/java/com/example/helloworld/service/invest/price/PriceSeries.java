@@ -0,0 +1,76 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 單檔股票的日行情視窗（index 0 = 最新交易日），以 primitive 陣列保存，供指標計算使用。
+ * 缺值規則：價格缺漏存為 NaN，成交量缺漏存為 0；BigDecimal 只在建立與寫回 DB 時使用。
+ */
+public final class PriceSeries {
+
+    private final double[] close;
+    private final double[] high;
+    private final double[] low;
+    private final long[] volume;
+    private final double[] changePercent;
+
+    private PriceSeries(double[] close, double[] high, double[] low, long[] volume, double[] changePercent) {
+        this.close = close;
+        this.high = high;
+        this.low = low;
+        this.volume = volume;
+        this.changePercent = changePercent;
+    }
+
+    /**
+     * @param historyDesc 依交易日新到舊排序的行情
+     */
+    public static PriceSeries fromHistoryDesc(List<StockPriceDaily> historyDesc) {
+        int size = historyDesc == null ? 0 : historyDesc.size();
+        double[] close = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        long[] volume = new long[size];
+        double[] changePercent = new double[size];
+        for (int i = 0; i < size; i++) {
+            StockPriceDaily row = historyDesc.get(i);
+            close[i] = toDouble(row.getClosePrice());
+            high[i] = toDouble(row.getHighPrice());
+            low[i] = toDouble(row.getLowPrice());
+            volume[i] = row.getVolume() == null ? 0L : row.getVolume();
+            changePercent[i] = toDouble(row.getChangePercent());
+        }
+        return new PriceSeries(close, high, low, volume, changePercent);
+    }
+
+    public int size() {
+        return close.length;
+    }
+
+    public double close(int index) {
+        return close[index];
+    }
+
+    public double high(int index) {
+        return high[index];
+    }
+
+    public double low(int index) {
+        return low[index];
+    }
+
+    public long volume(int index) {
+        return volume[index];
+    }
+
+    public double changePercent(int index) {
+        return changePercent[index];
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 行情寫入 stock_price_daily 後發布的事件；監聽端應在交易提交後（AFTER_COMMIT）處理。
+ */
+public record StockPriceChangedEvent(List<PriceChange> changes) {
+
+    public static StockPriceChangedEvent fromRows(List<StockPriceDaily> rows) {
+        return new StockPriceChangedEvent(rows.stream().map(PriceChange::of).toList());
+    }
+
+    public record PriceChange(
+        Long stockId,
+        LocalDate tradeDate,
+        BigDecimal closePrice,
+        BigDecimal changePercent
+    ) {
+        public static PriceChange of(StockPriceDaily row) {
+            return new PriceChange(
+                row.getStock().getId(),
+                row.getTradeDate(),
+                row.getClosePrice(),
+                row.getChangePercent()
+            );
+        }
+
+        /**
+         * 同一交易日的收盤與漲跌幅皆相同時視為未變動（BigDecimal 以數值比較，忽略 scale）。
+         */
+        public boolean sameQuoteAs(PriceChange other) {
+            return other != null
+                && tradeDate != null
+                && tradeDate.equals(other.tradeDate)
+                && compare(closePrice, other.closePrice)
+                && compare(changePercent, other.changePercent);
+        }
+
+        private static boolean compare(BigDecimal left, BigDecimal right) {
+            if (left == null || right == null) {
+                return left == right;
+            }
+            return left.compareTo(right) == 0;
+        }
+    }
+}
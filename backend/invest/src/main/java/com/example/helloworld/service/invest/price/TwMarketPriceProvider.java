@@ -20,10 +20,14 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Service
 public class TwMarketPriceProvider implements MarketPriceProvider {
@@ -31,6 +35,8 @@ public class TwMarketPriceProvider implements MarketPriceProvider {
     private static final ZoneId TAIPEI_ZONE = ZoneId.of("Asia/Taipei");
     private static final TypeReference<List<Map<String, Object>>> LIST_TYPE = new TypeReference<>() {
     };
+    private static final String EXCHANGE_TWSE = "TWSE";
+    private static final String EXCHANGE_TPEX = "TPEX";
 
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient;
@@ -38,13 +44,21 @@ public class TwMarketPriceProvider implements MarketPriceProvider {
     private final String tpexUrl;
     private final String twseHistoryUrlTemplate;
     private final String userAgent;
+    private final long snapshotTtlMs;
+
+    /**
+     * 全市場行情快照：每個交易所的整包 JSON 只下載一次，索引成 ticker -> row。
+     * 失效條件：跨台北日期或超過 TTL；下載失敗（空結果）不寫入快取，讓重試仍會重新抓取。
+     */
+    private final Map<String, ExchangeSnapshot> exchangeSnapshots = new ConcurrentHashMap<>();
 
     public TwMarketPriceProvider(ObjectMapper objectMapper,
                                  @Value("${invest.price-provider.timeout-ms:8000}") long timeoutMs,
                                  @Value("${invest.price-provider.tw.twse-url:https://openapi.twse.com.tw/v1/exchangeReport/STOCK_DAY_ALL}") String twseUrl,
                                  @Value("${invest.price-provider.tw.tpex-url:https://www.tpex.org.tw/openapi/v1/tpex_mainboard_quotes}") String tpexUrl,
                                  @Value("${invest.price-provider.tw.twse-history-url-template:https://www.twse.com.tw/rwd/zh/afterTrading/STOCK_DAY?date=%s&stockNo=%s&response=json}") String twseHistoryUrlTemplate,
-                                 @Value("${invest.price-provider.user-agent:InvestAdmin/1.0}") String userAgent) {
+                                 @Value("${invest.price-provider.user-agent:InvestAdmin/1.0}") String userAgent,
+                                 @Value("${invest.price-provider.tw.snapshot-ttl-ms:600000}") long snapshotTtlMs) {
         this.objectMapper = objectMapper;
         this.httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofMillis(timeoutMs))
@@ -53,6 +67,7 @@ public class TwMarketPriceProvider implements MarketPriceProvider {
         this.tpexUrl = tpexUrl;
         this.twseHistoryUrlTemplate = twseHistoryUrlTemplate;
         this.userAgent = userAgent;
+        this.snapshotTtlMs = snapshotTtlMs;
     }
 
     @Override
@@ -78,6 +93,20 @@ public class TwMarketPriceProvider implements MarketPriceProvider {
         return Optional.empty();
     }
 
+    @Override
+    public boolean isLatestQuoteCached(Stock stock) {
+        String ticker = stock.getTicker();
+        if (ticker == null || ticker.isBlank()) {
+            return true;
+        }
+        ExchangeSnapshot twse = exchangeSnapshots.get(EXCHANGE_TWSE);
+        if (!isFresh(twse)) {
+            return false;
+        }
+        // 上市查不到時會再查上櫃，上櫃快照也必須是新的
+        return twse.rowsByCode().containsKey(normalizeCode(ticker)) || isFresh(exchangeSnapshots.get(EXCHANGE_TPEX));
+    }
+
     @Override
     public List<PriceQuoteSnapshot> fetchHistoricalQuotes(Stock stock, int days) {
         int safeDays = Math.max(1, days);
@@ -108,24 +137,73 @@ public class TwMarketPriceProvider implements MarketPriceProvider {
     }
 
     private Optional<Map<String, Object>> findFromTwse(String ticker) {
-        List<Map<String, Object>> rows = fetchJsonArray(twseUrl);
-        return rows.stream()
-            .filter(row -> ticker.equalsIgnoreCase(stringValue(row.get("Code"))))
-            .findFirst();
+        return findFromSnapshot(EXCHANGE_TWSE, twseUrl, row -> stringValue(row.get("Code")), ticker);
     }
 
     private Optional<Map<String, Object>> findFromTpex(String ticker) {
-        List<Map<String, Object>> rows = fetchJsonArray(tpexUrl);
-        return rows.stream()
-            .filter(row -> {
-                String code = firstNonBlank(
-                    stringValue(row.get("SecuritiesCompanyCode")),
-                    stringValue(row.get("StockNo")),
-                    stringValue(row.get("Code"))
-                );
-                return ticker.equalsIgnoreCase(code);
-            })
-            .findFirst();
+        return findFromSnapshot(EXCHANGE_TPEX, tpexUrl, row -> firstNonBlank(
+            stringValue(row.get("SecuritiesCompanyCode")),
+            stringValue(row.get("StockNo")),
+            stringValue(row.get("Code"))
+        ), ticker);
+    }
+
+    private Optional<Map<String, Object>> findFromSnapshot(String exchange,
+                                                           String url,
+                                                           Function<Map<String, Object>, String> codeResolver,
+                                                           String ticker) {
+        if (ticker == null || ticker.isBlank()) {
+            return Optional.empty();
+        }
+        ExchangeSnapshot snapshot = resolveSnapshot(exchange, url, codeResolver);
+        return Optional.ofNullable(snapshot.rowsByCode().get(normalizeCode(ticker)));
+    }
+
+    private ExchangeSnapshot resolveSnapshot(String exchange,
+                                             String url,
+                                             Function<Map<String, Object>, String> codeResolver) {
+        ExchangeSnapshot cached = exchangeSnapshots.get(exchange);
+        if (isFresh(cached)) {
+            return cached;
+        }
+        // 同一時間只允許一個執行緒下載，其餘等待後直接讀取新快照，避免同時觸發多次整包下載。
+        synchronized (exchangeSnapshots) {
+            cached = exchangeSnapshots.get(exchange);
+            if (isFresh(cached)) {
+                return cached;
+            }
+            List<Map<String, Object>> rows = fetchJsonArray(url);
+            Map<String, Map<String, Object>> rowsByCode = new HashMap<>(Math.max(16, rows.size() * 2));
+            for (Map<String, Object> row : rows) {
+                String code = codeResolver.apply(row);
+                if (code != null) {
+                    rowsByCode.putIfAbsent(normalizeCode(code), row);
+                }
+            }
+            ExchangeSnapshot refreshed = new ExchangeSnapshot(
+                LocalDate.now(TAIPEI_ZONE),
+                System.currentTimeMillis(),
+                Map.copyOf(rowsByCode)
+            );
+            if (!rowsByCode.isEmpty()) {
+                exchangeSnapshots.put(exchange, refreshed);
+            }
+            return refreshed;
+        }
+    }
+
+    private boolean isFresh(ExchangeSnapshot snapshot) {
+        if (snapshot == null) {
+            return false;
+        }
+        if (!LocalDate.now(TAIPEI_ZONE).equals(snapshot.loadedDate())) {
+            return false;
+        }
+        return snapshotTtlMs <= 0 || System.currentTimeMillis() - snapshot.loadedAtMillis() < snapshotTtlMs;
+    }
+
+    private String normalizeCode(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
     }
 
     private Optional<PriceQuoteSnapshot> buildSnapshotFromTwse(Map<String, Object> row, LocalDateTime fetchedAt) {
@@ -367,4 +445,10 @@ public class TwMarketPriceProvider implements MarketPriceProvider {
             return null;
         }
     }
+
+    private record ExchangeSnapshot(
+        LocalDate loadedDate,
+        long loadedAtMillis,
+        Map<String, Map<String, Object>> rowsByCode
+    ) {}
 }
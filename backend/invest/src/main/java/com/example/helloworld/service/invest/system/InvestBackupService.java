@@ -3,12 +3,15 @@ package com.example.helloworld.service.invest.system;
 import com.example.helloworld.dto.invest.SystemMaintenanceBackupFileDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -20,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class InvestBackupService {
@@ -30,6 +34,7 @@ public class InvestBackupService {
     private static final String DEFAULT_MYSQL_ROOT_PASSWORD = "rootpassword";
     private static final int DEFAULT_RETENTION_DAYS = 7;
     private static final String DEFAULT_DATABASE_NAME = "invest";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
 
     private final InvestSystemSettingService investSystemSettingService;
 
@@ -117,16 +122,28 @@ public class InvestBackupService {
         }
     }
 
-    public byte[] readBackup(String relativePath) {
-        Path filePath = resolveBackupPath(relativePath);
-        if (!Files.exists(filePath)) {
-            throw new RuntimeException("備份檔案不存在");
-        }
-        try {
-            return Files.readAllBytes(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("讀取備份檔案失敗：" + e.getMessage(), e);
-        }
+    /**
+     * 備份檔案以 Resource 回傳，由 Spring 分段串流輸出並處理 Range 請求，不整檔載入記憶體
+     */
+    public Resource openBackup(String relativePath) {
+        return new FileSystemResource(resolveExistingBackupPath(relativePath));
+    }
+
+    /**
+     * 未壓縮的 .sql 備份是否可以即時 gzip 下載
+     */
+    public boolean isCompressible(String relativePath) {
+        return resolveBackupPath(relativePath).getFileName().toString().endsWith(".sql");
+    }
+
+    /**
+     * 將未壓縮的備份邊讀邊 gzip 寫入 out
+     */
+    public void writeGzipped(String relativePath, OutputStream out) throws IOException {
+        Path filePath = resolveExistingBackupPath(relativePath);
+        GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        Files.copy(filePath, gzip);
+        gzip.finish();
     }
 
     public String resolveDownloadFilename(String relativePath) {
@@ -145,6 +162,14 @@ public class InvestBackupService {
         }
     }
 
+    private Path resolveExistingBackupPath(String relativePath) {
+        Path filePath = resolveBackupPath(relativePath);
+        if (!Files.isRegularFile(filePath)) {
+            throw new RuntimeException("備份檔案不存在");
+        }
+        return filePath;
+    }
+
     private Path resolveBackupPath(String relativePath) {
         if (relativePath == null || relativePath.trim().isEmpty()) {
             throw new RuntimeException("path 參數不可為空");
@@ -8,6 +8,9 @@ import com.example.helloworld.entity.invest.auth.InvestMenuItem;
 import com.example.helloworld.entity.invest.auth.InvestPermission;
 import com.example.helloworld.repository.invest.auth.InvestMenuItemRepository;
 import com.example.helloworld.repository.invest.auth.InvestPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.MenusChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,13 +31,16 @@ public class InvestSystemMenuService {
 
     private final InvestMenuItemRepository investMenuItemRepository;
     private final InvestPermissionRepository investPermissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public InvestSystemMenuService(
         InvestMenuItemRepository investMenuItemRepository,
-        InvestPermissionRepository investPermissionRepository
+        InvestPermissionRepository investPermissionRepository,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.investMenuItemRepository = investMenuItemRepository;
         this.investPermissionRepository = investPermissionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -84,6 +90,7 @@ public class InvestSystemMenuService {
         applyMutableFields(menu, request, null);
 
         InvestMenuItem saved = investMenuItemRepository.save(menu);
+        publishMenusChanged();
         return getDetail(saved.getId());
     }
 
@@ -99,6 +106,7 @@ public class InvestSystemMenuService {
         applyMutableFields(menu, request, id);
 
         investMenuItemRepository.save(menu);
+        publishMenusChanged();
         return getDetail(id);
     }
 
@@ -106,6 +114,7 @@ public class InvestSystemMenuService {
         InvestMenuItem menu = getMenu(id);
         menu.setIsActive(enabled);
         investMenuItemRepository.save(menu);
+        publishMenusChanged();
         return getDetail(id);
     }
 
@@ -118,6 +127,14 @@ public class InvestSystemMenuService {
         }
 
         investMenuItemRepository.deleteById(id);
+        publishMenusChanged();
+    }
+
+    /**
+     * 交易提交後由 {@link com.example.helloworld.service.invest.auth.InvestMenuService} 重建選單樹
+     */
+    private void publishMenusChanged() {
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.INVEST));
     }
 
     private void applyMutableFields(InvestMenuItem menu, SystemMenuUpsertRequestDto request, Long selfId) {
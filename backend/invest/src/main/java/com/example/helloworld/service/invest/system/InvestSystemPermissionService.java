@@ -5,6 +5,8 @@ import com.example.helloworld.dto.invest.SystemPermissionRoleBindingDto;
 import com.example.helloworld.dto.invest.SystemPermissionUpsertRequestDto;
 import com.example.helloworld.entity.invest.auth.InvestPermission;
 import com.example.helloworld.repository.invest.auth.InvestPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -19,9 +21,12 @@ import java.util.Objects;
 public class InvestSystemPermissionService {
 
     private final InvestPermissionRepository investPermissionRepository;
+    private final AuthPrincipalCache authPrincipalCache;
 
-    public InvestSystemPermissionService(InvestPermissionRepository investPermissionRepository) {
+    public InvestSystemPermissionService(InvestPermissionRepository investPermissionRepository,
+                                         AuthPrincipalCache authPrincipalCache) {
         this.investPermissionRepository = investPermissionRepository;
+        this.authPrincipalCache = authPrincipalCache;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -69,6 +74,8 @@ public class InvestSystemPermissionService {
         permission.setDescription(normalize(request.getDescription()));
 
         investPermissionRepository.save(permission);
+        // 權限代碼可能變動，已快取的使用者權限需重新載入
+        authPrincipalCache.invalidateDomain(AuthDomain.INVEST);
         return getDetail(id);
     }
 
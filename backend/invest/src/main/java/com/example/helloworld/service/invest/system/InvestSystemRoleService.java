@@ -8,6 +8,8 @@ import com.example.helloworld.entity.invest.auth.InvestPermission;
 import com.example.helloworld.entity.invest.auth.InvestRole;
 import com.example.helloworld.repository.invest.auth.InvestPermissionRepository;
 import com.example.helloworld.repository.invest.auth.InvestRoleRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,13 +32,16 @@ public class InvestSystemRoleService {
 
     private final InvestRoleRepository investRoleRepository;
     private final InvestPermissionRepository investPermissionRepository;
+    private final AuthPrincipalCache authPrincipalCache;
 
     public InvestSystemRoleService(
         InvestRoleRepository investRoleRepository,
-        InvestPermissionRepository investPermissionRepository
+        InvestPermissionRepository investPermissionRepository,
+        AuthPrincipalCache authPrincipalCache
     ) {
         this.investRoleRepository = investRoleRepository;
         this.investPermissionRepository = investPermissionRepository;
+        this.authPrincipalCache = authPrincipalCache;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -77,6 +82,7 @@ public class InvestSystemRoleService {
         }
 
         investRoleRepository.save(role);
+        authPrincipalCache.invalidateDomain(AuthDomain.INVEST);
         return getDetail(id);
     }
 
@@ -116,6 +122,7 @@ public class InvestSystemRoleService {
         InvestRole role = getRoleWithPermissions(roleId);
         role.setPermissions(resolvePermissions(request == null ? null : request.getPermissionIds()));
         investRoleRepository.save(role);
+        authPrincipalCache.invalidateDomain(AuthDomain.INVEST);
         return getRolePermissions(roleId);
     }
 
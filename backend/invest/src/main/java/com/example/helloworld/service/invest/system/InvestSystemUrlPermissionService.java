@@ -10,6 +10,9 @@ import com.example.helloworld.entity.invest.auth.InvestUrlPermission;
 import com.example.helloworld.repository.invest.auth.InvestPermissionRepository;
 import com.example.helloworld.repository.invest.auth.InvestRoleRepository;
 import com.example.helloworld.repository.invest.auth.InvestUrlPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.UrlPermissionsChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,15 +34,18 @@ public class InvestSystemUrlPermissionService {
     private final InvestUrlPermissionRepository investUrlPermissionRepository;
     private final InvestPermissionRepository investPermissionRepository;
     private final InvestRoleRepository investRoleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public InvestSystemUrlPermissionService(
         InvestUrlPermissionRepository investUrlPermissionRepository,
         InvestPermissionRepository investPermissionRepository,
-        InvestRoleRepository investRoleRepository
+        InvestRoleRepository investRoleRepository,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.investUrlPermissionRepository = investUrlPermissionRepository;
         this.investPermissionRepository = investPermissionRepository;
         this.investRoleRepository = investRoleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -71,18 +77,23 @@ public class InvestSystemUrlPermissionService {
     public SystemUrlPermissionDto create(SystemUrlPermissionUpsertRequestDto request) {
         InvestUrlPermission urlPermission = new InvestUrlPermission();
         applyMutableFields(urlPermission, request, null);
-        return toDto(investUrlPermissionRepository.save(urlPermission));
+        InvestUrlPermission saved = investUrlPermissionRepository.save(urlPermission);
+        publishChanged();
+        return toDto(saved);
     }
 
     public SystemUrlPermissionDto update(Long id, SystemUrlPermissionUpsertRequestDto request) {
         InvestUrlPermission existing = getUrlPermission(id);
         applyMutableFields(existing, request, id);
-        return toDto(investUrlPermissionRepository.save(existing));
+        InvestUrlPermission saved = investUrlPermissionRepository.save(existing);
+        publishChanged();
+        return toDto(saved);
     }
 
     public void delete(Long id) {
         getUrlPermission(id);
         investUrlPermissionRepository.deleteById(id);
+        publishChanged();
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -102,6 +113,13 @@ public class InvestSystemUrlPermissionService {
         }).toList();
     }
 
+    /**
+     * 交易提交後由 URL 權限 gateway 重建比對索引。
+     */
+    private void publishChanged() {
+        eventPublisher.publishEvent(new UrlPermissionsChangedEvent(AuthDomain.INVEST));
+    }
+
     private void applyMutableFields(InvestUrlPermission target, SystemUrlPermissionUpsertRequestDto request, Long currentId) {
         String urlPattern = require(request.getUrlPattern(), "urlPattern");
         String normalizedMethod = normalizeMethod(request.getHttpMethod());
@@ -6,6 +6,8 @@ import com.example.helloworld.entity.invest.auth.InvestPermission;
 import com.example.helloworld.entity.invest.auth.InvestRole;
 import com.example.helloworld.entity.invest.auth.InvestUser;
 import com.example.helloworld.repository.invest.auth.InvestUserRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import com.example.helloworld.service.invest.auth.InvestCurrentUserService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -27,15 +29,18 @@ public class InvestSystemUserService {
     private final InvestUserRepository investUserRepository;
     private final PasswordEncoder passwordEncoder;
     private final InvestCurrentUserService investCurrentUserService;
+    private final AuthPrincipalCache authPrincipalCache;
 
     public InvestSystemUserService(
         InvestUserRepository investUserRepository,
         PasswordEncoder passwordEncoder,
-        InvestCurrentUserService investCurrentUserService
+        InvestCurrentUserService investCurrentUserService,
+        AuthPrincipalCache authPrincipalCache
     ) {
         this.investUserRepository = investUserRepository;
         this.passwordEncoder = passwordEncoder;
         this.investCurrentUserService = investCurrentUserService;
+        this.authPrincipalCache = authPrincipalCache;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
@@ -85,6 +90,7 @@ public class InvestSystemUserService {
         ensureUsernameAvailable(username, uid);
         ensureEmailAvailable(email, uid);
 
+        authPrincipalCache.invalidate(AuthDomain.INVEST, user.getUsername());
         user.setUsername(username);
         user.setEmail(email);
         user.setDisplayName(normalize(request.getDisplayName()));
@@ -98,6 +104,7 @@ public class InvestSystemUserService {
         }
 
         investUserRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.INVEST, username);
         return getDetail(uid);
     }
 
@@ -108,6 +115,7 @@ public class InvestSystemUserService {
         validateSelfDisable(uid, enabled);
         user.setIsEnabled(enabled);
         investUserRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.INVEST, user.getUsername());
         return getDetail(uid);
     }
 
@@ -119,6 +127,7 @@ public class InvestSystemUserService {
         validatePassword(normalizedPassword);
         user.setPassword(passwordEncoder.encode(normalizedPassword));
         investUserRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.INVEST, user.getUsername());
     }
 
     private void validateSelfDisable(String uid, boolean enabled) {
@@ -1,15 +1,17 @@
 package com.example.helloworld.service.invest.systemscheduler;
 
-import com.example.helloworld.dto.invest.RunMarketAnalysisResponseDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobLogPagedDto;
 import com.example.helloworld.dto.invest.SystemSchedulerRunNowResponseDto;
 import com.example.helloworld.entity.invest.SchedulerJobLog;
 import com.example.helloworld.repository.invest.SchedulerJobLogRepository;
+import com.example.helloworld.service.invest.MarketAnalysisBatchRunner;
 import com.example.helloworld.service.invest.MarketAnalysisExecutionService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -18,12 +20,24 @@ import java.time.LocalDateTime;
 @Transactional(transactionManager = "investTransactionManager")
 public class MarketAnalysisSystemJobHandler implements SystemJobHandler {
 
-    private final MarketAnalysisExecutionService marketAnalysisExecutionService;
+    private final MarketAnalysisBatchRunner marketAnalysisBatchRunner;
     private final SchedulerJobLogRepository schedulerJobLogRepository;
 
-    public MarketAnalysisSystemJobHandler(MarketAnalysisExecutionService marketAnalysisExecutionService,
+    @Value("${invest.scheduler.market-analysis.enabled:false}")
+    private boolean schedulerEnabled;
+
+    @Value("${invest.scheduler.market-analysis.cron:0 0 19 * * MON-FRI}")
+    private String cron;
+
+    @Value("${invest.scheduler.market-analysis.zone:Asia/Taipei}")
+    private String zone;
+
+    @Value("${invest.scheduler.market-analysis.scope:HOLDINGS_AND_WATCHLIST}")
+    private String scope;
+
+    public MarketAnalysisSystemJobHandler(MarketAnalysisBatchRunner marketAnalysisBatchRunner,
                                           SchedulerJobLogRepository schedulerJobLogRepository) {
-        this.marketAnalysisExecutionService = marketAnalysisExecutionService;
+        this.marketAnalysisBatchRunner = marketAnalysisBatchRunner;
         this.schedulerJobLogRepository = schedulerJobLogRepository;
     }
 
@@ -42,10 +56,15 @@ public class MarketAnalysisSystemJobHandler implements SystemJobHandler {
         SystemSchedulerJobDto dto = new SystemSchedulerJobDto();
         dto.setJobCode(getJobCode().name());
         dto.setJobName(MarketAnalysisExecutionService.JOB_NAME_MARKET_ANALYSIS);
-        dto.setDescription("手動執行強勢股與機會股分析（預設持股 + 觀察清單）。");
+        dto.setDescription("強勢股與機會股分析（預設持股 + 觀察清單）；排程與 Run Now 皆並行分析全部啟用持股使用者。");
         dto.setEnabled(true);
-        dto.setScheduleType("MANUAL");
-        dto.setScheduleExpression("MANUAL_ONLY");
+        if (schedulerEnabled) {
+            dto.setScheduleType("CRON");
+            dto.setScheduleExpression(String.format("%s (%s)", cron, zone));
+        } else {
+            dto.setScheduleType("MANUAL");
+            dto.setScheduleExpression("MANUAL_ONLY");
+        }
         dto.setLogSource("scheduler_job_log");
         return dto;
     }
@@ -70,18 +89,22 @@ public class MarketAnalysisSystemJobHandler implements SystemJobHandler {
             .map(this::toLogDto);
     }
 
+    /**
+     * 與排程相同走全部啟用持股使用者的批次；暫停外層交易，讓 job log 進度逐筆提交、可即時查詢。
+     */
     @Override
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.NOT_SUPPORTED)
     public SystemSchedulerRunNowResponseDto runNow() {
-        RunMarketAnalysisResponseDto result = marketAnalysisExecutionService.runForCurrentUserWithLog(
-            "HOLDINGS_AND_WATCHLIST",
+        MarketAnalysisBatchRunner.BatchExecutionResult result = marketAnalysisBatchRunner.runForAllActiveUsers(
+            scope,
             "手動觸發（系統排程管理 Run Now）"
         );
         SystemSchedulerRunNowResponseDto dto = new SystemSchedulerRunNowResponseDto();
         dto.setJobCode(getJobCode().name());
-        dto.setStatus(result.getStatus());
-        dto.setMessage(result.getMessage());
+        dto.setStatus(result.status());
+        dto.setMessage(result.message());
         dto.setTriggeredAt(LocalDateTime.now());
-        dto.setReferenceLogId(null);
+        dto.setReferenceLogId(result.jobLogId());
         return dto;
     }
 
@@ -2,6 +2,8 @@ package com.example.helloworld.service.invest.systemscheduler;
 
 import com.example.helloworld.dto.invest.SystemSchedulerJobDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobLogPagedDto;
+import com.example.helloworld.dto.invest.SystemSchedulerLeaseDto;
+import com.example.helloworld.dto.invest.SystemSchedulerLeaseOverviewDto;
 import com.example.helloworld.dto.invest.SystemSchedulerJobUpsertRequestDto;
 import com.example.helloworld.dto.invest.SystemSchedulerRunNowResponseDto;
 import com.example.helloworld.entity.invest.SystemScheduledJobConfig;
@@ -17,25 +19,30 @@ public class SystemSchedulerFacadeService {
 
     private final Map<SystemJobCode, SystemJobHandler> handlerMap;
     private final SystemSchedulerJobConfigService systemSchedulerJobConfigService;
+    private final SystemSchedulerLeaseService systemSchedulerLeaseService;
 
     public SystemSchedulerFacadeService(List<SystemJobHandler> handlers,
-                                        SystemSchedulerJobConfigService systemSchedulerJobConfigService) {
+                                        SystemSchedulerJobConfigService systemSchedulerJobConfigService,
+                                        SystemSchedulerLeaseService systemSchedulerLeaseService) {
         Map<SystemJobCode, SystemJobHandler> map = new EnumMap<>(SystemJobCode.class);
         for (SystemJobHandler handler : handlers) {
             map.put(handler.getJobCode(), handler);
         }
         this.handlerMap = Collections.unmodifiableMap(map);
         this.systemSchedulerJobConfigService = systemSchedulerJobConfigService;
+        this.systemSchedulerLeaseService = systemSchedulerLeaseService;
     }
 
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
     public List<SystemSchedulerJobDto> getJobs(boolean includeInactive) {
         Map<String, SystemScheduledJobConfig> configMap = systemSchedulerJobConfigService.findAllAsMap();
+        Map<String, SystemSchedulerLeaseDto> leaseMap = systemSchedulerLeaseService.findAllAsMap();
         return handlerMap.values().stream()
             .sorted(Comparator.comparingInt(SystemJobHandler::getDisplayOrder))
             .map(handler -> {
                 SystemSchedulerJobDto dto = handler.buildJob();
                 applyConfigOverride(dto, configMap.get(handler.getJobCode().name()));
+                applyLease(dto, leaseMap.get(handler.getJobCode().name()));
                 if (!includeInactive && Boolean.FALSE.equals(dto.getActive())) {
                     return null;
                 }
@@ -103,6 +110,7 @@ public class SystemSchedulerFacadeService {
             .findByJobCode(handler.getJobCode())
             .orElse(null);
         applyConfigOverride(dto, config);
+        applyLease(dto, systemSchedulerLeaseService.findAllAsMap().get(handler.getJobCode().name()));
         SystemSchedulerJobLogPagedDto latestLog = handler.getLatestLog();
         if (latestLog != null) {
             dto.setLastRunAt(latestLog.getStartedAt());
@@ -112,6 +120,11 @@ public class SystemSchedulerFacadeService {
         return dto;
     }
 
+    @Transactional(transactionManager = "investTransactionManager", readOnly = true)
+    public SystemSchedulerLeaseOverviewDto getLeaseOverview() {
+        return systemSchedulerLeaseService.getOverview();
+    }
+
     @Transactional(transactionManager = "investTransactionManager", readOnly = true)
     public boolean isEnabled(SystemJobCode jobCode) {
         return systemSchedulerJobConfigService.isEnabled(jobCode);
@@ -144,4 +157,16 @@ public class SystemSchedulerFacadeService {
         dto.setActive(config.getIsActive());
         dto.setScheduleEditable(false);
     }
+
+    private void applyLease(SystemSchedulerJobDto dto, SystemSchedulerLeaseDto lease) {
+        if (lease == null) {
+            dto.setLeaseActive(false);
+            dto.setLeaseHeldByCurrentNode(false);
+            return;
+        }
+        dto.setLeaseOwnerId(lease.getOwnerId());
+        dto.setLeaseExpiresAt(lease.getExpiresAt());
+        dto.setLeaseActive(lease.getActive());
+        dto.setLeaseHeldByCurrentNode(lease.getHeldByCurrentNode());
+    }
 }
@@ -0,0 +1,201 @@
+package com.example.helloworld.service.invest.systemscheduler;
+
+import com.example.helloworld.dto.invest.SystemSchedulerLeaseDto;
+import com.example.helloworld.dto.invest.SystemSchedulerLeaseOverviewDto;
+import com.example.helloworld.entity.invest.SystemSchedulerLease;
+import com.example.helloworld.repository.invest.SystemSchedulerLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 多台 invest 節點共用的系統排程租約。
+ * 排程觸發時以一句條件式 UPDATE 取得（或續約）該 job_code 的租約，成功的節點才執行；
+ * 取得後由心跳執行緒持續續約（sticky），節點停機時釋放，當機則等租約過期後由下一個觸發的節點接手。
+ * 到期判斷一律使用資料庫時間，節點之間的時鐘誤差不影響結果。
+ * 租約只避免重複觸發，排程寫入不做 fencing：被接手的舊節點可能仍在執行中，排程本身需可重複執行。
+ */
+@Service
+public class SystemSchedulerLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(SystemSchedulerLeaseService.class);
+
+    private final SystemSchedulerLeaseRepository systemSchedulerLeaseRepository;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long ttlSeconds;
+    private final long heartbeatMs;
+    private final Set<SystemJobCode> heldLeases = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService heartbeatExecutor;
+
+    public SystemSchedulerLeaseService(
+            SystemSchedulerLeaseRepository systemSchedulerLeaseRepository,
+            @Value("${invest.scheduler.lease.enabled:true}") boolean enabled,
+            @Value("${invest.scheduler.lease.node-id:}") String nodeId,
+            @Value("${invest.scheduler.lease.ttl-seconds:90}") long ttlSeconds,
+            @Value("${invest.scheduler.lease.heartbeat-ms:30000}") long heartbeatMs) {
+        this.systemSchedulerLeaseRepository = systemSchedulerLeaseRepository;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId.trim();
+        this.ttlSeconds = Math.max(5, ttlSeconds);
+        // 心跳間隔至少要比租約短，避免正常運作中的節點租約過期
+        this.heartbeatMs = Math.max(1000, Math.min(heartbeatMs, this.ttlSeconds * 1000 / 2));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("系統排程租約已停用，所有排程於本節點直接執行");
+            return;
+        }
+        // 獨立執行緒續約：@Scheduled 預設只有一條執行緒，長時間的排程不能擋住心跳
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "invest-scheduler-lease-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        log.info("系統排程租約啟用，nodeId={}, ttlSeconds={}, heartbeatMs={}", nodeId, ttlSeconds, heartbeatMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        for (SystemJobCode jobCode : Set.copyOf(heldLeases)) {
+            try {
+                systemSchedulerLeaseRepository.release(jobCode.name(), nodeId);
+                log.info("已釋放系統排程租約，jobCode={}, nodeId={}", jobCode, nodeId);
+            } catch (Exception e) {
+                log.warn("釋放系統排程租約失敗，jobCode={}，將等待租約過期：{}", jobCode, e.getMessage());
+            }
+        }
+        heldLeases.clear();
+    }
+
+    /**
+     * 取得或續約 jobCode 的租約；回傳 true 代表本節點應執行本次排程。
+     * 無法連線資料庫時回傳 false，寧可少跑一次也不重複執行。
+     */
+    public boolean tryAcquire(SystemJobCode jobCode) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            int updated = systemSchedulerLeaseRepository.acquireOrRenew(jobCode.name(), nodeId, ttlSeconds);
+            if (updated == 0 && systemSchedulerLeaseRepository.insertIfAbsent(jobCode.name()) > 0) {
+                updated = systemSchedulerLeaseRepository.acquireOrRenew(jobCode.name(), nodeId, ttlSeconds);
+            }
+            if (updated > 0) {
+                if (heldLeases.add(jobCode)) {
+                    log.info("取得系統排程租約，jobCode={}, nodeId={}", jobCode, nodeId);
+                }
+                return true;
+            }
+            if (heldLeases.remove(jobCode)) {
+                log.warn("系統排程租約已由其他節點接手，jobCode={}, nodeId={}", jobCode, nodeId);
+            }
+            return false;
+        } catch (Exception e) {
+            log.warn("確認系統排程租約失敗，jobCode={}，略過本次執行：{}", jobCode, e.getMessage());
+            return false;
+        }
+    }
+
+    public boolean isHeldByCurrentNode(SystemJobCode jobCode) {
+        return !enabled || heldLeases.contains(jobCode);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, SystemSchedulerLeaseDto> findAllAsMap() {
+        return getLeases().stream()
+            .collect(Collectors.toMap(SystemSchedulerLeaseDto::getJobCode, Function.identity()));
+    }
+
+    public List<SystemSchedulerLeaseDto> getLeases() {
+        Set<String> activeJobCodes = new HashSet<>(systemSchedulerLeaseRepository.findActiveJobCodes());
+        return systemSchedulerLeaseRepository.findAllByOrderByJobCodeAsc().stream()
+            .map(lease -> toDto(lease, activeJobCodes.contains(lease.getJobCode())))
+            .toList();
+    }
+
+    public SystemSchedulerLeaseOverviewDto getOverview() {
+        SystemSchedulerLeaseOverviewDto dto = new SystemSchedulerLeaseOverviewDto();
+        dto.setNodeId(nodeId);
+        dto.setLeaseEnabled(enabled);
+        dto.setTtlSeconds(ttlSeconds);
+        dto.setLeases(getLeases());
+        return dto;
+    }
+
+    private void heartbeat() {
+        Set<SystemJobCode> lost = EnumSet.noneOf(SystemJobCode.class);
+        for (SystemJobCode jobCode : Set.copyOf(heldLeases)) {
+            try {
+                if (systemSchedulerLeaseRepository.renew(jobCode.name(), nodeId, ttlSeconds) == 0) {
+                    lost.add(jobCode);
+                }
+            } catch (Exception e) {
+                // 暫時性錯誤：保留持有狀態，下一次心跳或排程觸發時再以資料庫為準
+                log.warn("系統排程租約續約失敗，jobCode={}：{}", jobCode, e.getMessage());
+            }
+        }
+        for (SystemJobCode jobCode : lost) {
+            heldLeases.remove(jobCode);
+            log.warn("系統排程租約已由其他節點接手，jobCode={}, nodeId={}", jobCode, nodeId);
+        }
+    }
+
+    private SystemSchedulerLeaseDto toDto(SystemSchedulerLease lease, boolean active) {
+        SystemSchedulerLeaseDto dto = new SystemSchedulerLeaseDto();
+        dto.setJobCode(lease.getJobCode());
+        dto.setOwnerId(lease.getOwnerId());
+        dto.setAcquiredAt(lease.getAcquiredAt());
+        dto.setHeartbeatAt(lease.getHeartbeatAt());
+        dto.setExpiresAt(lease.getExpiresAt());
+        dto.setActive(active);
+        dto.setHeldByCurrentNode(active && nodeId.equals(lease.getOwnerId()));
+        return dto;
+    }
+
+    /**
+     * 主機名稱 + PID + 隨機碼；同一台機器上的多個 context 也不會重複
+     */
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = System.getenv().getOrDefault("HOSTNAME", "unknown");
+        }
+        byte[] random = new byte[3];
+        new SecureRandom().nextBytes(random);
+        return host + "-" + ProcessHandle.current().pid() + "-" + HexFormat.of().formatHex(random);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.helloworld.service.invest.systemscheduler;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -8,12 +9,23 @@ import org.springframework.transaction.annotation.Transactional;
 public class SystemSchedulerRuntimeGateService {
 
     private final SystemSchedulerFacadeService systemSchedulerFacadeService;
+    private final SystemSchedulerLeaseService systemSchedulerLeaseService;
 
-    public SystemSchedulerRuntimeGateService(SystemSchedulerFacadeService systemSchedulerFacadeService) {
+    public SystemSchedulerRuntimeGateService(SystemSchedulerFacadeService systemSchedulerFacadeService,
+                                             SystemSchedulerLeaseService systemSchedulerLeaseService) {
         this.systemSchedulerFacadeService = systemSchedulerFacadeService;
+        this.systemSchedulerLeaseService = systemSchedulerLeaseService;
     }
 
     public boolean isEnabled(SystemJobCode jobCode) {
         return systemSchedulerFacadeService.isEnabled(jobCode);
     }
+
+    /**
+     * 多節點部署時只有持有租約的節點執行排程；租約寫入使用獨立交易
+     */
+    @Transactional(transactionManager = "investTransactionManager", propagation = Propagation.NOT_SUPPORTED)
+    public boolean tryAcquireLease(SystemJobCode jobCode) {
+        return systemSchedulerLeaseService.tryAcquire(jobCode);
+    }
 }
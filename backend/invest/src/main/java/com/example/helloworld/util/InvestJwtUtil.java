@@ -1,5 +1,6 @@
 package com.example.helloworld.util;
 
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -113,14 +114,15 @@ public class InvestJwtUtil {
 
     public Boolean validateToken(String token, String username, String expectedSystem, String expectedType) {
         try {
-            String tokenUsername = extractUsername(token);
-            String tokenSystem = extractSystem(token);
-            String tokenType = extractTokenType(token);
+            Claims claims = extractAllClaims(token);
+            String tokenUsername = claims.getSubject();
+            String tokenSystem = claims.get("system", String.class);
+            String tokenType = claims.get("type", String.class);
 
             return tokenUsername.equals(username)
                 && expectedSystem.equals(tokenSystem)
                 && expectedType.equals(tokenType)
-                && !isTokenExpired(token);
+                && claims.getExpiration().after(new Date());
         } catch (Exception e) {
             return false;
         }
@@ -130,6 +132,16 @@ public class InvestJwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    public VerifiedJwtClaims parseVerifiedClaims(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedJwtClaims(
+            claims.getSubject(),
+            claims.get("system", String.class),
+            claims.get("type", String.class),
+            claims.getExpiration() == null ? null : claims.getExpiration().toInstant()
+        );
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -142,8 +154,4 @@ public class InvestJwtUtil {
             .parseClaimsJws(token)
             .getBody();
     }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
 }
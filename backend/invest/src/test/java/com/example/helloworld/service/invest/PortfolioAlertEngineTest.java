@@ -0,0 +1,97 @@
+package com.example.helloworld.service.invest;
+
+import com.example.helloworld.entity.invest.AlertTriggerTypeCode;
+import com.example.helloworld.entity.invest.Portfolio;
+import com.example.helloworld.entity.invest.PortfolioAlertEvent;
+import com.example.helloworld.entity.invest.PortfolioAlertSetting;
+import com.example.helloworld.entity.invest.Stock;
+import com.example.helloworld.repository.invest.PortfolioAlertEventRepository;
+import com.example.helloworld.repository.invest.PortfolioAlertSettingRepository;
+import com.example.helloworld.repository.invest.PortfolioRepository;
+import com.example.helloworld.service.invest.price.StockPriceChangedEvent.PriceChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PortfolioAlertEngineTest {
+
+    private static final Long STOCK_ID = 2330L;
+    private static final Long PORTFOLIO_ID = 1L;
+    private static final LocalDate TRADE_DATE = LocalDate.of(2026, 10, 16);
+    private static final LocalDateTime OPEN = TRADE_DATE.atTime(9, 0);
+
+    private final List<PortfolioAlertEvent> savedEvents = new ArrayList<>();
+    private PortfolioAlertEngine engine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Stock stock = new Stock();
+        stock.setId(STOCK_ID);
+        Portfolio portfolio = new Portfolio();
+        portfolio.setId(PORTFOLIO_ID);
+        portfolio.setUserId("user-1");
+        portfolio.setStock(stock);
+        PortfolioAlertSetting setting = new PortfolioAlertSetting();
+        setting.setPortfolio(portfolio);
+        setting.setEnabled(true);
+
+        PortfolioAlertSettingRepository settingRepository = mock(PortfolioAlertSettingRepository.class);
+        when(settingRepository.findAllEnabledForPolling()).thenReturn(List.of(setting));
+        PortfolioAlertEventRepository eventRepository = mock(PortfolioAlertEventRepository.class);
+        when(eventRepository.findTriggeredBetween(any(), any())).thenReturn(List.of());
+        when(eventRepository.findTopByPortfolioIdAndTriggerTypeOrderByTriggeredAtDesc(anyLong(), any()))
+            .thenReturn(Optional.empty());
+        when(eventRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<PortfolioAlertEvent>) invocation.getArgument(0)).forEach(savedEvents::add);
+            return List.of();
+        });
+        PortfolioRepository portfolioRepository = mock(PortfolioRepository.class);
+        when(portfolioRepository.getReferenceById(PORTFOLIO_ID)).thenReturn(portfolio);
+
+        engine = new PortfolioAlertEngine(settingRepository, eventRepository, portfolioRepository);
+        ReflectionTestUtils.setField(engine, "abnormalDropThresholdPercent", new BigDecimal("2.0"));
+        ReflectionTestUtils.setField(engine, "abnormalDropWindowMinutes", 10);
+        ReflectionTestUtils.setField(engine, "abnormalDropCooldownMinutes", 10);
+        ReflectionTestUtils.setField(engine, "settingIndexTtlMs", 300000L);
+    }
+
+    @Test
+    void flatQuotesKeepBaselineFreshSoLaterSharpDropTriggersAbnormalDrop() {
+        evaluate("100", OPEN);
+        // 平盤超過觀察視窗：行情未變動而被略過評估
+        for (int minute = 3; minute <= 12; minute += 3) {
+            evaluate("100", OPEN.plusMinutes(minute));
+        }
+        evaluate("97", OPEN.plusMinutes(14));
+
+        assertEquals(1, savedEvents.size());
+        assertEquals(AlertTriggerTypeCode.ABNORMAL_DROP, savedEvents.get(0).getTriggerType());
+        assertEquals(0, new BigDecimal("3.00").compareTo(savedEvents.get(0).getTriggerValue()));
+    }
+
+    @Test
+    void dropAfterGapWithoutQuotesBeyondWindowDoesNotTrigger() {
+        evaluate("100", OPEN);
+        evaluate("97", OPEN.plusMinutes(14));
+
+        assertEquals(0, savedEvents.size());
+    }
+
+    private void evaluate(String closePrice, LocalDateTime now) {
+        engine.evaluate(List.of(new PriceChange(STOCK_ID, TRADE_DATE, new BigDecimal(closePrice), null)), null, false, now);
+    }
+}
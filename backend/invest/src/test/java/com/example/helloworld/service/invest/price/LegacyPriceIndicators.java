@@ -0,0 +1,92 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 改寫前 MarketAnalysisService / PortfolioRiskResultService 以 BigDecimal 逐項走訪的指標算法，
+ * 僅作為 {@link PriceIndicators} 的對照組（測試與基準測試共用）。
+ */
+final class LegacyPriceIndicators {
+
+    private LegacyPriceIndicators() {
+    }
+
+    static BigDecimal avgClose(List<StockPriceDaily> historyDesc, int count) {
+        return historyDesc.stream().limit(count)
+            .map(StockPriceDaily::getClosePrice)
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .divide(BigDecimal.valueOf(count), 6, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal pctReturn(List<StockPriceDaily> historyDesc, int compareIndex) {
+        BigDecimal latest = historyDesc.get(0).getClosePrice();
+        BigDecimal previous = historyDesc.get(compareIndex).getClosePrice();
+        if (previous.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return latest.subtract(previous)
+            .divide(previous, 6, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100));
+    }
+
+    static BigDecimal volumeRatio20(List<StockPriceDaily> historyDesc) {
+        BigDecimal avg = historyDesc.stream().limit(20)
+            .map(StockPriceDaily::getVolume)
+            .map(BigDecimal::valueOf)
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .divide(BigDecimal.valueOf(20), 6, RoundingMode.HALF_UP);
+        if (avg.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ONE;
+        }
+        return BigDecimal.valueOf(historyDesc.get(0).getVolume()).divide(avg, 6, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal volatility10(List<StockPriceDaily> historyDesc) {
+        List<BigDecimal> closes = historyDesc.stream().limit(10)
+            .map(StockPriceDaily::getClosePrice)
+            .toList();
+        List<Double> returns = new ArrayList<>();
+        for (int i = 0; i < closes.size() - 1; i++) {
+            double cur = closes.get(i).doubleValue();
+            double prev = closes.get(i + 1).doubleValue();
+            if (prev == 0) {
+                continue;
+            }
+            returns.add(((cur - prev) / prev) * 100.0);
+        }
+        if (returns.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        double mean = returns.stream().mapToDouble(Double::doubleValue).average().orElse(0D);
+        double variance = returns.stream()
+            .mapToDouble(value -> Math.pow(value - mean, 2))
+            .average()
+            .orElse(0D);
+        return BigDecimal.valueOf(Math.sqrt(variance)).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal drawdownFromHigh20(List<StockPriceDaily> historyDesc) {
+        BigDecimal latest = historyDesc.get(0).getClosePrice();
+        BigDecimal high20 = historyDesc.stream().limit(20)
+            .map(StockPriceDaily::getClosePrice)
+            .max(BigDecimal::compareTo)
+            .orElse(BigDecimal.ZERO);
+        if (high20.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return latest.subtract(high20)
+            .divide(high20, 6, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100));
+    }
+
+    static BigDecimal intradaySwing(StockPriceDaily latest) {
+        return latest.getHighPrice().subtract(latest.getLowPrice())
+            .divide(latest.getClosePrice(), 6, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100));
+    }
+}
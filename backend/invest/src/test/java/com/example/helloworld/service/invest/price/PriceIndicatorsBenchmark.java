@@ -0,0 +1,60 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 單檔股票指標計算：原 BigDecimal 逐項走訪 vs {@link PriceIndicators} 單次走訪。
+ * 只在 -Pjmh 時編譯，執行方式見 pom.xml 的 jmh profile。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceIndicatorsBenchmark {
+
+    /** 服務端最多載入 30 筆日行情；60 用來確認視窗外的資料不增加成本。 */
+    @Param({"30", "60"})
+    public int days;
+
+    private List<StockPriceDaily> historyDesc;
+
+    @Setup
+    public void setUp() {
+        historyDesc = PriceIndicatorsTest.randomHistory(new Random(42L), days);
+    }
+
+    @Benchmark
+    public void legacyBigDecimal(Blackhole blackhole) {
+        blackhole.consume(LegacyPriceIndicators.avgClose(historyDesc, 20));
+        blackhole.consume(LegacyPriceIndicators.avgClose(historyDesc, 5));
+        blackhole.consume(LegacyPriceIndicators.pctReturn(historyDesc, 4));
+        blackhole.consume(LegacyPriceIndicators.pctReturn(historyDesc, 19));
+        blackhole.consume(LegacyPriceIndicators.volumeRatio20(historyDesc));
+        blackhole.consume(LegacyPriceIndicators.volatility10(historyDesc));
+        blackhole.consume(LegacyPriceIndicators.drawdownFromHigh20(historyDesc));
+        blackhole.consume(LegacyPriceIndicators.intradaySwing(historyDesc.get(0)));
+    }
+
+    @Benchmark
+    public PriceIndicators singlePass() {
+        return PriceIndicators.compute(PriceSeries.fromHistoryDesc(historyDesc));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.helloworld.service.invest.price;
+
+import com.example.helloworld.entity.invest.StockPriceDaily;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 單次走訪的指標必須與改寫前的 BigDecimal 算法（{@link LegacyPriceIndicators}）逐值一致（含取位），門檻分段才不會漂移。
+ */
+class PriceIndicatorsTest {
+
+    @Test
+    void matchesLegacyBigDecimalOnFixedWindows() {
+        Random random = new Random(20261018L);
+        for (int round = 0; round < 500; round++) {
+            List<StockPriceDaily> historyDesc = randomHistory(random, 30);
+            assertMatchesLegacy(historyDesc);
+        }
+    }
+
+    @Test
+    void clampsReturn20ToOldestRowWhenHistoryIsShort() {
+        Random random = new Random(7L);
+        for (int round = 0; round < 200; round++) {
+            List<StockPriceDaily> historyDesc = randomHistory(random, 12);
+            assertMatchesLegacy(historyDesc);
+
+            BigDecimal expected = LegacyPriceIndicators.pctReturn(historyDesc, historyDesc.size() - 1);
+            assertEquals(expected.doubleValue(), PriceIndicators.compute(PriceSeries.fromHistoryDesc(historyDesc)).return20());
+        }
+    }
+
+    @Test
+    void roundsCloseToMa20BeforeThresholdCompare() {
+        // MA20 = 1000.000000；969.9996 / 1000 = 0.9699996，原規則取 6 位後剛好 97%
+        List<StockPriceDaily> historyDesc = new ArrayList<>();
+        historyDesc.add(row("969.9996", "969.9996", "969.9996", 1000L));
+        for (int i = 0; i < 18; i++) {
+            historyDesc.add(row("1001.6842", "1001.6842", "1001.6842", 1000L));
+        }
+        historyDesc.add(row("999.6848", "999.6848", "999.6848", 1000L));
+
+        PriceIndicators indicators = PriceIndicators.compute(PriceSeries.fromHistoryDesc(historyDesc));
+
+        assertEquals(1000.0, indicators.ma20());
+        assertEquals(97.0, indicators.closeToMa20Percent());
+        assertMatchesLegacy(historyDesc);
+    }
+
+    private void assertMatchesLegacy(List<StockPriceDaily> historyDesc) {
+        PriceIndicators indicators = PriceIndicators.compute(PriceSeries.fromHistoryDesc(historyDesc));
+        BigDecimal ma20 = LegacyPriceIndicators.avgClose(historyDesc, 20);
+
+        assertEquals(ma20.doubleValue(), indicators.ma20());
+        assertEquals(historyDesc.get(0).getClosePrice().divide(ma20, 6, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100)).doubleValue(), indicators.closeToMa20Percent());
+        assertEquals(LegacyPriceIndicators.pctReturn(historyDesc, 4).doubleValue(), indicators.return5());
+        assertEquals(LegacyPriceIndicators.pctReturn(historyDesc, Math.min(19, historyDesc.size() - 1)).doubleValue(), indicators.return20());
+        assertEquals(LegacyPriceIndicators.volumeRatio20(historyDesc).doubleValue(), indicators.volumeRatio20());
+        assertEquals(LegacyPriceIndicators.volatility10(historyDesc).doubleValue(), indicators.volatility10());
+        assertEquals(LegacyPriceIndicators.drawdownFromHigh20(historyDesc).doubleValue(), indicators.drawdown20());
+        assertEquals(LegacyPriceIndicators.avgClose(historyDesc, 5).doubleValue(), indicators.ma5());
+        assertEquals(LegacyPriceIndicators.intradaySwing(historyDesc.get(0)).doubleValue(), indicators.intradaySwingPercent());
+    }
+
+    static List<StockPriceDaily> randomHistory(Random random, int days) {
+        List<StockPriceDaily> historyDesc = new ArrayList<>();
+        double close = 20 + random.nextDouble() * 500;
+        for (int i = 0; i < days; i++) {
+            close = Math.max(1, close * (1 + (random.nextDouble() - 0.5) * 0.08));
+            BigDecimal closePrice = BigDecimal.valueOf(close).setScale(4, RoundingMode.HALF_UP);
+            BigDecimal high = closePrice.multiply(BigDecimal.valueOf(1 + random.nextDouble() * 0.05)).setScale(4, RoundingMode.HALF_UP);
+            BigDecimal low = closePrice.multiply(BigDecimal.valueOf(1 - random.nextDouble() * 0.05)).setScale(4, RoundingMode.HALF_UP);
+            historyDesc.add(row(closePrice, high, low, 1_000L + random.nextInt(5_000_000)));
+        }
+        return historyDesc;
+    }
+
+    private static StockPriceDaily row(String close, String high, String low, long volume) {
+        return row(new BigDecimal(close), new BigDecimal(high), new BigDecimal(low), volume);
+    }
+
+    private static StockPriceDaily row(BigDecimal close, BigDecimal high, BigDecimal low, long volume) {
+        StockPriceDaily row = new StockPriceDaily();
+        row.setClosePrice(close);
+        row.setHighPrice(high);
+        row.setLowPrice(low);
+        row.setVolume(volume);
+        return row;
+    }
+}
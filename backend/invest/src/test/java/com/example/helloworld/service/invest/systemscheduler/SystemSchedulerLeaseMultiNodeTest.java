@@ -0,0 +1,225 @@
+package com.example.helloworld.service.invest.systemscheduler;
+
+import com.example.helloworld.controller.invest.SystemSchedulerController;
+import com.example.helloworld.entity.invest.SystemSchedulerLease;
+import com.example.helloworld.repository.invest.SystemSchedulerLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 兩個以不同 invest.scheduler.lease.node-id 啟動的 context 共用同一張租約表：
+ * 同一 job_code 只有一個節點取得租約，持有者釋放或租約過期後由另一個節點接手，GET /leases 顯示持有者。
+ * 測試環境沒有 MySQL，租約表以 {@link LeaseTable} 依 repository 的 SQL 條件模擬，資料庫時間由測試控制。
+ */
+class SystemSchedulerLeaseMultiNodeTest {
+
+    private static final long TTL_SECONDS = 30;
+    private static final String LEASES_PATH = "/api/invest/system/scheduler/leases";
+
+    private final LeaseTable table = new LeaseTable();
+    private final List<AnnotationConfigApplicationContext> contexts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        table.now = LocalDateTime.of(2026, 10, 16, 19, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        contexts.forEach(AnnotationConfigApplicationContext::close);
+    }
+
+    @Test
+    void onlyOneNodeWinsUntilTheOwnerReleases() throws Exception {
+        AnnotationConfigApplicationContext nodeA = startNode("node-a");
+        AnnotationConfigApplicationContext nodeB = startNode("node-b");
+        SystemSchedulerLeaseService leaseA = nodeA.getBean(SystemSchedulerLeaseService.class);
+        SystemSchedulerLeaseService leaseB = nodeB.getBean(SystemSchedulerLeaseService.class);
+
+        assertTrue(leaseA.tryAcquire(SystemJobCode.MARKET_ANALYSIS));
+        assertFalse(leaseB.tryAcquire(SystemJobCode.MARKET_ANALYSIS));
+        // 持有者續約仍然成功，另一節點在租約有效期間持續被擋下
+        table.now = table.now.plusSeconds(TTL_SECONDS - 1);
+        assertTrue(leaseA.tryAcquire(SystemJobCode.MARKET_ANALYSIS));
+        assertFalse(leaseB.tryAcquire(SystemJobCode.MARKET_ANALYSIS));
+
+        mockMvc(nodeB).perform(get(LEASES_PATH))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.nodeId").value("node-b"))
+            .andExpect(jsonPath("$.data.leases[0].jobCode").value("MARKET_ANALYSIS"))
+            .andExpect(jsonPath("$.data.leases[0].ownerId").value("node-a"))
+            .andExpect(jsonPath("$.data.leases[0].active").value(true))
+            .andExpect(jsonPath("$.data.leases[0].heldByCurrentNode").value(false));
+
+        // 正常停機：@PreDestroy 釋放租約，不需等待過期
+        nodeA.close();
+        assertTrue(leaseB.tryAcquire(SystemJobCode.MARKET_ANALYSIS));
+
+        mockMvc(nodeB).perform(get(LEASES_PATH))
+            .andExpect(jsonPath("$.data.leases[0].ownerId").value("node-b"))
+            .andExpect(jsonPath("$.data.leases[0].heldByCurrentNode").value(true));
+    }
+
+    @Test
+    void otherNodeTakesOverAfterTtlWhenOwnerStopsRenewing() throws Exception {
+        AnnotationConfigApplicationContext nodeA = startNode("node-a");
+        AnnotationConfigApplicationContext nodeB = startNode("node-b");
+        SystemSchedulerLeaseService leaseA = nodeA.getBean(SystemSchedulerLeaseService.class);
+        SystemSchedulerLeaseService leaseB = nodeB.getBean(SystemSchedulerLeaseService.class);
+
+        assertTrue(leaseA.tryAcquire(SystemJobCode.PRICE_UPDATE_HOLDINGS));
+        assertFalse(leaseB.tryAcquire(SystemJobCode.PRICE_UPDATE_HOLDINGS));
+
+        // node-a 與資料庫斷線：無法續約也無法釋放
+        table.unreachableOwners.add("node-a");
+        table.now = table.now.plusSeconds(TTL_SECONDS);
+        assertFalse(leaseB.tryAcquire(SystemJobCode.PRICE_UPDATE_HOLDINGS));
+        table.now = table.now.plusSeconds(1);
+        assertTrue(leaseB.tryAcquire(SystemJobCode.PRICE_UPDATE_HOLDINGS));
+
+        // node-a 恢復連線後不會搶回仍有效的租約
+        table.unreachableOwners.clear();
+        assertFalse(leaseA.tryAcquire(SystemJobCode.PRICE_UPDATE_HOLDINGS));
+        assertFalse(leaseA.isHeldByCurrentNode(SystemJobCode.PRICE_UPDATE_HOLDINGS));
+
+        mockMvc(nodeA).perform(get(LEASES_PATH))
+            .andExpect(jsonPath("$.data.nodeId").value("node-a"))
+            .andExpect(jsonPath("$.data.leases[0].ownerId").value("node-b"))
+            .andExpect(jsonPath("$.data.leases[0].heldByCurrentNode").value(false));
+    }
+
+    private AnnotationConfigApplicationContext startNode(String nodeId) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("lease-test", Map.of(
+            "invest.scheduler.lease.node-id", nodeId,
+            "invest.scheduler.lease.ttl-seconds", TTL_SECONDS,
+            // 心跳間隔會被限制為 TTL 一半（15 秒），測試期間不會觸發，續約只由 tryAcquire 進行
+            "invest.scheduler.lease.heartbeat-ms", 3_600_000
+        )));
+        context.registerBean(SystemSchedulerLeaseRepository.class, table::repository);
+        context.registerBean(SystemSchedulerJobConfigService.class, () -> mock(SystemSchedulerJobConfigService.class));
+        context.register(SystemSchedulerLeaseService.class, SystemSchedulerFacadeService.class, SystemSchedulerController.class);
+        context.refresh();
+        contexts.add(context);
+        return context;
+    }
+
+    private MockMvc mockMvc(AnnotationConfigApplicationContext context) {
+        return MockMvcBuilders.standaloneSetup(context.getBean(SystemSchedulerController.class)).build();
+    }
+
+    /**
+     * 依 SystemSchedulerLeaseRepository 的原生 SQL 條件操作的共用租約表；now 代表資料庫 NOW(3)
+     */
+    private static final class LeaseTable {
+
+        private final Map<String, SystemSchedulerLease> rows = new TreeMap<>();
+        private final Set<String> unreachableOwners = new HashSet<>();
+        private volatile LocalDateTime now;
+
+        SystemSchedulerLeaseRepository repository() {
+            SystemSchedulerLeaseRepository repository = mock(SystemSchedulerLeaseRepository.class);
+            when(repository.insertIfAbsent(anyString()))
+                .thenAnswer(invocation -> insertIfAbsent(invocation.getArgument(0)));
+            when(repository.acquireOrRenew(anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> acquireOrRenew(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+            when(repository.renew(anyString(), anyString(), anyLong()))
+                .thenAnswer(invocation -> renew(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+            when(repository.release(anyString(), anyString()))
+                .thenAnswer(invocation -> release(invocation.getArgument(0), invocation.getArgument(1)));
+            when(repository.findActiveJobCodes()).thenAnswer(invocation -> findActiveJobCodes());
+            when(repository.findAllByOrderByJobCodeAsc()).thenAnswer(invocation -> findAll());
+            return repository;
+        }
+
+        private synchronized int insertIfAbsent(String jobCode) {
+            if (rows.containsKey(jobCode)) {
+                return 0;
+            }
+            SystemSchedulerLease lease = new SystemSchedulerLease();
+            lease.setJobCode(jobCode);
+            lease.setExpiresAt(now);
+            rows.put(jobCode, lease);
+            return 1;
+        }
+
+        private synchronized int acquireOrRenew(String jobCode, String ownerId, long ttlSeconds) {
+            checkReachable(ownerId);
+            SystemSchedulerLease lease = rows.get(jobCode);
+            if (lease == null || !(lease.getOwnerId() == null
+                || lease.getOwnerId().equals(ownerId)
+                || lease.getExpiresAt().isBefore(now))) {
+                return 0;
+            }
+            if (!ownerId.equals(lease.getOwnerId())) {
+                lease.setAcquiredAt(now);
+            }
+            lease.setOwnerId(ownerId);
+            lease.setHeartbeatAt(now);
+            lease.setExpiresAt(now.plusSeconds(ttlSeconds));
+            return 1;
+        }
+
+        private synchronized int renew(String jobCode, String ownerId, long ttlSeconds) {
+            checkReachable(ownerId);
+            SystemSchedulerLease lease = rows.get(jobCode);
+            if (lease == null || !ownerId.equals(lease.getOwnerId())) {
+                return 0;
+            }
+            lease.setHeartbeatAt(now);
+            lease.setExpiresAt(now.plusSeconds(ttlSeconds));
+            return 1;
+        }
+
+        private synchronized int release(String jobCode, String ownerId) {
+            checkReachable(ownerId);
+            SystemSchedulerLease lease = rows.get(jobCode);
+            if (lease == null || !ownerId.equals(lease.getOwnerId())) {
+                return 0;
+            }
+            lease.setOwnerId(null);
+            lease.setExpiresAt(now);
+            return 1;
+        }
+
+        private synchronized List<String> findActiveJobCodes() {
+            return rows.values().stream()
+                .filter(lease -> lease.getOwnerId() != null && !lease.getExpiresAt().isBefore(now))
+                .map(SystemSchedulerLease::getJobCode)
+                .toList();
+        }
+
+        private synchronized List<SystemSchedulerLease> findAll() {
+            return List.copyOf(rows.values());
+        }
+
+        private void checkReachable(String ownerId) {
+            if (unreachableOwners.contains(ownerId)) {
+                throw new IllegalStateException("Communications link failure");
+            }
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.example.helloworld.config;
 
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import com.example.helloworld.service.common.DomainAuthenticationManagerFactory;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class PersonalAuthBeanConfig {
 
     @Bean
-    public TokenBlacklistService tokenBlacklistService() {
-        return new TokenBlacklistService();
+    public TokenBlacklistService tokenBlacklistService(
+            @Value("${personal.auth.token-blacklist.max-entries:100000}") int maxEntries) {
+        return new TokenBlacklistService(maxEntries);
+    }
+
+    @Bean
+    public AuthPrincipalCache authPrincipalCache(
+            @Value("${personal.auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${personal.auth.principal-cache.max-entries:1000}") int maxEntries) {
+        return new AuthPrincipalCache(Duration.ofSeconds(ttlSeconds), maxEntries);
     }
 
     @Bean
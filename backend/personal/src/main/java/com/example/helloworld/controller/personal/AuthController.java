@@ -8,6 +8,7 @@ import com.example.helloworld.dto.common.auth.AuthRefreshResponse;
 import com.example.helloworld.entity.personal.User;
 import com.example.helloworld.repository.personal.UserRepository;
 import com.example.helloworld.service.common.TokenBlacklistService;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import com.example.helloworld.service.personal.PersonalAuthFacade;
 import com.example.helloworld.util.PersonalJwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -158,7 +159,7 @@ public class AuthController {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             // 將 Token 加入黑名單
-            tokenBlacklistService.addToBlacklist(token);
+            revokeToken(token);
         }
         
         // 清除 SecurityContext
@@ -206,4 +207,17 @@ public class AuthController {
             return ResponseEntity.badRequest().body(ApiResponse.fail("註冊失敗: " + e.getMessage()));
         }
     }
+
+    /**
+     * 以 Token 自身的到期時間加入黑名單；已失效或無法解析的 Token 不需要撤銷
+     */
+    private void revokeToken(String token) {
+        VerifiedJwtClaims claims;
+        try {
+            claims = jwtUtil.parseVerifiedClaims(token);
+        } catch (Exception e) {
+            return;
+        }
+        tokenBlacklistService.addToBlacklist(token, claims.expiresAt());
+    }
 }
@@ -6,9 +6,11 @@ import com.example.helloworld.entity.personal.MenuItem;
 import com.example.helloworld.service.personal.MenuService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,13 +20,19 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class MenuController {
 
+    // 選單依使用者權限不同，只允許瀏覽器快取，每次以 ETag 重新驗證
+    private static final CacheControl MENU_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private MenuService menuService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MenuService.MenuItemDTO>>> getMenus() {
+    public ResponseEntity<ApiResponse<List<MenuService.MenuItemDTO>>> getMenus(WebRequest request) {
+        if (request.checkNotModified(menuService.getVisibleMenusEtag())) {
+            return null;
+        }
         List<MenuService.MenuItemDTO> menus = menuService.getVisibleMenus();
-        return ResponseEntity.ok(ApiResponse.ok(menus));
+        return ResponseEntity.ok().cacheControl(MENU_CACHE_CONTROL).body(ApiResponse.ok(menus));
     }
 
     @GetMapping("/all")
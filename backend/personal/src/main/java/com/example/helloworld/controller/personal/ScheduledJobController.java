@@ -77,6 +77,16 @@ public class ScheduledJobController {
         }
     }
 
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> cancelExecution(@PathVariable Long id) {
+        if (!scheduledJobService.cancelExecution(id)) {
+            return ResponseEntity.badRequest().body(ApiResponse.fail("Job 目前沒有排隊或執行中的任務"));
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("message", "已要求取消 Job 執行");
+        return ResponseEntity.ok(ApiResponse.ok(data));
+    }
+
     @GetMapping("/{id}/executions")
     public ResponseEntity<ApiResponse<List<JobExecution>>> getJobExecutions(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.ok(scheduledJobService.getJobExecutions(id)));
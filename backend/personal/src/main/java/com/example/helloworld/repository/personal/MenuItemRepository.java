@@ -18,11 +18,8 @@ public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     List<MenuItem> findByParentIdOrderByOrderIndexAsc(Long parentId);
     List<MenuItem> findByIsActiveTrueOrderByOrderIndexAsc();
     
-    @Query("SELECT m FROM MenuItem m WHERE m.isActive = true AND m.parentId IS NULL ORDER BY m.orderIndex ASC")
-    List<MenuItem> findActiveRootMenus();
-    
-    @Query("SELECT m FROM MenuItem m WHERE m.isActive = true AND m.parentId = :parentId ORDER BY m.orderIndex ASC")
-    List<MenuItem> findActiveChildMenus(@Param("parentId") Long parentId);
+    @Query("SELECT m FROM MenuItem m WHERE m.isActive = true ORDER BY m.orderIndex ASC, m.id ASC")
+    List<MenuItem> findAllActiveMenus();
 
     @Query("SELECT m FROM MenuItem m WHERE " +
             "(:menuCode IS NULL OR :menuCode = '' OR LOWER(m.menuCode) LIKE LOWER(CONCAT('%', :menuCode, '%'))) AND " +
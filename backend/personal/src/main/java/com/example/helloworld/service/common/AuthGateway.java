@@ -12,8 +12,9 @@ public class AuthGateway extends AbstractAuthGateway {
     public AuthGateway(
             List<JwtTokenGateway> jwtTokenGateways,
             List<AuthDomainPolicy> authDomainPolicies,
+            AuthPrincipalCache principalCache,
             UserDetailsService personalUserDetailsService) {
-        super(jwtTokenGateways, authDomainPolicies);
+        super(jwtTokenGateways, authDomainPolicies, principalCache);
         this.personalUserDetailsService = personalUserDetailsService;
     }
 
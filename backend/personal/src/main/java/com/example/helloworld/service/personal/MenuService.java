@@ -2,14 +2,22 @@ package com.example.helloworld.service.personal;
 
 import com.example.helloworld.entity.personal.MenuItem;
 import com.example.helloworld.repository.personal.MenuItemRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.CommonMenuItem;
+import com.example.helloworld.service.common.MenuTree;
+import com.example.helloworld.service.common.MenuTreeCache;
+import com.example.helloworld.service.common.MenusChangedEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,76 +33,20 @@ public class MenuService {
 
     @Autowired
     private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final MenuTreeCache menuTreeCache = new MenuTreeCache(this::loadActiveMenus);
     
     private static final Logger log = LoggerFactory.getLogger(MenuService.class);
 
     /**
      * 獲取用戶可見的菜單（根據權限過濾）
      */
-    @Transactional(readOnly = true)
     public List<MenuItemDTO> getVisibleMenus() {
         try {
-            // 獲取當前用戶的權限
-            Set<String> userPermissions = new java.util.HashSet<>();
-            
-            try {
-                org.springframework.security.core.Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                if (authentication != null && authentication.isAuthenticated() && 
-                    !authentication.getPrincipal().equals("anonymousUser")) {
-                    Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-                    if (authorities != null) {
-                        userPermissions = authorities.stream()
-                            .map(GrantedAuthority::getAuthority)
-                            .collect(Collectors.toSet());
-                    }
-                }
-            } catch (Exception e) {
-                // 如果獲取權限失敗，使用空權限集合（只顯示不需要權限的菜單）
-                log.error("❌ 獲取用戶權限失敗: {}", e.getMessage(), e);
-            }
-
-            // 獲取所有啟用的根菜單
-            List<MenuItem> rootMenus = menuItemRepository.findActiveRootMenus();
-            
-            if (rootMenus == null) {
-                return new ArrayList<>();
-            }
-            
-            List<MenuItemDTO> visibleMenus = new ArrayList<>();
-            
-            for (MenuItem rootMenu : rootMenus) {
-                try {
-                    if (hasPermission(rootMenu, userPermissions)) {
-                        MenuItemDTO menuDTO = convertToDTO(rootMenu);
-                        
-                        // 獲取子菜單
-                        List<MenuItem> childMenus = menuItemRepository.findActiveChildMenus(rootMenu.getId());
-                        List<MenuItemDTO> visibleChildren = new ArrayList<>();
-                        
-                        if (childMenus != null) {
-                            for (MenuItem childMenu : childMenus) {
-                                try {
-                                    if (hasPermission(childMenu, userPermissions)) {
-                                        visibleChildren.add(convertToDTO(childMenu));
-                                    }
-                                } catch (Exception e) {
-                                    log.error("處理子菜單時發生錯誤: {}", e.getMessage(), e);
-                                }
-                            }
-                        }
-                        
-                        if (!visibleChildren.isEmpty()) {
-                            menuDTO.setChildren(visibleChildren);
-                        }
-                        
-                        visibleMenus.add(menuDTO);
-                    }
-                } catch (Exception e) {
-                    log.error("處理根菜單時發生錯誤: {}", e.getMessage(), e);
-                }
-            }
-            
-            return visibleMenus;
+            return toDTOs(visibleMenus(), true);
         } catch (Exception e) {
             log.error("獲取可見菜單時發生錯誤: {}", e.getMessage(), e);
             // 返回空列表而不是拋出異常
@@ -103,42 +55,84 @@ public class MenuService {
     }
 
     /**
-     * 檢查用戶是否有權限查看菜單
+     * 目前使用者看到的選單對應的 ETag
      */
-    private boolean hasPermission(MenuItem menuItem, Set<String> userPermissions) {
-        // 如果菜單不需要權限，任何人都可以查看
-        if (menuItem.getRequiredPermission() == null || menuItem.getRequiredPermission().isEmpty()) {
-            return true;
-        }
-        
-        String rawCode = menuItem.getRequiredPermission().trim();
-        if (rawCode.isEmpty()) {
-            return true;
+    public String getVisibleMenusEtag() {
+        return menuTreeCache.get().etag("menus", visibleMenus());
+    }
+
+    /**
+     * 選單異動提交後重建選單樹
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMenusChanged(MenusChangedEvent event) {
+        if (event.domain() == AuthDomain.PERSONAL) {
+            menuTreeCache.refresh();
         }
+    }
+
+    private List<MenuTree.Node> visibleMenus() {
+        return menuTreeCache.get().visibleRoots(null, currentUserPermissions());
+    }
 
-        String normalizedCode = rawCode.startsWith("PERM_")
-                ? rawCode.substring(5)
-                : rawCode;
-        if (normalizedCode.isEmpty()) {
-            return true;
+    /**
+     * 獲取當前用戶的權限；失敗時使用空權限集合（只顯示不需要權限的菜單）
+     */
+    private Set<String> currentUserPermissions() {
+        try {
+            org.springframework.security.core.Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated() && 
+                !authentication.getPrincipal().equals("anonymousUser")) {
+                Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+                if (authorities != null) {
+                    return authorities.stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toSet());
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ 獲取用戶權限失敗: {}", e.getMessage(), e);
         }
+        return Set.of();
+    }
 
-        return userPermissions.contains(normalizedCode);
+    private List<CommonMenuItem> loadActiveMenus() {
+        return menuItemRepository.findAllActiveMenus().stream()
+            .map(menu -> new CommonMenuItem(
+                menu.getId(),
+                menu.getParentId(),
+                menu.getMenuCode(),
+                menu.getMenuName(),
+                menu.getIcon(),
+                menu.getUrl(),
+                menu.getOrderIndex(),
+                null,
+                menu.getDescription(),
+                menu.getShowInDashboard(),
+                menu.getRequiredPermission()))
+            .toList();
     }
 
     /**
-     * 轉換 MenuItem 為 DTO
+     * 轉換選單樹節點為 DTO；沒有可見子菜單時 children 維持 null
      */
-    private MenuItemDTO convertToDTO(MenuItem menuItem) {
-        MenuItemDTO dto = new MenuItemDTO();
-        dto.setId(menuItem.getId());
-        dto.setMenuCode(menuItem.getMenuCode());
-        dto.setMenuName(menuItem.getMenuName());
-        dto.setIcon(menuItem.getIcon());
-        dto.setUrl(menuItem.getUrl());
-        dto.setOrderIndex(menuItem.getOrderIndex());
-        dto.setShowInDashboard(menuItem.getShowInDashboard());
-        return dto;
+    private List<MenuItemDTO> toDTOs(List<MenuTree.Node> nodes, boolean includeChildren) {
+        List<MenuItemDTO> dtos = new ArrayList<>();
+        for (MenuTree.Node node : nodes) {
+            MenuItemDTO dto = new MenuItemDTO();
+            dto.setId(node.id());
+            dto.setMenuCode(node.menuCode());
+            dto.setMenuName(node.menuName());
+            dto.setIcon(node.icon());
+            dto.setUrl(node.url());
+            dto.setOrderIndex(node.orderIndex());
+            dto.setShowInDashboard(node.showInDashboard());
+            if (includeChildren && !node.children().isEmpty()) {
+                dto.setChildren(toDTOs(node.children(), false));
+            }
+            dtos.add(dto);
+        }
+        return dtos;
     }
 
     // DTO 類
@@ -247,7 +241,9 @@ public class MenuService {
             menuItem.setOrderIndex(0);
         }
 
-        return menuItemRepository.save(menuItem);
+        MenuItem saved = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.PERSONAL));
+        return saved;
     }
 
     /**
@@ -297,7 +293,9 @@ public class MenuService {
             existing.setDescription(menuItemUpdate.getDescription());
         }
 
-        return menuItemRepository.save(existing);
+        MenuItem saved = menuItemRepository.save(existing);
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.PERSONAL));
+        return saved;
     }
 
     /**
@@ -311,5 +309,6 @@ public class MenuService {
             throw new RuntimeException("無法刪除，該菜單項下還有子菜單");
         }
         menuItemRepository.deleteById(id);
+        eventPublisher.publishEvent(new MenusChangedEvent(AuthDomain.PERSONAL));
     }
 }
@@ -2,6 +2,8 @@ package com.example.helloworld.service.personal;
 
 import com.example.helloworld.entity.personal.Permission;
 import com.example.helloworld.repository.personal.PermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,6 +20,9 @@ public class PermissionService {
     @Autowired
     private PermissionRepository permissionRepository;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
     /**
      * 獲取所有權限
      */
@@ -104,7 +109,9 @@ public class PermissionService {
             existing.setDescription(permissionUpdate.getDescription());
         }
 
-        return permissionRepository.save(existing);
+        Permission saved = permissionRepository.save(existing);
+        authPrincipalCache.invalidateDomain(AuthDomain.PERSONAL);
+        return saved;
     }
 
     /**
@@ -113,5 +120,6 @@ public class PermissionService {
     @Transactional
     public void deletePermission(Long id) {
         permissionRepository.deleteById(id);
+        authPrincipalCache.invalidateDomain(AuthDomain.PERSONAL);
     }
 }
@@ -2,6 +2,7 @@ package com.example.helloworld.service.personal;
 
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.JwtTokenGateway;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import com.example.helloworld.util.PersonalJwtUtil;
 import org.springframework.stereotype.Service;
 
@@ -19,22 +20,7 @@ public class PersonalJwtTokenGateway implements JwtTokenGateway {
     }
 
     @Override
-    public String extractUsername(String jwt) {
-        return personalJwtUtil.extractUsername(jwt);
-    }
-
-    @Override
-    public String extractSystem(String jwt) {
-        return personalJwtUtil.extractSystem(jwt);
-    }
-
-    @Override
-    public String extractTokenType(String jwt) {
-        return personalJwtUtil.extractTokenType(jwt);
-    }
-
-    @Override
-    public boolean validateAccessToken(String jwt, String username) {
-        return personalJwtUtil.validatePersonalAccessToken(jwt, username);
+    public VerifiedJwtClaims verify(String jwt) {
+        return personalJwtUtil.parseVerifiedClaims(jwt);
     }
 }
@@ -4,16 +4,23 @@ import com.example.helloworld.entity.personal.UrlPermission;
 import com.example.helloworld.service.common.AuthDomain;
 import com.example.helloworld.service.common.CommonUrlPermission;
 import com.example.helloworld.service.common.UrlPermissionGateway;
+import com.example.helloworld.service.common.UrlPermissionMatcher;
+import com.example.helloworld.service.common.UrlPermissionMatcherCache;
+import com.example.helloworld.service.common.UrlPermissionsChangedEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 
 @Service
 public class PersonalUrlPermissionGateway implements UrlPermissionGateway {
     private final UrlPermissionService urlPermissionService;
+    private final UrlPermissionMatcherCache matcherCache;
 
     public PersonalUrlPermissionGateway(UrlPermissionService urlPermissionService) {
         this.urlPermissionService = urlPermissionService;
+        this.matcherCache = new UrlPermissionMatcherCache(this::loadActivePermissions);
     }
 
     @Override
@@ -22,7 +29,21 @@ public class PersonalUrlPermissionGateway implements UrlPermissionGateway {
     }
 
     @Override
-    public List<CommonUrlPermission> getActivePermissions() {
+    public UrlPermissionMatcher matcher() {
+        return matcherCache.get();
+    }
+
+    /**
+     * URL 權限異動提交後重建比對索引。
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUrlPermissionsChanged(UrlPermissionsChangedEvent event) {
+        if (event.domain() == domain()) {
+            matcherCache.refresh();
+        }
+    }
+
+    private List<CommonUrlPermission> loadActivePermissions() {
         return urlPermissionService.getAllActivePermissions().stream()
                 .map(this::toCommonPermission)
                 .toList();
@@ -4,6 +4,8 @@ import com.example.helloworld.entity.personal.Role;
 import com.example.helloworld.entity.personal.Permission;
 import com.example.helloworld.repository.personal.RoleRepository;
 import com.example.helloworld.repository.personal.PermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -23,6 +25,9 @@ public class RoleService {
     @Autowired
     private PermissionRepository permissionRepository;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
     /**
      * 獲取所有角色
      */
@@ -114,7 +119,10 @@ public class RoleService {
             existing.setPermissions(permissions);
         }
 
-        return roleRepository.save(existing);
+        Role saved = roleRepository.save(existing);
+        // 角色異動影響所有綁定的用戶
+        authPrincipalCache.invalidateDomain(AuthDomain.PERSONAL);
+        return saved;
     }
 
     /**
@@ -123,6 +131,7 @@ public class RoleService {
     @Transactional
     public void deleteRole(Long id) {
         roleRepository.deleteById(id);
+        authPrincipalCache.invalidateDomain(AuthDomain.PERSONAL);
     }
 
     /**
@@ -140,6 +149,8 @@ public class RoleService {
             .collect(Collectors.toSet());
 
         role.setPermissions(permissions);
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        authPrincipalCache.invalidateDomain(AuthDomain.PERSONAL);
+        return saved;
     }
 }
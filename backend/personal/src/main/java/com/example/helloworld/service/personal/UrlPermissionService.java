@@ -2,9 +2,12 @@ package com.example.helloworld.service.personal;
 
 import com.example.helloworld.entity.personal.UrlPermission;
 import com.example.helloworld.repository.personal.UrlPermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.UrlPermissionsChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +23,9 @@ public class UrlPermissionService {
     @Autowired
     private UrlPermissionRepository urlPermissionRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * 獲取所有啟用的 URL 權限配置（按順序排序）
      */
@@ -65,7 +71,9 @@ public class UrlPermissionService {
     @CacheEvict(value = "urlPermissions", allEntries = true)
     @Transactional
     public UrlPermission createPermission(UrlPermission permission) {
-        return urlPermissionRepository.save(permission);
+        UrlPermission saved = urlPermissionRepository.save(permission);
+        publishChanged();
+        return saved;
     }
 
     /**
@@ -86,7 +94,9 @@ public class UrlPermissionService {
         existing.setIsActive(permission.getIsActive());
         existing.setDescription(permission.getDescription());
         
-        return urlPermissionRepository.save(existing);
+        UrlPermission saved = urlPermissionRepository.save(existing);
+        publishChanged();
+        return saved;
     }
 
     /**
@@ -96,6 +106,7 @@ public class UrlPermissionService {
     @Transactional
     public void deletePermission(Long id) {
         urlPermissionRepository.deleteById(id);
+        publishChanged();
     }
 
     /**
@@ -105,4 +116,11 @@ public class UrlPermissionService {
     public Optional<UrlPermission> findByUrlPattern(String urlPattern) {
         return urlPermissionRepository.findByUrlPattern(urlPattern);
     }
+
+    /**
+     * 交易提交後由 URL 權限 gateway 重建比對索引
+     */
+    private void publishChanged() {
+        eventPublisher.publishEvent(new UrlPermissionsChangedEvent(AuthDomain.PERSONAL));
+    }
 }
@@ -6,6 +6,8 @@ import com.example.helloworld.entity.personal.Permission;
 import com.example.helloworld.repository.personal.UserRepository;
 import com.example.helloworld.repository.personal.RoleRepository;
 import com.example.helloworld.repository.personal.PermissionRepository;
+import com.example.helloworld.service.common.AuthDomain;
+import com.example.helloworld.service.common.AuthPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -33,6 +35,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthPrincipalCache authPrincipalCache;
+
     /**
      * 獲取所有用戶
      */
@@ -125,6 +130,8 @@ public class UserService {
     public User updateUser(String uid, User userUpdate) {
         User existing = userRepository.findById(uid)
             .orElseThrow(() -> new RuntimeException("用戶不存在: " + uid));
+        // 用戶名可能變更，先清除舊用戶名的快取
+        authPrincipalCache.invalidate(AuthDomain.PERSONAL, existing.getUsername());
 
         // 更新基本信息
         if (userUpdate.getEmail() != null) {
@@ -169,6 +176,7 @@ public class UserService {
         // 如果 roles 為 null，表示前端沒有發送角色信息，保留現有角色不變
 
         userRepository.save(existing);
+        authPrincipalCache.invalidate(AuthDomain.PERSONAL, existing.getUsername());
         return getUserWithAssociations(uid);
     }
 
@@ -178,6 +186,7 @@ public class UserService {
     @Transactional
     public void deleteUser(String uid) {
         userRepository.deleteById(uid);
+        authPrincipalCache.invalidateDomain(AuthDomain.PERSONAL);
     }
 
     /**
@@ -196,6 +205,7 @@ public class UserService {
 
         user.setRoles(roles);
         userRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.PERSONAL, user.getUsername());
         return getUserWithAssociations(uid);
     }
 
@@ -215,6 +225,7 @@ public class UserService {
 
         user.setPermissions(permissions);
         userRepository.save(user);
+        authPrincipalCache.invalidate(AuthDomain.PERSONAL, user.getUsername());
         return getUserWithAssociations(uid);
     }
 
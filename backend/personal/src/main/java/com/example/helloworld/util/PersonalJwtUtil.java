@@ -1,6 +1,7 @@
 package com.example.helloworld.util;
 
 import com.example.helloworld.service.personal.SystemSettingService;
+import com.example.helloworld.service.common.VerifiedJwtClaims;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -156,6 +157,19 @@ public class PersonalJwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * 解析並驗簽一次，取得 filter 需要的所有 claims（過期 Token 會在解析時拋出例外）
+     */
+    public VerifiedJwtClaims parseVerifiedClaims(String token) {
+        final Claims claims = extractAllClaims(token);
+        return new VerifiedJwtClaims(
+                claims.getSubject(),
+                claims.get("system", String.class),
+                claims.get("type", String.class),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant()
+        );
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -169,28 +183,22 @@ public class PersonalJwtUtil {
                 .getBody();
     }
 
-    /**
-     * 檢查 Token 是否過期
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     /**
      * 驗證 Token（不檢查黑名單，由調用者檢查）
      */
     public Boolean validateToken(String token, String username, String expectedSystem, String expectedType) {
         try {
-            final String tokenUsername = extractUsername(token);
-            final String tokenSystem = extractSystem(token);
-            final String tokenType = extractClaim(token, claims -> claims.get("type", String.class));
-            
-            return (tokenUsername.equals(username) && 
-                    tokenSystem != null && 
+            final Claims claims = extractAllClaims(token);
+            final String tokenUsername = claims.getSubject();
+            final String tokenSystem = claims.get("system", String.class);
+            final String tokenType = claims.get("type", String.class);
+
+            return (tokenUsername.equals(username) &&
+                    tokenSystem != null &&
                     tokenSystem.equals(expectedSystem) &&
                     tokenType != null &&
                     tokenType.equals(expectedType) &&
-                    !isTokenExpired(token));
+                    claims.getExpiration().after(new Date()));
         } catch (Exception e) {
             return false;
         }
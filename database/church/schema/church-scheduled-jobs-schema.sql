@@ -21,9 +21,12 @@ CREATE TABLE IF NOT EXISTS scheduled_jobs (
 CREATE TABLE IF NOT EXISTS job_executions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主鍵 ID',
     job_id BIGINT NOT NULL COMMENT '任務 ID',
-    status VARCHAR(20) NOT NULL COMMENT '執行狀態：PENDING, RUNNING, SUCCESS, FAILED',
+    status VARCHAR(20) NOT NULL COMMENT '執行狀態：PENDING（排隊中）, RUNNING, SUCCESS, FAILED, CANCELED, TIMEOUT',
+    queued_at DATETIME COMMENT '排入佇列時間',
     started_at DATETIME COMMENT '開始執行時間',
     completed_at DATETIME COMMENT '完成時間',
+    queue_wait_ms BIGINT COMMENT '排隊等待時間（毫秒）',
+    duration_ms BIGINT COMMENT '執行耗時（毫秒）',
     result_message TEXT COMMENT '執行結果訊息',
     error_message TEXT COMMENT '錯誤訊息',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',
@@ -146,3 +149,25 @@ INSERT INTO scheduled_jobs (
     enabled = 1,
     updated_at = NOW();
 
+
+-- 出席率週彙總重建任務
+INSERT INTO scheduled_jobs (
+    job_name,
+    job_class,
+    cron_expression,
+    description,
+    enabled,
+    created_at,
+    updated_at
+) VALUES (
+    '出席率週彙總重建',
+    'com.example.helloworld.scheduler.church.AttendanceRollupScheduler$AttendanceRollupJob',
+    '0 0 3 * * ?',  -- 每天凌晨 3:00
+    '依簽到原始資料全量重建出席率週彙總（attendance_week_slots / attendance_week_rollups），修正增量更新遺漏的差異。',
+    1,
+    NOW(),
+    NOW()
+) ON DUPLICATE KEY UPDATE
+    cron_expression = '0 0 3 * * ?',
+    description = '依簽到原始資料全量重建出席率週彙總（attendance_week_slots / attendance_week_rollups），修正增量更新遺漏的差異。',
+    updated_at = NOW();
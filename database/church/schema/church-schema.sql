@@ -76,6 +76,7 @@ CREATE TABLE IF NOT EXISTS sessions (
   INDEX idx_session_code (session_code)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='場次表';
 
+-- 已停用：簽到 token 改由 HMAC 時間窗計算，不再寫入此表（保留供既有資料庫對照，可安全刪除）
 CREATE TABLE IF NOT EXISTS session_tokens (
   id BIGINT AUTO_INCREMENT PRIMARY KEY,
   session_id BIGINT NOT NULL,
@@ -152,6 +153,34 @@ CREATE TABLE IF NOT EXISTS session_groups (
   INDEX idx_group_id (group_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='場次小組關聯表';
 
+-- 出席率週彙總：某類別（小組）在某自然週有場次的星期幾
+-- group_id = 0 代表週六、週日場次或未關聯任何小組的小組場次；活動（SPECIAL）不彙總
+CREATE TABLE IF NOT EXISTS attendance_week_slots (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主鍵 ID',
+  session_type VARCHAR(20) NOT NULL COMMENT '場次類型',
+  group_id BIGINT NOT NULL COMMENT '小組 ID（0 表示未區分小組）',
+  week_start DATE NOT NULL COMMENT '週一日期',
+  session_days INT NOT NULL COMMENT '有場次的星期幾（週一為 bit 0）',
+  session_count INT NOT NULL COMMENT '場次數',
+  updated_at DATETIME COMMENT '更新時間',
+  UNIQUE KEY uk_attendance_week_slot (session_type, group_id, week_start),
+  INDEX idx_attendance_week_slots_week (week_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='出席率週彙總（場次）';
+
+-- 出席率週彙總：某人員在某類別（小組）某自然週有簽到（未取消）的星期幾，只記錄有出席的週
+CREATE TABLE IF NOT EXISTS attendance_week_rollups (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主鍵 ID',
+  person_id BIGINT NOT NULL COMMENT '人員 ID',
+  session_type VARCHAR(20) NOT NULL COMMENT '場次類型',
+  group_id BIGINT NOT NULL COMMENT '小組 ID（0 表示未區分小組）',
+  week_start DATE NOT NULL COMMENT '週一日期',
+  attended_days INT NOT NULL COMMENT '有簽到的星期幾（週一為 bit 0）',
+  attended_count INT NOT NULL COMMENT '簽到場次數',
+  updated_at DATETIME COMMENT '更新時間',
+  UNIQUE KEY uk_attendance_week_rollup (person_id, session_type, group_id, week_start),
+  INDEX idx_attendance_week_rollups_week (week_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='出席率週彙總（人員）';
+
 -- ============================================
 -- 資料庫結構變更（Migration）
 -- ============================================
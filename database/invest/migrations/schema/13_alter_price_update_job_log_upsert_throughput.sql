@@ -0,0 +1,36 @@
+-- Price update bulk upsert schema
+-- Scope:
+-- 1) record rows written by the stock_price_daily bulk upsert path
+-- 2) record bulk upsert throughput (rows/sec) per price_update_job_log
+
+USE invest;
+
+SET @ddl := IF(
+    EXISTS(
+        SELECT 1
+        FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = 'invest'
+          AND TABLE_NAME = 'price_update_job_log'
+          AND COLUMN_NAME = 'upserted_row_count'
+    ),
+    'SELECT 1',
+    'ALTER TABLE price_update_job_log ADD COLUMN upserted_row_count INT NULL AFTER fail_count'
+);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl := IF(
+    EXISTS(
+        SELECT 1
+        FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = 'invest'
+          AND TABLE_NAME = 'price_update_job_log'
+          AND COLUMN_NAME = 'upsert_rows_per_sec'
+    ),
+    'SELECT 1',
+    'ALTER TABLE price_update_job_log ADD COLUMN upsert_rows_per_sec DECIMAL(12,2) NULL AFTER upserted_row_count'
+);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
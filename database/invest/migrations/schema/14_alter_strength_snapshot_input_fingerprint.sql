@@ -0,0 +1,21 @@
+-- Strength snapshot input fingerprint
+-- Scope:
+-- 1) store a SHA-256 fingerprint of the analysis inputs (trade date, price window, data quality, strategy version)
+-- 2) re-runs with an identical fingerprint skip the snapshot / factor rewrite
+
+USE invest;
+
+SET @ddl := IF(
+    EXISTS(
+        SELECT 1
+        FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = 'invest'
+          AND TABLE_NAME = 'strength_snapshot'
+          AND COLUMN_NAME = 'input_fingerprint'
+    ),
+    'SELECT 1',
+    'ALTER TABLE strength_snapshot ADD COLUMN input_fingerprint CHAR(64) NULL AFTER strategy_version'
+);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,15 @@
+-- Revoked (logged-out) JWT digests
+-- Scope:
+-- 1) store SHA-256 digests of revoked tokens with each token's own expiry (UTC), never the raw JWT
+-- 2) lets revocations survive restarts and be shared across instances; expired rows are purged by the app
+
+USE invest;
+SET NAMES utf8mb4 COLLATE utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS revoked_token (
+    token_digest CHAR(64) NOT NULL PRIMARY KEY,
+    expires_at DATETIME NOT NULL,
+    revoked_at DATETIME NOT NULL,
+    INDEX idx_revoked_token_expires_at (expires_at),
+    INDEX idx_revoked_token_revoked_at (revoked_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
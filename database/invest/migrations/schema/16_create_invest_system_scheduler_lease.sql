@@ -0,0 +1,19 @@
+-- System Scheduler leases (multi-instance)
+-- Scope:
+-- 1) one row per job_code; only the node whose owner_id holds an unexpired lease runs that job's @Scheduled trigger
+-- 2) the owner renews expires_at by heartbeat; a crashed node's lease expires and the next node to tick takes over
+-- 3) all expiry comparisons use the database clock (NOW(3)) so node clock drift does not matter
+-- 4) fencing_token only counts ownership changes for diagnostics; job writes are not fenced, jobs must stay idempotent
+
+USE invest;
+SET NAMES utf8mb4 COLLATE utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS system_scheduler_lease (
+    job_code VARCHAR(80) NOT NULL PRIMARY KEY,
+    owner_id VARCHAR(120) NULL,
+    fencing_token BIGINT NOT NULL DEFAULT 0,
+    acquired_at DATETIME(3) NULL,
+    heartbeat_at DATETIME(3) NULL,
+    expires_at DATETIME(3) NOT NULL,
+    INDEX idx_system_scheduler_lease_owner (owner_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
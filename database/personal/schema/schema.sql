@@ -254,9 +254,12 @@ INSERT INTO scheduled_jobs (
 CREATE TABLE IF NOT EXISTS job_executions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主鍵 ID',
     job_id BIGINT NOT NULL COMMENT 'Job ID',
-    status VARCHAR(20) NOT NULL COMMENT '狀態：PENDING, RUNNING, SUCCESS, FAILED',
+    status VARCHAR(20) NOT NULL COMMENT '狀態：PENDING（排隊中）, RUNNING, SUCCESS, FAILED, CANCELED, TIMEOUT',
+    queued_at DATETIME COMMENT '排入佇列時間',
     started_at DATETIME COMMENT '開始時間',
     completed_at DATETIME COMMENT '完成時間',
+    queue_wait_ms BIGINT COMMENT '排隊等待時間（毫秒）',
+    duration_ms BIGINT COMMENT '執行耗時（毫秒）',
     error_message TEXT COMMENT '錯誤訊息',
     result_message TEXT COMMENT '結果訊息',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '建立時間',